@@ -0,0 +1,111 @@
+package com.example.pokedex.benchmarks;
+
+import com.example.pokedex.models.Pokemon;
+import com.example.pokedex.services.HttpResponseCache;
+import com.example.pokedex.services.PokeApiService;
+import com.example.pokedex.services.PokemonJsonReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks reading PokeAPI documents back from an offline {@link HttpResponseCache}.
+ * The replay benchmark answers lookups of every stored Pokémon by {@link PokeApiService} from the store; the scan benchmark
+ * parses every stored pokemon document, as re-parsing the whole corpus after a model change does.
+ * The store is recorded from a {@link PokeApiStubServer} unless the {@code POKEDEX_HTTP_CACHE}
+ * environment variable names an existing one, such as a store recorded from the PokeAPI, whose
+ * content then stays the same from one run to the next.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpResponseCacheBenchmark {
+    private static final int POKEMON_COUNT = 151;
+    // Environment variable naming an existing store; forked benchmark processes inherit it
+    private static final String CACHE_DIRECTORY_VARIABLE = "POKEDEX_HTTP_CACHE";
+
+    private Path recordedDirectory;  // null when an existing store is used
+    private HttpResponseCache cache;
+    private List<HttpResponseCache.Entry> pokemonEntries;
+    private List<Integer> pokemonIds;
+    private PokeApiService service;
+
+    @Setup
+    public void openCache() throws IOException {
+        Path directory;
+        String cacheDirectory = System.getenv(CACHE_DIRECTORY_VARIABLE);
+        if (cacheDirectory == null || cacheDirectory.isEmpty()) {
+            recordedDirectory = Files.createTempDirectory("pokedex-http-cache");
+            directory = recordedDirectory;
+            try (PokeApiStubServer server = new PokeApiStubServer(0, POKEMON_COUNT);
+                 PokeApiService recorder = new PokeApiService(server.getApiUrl(), null, null, new HttpResponseCache(directory))) {
+                recorder.getPokemonByRange(1, POKEMON_COUNT);
+            }
+        } else {
+            directory = Paths.get(cacheDirectory);
+        }
+        cache = new HttpResponseCache(directory, true);
+        pokemonEntries = cache.getEntries();
+        pokemonEntries.removeIf(entry -> !entry.getUrl().matches(".*/pokemon/\\d+"));
+        // Lookups are replayed from the server the store was recorded from
+        String apiUrl = pokemonEntries.isEmpty() ? PokeApiService.DEFAULT_API_URL
+                : pokemonEntries.get(0).getUrl().replaceFirst("\\d+$", "");
+        pokemonIds = new ArrayList<>();
+        for (HttpResponseCache.Entry entry : pokemonEntries) {
+            pokemonIds.add(Integer.parseInt(entry.getUrl().substring(apiUrl.length())));
+        }
+        Collections.sort(pokemonIds);
+        service = new PokeApiService(apiUrl, null, null, cache);
+    }
+
+    @TearDown
+    public void closeCache() throws IOException {
+        service.close();
+        if (recordedDirectory != null) {
+            try (Stream<Path> files = Files.walk(recordedDirectory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Pokemon> replayStoredPokemons() {
+        return service.getPokemonByIds(pokemonIds);
+    }
+
+    @Benchmark
+    public int scanPokemonDocuments() throws Exception {
+        int heights = 0;
+        for (HttpResponseCache.Entry entry : pokemonEntries) {
+            try (Reader reader = new BufferedReader(new InputStreamReader(cache.openBody(entry), StandardCharsets.UTF_8))) {
+                heights += PokemonJsonReader.read(reader).getHeight();
+            }
+        }
+        return heights;
+    }
+}
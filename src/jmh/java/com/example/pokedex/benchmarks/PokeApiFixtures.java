@@ -0,0 +1,173 @@
+package com.example.pokedex.benchmarks;
+
+/**
+ * Builds PokeAPI pokemon documents for the benchmarks.
+ * The documents follow the layout of the real endpoint (keys in alphabetical order, a large
+ * {@code moves} array before {@code name}, nested sprites and game indices), so that parsing
+ * them costs the same as parsing a recorded response, without needing network access.
+ */
+public final class PokeApiFixtures {
+    // Number of entries in the moves array; popular Pokémon learn close to a hundred moves
+    private static final int MOVE_COUNT = 100;
+    // Number of version groups each move is listed under
+    private static final int VERSION_GROUPS_PER_MOVE = 8;
+    private static final int GAME_INDEX_COUNT = 20;
+    // Number of Pokémon in each evolution chain; Pokémon 1 to 3 form chain 1, 4 to 6 chain 2...
+    public static final int EVOLUTION_CHAIN_LENGTH = 3;
+
+    private PokeApiFixtures() {
+    }
+
+    /**
+     * Builds the pokemon document of a Pokémon.
+     *
+     * @param id The ID of the Pokémon.
+     * @return The JSON document, as served by the /api/v2/pokemon/{id} endpoint.
+     */
+    public static String pokemonDocument(int id) {
+        String name = "pokemon-" + id;
+        StringBuilder json = new StringBuilder(256 * 1024);
+        json.append("{\"abilities\":[{\"ability\":{\"name\":\"static\",\"url\":\"https://pokeapi.co/api/v2/ability/9/\"},")
+                .append("\"is_hidden\":false,\"slot\":1}],");
+        json.append("\"base_experience\":112,");
+        json.append("\"cries\":{\"latest\":\"https://raw.githubusercontent.com/PokeAPI/cries/main/cries/pokemon/latest/")
+                .append(id).append(".ogg\"},");
+        json.append("\"forms\":[{\"name\":\"").append(name).append("\",\"url\":\"https://pokeapi.co/api/v2/pokemon-form/")
+                .append(id).append("/\"}],");
+        json.append("\"game_indices\":[");
+        for (int i = 0; i < GAME_INDEX_COUNT; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"game_index\":").append(id)
+                    .append(",\"version\":{\"name\":\"version-").append(i)
+                    .append("\",\"url\":\"https://pokeapi.co/api/v2/version/").append(i + 1).append("/\"}}");
+        }
+        json.append("],");
+        json.append("\"height\":").append(4 + id % 20).append(',');
+        json.append("\"held_items\":[],");
+        json.append("\"id\":").append(id).append(',');
+        json.append("\"is_default\":true,");
+        json.append("\"location_area_encounters\":\"https://pokeapi.co/api/v2/pokemon/").append(id).append("/encounters\",");
+        json.append("\"moves\":[");
+        for (int m = 0; m < MOVE_COUNT; m++) {
+            json.append(m == 0 ? "" : ",").append("{\"move\":{\"name\":\"move-").append(m)
+                    .append("\",\"url\":\"https://pokeapi.co/api/v2/move/").append(m + 1).append("/\"},")
+                    .append("\"version_group_details\":[");
+            for (int v = 0; v < VERSION_GROUPS_PER_MOVE; v++) {
+                json.append(v == 0 ? "" : ",").append("{\"level_learned_at\":").append(m % 50)
+                        .append(",\"move_learn_method\":{\"name\":\"level-up\",\"url\":\"https://pokeapi.co/api/v2/move-learn-method/1/\"},")
+                        .append("\"version_group\":{\"name\":\"version-group-").append(v)
+                        .append("\",\"url\":\"https://pokeapi.co/api/v2/version-group/").append(v + 1).append("/\"}}");
+            }
+            json.append("]}");
+        }
+        json.append("],");
+        json.append("\"name\":\"").append(name).append("\",");
+        json.append("\"order\":").append(id).append(',');
+        json.append("\"past_abilities\":[],\"past_types\":[],");
+        json.append("\"species\":{\"name\":\"").append(name).append("\",\"url\":\"https://pokeapi.co/api/v2/pokemon-species/")
+                .append(id).append("/\"},");
+        json.append("\"sprites\":{\"back_default\":\"https://raw.githubusercontent.com/PokeAPI/sprites/master/sprites/pokemon/back/")
+                .append(id).append(".png\",\"front_default\":\"https://raw.githubusercontent.com/PokeAPI/sprites/master/sprites/pokemon/")
+                .append(id).append(".png\",\"other\":{\"official-artwork\":{\"front_default\":null}}},");
+        json.append("\"stats\":[");
+        String[] stats = {"hp", "attack", "defense", "special-attack", "special-defense", "speed"};
+        for (int s = 0; s < stats.length; s++) {
+            json.append(s == 0 ? "" : ",").append("{\"base_stat\":").append(35 + (id * 7 + s * 13) % 100)
+                    .append(",\"effort\":0,\"stat\":{\"name\":\"").append(stats[s])
+                    .append("\",\"url\":\"https://pokeapi.co/api/v2/stat/").append(s + 1).append("/\"}}");
+        }
+        json.append("],");
+        json.append("\"types\":[{\"slot\":1,\"type\":{\"name\":\"electric\",\"url\":\"https://pokeapi.co/api/v2/type/13/\"}}],");
+        json.append("\"weight\":").append(60 + id % 400);
+        json.append('}');
+        return json.toString();
+    }
+
+    /**
+     * Builds the pokemon-species document of a Pokémon, with flavor texts in several languages
+     * laid out like the real ones (line breaks, form feeds, version after language).
+     *
+     * @param id The ID of the Pokémon.
+     * @return The JSON document, as served by the /api/v2/pokemon-species/{id} endpoint.
+     */
+    public static String speciesDocument(int id) {
+        String name = "pokemon-" + id;
+        String[] languages = {"ja", "en", "fr", "de"};
+        StringBuilder json = new StringBuilder(4 * 1024);
+        json.append("{\"base_happiness\":50,\"capture_rate\":190,");
+        json.append("\"evolution_chain\":{\"url\":\"https://pokeapi.co/api/v2/evolution-chain/")
+                .append(evolutionChainId(id)).append("/\"},");
+        json.append("\"flavor_text_entries\":[");
+        for (int version = 0; version < 4; version++) {
+            for (int l = 0; l < languages.length; l++) {
+                json.append(version == 0 && l == 0 ? "" : ",")
+                        .append("{\"flavor_text\":\"Flavor text of ").append(name).append(" in ").append(languages[l])
+                        .append(",\\nversion ").append(version).append(".\\fIt lives in the tall\\ngrass.\",")
+                        .append("\"language\":{\"name\":\"").append(languages[l])
+                        .append("\",\"url\":\"https://pokeapi.co/api/v2/language/").append(l + 1).append("/\"},")
+                        .append("\"version\":{\"name\":\"version-").append(version)
+                        .append("\",\"url\":\"https://pokeapi.co/api/v2/version/").append(version + 1).append("/\"}}");
+            }
+        }
+        json.append("],");
+        json.append("\"id\":").append(id).append(',');
+        json.append("\"name\":\"").append(name).append("\",");
+        json.append("\"order\":").append(id);
+        json.append('}');
+        return json.toString();
+    }
+
+    /**
+     * Returns the ID of the evolution chain a Pokémon belongs to.
+     *
+     * @param id The ID of the Pokémon.
+     * @return The ID of its evolution chain.
+     */
+    public static int evolutionChainId(int id) {
+        return (id - 1) / EVOLUTION_CHAIN_LENGTH + 1;
+    }
+
+    /**
+     * Builds an evolution-chain document, each Pokémon of the chain evolving into the next one.
+     *
+     * @param chainId The ID of the evolution chain.
+     * @return The JSON document, as served by the /api/v2/evolution-chain/{id} endpoint.
+     */
+    public static String evolutionChainDocument(int chainId) {
+        int firstId = (chainId - 1) * EVOLUTION_CHAIN_LENGTH + 1;
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\"baby_trigger_item\":null,\"chain\":");
+        for (int id = firstId; id < firstId + EVOLUTION_CHAIN_LENGTH; id++) {
+            json.append("{\"evolution_details\":[");
+            if (id > firstId) {
+                json.append("{\"min_level\":").append(16 * (id - firstId))
+                        .append(",\"trigger\":{\"name\":\"level-up\",\"url\":\"https://pokeapi.co/api/v2/evolution-trigger/1/\"}}");
+            }
+            json.append("],\"evolves_to\":[");
+        }
+        for (int id = firstId + EVOLUTION_CHAIN_LENGTH - 1; id >= firstId; id--) {
+            json.append("],\"is_baby\":false,\"species\":{\"name\":\"pokemon-").append(id)
+                    .append("\",\"url\":\"https://pokeapi.co/api/v2/pokemon-species/").append(id).append("/\"}}");
+        }
+        json.append(",\"id\":").append(chainId);
+        json.append('}');
+        return json.toString();
+    }
+
+    /**
+     * Builds the resource list of the pokemon endpoint.
+     *
+     * @param count The number of Pokémon, with IDs 1 to count.
+     * @param apiUrl The URL of the pokemon endpoint, used in the entry URLs.
+     * @return The JSON document, as served by the /api/v2/pokemon/?limit={count} endpoint.
+     */
+    public static String pokemonList(int count, String apiUrl) {
+        StringBuilder json = new StringBuilder(64 * count + 64);
+        json.append("{\"count\":").append(count).append(",\"next\":null,\"previous\":null,\"results\":[");
+        for (int id = 1; id <= count; id++) {
+            json.append(id == 1 ? "" : ",").append("{\"name\":\"pokemon-").append(id)
+                    .append("\",\"url\":\"").append(apiUrl).append(id).append("/\"}");
+        }
+        json.append("]}");
+        return json.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.pokedex.benchmarks;
+
+import com.example.pokedex.models.Pokemon;
+import com.example.pokedex.services.PokeApiService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link PokeApiService} against a {@link PokeApiStubServer} on the loopback interface.
+ * Single lookups measure the HTTP round trip and the streaming extraction of the response;
+ * the batch benchmark measures the concurrent fan-out over the connection pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PokeApiServiceBenchmark {
+    private PokeApiStubServer server;
+    private PokeApiService service;
+    private int nextId;
+
+    @Setup
+    public void startServer() throws Exception {
+        server = new PokeApiStubServer();
+        service = new PokeApiService(server.getApiUrl());
+    }
+
+    @TearDown
+    public void stopServer() {
+        service.close();
+        server.close();
+    }
+
+    @Benchmark
+    public Pokemon getPokemonById() {
+        nextId = nextId % 151 + 1;
+        return service.getPokemonById(nextId);
+    }
+
+    @Benchmark
+    public List<Pokemon> getPokemonByRange() {
+        return service.getPokemonByRange(1, 151);
+    }
+}
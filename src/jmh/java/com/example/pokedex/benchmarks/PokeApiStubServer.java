@@ -0,0 +1,179 @@
+package com.example.pokedex.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP server standing in for the PokeAPI.
+ * It serves {@link PokeApiFixtures} documents from the loopback interface, so that HTTP
+ * benchmarks measure the client and not the Internet, and imports can run without network access:
+ * <ul>
+ *     <li>{@code /api/v2/pokemon/{id}} and {@code /api/v2/pokemon-species/{id}} for IDs 1 to the Pokémon count;</li>
+ *     <li>{@code /api/v2/evolution-chain/{id}} for the chains of these Pokémon;</li>
+ *     <li>{@code /api/v2/pokemon/?limit=...} for the list of every Pokémon.</li>
+ * </ul>
+ * Every document carries an ETag, and a request whose If-None-Match matches it is answered by
+ * "304 Not Modified", as conditional requests are by the PokeAPI.
+ * Run on its own, e.g. {@code ./gradlew pokeApiStub -PstubArgs="8000 1025"}, it serves until stopped.
+ */
+public class PokeApiStubServer implements AutoCloseable {
+    private static final String API_PATH = "/api/v2/";
+    private static final String POKEMON_PATH = API_PATH + "pokemon/";
+    private static final String SPECIES_PATH = API_PATH + "pokemon-species/";
+    private static final String EVOLUTION_CHAIN_PATH = API_PATH + "evolution-chain/";
+    // Number of Pokémon of the national Pokédex
+    public static final int DEFAULT_POKEMON_COUNT = 1025;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int pokemonCount;
+
+    /**
+     * Constructor for PokeApiStubServer.
+     * Starts the server on a free loopback port, with the default number of Pokémon.
+     *
+     * @throws IOException if the server cannot be started.
+     */
+    public PokeApiStubServer() throws IOException {
+        this(0, DEFAULT_POKEMON_COUNT);
+    }
+
+    /**
+     * Constructor for PokeApiStubServer.
+     * Starts the server on the loopback interface.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @param pokemonCount The number of Pokémon served, with IDs 1 to pokemonCount.
+     * @throws IOException if the server cannot be started.
+     */
+    public PokeApiStubServer(int port, int pokemonCount) throws IOException {
+        this.pokemonCount = pokemonCount;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(8);
+        server.createContext(POKEMON_PATH, exchange -> {
+            String id = resourceId(exchange, POKEMON_PATH);
+            if (id.isEmpty()) {
+                send(exchange, PokeApiFixtures.pokemonList(pokemonCount, getApiUrl()));
+            } else {
+                sendDocument(exchange, id, false);
+            }
+        });
+        server.createContext(SPECIES_PATH, exchange -> sendDocument(exchange, resourceId(exchange, SPECIES_PATH), true));
+        server.createContext(EVOLUTION_CHAIN_PATH, exchange -> {
+            int chainId = parseId(resourceId(exchange, EVOLUTION_CHAIN_PATH));
+            if (chainId < 1 || chainId > PokeApiFixtures.evolutionChainId(pokemonCount)) {
+                sendNotFound(exchange);
+            } else {
+                send(exchange, PokeApiFixtures.evolutionChainDocument(chainId));
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Serves the stub PokeAPI until the process is stopped.
+     *
+     * @param args The port (8000 by default) and the number of Pokémon served.
+     * @throws IOException if the server cannot be started.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8000;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_POKEMON_COUNT;
+        PokeApiStubServer stub = new PokeApiStubServer(port, count);
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+        System.out.println("Serving " + count + " stub pokemons on " + stub.getBaseUrl());
+    }
+
+    /**
+     * @return The URL of the pokemon endpoint, to be given to a PokeApiService.
+     */
+    public String getApiUrl() {
+        return getBaseUrl() + "pokemon/";
+    }
+
+    /**
+     * @return The base URL of the API, to be given to a PokeApiImporter.
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + API_PATH;
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void sendDocument(HttpExchange exchange, String idText, boolean species) throws IOException {
+        int id = parseId(idText);
+        if (id < 1 || id > pokemonCount) {
+            sendNotFound(exchange);
+            return;
+        }
+        send(exchange, species ? PokeApiFixtures.speciesDocument(id) : PokeApiFixtures.pokemonDocument(id));
+    }
+
+    private static int parseId(String idText) {
+        try {
+            return Integer.parseInt(idText);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void sendNotFound(HttpExchange exchange) throws IOException {
+        sendWithoutBody(exchange, 404);
+    }
+
+    /**
+     * Sends a response without a body. The request body is read first: the server closes the
+     * connection otherwise, which would make clients reconnect after every such response.
+     */
+    private static void sendWithoutBody(HttpExchange exchange, int status) throws IOException {
+        try {
+            exchange.getRequestBody().close();
+            exchange.sendResponseHeaders(status, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void send(HttpExchange exchange, String document) throws IOException {
+        try {
+            String etag = "\"" + Integer.toHexString(document.hashCode()) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                sendWithoutBody(exchange, 304);
+                return;
+            }
+            byte[] body = document.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Returns the path segment following the endpoint path, without its trailing slash.
+     */
+    private static String resourceId(HttpExchange exchange, String endpointPath) {
+        String rest = exchange.getRequestURI().getPath().substring(endpointPath.length());
+        return rest.endsWith("/") ? rest.substring(0, rest.length() - 1) : rest;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.pokedex.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small load generator for the Pokedex server mode ({@code --serve}).
+ * It sends a fixed number of GET requests for random Pokémon IDs with a bounded number of
+ * requests in flight, then prints the throughput and latency percentiles.
+ * <p>
+ * Usage: {@code ./gradlew loadTest -PloadArgs="http://localhost:8080 10000 64 json"}
+ * (base URL, number of requests, concurrency, format).
+ */
+public class PokedexLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int requestCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        String format = args.length > 3 ? args[3] : "json";
+        int maxId = 151;
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long[] latencies = new long[requestCount];
+        AtomicInteger errors = new AtomicInteger();
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[requestCount];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requestCount; i++) {
+            int id = 1 + (int) ((i * 2654435761L) % maxId);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/pokemon/" + id + "?format=" + format)).build();
+            int index = i;
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(responses).exceptionally(error -> null).join();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("%d requests, %d errors, concurrency %d, %.2f s%n", requestCount, errors.get(), concurrency, elapsedSeconds);
+        System.out.printf("throughput: %.0f requests/s%n", requestCount / elapsedSeconds);
+        System.out.printf("latency: p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1e6);
+    }
+
+    /**
+     * Returns a percentile of sorted latencies, in milliseconds.
+     */
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.pokedex.benchmarks;
+
+import com.example.pokedex.models.Pokemon;
+import com.example.pokedex.services.PokemonJsonReader;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the extraction of a Pokémon from a PokeAPI pokemon document.
+ * The streaming benchmark uses {@link PokemonJsonReader}; the tree benchmark builds the whole
+ * json-simple object tree first, as the service used to, and serves as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PokemonJsonBenchmark {
+    private String document;
+
+    @Setup
+    public void loadDocument() {
+        document = PokeApiFixtures.pokemonDocument(25);
+    }
+
+    @Benchmark
+    public Pokemon streaming() throws Exception {
+        return PokemonJsonReader.read(new StringReader(document));
+    }
+
+    @Benchmark
+    public Pokemon tree() throws Exception {
+        JSONObject jsonObject = (JSONObject) new JSONParser().parse(document);
+        return new Pokemon(((Long) jsonObject.get("id")).intValue(), (String) jsonObject.get("name"),
+                ((Long) jsonObject.get("height")).intValue(), ((Long) jsonObject.get("weight")).intValue());
+    }
+}
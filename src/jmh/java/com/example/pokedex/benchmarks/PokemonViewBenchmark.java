@@ -0,0 +1,81 @@
+package com.example.pokedex.benchmarks;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+import com.example.pokedex.utilities.OutputFormat;
+import com.example.pokedex.views.DetailedPokemonView;
+import com.example.pokedex.views.PokemonView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the rendering of {@link PokemonView} and {@link DetailedPokemonView} in every output format,
+ * both into a new String and into a reused buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PokemonViewBenchmark {
+
+    @Param({"TEXT", "HTML", "CSV"})
+    public OutputFormat format;
+
+    @Param({"false", "true"})
+    public boolean detailed;
+
+    private PokemonView view;
+    private final StringBuilder buffer = new StringBuilder(1024);
+
+    @Setup
+    public void createView() {
+        view = detailed
+                ? new DetailedPokemonView(new DetailedPokemon(25, "pikachu", 4, 60,
+                        "When several of these Pokémon gather, their electricity could build and cause lightning storms."))
+                : new PokemonView(new Pokemon(25, "pikachu", 4, 60));
+    }
+
+    @Benchmark
+    public String generateString() {
+        switch (format) {
+            case HTML:
+                return view.generateHTML();
+            case CSV:
+                return view.generateCSV();
+            default:
+                return view.generateHumanReadableText();
+        }
+    }
+
+    @Benchmark
+    public int appendToBuffer() throws IOException {
+        buffer.setLength(0);
+        switch (format) {
+            case HTML:
+                view.appendHTML(buffer);
+                break;
+            case CSV:
+                view.appendCSVHeader(buffer);
+                view.appendCSVRecord(buffer);
+                break;
+            default:
+                view.appendHumanReadableText(buffer);
+                break;
+        }
+        return buffer.length();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.pokedex.benchmarks;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+import com.example.pokedex.services.SQLitePokemonService;
+import com.example.pokedex.services.SQLitePokemonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link SQLitePokemonService#getPokemonById(int)} against a temporary database.
+ * The cold benchmark opens a new service for each lookup, paying the connection opening and
+ * statement preparation; the warm benchmark reuses the pooled connection and cached statement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SQLitePokemonServiceBenchmark {
+    private static final int POKEMON_COUNT = 1025;
+
+    private File dbFile;
+    private SQLitePokemonService warmService;
+    private int nextId;
+
+    @Setup
+    public void createDatabase() throws Exception {
+        dbFile = File.createTempFile("pokedex-benchmark", ".db");
+        List<Pokemon> pokemons = new ArrayList<>(POKEMON_COUNT);
+        for (int id = 1; id <= POKEMON_COUNT; id++) {
+            pokemons.add(new DetailedPokemon(id, "pokemon-" + id, 4 + id % 20, 60 + id % 400,
+                    "Description of pokemon number " + id + "."));
+        }
+        try (SQLitePokemonWriter writer = new SQLitePokemonWriter(dbFile.getPath())) {
+            writer.write(pokemons);
+        }
+        warmService = new SQLitePokemonService(dbFile.getPath());
+    }
+
+    @TearDown
+    public void deleteDatabase() {
+        warmService.close();
+        dbFile.delete();
+        new File(dbFile.getPath() + "-wal").delete();
+        new File(dbFile.getPath() + "-shm").delete();
+    }
+
+    private int nextId() {
+        nextId = nextId % POKEMON_COUNT + 1;
+        return nextId;
+    }
+
+    @Benchmark
+    public Pokemon coldConnection() {
+        try (SQLitePokemonService service = new SQLitePokemonService(dbFile.getPath())) {
+            return service.getPokemonById(nextId());
+        }
+    }
+
+    @Benchmark
+    public Pokemon warmConnection() {
+        return warmService.getPokemonById(nextId());
+    }
+
+    @Benchmark
+    public List<Pokemon> warmRange() {
+        return warmService.getPokemonByRange(1, 151);
+    }
+}
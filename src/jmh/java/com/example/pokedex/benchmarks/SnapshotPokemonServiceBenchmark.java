@@ -0,0 +1,82 @@
+package com.example.pokedex.benchmarks;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+import com.example.pokedex.services.PokemonSnapshotWriter;
+import com.example.pokedex.services.SnapshotPokemonService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link SnapshotPokemonService} against a temporary snapshot, to be compared with
+ * {@link SQLitePokemonServiceBenchmark}. The cold benchmark maps the snapshot for each lookup;
+ * the warm benchmarks reuse the mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotPokemonServiceBenchmark {
+    private static final int POKEMON_COUNT = 1025;
+
+    private File snapshotFile;
+    private SnapshotPokemonService warmService;
+    private int nextId;
+
+    @Setup
+    public void createSnapshot() throws Exception {
+        snapshotFile = File.createTempFile("pokedex-benchmark", ".snapshot");
+        List<Pokemon> pokemons = new ArrayList<>(POKEMON_COUNT);
+        for (int id = 1; id <= POKEMON_COUNT; id++) {
+            pokemons.add(new DetailedPokemon(id, "pokemon-" + id, 4 + id % 20, 60 + id % 400,
+                    "Description of pokemon number " + id + "."));
+        }
+        PokemonSnapshotWriter.write(pokemons, snapshotFile.toPath());
+        warmService = SnapshotPokemonService.open(snapshotFile.toPath());
+    }
+
+    @TearDown
+    public void deleteSnapshot() {
+        warmService.close();
+        snapshotFile.delete();
+    }
+
+    private int nextId() {
+        nextId = nextId % POKEMON_COUNT + 1;
+        return nextId;
+    }
+
+    @Benchmark
+    public Pokemon coldMapping() throws IOException {
+        try (SnapshotPokemonService service = SnapshotPokemonService.open(snapshotFile.toPath())) {
+            return service.getPokemonById(nextId());
+        }
+    }
+
+    @Benchmark
+    public Pokemon warmMapping() {
+        return warmService.getPokemonById(nextId());
+    }
+
+    @Benchmark
+    public List<Pokemon> warmRange() {
+        return warmService.getPokemonByRange(1, 151);
+    }
+}
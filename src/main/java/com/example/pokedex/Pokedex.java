@@ -1,17 +1,53 @@
 package com.example.pokedex;
 
 import com.example.pokedex.controllers.PokedexController;
-import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.metrics.Metrics;
 import com.example.pokedex.models.Pokemon;
+import com.example.pokedex.server.PokedexHttpServer;
+import com.example.pokedex.services.AsyncLookupExecutor;
+import com.example.pokedex.services.CachingPokemonDataService;
+import com.example.pokedex.services.CircuitBreaker;
+import com.example.pokedex.services.CoalescingPokemonDataService;
+import com.example.pokedex.services.FederatedPokemonDataService;
+import com.example.pokedex.services.HttpResponseCache;
+import com.example.pokedex.services.InMemoryPokemonService;
+import com.example.pokedex.services.PokeApiImporter;
 import com.example.pokedex.services.PokeApiService;
 import com.example.pokedex.services.PokemonDataService;
+import com.example.pokedex.services.PokemonExporter;
+import com.example.pokedex.services.PokemonNameIndex;
+import com.example.pokedex.services.PokemonQuery;
+import com.example.pokedex.services.PokemonSnapshotWriter;
+import com.example.pokedex.services.PokemonSynchronizer;
+import com.example.pokedex.services.RetryPolicy;
 import com.example.pokedex.services.SQLitePokemonService;
+import com.example.pokedex.services.SnapshotPokemonService;
+import com.example.pokedex.services.TieredPokemonDataService;
+import com.example.pokedex.services.TokenBucketRateLimiter;
 import com.example.pokedex.utilities.ConsoleOutputUtility;
 import com.example.pokedex.utilities.OutputFormat;
+import com.example.pokedex.utilities.PokemonIdParser;
+import com.example.pokedex.utilities.StreamingOutputWriter;
 import com.example.pokedex.views.PokemonView;
-import com.example.pokedex.views.DetailedPokemonView;
 import org.apache.commons.cli.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 /**
  * The Pokedex class, containing the main method and application logic.
  */
@@ -21,16 +57,87 @@ public class Pokedex {
      * Enumeration for data source options.
      * WEB_API - to use a web-based API for data
      * LOCAL_DATABASE - to use a local database for data
+     * SNAPSHOT - to use a memory-mapped binary snapshot of a local database
+     * FEDERATED - to use several of the above, by order of priority
+     */
+    private enum DataSource { WEB_API, LOCAL_DATABASE, SNAPSHOT, FEDERATED };
+
+    /**
+     * Enumeration for the application modes.
+     * LOOKUP - to print the requested pokemons and exit
+     * SERVE - to answer lookups over HTTP until stopped
+     * IMPORT - to build a local database from the web API
+     * SYNC - to bring a local database up to date with the web API
+     * WRITE_SNAPSHOT - to write a binary snapshot of a local database
+     * EXPORT - to write the requested pokemons, or every pokemon, to files
+     * REPL - to answer lookups typed on the standard input until it ends
      */
-    private enum DataSource { WEB_API, LOCAL_DATABASE };
+    private enum Mode { LOOKUP, SERVE, IMPORT, SYNC, WRITE_SNAPSHOT, EXPORT, REPL };
+
+    private static Mode mode = Mode.LOOKUP;
+    private static int servePort;
+
+    /* Base URL of the web API */
+    private static String apiBaseUrl = PokeApiImporter.DEFAULT_BASE_URL;
+    /* Maximum number of requests per second sent to the web API; 0 for no limit */
+    private static double requestRate = 0;
+    /* Local database answering when the web API fails, if any */
+    private static String fallbackPath;
+    /* Directory storing the bodies of the web API responses, if any */
+    private static String httpCachePath;
+    /* Answer every web API request from the response cache, without sending any */
+    private static boolean offline = false;
+    /* Time during which lookups of the web API are gathered into a batch, in microseconds; 0 to send them one by one */
+    private static long batchWindowMicros = 0;
+
+    /* Database built by the import mode */
+    private static String importPath;
+    /* Number of pokemons fetched at the same time by the import and sync modes */
+    private static int importConcurrency = PokeApiImporter.DEFAULT_CONCURRENCY;
+    /* Database brought up to date by the sync mode */
+    private static String syncPath;
+
+    /* File written by the export mode */
+    private static String exportPath;
+    /* Number of batches of pokemons fetched and rendered at the same time by the export mode */
+    private static int exportParallelism = PokemonExporter.DEFAULT_PARALLELISM;
+    /* Compress the exported files with gzip */
+    private static boolean exportGzip = false;
+    /* Number of requested pokemons per exported file; 0 for a single file */
+    private static int exportShardSize = 0;
 
     /* Initializing dataSource to default value (WEB_API) */
     private static DataSource dataSource = DataSource.WEB_API;
     private static String databasePath;
+    /* Whether the local database is loaded into memory once instead of being queried for each lookup */
+    private static boolean inMemory = false;
+    /* Local database keeping a copy of the pokemons fetched from the web API, if any */
+    private static String storePath;
+    /* Binary snapshot read by the SNAPSHOT data source, or written by the WRITE_SNAPSHOT mode */
+    private static String snapshotPath;
+    /* Sources of the FEDERATED data source, by order of priority: web API base URLs, snapshots and databases */
+    private static List<String> federatedSources = new ArrayList<>();
+
+    /* Caching is disabled by default; a positive value is the maximum number of cached IDs */
+    private static int cacheSize = 0;
 
     /* Initializing outputFormat to default value (TEXT) */
     private static OutputFormat outputFormat = OutputFormat.TEXT;
-    private static int pokemonId;
+    private static List<Integer> pokemonIds = new ArrayList<>();
+    /* Pokemons requested by name rather than by ID */
+    private static List<String> pokemonNames = new ArrayList<>();
+    /* Text searched among the pokemon names, if any */
+    private static String searchText;
+
+    /* Height and weight criteria of the pokemons to be listed, if any */
+    private static PokemonQuery query;
+
+    /* Maximum number of pokemons printed by a name search */
+    private static final int SEARCH_LIMIT = 10;
+    /* Print the metrics of the run on the standard error output */
+    private static boolean printStats = false;
+    /* Request the descriptions and evolution chains the data service has not loaded, to display them */
+    private static boolean loadDetails = false;
 
 
     /**
@@ -48,39 +155,580 @@ public class Pokedex {
         } catch (PokemonCommandLineParsingException e) {
             System.err.println(e.getMessage());
             HelpFormatter formatter = new HelpFormatter();
-            formatter.printHelp("./Pokedex <PokemonId> [-d|--database <databaseFile>] [-f|--format <format>]", e.getOptions());
+            formatter.printHelp("./Pokedex <PokemonId|FirstId-LastId|Id,Id,...|Name>... [-d|--database <databaseFile> [-m|--memory]] [-f|--format <format>] [-c|--cache <size>] [-s|--store <databaseFile>] [--api <url>] [--rate <requests/s>] [--fallback <databaseFile>] [--http-cache <directory> [--offline]] [--batch-window <microseconds>] [--details] [--stats]\n       ./Pokedex <PokemonId|FirstId-LastId|Id,Id,...|Name>... --source <url|snapshotFile|databaseFile> --source ... [-f|--format <format>] [-c|--cache <size>] [--details] [--stats]\n       ./Pokedex --export <file> [PokemonId|FirstId-LastId|Id,Id,...]... [-d|--database <databaseFile> [-m|--memory]|--snapshot <snapshotFile>] [-f|--format <format>] [--concurrency <count>] [--gzip] [--shard <count>] [--details] [--stats]\n       ./Pokedex --import <databaseFile> [PokemonId|FirstId-LastId|Id,Id,...]... [--concurrency <count>] [--api <url>]\n       ./Pokedex --sync <databaseFile> [PokemonId|FirstId-LastId|Id,Id,...]... [--concurrency <count>] [--api <url>] [--rate <requests/s>] [--http-cache <directory>] [--stats]\n       ./Pokedex --write-snapshot <snapshotFile> -d|--database <databaseFile>\n       ./Pokedex <PokemonId|FirstId-LastId|Id,Id,...|Name>... --snapshot <snapshotFile> [-f|--format <format>] [--stats]\n       ./Pokedex --search <text> [-d|--database <databaseFile> [-m|--memory]] [-f|--format <format>] [--stats]\n       ./Pokedex [--height <min-max>] [--weight <min-max>] -d|--database <databaseFile> [-m|--memory] [-f|--format <format>] [--stats]\n       ./Pokedex --serve <port> [-d|--database <databaseFile> [-m|--memory]] [-c|--cache <size>] [-s|--store <databaseFile>] [--batch-window <microseconds>]\n       ./Pokedex --repl [-d|--database <databaseFile> [-m|--memory]|--snapshot <snapshotFile>] [-f|--format <format>] [-c|--cache <size>] [-s|--store <databaseFile>] [--batch-window <microseconds>] [--details]", e.getOptions());
             System.exit(0);
         }
 
+        /* Metrics are always recorded by the server, which exposes them on /metrics, and by the REPL, which prints them on demand */
+        Metrics.setEnabled(printStats || mode == Mode.SERVE || mode == Mode.REPL);
+
+        if (mode == Mode.EXPORT) {
+            exportPokemons();
+            if (printStats) {
+                printStats();
+            }
+            return;
+        }
+
+        if (mode == Mode.IMPORT) {
+            importPokemons();
+            return;
+        }
+        if (mode == Mode.SYNC) {
+            syncPokemons();
+            if (printStats) {
+                printStats();
+            }
+            return;
+        }
+        if (mode == Mode.WRITE_SNAPSHOT) {
+            writeSnapshot();
+            return;
+        }
 
         /* Initialize the appropriate data service based on the data source selected */
+        PokemonDataService service = createDataService();
+        /* Initialize the controller with the chosen data service */
+        PokedexController controller = new PokedexController(service);
+
+        if (mode == Mode.SERVE) {
+            serve(controller, service);
+            return;
+        }
+        if (mode == Mode.REPL) {
+            runRepl(controller, service);
+            service.close();
+            return;
+        }
+
+        boolean complete = true;
+        if (query != null) {
+            printQueryResults(controller);
+        } else {
+            complete = printPokemons(controller, pokemonIds, pokemonNames, searchText);
+        }
+
+        /* Release the connections held by the data service */
+        service.close();
+
+        if (printStats) {
+            printStats();
+        }
+        if (!complete) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints the latencies, call counts and bytes recorded during the run on the standard error output,
+     * so that they do not mix with the pokemons printed.
+     */
+    private static void printStats() {
+        StringBuilder stats = new StringBuilder();
+        try {
+            Metrics.writeSummary(stats);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // Not thrown by a StringBuilder
+        }
+        System.err.print(stats);
+    }
+
+    /**
+     * Creates the data service matching the command line options.
+     * Exits the application if the service cannot be created.
+     *
+     * @return The data service, wrapped in a cache if requested.
+     */
+    private static PokemonDataService createDataService() {
         PokemonDataService service;
-        if (dataSource == DataSource.LOCAL_DATABASE) {
+        if (dataSource == DataSource.LOCAL_DATABASE && inMemory) {
+            try {
+                service = InMemoryPokemonService.loadFromSQLite(databasePath);
+            } catch (SQLException e) {
+                System.err.println("Unable to load the database '" + databasePath + "': " + e.getMessage());
+                System.exit(1);
+                return null;
+            }
+        } else if (dataSource == DataSource.LOCAL_DATABASE) {
             service = new SQLitePokemonService(databasePath);
+        } else if (dataSource == DataSource.SNAPSHOT) {
+            try {
+                service = SnapshotPokemonService.open(Paths.get(snapshotPath));
+            } catch (IOException e) {
+                System.err.println("Unable to open the snapshot '" + snapshotPath + "': " + e.getMessage());
+                System.exit(1);
+                return null;
+            }
+        } else if (dataSource == DataSource.FEDERATED) {
+            service = createFederatedService();
+        } else if (storePath != null) {
+            try {
+                service = new TieredPokemonDataService(storePath, createWebApiService());
+            } catch (SQLException e) {
+                System.err.println("Unable to open the local store '" + storePath + "': " + e.getMessage());
+                System.exit(1);
+                return null;
+            }
         } else {
-            service = new PokeApiService();
+            service = createWebApiService();
         }
-        /* Initialize the controller with the chosen data service */
-        PokedexController controller = new PokedexController(service);
+        /* Put a read-through cache in front of the data service if requested */
+        if (cacheSize > 0) {
+            service = new CachingPokemonDataService(service, cacheSize,
+                    CachingPokemonDataService.DEFAULT_TTL_MILLIS, CachingPokemonDataService.DEFAULT_NEGATIVE_TTL_MILLIS);
+        }
+        return service;
+    }
+
+    /**
+     * Creates the service answering from every source given with --source, by order of priority.
+     * A source starting with http:// or https:// is the base URL of a web API, a source ending with
+     * .snapshot a binary snapshot, and any other source a local database.
+     * Exits the application if a snapshot cannot be opened.
+     *
+     * @return The federated service.
+     */
+    private static PokemonDataService createFederatedService() {
+        List<PokemonDataService> sources = new ArrayList<>();
+        for (String source : federatedSources) {
+            if (source.startsWith("http://") || source.startsWith("https://")) {
+                String baseUrl = source.endsWith("/") ? source : source + "/";
+                sources.add(new PokeApiService(baseUrl + "pokemon/"));
+            } else if (source.endsWith(".snapshot")) {
+                try {
+                    sources.add(SnapshotPokemonService.open(Paths.get(source)));
+                } catch (IOException e) {
+                    System.err.println("Unable to open the snapshot '" + source + "': " + e.getMessage());
+                    for (PokemonDataService opened : sources) {
+                        opened.close();
+                    }
+                    System.exit(1);
+                    return null;
+                }
+            } else {
+                sources.add(new SQLitePokemonService(source));
+            }
+        }
+        return new FederatedPokemonDataService(sources);
+    }
 
-        /* Fetch the Pokémon data using the controller */
-        Pokemon pokemon = controller.getPokemonById(pokemonId);
+    /**
+     * Creates the web API service, behind a coalescing dispatcher if a batch window is requested.
+     *
+     * @return The web API service.
+     */
+    private static PokemonDataService createWebApiService() {
+        PokeApiService apiService = createPokeApiService();
+        return batchWindowMicros > 0
+                ? new CoalescingPokemonDataService(apiService, batchWindowMicros, CoalescingPokemonDataService.DEFAULT_MAX_BATCH_SIZE)
+                : apiService;
+    }
 
+    /**
+     * Creates the web API service, with the requested rate limit and fallback database.
+     *
+     * @return The web API service.
+     */
+    private static PokeApiService createPokeApiService() {
+        TokenBucketRateLimiter rateLimiter = requestRate > 0
+                ? new TokenBucketRateLimiter(requestRate, (int) Math.ceil(requestRate)) : null;
+        PokemonDataService fallbackService = fallbackPath != null ? new SQLitePokemonService(fallbackPath) : null;
+        return new PokeApiService(apiBaseUrl + "pokemon/", rateLimiter, fallbackService, openResponseCache());
+    }
+
+    /**
+     * Opens the cache of the web API responses, if one is requested.
+     *
+     * @return The response cache, or null if responses are not stored.
+     */
+    private static HttpResponseCache openResponseCache() {
+        if (httpCachePath == null) {
+            return null;
+        }
+        try {
+            return new HttpResponseCache(Paths.get(httpCachePath), offline);
+        } catch (IOException e) {
+            System.err.println("Unable to open the response cache '" + httpCachePath + "': " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Synchronizes the requested Pokémon, or every Pokémon of the web API if none is requested,
+     * with the sync database, then prints a summary of the synchronization.
+     */
+    private static void syncPokemons() {
+        TokenBucketRateLimiter rateLimiter = requestRate > 0
+                ? new TokenBucketRateLimiter(requestRate, (int) Math.ceil(requestRate)) : null;
+        /* One pooled connection per pokemon checked at the same time, and no fallback: a failure must not look like an answer */
+        try (PokeApiService apiService = new PokeApiService(apiBaseUrl + "pokemon/", importConcurrency, importConcurrency,
+                PokeApiService.DEFAULT_CONNECT_TIMEOUT_MILLIS, PokeApiService.DEFAULT_SOCKET_TIMEOUT_MILLIS,
+                PokeApiService.DEFAULT_KEEP_ALIVE_MILLIS,
+                new AsyncLookupExecutor(importConcurrency, AsyncLookupExecutor.DEFAULT_TIMEOUT_MILLIS),
+                new RetryPolicy(), PokeApiService.DEFAULT_REQUEST_DEADLINE_MILLIS, rateLimiter, new CircuitBreaker(), null,
+                openResponseCache())) {
+            List<Integer> ids = pokemonIds;
+            if (ids.isEmpty()) {
+                PokemonNameIndex nameIndex = apiService.getNameIndex();
+                if (nameIndex == null) {
+                    System.err.println("Unable to list the pokemons of " + apiBaseUrl);
+                    System.exit(1);
+                }
+                ids = nameIndex.getIds();
+            }
+            PokemonSynchronizer synchronizer = new PokemonSynchronizer(apiService, importConcurrency,
+                    PokemonSynchronizer.DEFAULT_BATCH_SIZE);
+            PokemonSynchronizer.SyncSummary summary = synchronizer.syncInto(syncPath, ids,
+                    (done, total) -> System.err.print("\rChecked " + done + "/" + total));
+            System.err.println();
+            System.out.println(summary);
+            if (!summary.getFailedIds().isEmpty()) {
+                System.err.println("Failed IDs, retried by running the sync again: " + summary.getFailedIds());
+            }
+        } catch (SQLException e) {
+            System.err.println("Unable to write the database '" + syncPath + "': " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes every Pokémon of the local database into a binary snapshot, then prints how many were written.
+     */
+    private static void writeSnapshot() {
+        long start = System.nanoTime();
+        try {
+            int count = PokemonSnapshotWriter.writeFromSQLite(databasePath, Paths.get(snapshotPath));
+            System.out.println("Wrote " + count + " pokemons to " + snapshotPath + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (SQLException e) {
+            System.err.println("Unable to read the database '" + databasePath + "': " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Unable to write the snapshot '" + snapshotPath + "': " + e.getMessage());
+            System.exit(1);
+        }
+    }
 
-        /* Determine the appropriate view based on the type of Pokémon data */
-        PokemonView view;
-        if (pokemon instanceof DetailedPokemon) {
-            // Use DetailedPokemonView for DetailedPokemon instances
-            view = new DetailedPokemonView((DetailedPokemon) pokemon);
+    /**
+     * Imports the requested Pokémon, or every Pokémon of the web API if none is requested,
+     * into the import database, then prints a summary of the import.
+     */
+    private static void importPokemons() {
+        try (PokeApiImporter importer = new PokeApiImporter(apiBaseUrl, importConcurrency,
+                PokeApiImporter.DEFAULT_MAX_RETRIES, PokeApiImporter.DEFAULT_BATCH_SIZE, PokeApiImporter.DEFAULT_LANGUAGES)) {
+            List<Integer> ids = pokemonIds.isEmpty() ? importer.listPokemonIds() : pokemonIds;
+            PokeApiImporter.ImportSummary summary = importer.importInto(importPath, ids,
+                    (done, total) -> System.err.print("\rImported " + done + "/" + total));
+            System.err.println();
+            System.out.println(summary);
+            if (!summary.getFailedIds().isEmpty()) {
+                System.err.println("Failed IDs, retried by running the import again: " + summary.getFailedIds());
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to list the pokemons of " + apiBaseUrl + ": " + e.getMessage());
+            System.exit(1);
+        } catch (SQLException e) {
+            System.err.println("Unable to write the database '" + importPath + "': " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Exports the requested Pokémon, or every Pokémon of the data source if none is requested,
+     * to files in the selected format, then prints a summary of the export.
+     */
+    private static void exportPokemons() {
+        PokemonDataService service = createDataService();
+        try {
+            List<Integer> ids = pokemonIds;
+            if (ids.isEmpty()) {
+                PokemonNameIndex index = service.getNameIndex();
+                if (index == null) {
+                    System.err.println("Unable to list the pokemons of the data source; give the IDs to export");
+                    System.exit(1);
+                    return;
+                }
+                ids = index.getIds();
+            }
+            PokemonExporter exporter = new PokemonExporter(service, outputFormat, exportParallelism,
+                    PokemonExporter.DEFAULT_CHUNK_SIZE, exportGzip, exportShardSize, loadDetails);
+            PokemonExporter.ExportSummary summary = exporter.exportTo(Paths.get(exportPath), ids,
+                    (done, total) -> System.err.print("\rExported " + done + "/" + total));
+            System.err.println();
+            System.out.println(summary);
+        } catch (IOException e) {
+            System.err.println("Unable to write the export '" + exportPath + "': " + e.getMessage());
+            System.exit(1);
+        } finally {
+            /* Release the connections held by the data service */
+            service.close();
+        }
+    }
+
+    /**
+     * Fetches the requested Pokémon and prints them to the console in the selected format.
+     *
+     * @param controller The controller used to fetch the Pokémon.
+     * @param ids The IDs of the Pokémon to be printed.
+     * @param names The names of the Pokémon to be printed after them.
+     * @param search The text searched among the names instead, or null.
+     * @return true if a Pokémon was found for every requested ID and name.
+     */
+    private static boolean printPokemons(PokedexController controller, List<Integer> ids, List<String> names, String search) {
+        /* Fetch the Pokémon data using the controller, in a single batch when several IDs are requested */
+        List<Pokemon> pokemons;
+        if (search != null) {
+            pokemons = controller.searchPokemonByName(search, SEARCH_LIMIT);
+        } else if (ids.size() == 1) {
+            pokemons = new ArrayList<>();
+            Pokemon pokemon = controller.getPokemonById(ids.get(0));
+            if (pokemon != null) {
+                pokemons.add(pokemon);
+            }
         } else {
-            // Use PokemonView for other instances
-            view = new PokemonView(pokemon);
+            pokemons = controller.getPokemonByIds(ids);
+        }
+        /* Report the requested IDs no Pokémon was found for, unknown or failed */
+        Set<Integer> foundIds = new HashSet<>();
+        for (Pokemon pokemon : pokemons) {
+            foundIds.add(pokemon.getId());
+        }
+        List<Integer> missingIds = new ArrayList<>();
+        for (int id : new LinkedHashSet<>(ids)) {
+            if (!foundIds.contains(id)) {
+                missingIds.add(id);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            System.err.println("No pokemon found for the ID" + (missingIds.size() > 1 ? "s " : " ")
+                    + PokemonIdParser.format(missingIds));
+        }
+        boolean complete = missingIds.isEmpty();
+        /* Then the Pokémon requested by name, suggesting close names for the unknown ones */
+        for (String name : names) {
+            Pokemon pokemon = controller.getPokemonByName(name);
+            if (pokemon != null) {
+                pokemons.add(pokemon);
+            } else {
+                complete = false;
+                List<String> suggestions = new ArrayList<>();
+                for (Pokemon suggestion : controller.searchPokemonByName(name, 3)) {
+                    suggestions.add(suggestion.getName());
+                }
+                System.err.println("No pokemon named '" + name + "'"
+                        + (suggestions.isEmpty() ? "" : ", did you mean " + String.join(", ", suggestions) + "?"));
+            }
+        }
+
+        if (pokemons.size() == 1) {
+            PokemonView view = PokemonView.forPokemon(pokemons.get(0), loadDetails);
+
+            /* Output using ConsoleOutputUtility */
+            ConsoleOutputUtility consoleOutputUtility = new ConsoleOutputUtility(outputFormat, view, view, view, view);
+            consoleOutputUtility.makeOutput();
+        } else if (!pokemons.isEmpty()) {
+            /* Stream every record to the console, with the format header and footer written once */
+            StreamingOutputWriter writer = new StreamingOutputWriter(outputFormat, System.out);
+            try {
+                for (Pokemon pokemon : pokemons) {
+                    writer.write(PokemonView.forPokemon(pokemon, loadDetails));
+                }
+                writer.finish();
+            } catch (IOException e) {
+                System.err.println("Unable to write the output: " + e.getMessage());
+            }
         }
+        return complete;
+    }
 
+    /**
+     * Streams the Pokémon matching the height and weight criteria to the console as they are read.
+     *
+     * @param controller The controller used to query the Pokémon.
+     */
+    private static void printQueryResults(PokedexController controller) {
+        if (!controller.supportsQueries()) {
+            System.err.println("Height and weight queries need a local database (-d/--database)");
+            return;
+        }
+        StreamingOutputWriter writer = new StreamingOutputWriter(outputFormat, System.out);
+        try {
+            int count = controller.findPokemon(query, pokemon -> {
+                try {
+                    writer.write(PokemonView.forPokemon(pokemon, loadDetails));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.finish();
+            if (count == 0) {
+                System.err.println("No pokemon with " + query);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Unable to write the output: " + e.getMessage());
+        }
+    }
 
-        /* Output using ConsoleOutputUtility */
-        ConsoleOutputUtility consoleOutputUtility = new ConsoleOutputUtility(outputFormat, view, view, view);
-        consoleOutputUtility.makeOutput();
+    /**
+     * Answers the commands typed on the standard input until it ends or {@code quit} is typed.
+     * The controller, its data service and their connections are kept from one command to the next,
+     * and warmed up before the first prompt; each command is followed by its duration.
+     *
+     * @param controller The controller answering the commands.
+     * @param service The data service, whose name index is loaded in the background.
+     */
+    private static void runRepl(PokedexController controller, PokemonDataService service) {
+        long start = System.nanoTime();
+        warmUp(controller, service);
+        System.err.println("Ready in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                + " ms; type 'help' for the commands");
+
+        BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        while (true) {
+            System.out.print("pokedex> ");
+            System.out.flush();
+            String line;
+            try {
+                line = input.readLine();
+            } catch (IOException e) {
+                System.err.println("Unable to read the standard input: " + e.getMessage());
+                return;
+            }
+            if (line == null) {
+                System.out.println();
+                return;
+            }
+            String[] words = line.trim().split("\\s+");
+            if (words[0].isEmpty()) {
+                continue;
+            }
+            if (words[0].equals("quit") || words[0].equals("exit")) {
+                return;
+            }
+            long commandStart = System.nanoTime();
+            if (runReplCommand(controller, words[0].toLowerCase(Locale.ROOT), Arrays.copyOfRange(words, 1, words.length))) {
+                System.err.printf(Locale.ROOT, "(%.1f ms)%n", (System.nanoTime() - commandStart) / 1e6);
+            }
+        }
+    }
+
+    /**
+     * Runs a command of the REPL.
+     *
+     * @param controller The controller answering the command.
+     * @param command The name of the command, in lower case.
+     * @param args The arguments of the command.
+     * @return true if the command ran and its duration is worth printing, false if it was not understood.
+     */
+    private static boolean runReplCommand(PokedexController controller, String command, String[] args) {
+        switch (command) {
+            case "get":
+            case "range":
+                if (args.length == 0) {
+                    System.err.println("Usage: " + command + " <PokemonId|FirstId-LastId|Id,Id,...|Name>...");
+                    return false;
+                }
+                List<Integer> ids = new ArrayList<>();
+                List<String> names = new ArrayList<>();
+                for (String arg : args) {
+                    // As on the command line, an argument starting with a letter is a name
+                    if (Character.isLetter(arg.charAt(0))) {
+                        names.add(arg);
+                        continue;
+                    }
+                    try {
+                        ids.addAll(PokemonIdParser.parse(arg));
+                    } catch (IllegalArgumentException e) {
+                        System.err.println(e.getMessage());
+                        return false;
+                    }
+                }
+                printPokemons(controller, ids, names, null);
+                return true;
+            case "search":
+                if (args.length != 1) {
+                    System.err.println("Usage: search <text>");
+                    return false;
+                }
+                printPokemons(controller, new ArrayList<>(), new ArrayList<>(), args[0]);
+                return true;
+            case "format":
+                if (args.length == 0) {
+                    System.out.println(outputFormat.name().toLowerCase(Locale.ROOT));
+                    return false;
+                }
+                try {
+                    outputFormat = OutputFormat.valueOf(args[0].toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Unknown format '" + args[0] + "', between 'text', 'html', 'csv' and 'json'");
+                }
+                return false;
+            case "stats":
+                printStats();
+                return false;
+            case "help":
+                System.out.println("get <PokemonId|FirstId-LastId|Id,Id,...|Name>...  print pokemons\n"
+                        + "range <FirstId-LastId>                           print a range of pokemons\n"
+                        + "search <text>                                    print the pokemons whose name starts with or is close to <text>\n"
+                        + "format [text|html|csv|json]                      show or change the output format\n"
+                        + "stats                                            print latencies and call counts since the start\n"
+                        + "quit                                             leave");
+                return false;
+            default:
+                System.err.println("Unknown command '" + command + "'; type 'help' for the commands");
+                return false;
+        }
+    }
+
+    /**
+     * Warms the data service up before the first command: one lookup opens its connections and
+     * loads the classes of the lookup and rendering paths, and the name index is loaded in the
+     * background, ready for the first lookup by name.
+     *
+     * @param controller The controller answering the commands.
+     * @param service The data service.
+     */
+    private static void warmUp(PokedexController controller, PokemonDataService service) {
+        CompletableFuture.runAsync(service::getNameIndex);
+        Pokemon pokemon = controller.getPokemonById(1);
+        if (pokemon != null) {
+            PokemonView view = PokemonView.forPokemon(pokemon);
+            // Rendered into nothing, for every format
+            view.generateHumanReadableText();
+            view.generateHTML();
+            view.generateCSV();
+            view.generateJSON();
+        }
+    }
+
+    /**
+     * Serves lookups over HTTP until the application is stopped.
+     * The controller and its data service are created once and shared by every request.
+     *
+     * @param controller The controller answering the requests.
+     * @param service The data service, closed when the application stops.
+     */
+    private static void serve(PokedexController controller, PokemonDataService service) {
+        /* Sending the small packets of each response at once; the JDK reads this setting when its first server is created */
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        PokedexHttpServer server;
+        try {
+            server = new PokedexHttpServer(controller, servePort);
+        } catch (IOException e) {
+            System.err.println("Unable to start the server on port " + servePort + ": " + e.getMessage());
+            service.close();
+            System.exit(1);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            service.close();
+        }));
+        server.start();
+        System.out.println("Serving the Pokedex on http://localhost:" + server.getPort() + "/pokemon/{id}, metrics on /metrics");
     }
 
     /**
@@ -97,18 +745,180 @@ public class Pokedex {
 
         // Option for specifying the path to the SQLite database
         options.addOption("d", "database", true, "Path to a SQLite database containing pokemons");
-        // Option for specifying the output format (text, html, csv)
-        options.addOption("f", "format", true, "Specify the output format, between 'text', 'html' and 'csv'. By default 'text'.");
+        // Options for reading or writing a binary snapshot, which opens faster than a database
+        options.addOption(null, "snapshot", true, "Path to a binary snapshot written by --write-snapshot, read instead of a database");
+        options.addOption(null, "write-snapshot", true, "Write the pokemons of the database given with -d/--database into a binary snapshot");
+        // Option for answering from several sources, by order of priority
+        options.addOption(null, "source", true, "Answer from this source, given again for each source by order of priority: a web API base URL, "
+                + "a .snapshot file or a SQLite database; slow sources are hedged with the next one");
+        // Option for loading the whole SQLite database into memory
+        options.addOption("m", "memory", false, "Load the whole database given with -d/--database into memory");
+        // Option for specifying the output format (text, html, csv, json)
+        options.addOption("f", "format", true, "Specify the output format, between 'text', 'html', 'csv' and 'json'. By default 'text'.");
+        // Option for keeping a local copy of the pokemons fetched from the web API
+        options.addOption("s", "store", true, "Path to a SQLite database where pokemons fetched from the web API are stored and read back");
+        // Option for serving lookups over HTTP instead of printing them
+        options.addOption(null, "serve", true, "Serve lookups over HTTP on the given port instead of printing them");
+        // Option for searching pokemons by the beginning of their name, or by an approximate name
+        options.addOption(null, "search", true, "Print the pokemons whose name starts with <text>, or is close to it");
+        // Options for listing the pokemons whose height or weight lies in a range
+        options.addOption(null, "height", true, "List the pokemons whose height lies in <min-max>; either bound may be left out, as in '10-' or '-10'");
+        options.addOption(null, "weight", true, "List the pokemons whose weight lies in <min-max>; either bound may be left out, as in '500-' or '-500'");
+        // Options for building a local database from the web API
+        options.addOption(null, "import", true, "Import pokemons from the web API into the given SQLite database; every pokemon unless IDs are given");
+        options.addOption(null, "sync", true, "Bring the given SQLite database up to date with the web API, requesting only the pokemons that changed; every pokemon unless IDs are given");
+        options.addOption(null, "concurrency", true, "Number of pokemons fetched at the same time by --import and --sync (by default " + PokeApiImporter.DEFAULT_CONCURRENCY
+                + "), or of batches of pokemons fetched and rendered at the same time by --export (by default the number of processors).");
+        // Options for exporting pokemons to files
+        options.addOption(null, "export", true, "Write pokemons to the given file in the selected format; every pokemon of the data source unless IDs are given");
+        options.addOption(null, "gzip", false, "Compress the files written by --export with gzip");
+        options.addOption(null, "shard", true, "Split the output of --export into files of <count> requested pokemons each");
+        // Option for using another PokeAPI server, such as a local mirror
+        options.addOption(null, "api", true, "Base URL of the web API. By default " + PokeApiImporter.DEFAULT_BASE_URL);
+        // Options protecting the web API and the application from each other
+        options.addOption(null, "rate", true, "Send at most <requests/s> requests per second to the web API. Unlimited by default.");
+        options.addOption(null, "fallback", true, "Path to a SQLite database answering when the web API fails");
+        // Options for keeping the web API responses on disk
+        options.addOption(null, "http-cache", true, "Store the web API responses, compressed, in the given directory and read them back while they are fresh");
+        options.addOption(null, "offline", false, "Answer every web API request from --http-cache, without sending any");
+        options.addOption(null, "batch-window", true, "Gather the lookups of the web API made within <microseconds> into batches, fetching each ID once. Disabled by default.");
+        // Option for enabling the read-through cache
+        options.addOption("c", "cache", true, "Cache up to <size> pokemons in memory. Disabled by default.");
+        // Option for typing lookups one after the other, without restarting the application
+        options.addOption(null, "repl", false, "Answer the commands typed on the standard input (get, range, search, format, stats) until 'quit'");
+        // Option for displaying the details the web API serves as separate documents
+        options.addOption(null, "details", false, "Also request and display the description and evolution chain of the pokemons read from the web API, two more requests per pokemon");
+        // Option for measuring where the time goes
+        options.addOption(null, "stats", false, "Print latencies, call counts and bytes transferred on the standard error output when done");
 
         // Parse the command line arguments
         CommandLine line = parser.parse(options, args);
 
+        printStats = line.hasOption("stats");
+        loadDetails = line.hasOption("details");
+
         // Set the data source to LOCAL_DATABASE if the database option is provided
         if (line.hasOption("d")) {
             dataSource = DataSource.LOCAL_DATABASE;
             databasePath = line.getOptionValue("d");
         }
 
+        // Read a binary snapshot if the snapshot option is provided
+        if (line.hasOption("snapshot")) {
+            if (line.hasOption("d") || line.hasOption("s")) {
+                throw new PokemonCommandLineParsingException("The option --snapshot cannot be combined with -d/--database or -s/--store", options);
+            }
+            dataSource = DataSource.SNAPSHOT;
+            snapshotPath = line.getOptionValue("snapshot");
+        }
+
+        // Answer from several sources if the source option is provided
+        if (line.hasOption("source")) {
+            if (line.hasOption("d") || line.hasOption("snapshot") || line.hasOption("s") || line.hasOption("fallback")) {
+                throw new PokemonCommandLineParsingException("The option --source cannot be combined with -d/--database, --snapshot, -s/--store or --fallback", options);
+            }
+            dataSource = DataSource.FEDERATED;
+            federatedSources = Arrays.asList(line.getOptionValues("source"));
+        }
+
+        // Write a binary snapshot of the database if the write-snapshot option is provided; no pokemon ID is needed then
+        if (line.hasOption("write-snapshot")) {
+            if (!line.hasOption("d")) {
+                throw new PokemonCommandLineParsingException("The option --write-snapshot requires -d/--database", options);
+            }
+            mode = Mode.WRITE_SNAPSHOT;
+            snapshotPath = line.getOptionValue("write-snapshot");
+            return;
+        }
+
+        // Load the database into memory if the memory option is provided
+        if (line.hasOption("m")) {
+            if (!line.hasOption("d")) {
+                throw new PokemonCommandLineParsingException("The option -m/--memory requires -d/--database", options);
+            }
+            inMemory = true;
+        }
+
+        // Store the pokemons fetched from the web API if the store option is provided
+        if (line.hasOption("s")) {
+            if (line.hasOption("d")) {
+                throw new PokemonCommandLineParsingException("The options -d/--database and -s/--store cannot be combined", options);
+            }
+            storePath = line.getOptionValue("s");
+        }
+
+        // Enable the cache if the cache option is provided
+        if (line.hasOption("c")) {
+            try {
+                cacheSize = Integer.parseInt(line.getOptionValue("c"));
+            } catch (NumberFormatException e) {
+                throw new PokemonCommandLineParsingException("Invalid value for the option -c/--cache", options);
+            }
+            if (cacheSize < 1) {
+                throw new PokemonCommandLineParsingException("Invalid value for the option -c/--cache", options);
+            }
+        }
+
+        // Use another web API server if the api option is provided
+        if (line.hasOption("api")) {
+            apiBaseUrl = line.getOptionValue("api");
+            if (!apiBaseUrl.endsWith("/")) {
+                apiBaseUrl += "/";
+            }
+        }
+
+        // Limit the request rate if the rate option is provided
+        if (line.hasOption("rate")) {
+            try {
+                requestRate = Double.parseDouble(line.getOptionValue("rate"));
+            } catch (NumberFormatException e) {
+                throw new PokemonCommandLineParsingException("Invalid value for the option --rate", options);
+            }
+            if (!(requestRate > 0)) {
+                throw new PokemonCommandLineParsingException("Invalid value for the option --rate", options);
+            }
+        }
+
+        // Answer from a local database when the web API fails if the fallback option is provided
+        if (line.hasOption("fallback")) {
+            if (line.hasOption("d")) {
+                throw new PokemonCommandLineParsingException("The options -d/--database and --fallback cannot be combined", options);
+            }
+            fallbackPath = line.getOptionValue("fallback");
+        }
+
+        // Store the web API responses if the http-cache option is provided
+        if (line.hasOption("http-cache")) {
+            if (line.hasOption("d") || line.hasOption("snapshot") || line.hasOption("source")) {
+                throw new PokemonCommandLineParsingException("The option --http-cache only applies to the web API", options);
+            }
+            httpCachePath = line.getOptionValue("http-cache");
+        }
+        if (line.hasOption("offline")) {
+            if (httpCachePath == null) {
+                throw new PokemonCommandLineParsingException("The option --offline requires --http-cache", options);
+            }
+            if (line.hasOption("sync")) {
+                throw new PokemonCommandLineParsingException("The options --sync and --offline cannot be combined", options);
+            }
+            offline = true;
+        }
+
+        // Gather the lookups of the web API into batches if the batch-window option is provided
+        if (line.hasOption("batch-window")) {
+            if (line.hasOption("d") || line.hasOption("snapshot") || line.hasOption("source")) {
+                throw new PokemonCommandLineParsingException("The option --batch-window only applies to the web API", options);
+            }
+            try {
+                batchWindowMicros = Long.parseLong(line.getOptionValue("batch-window"));
+            } catch (NumberFormatException e) {
+                throw new PokemonCommandLineParsingException("Invalid value for the option --batch-window", options);
+            }
+            if (batchWindowMicros < 1) {
+                throw new PokemonCommandLineParsingException("Invalid value for the option --batch-window", options);
+            }
+        }
+
         // Set the output format based on the command line argument
         if (line.hasOption("f")) {
             String formatArgValue = line.getOptionValue("f");
@@ -118,19 +928,169 @@ public class Pokedex {
                 outputFormat = OutputFormat.CSV;
             } else if (formatArgValue.equals("text")) {
                 outputFormat = OutputFormat.TEXT;
+            } else if (formatArgValue.equals("json")) {
+                outputFormat = OutputFormat.JSON;
             } else {
                 throw new PokemonCommandLineParsingException("Invalid value for the option -f/--format", options);
             }
         }
-        // Get pokemon ID from remaining arguments
+        // Serve lookups over HTTP if the serve option is provided; no pokemon ID is needed then
+        if (line.hasOption("serve")) {
+            mode = Mode.SERVE;
+            try {
+                servePort = Integer.parseInt(line.getOptionValue("serve"));
+            } catch (NumberFormatException e) {
+                throw new PokemonCommandLineParsingException("Invalid value for the option --serve", options);
+            }
+            return;
+        }
+
+        // Export pokemons to files if the export option is provided; the pokemon IDs are optional then
+        if (line.hasOption("export")) {
+            if (line.hasOption("import") || line.hasOption("sync")) {
+                throw new PokemonCommandLineParsingException("The option --export cannot be combined with --import or --sync", options);
+            }
+            mode = Mode.EXPORT;
+            exportPath = line.getOptionValue("export");
+            exportGzip = line.hasOption("gzip");
+            if (line.hasOption("concurrency")) {
+                try {
+                    exportParallelism = Integer.parseInt(line.getOptionValue("concurrency"));
+                } catch (NumberFormatException e) {
+                    throw new PokemonCommandLineParsingException("Invalid value for the option --concurrency", options);
+                }
+                if (exportParallelism < 1) {
+                    throw new PokemonCommandLineParsingException("Invalid value for the option --concurrency", options);
+                }
+            }
+            if (line.hasOption("shard")) {
+                try {
+                    exportShardSize = Integer.parseInt(line.getOptionValue("shard"));
+                } catch (NumberFormatException e) {
+                    throw new PokemonCommandLineParsingException("Invalid value for the option --shard", options);
+                }
+                if (exportShardSize < 1) {
+                    throw new PokemonCommandLineParsingException("Invalid value for the option --shard", options);
+                }
+            }
+            pokemonIds = new ArrayList<>();
+            for (String arg : line.getArgs()) {
+                try {
+                    pokemonIds.addAll(PokemonIdParser.parse(arg));
+                } catch (IllegalArgumentException e) {
+                    throw new PokemonCommandLineParsingException(e.getMessage(), options);
+                }
+            }
+            return;
+        }
+
+        // Answer the commands typed on the standard input if the repl option is provided; no pokemon ID is needed then
+        if (line.hasOption("repl")) {
+            mode = Mode.REPL;
+            return;
+        }
+
+        // Import pokemons if the import option is provided, or synchronize them if the sync option is; the pokemon IDs are optional then
+        if (line.hasOption("import") || line.hasOption("sync")) {
+            if (line.hasOption("import") && line.hasOption("sync")) {
+                throw new PokemonCommandLineParsingException("The options --import and --sync cannot be combined", options);
+            }
+            if (line.hasOption("import")) {
+                mode = Mode.IMPORT;
+                importPath = line.getOptionValue("import");
+            } else {
+                mode = Mode.SYNC;
+                syncPath = line.getOptionValue("sync");
+            }
+            if (line.hasOption("concurrency")) {
+                try {
+                    importConcurrency = Integer.parseInt(line.getOptionValue("concurrency"));
+                } catch (NumberFormatException e) {
+                    throw new PokemonCommandLineParsingException("Invalid value for the option --concurrency", options);
+                }
+                if (importConcurrency < 1) {
+                    throw new PokemonCommandLineParsingException("Invalid value for the option --concurrency", options);
+                }
+            }
+            pokemonIds = new ArrayList<>();
+            for (String arg : line.getArgs()) {
+                try {
+                    pokemonIds.addAll(PokemonIdParser.parse(arg));
+                } catch (IllegalArgumentException e) {
+                    throw new PokemonCommandLineParsingException(e.getMessage(), options);
+                }
+            }
+            return;
+        }
+
+        // List the pokemons matching height or weight bounds if provided; no pokemon ID is needed then
+        if (line.hasOption("height") || line.hasOption("weight")) {
+            query = new PokemonQuery(Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            if (line.hasOption("height")) {
+                int[] bounds = parseBounds(line.getOptionValue("height"), "--height", options);
+                query = query.andHeightBetween(bounds[0], bounds[1]);
+            }
+            if (line.hasOption("weight")) {
+                int[] bounds = parseBounds(line.getOptionValue("weight"), "--weight", options);
+                query = query.andWeightBetween(bounds[0], bounds[1]);
+            }
+            return;
+        }
+
+        // Search pokemon names if the search option is provided; no pokemon ID is needed then
+        if (line.hasOption("search")) {
+            searchText = line.getOptionValue("search");
+            return;
+        }
+
+        // Get pokemon IDs and names from remaining arguments
         String[] remainingArgs = line.getArgs();
         if (remainingArgs.length < 1) {
-            throw new PokemonCommandLineParsingException("You must provide a pokemon ID", options);
+            throw new PokemonCommandLineParsingException("You must provide a pokemon ID or name", options);
+        }
+        pokemonIds = new ArrayList<>();
+        pokemonNames = new ArrayList<>();
+        for (String arg : remainingArgs) {
+            // An argument starting with a letter is a name, anything else an ID specification
+            if (!arg.isEmpty() && Character.isLetter(arg.charAt(0))) {
+                pokemonNames.add(arg);
+                continue;
+            }
+            try {
+                pokemonIds.addAll(PokemonIdParser.parse(arg));
+            } catch (IllegalArgumentException e) {
+                throw new PokemonCommandLineParsingException(e.getMessage(), options);
+            }
         }
+    }
+
+    /**
+     * Parses an inclusive range written 'min-max', 'min-' or '-max'.
+     *
+     * @param value The value of the option.
+     * @param optionName The name of the option, for the error message.
+     * @param options The command line options, for the error message.
+     * @return The lower and upper bounds, open sides being Integer.MIN_VALUE and Integer.MAX_VALUE.
+     * @throws PokemonCommandLineParsingException if the range is malformed.
+     */
+    private static int[] parseBounds(String value, String optionName, Options options) throws PokemonCommandLineParsingException {
+        int separator = value.indexOf('-');
         try {
-            pokemonId = Integer.parseInt(remainingArgs[0]);
+            if (separator < 0) {
+                int bound = Integer.parseInt(value.trim());
+                return new int[]{bound, bound};
+            }
+            String min = value.substring(0, separator).trim();
+            String max = value.substring(separator + 1).trim();
+            if (min.isEmpty() && max.isEmpty()) {
+                throw new NumberFormatException();
+            }
+            return new int[]{
+                    min.isEmpty() ? Integer.MIN_VALUE : Integer.parseInt(min),
+                    max.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(max)
+            };
         } catch (NumberFormatException e) {
-            throw new PokemonCommandLineParsingException("'" + remainingArgs[0] + "' is not a valid pokemon ID", options);
+            throw new PokemonCommandLineParsingException("Invalid value for the option " + optionName, options);
         }
     }
 
@@ -1,7 +1,16 @@
 package com.example.pokedex.controllers;
 
+import com.example.pokedex.metrics.LatencyHistogram;
+import com.example.pokedex.metrics.Metrics;
 import com.example.pokedex.models.Pokemon;
 import com.example.pokedex.services.PokemonDataService;
+import com.example.pokedex.services.PokemonNameIndex;
+import com.example.pokedex.services.PokemonQuery;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 
 /**
@@ -10,6 +19,15 @@ import com.example.pokedex.services.PokemonDataService;
  * facilitating data retrieval and processing.
  */
 public class PokedexController {
+    private static final String OPERATION_SECONDS = "pokedex_controller_operation_seconds";
+    private static final String OPERATION_HELP = "Time spent in controller operations, views excluded";
+    private static final LatencyHistogram GET_BY_ID = Metrics.histogram(OPERATION_SECONDS, OPERATION_HELP, "operation", "get_by_id");
+    private static final LatencyHistogram GET_BY_IDS = Metrics.histogram(OPERATION_SECONDS, OPERATION_HELP, "operation", "get_by_ids");
+    private static final LatencyHistogram GET_BY_RANGE = Metrics.histogram(OPERATION_SECONDS, OPERATION_HELP, "operation", "get_by_range");
+    private static final LatencyHistogram GET_BY_NAME = Metrics.histogram(OPERATION_SECONDS, OPERATION_HELP, "operation", "get_by_name");
+    private static final LatencyHistogram SEARCH = Metrics.histogram(OPERATION_SECONDS, OPERATION_HELP, "operation", "search");
+    private static final LatencyHistogram QUERY = Metrics.histogram(OPERATION_SECONDS, OPERATION_HELP, "operation", "query");
+
     private PokemonDataService dataService;
 
     /**
@@ -30,8 +48,119 @@ public class PokedexController {
      * @return A Pokemon object corresponding to the specified ID.
      */
     public Pokemon getPokemonById(int pokemonId) { // return pokemon
-        return dataService.getPokemonById(pokemonId);
+        long start = Metrics.startTimer();
+        try {
+            return dataService.getPokemonById(pokemonId);
+        } finally {
+            GET_BY_ID.recordSince(start);
+        }
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID without blocking the calling thread.
+     * Delegates the data fetching operation to the data service.
+     *
+     * @param pokemonId The ID of the Pokémon to be retrieved.
+     * @return A future completed with the Pokémon corresponding to the specified ID.
+     */
+    public CompletableFuture<Pokemon> getPokemonByIdAsync(int pokemonId) {
+        return dataService.getPokemonByIdAsync(pokemonId);
     }
-}
 
+    /**
+     * Retrieves several Pokémon by their IDs.
+     * Delegates the batch fetching operation to the data service.
+     *
+     * @param pokemonIds The IDs of the Pokémon to be retrieved.
+     * @return The Pokémon found, in the order of the requested IDs.
+     */
+    public List<Pokemon> getPokemonByIds(Collection<Integer> pokemonIds) {
+        long start = Metrics.startTimer();
+        try {
+            return dataService.getPokemonByIds(pokemonIds);
+        } finally {
+            GET_BY_IDS.recordSince(start);
+        }
+    }
+
+    /**
+     * Retrieves every Pokémon whose ID lies in the given inclusive range.
+     * Delegates the range fetching operation to the data service.
+     *
+     * @param fromId The first ID of the range (inclusive).
+     * @param toId The last ID of the range (inclusive).
+     * @return The Pokémon found, ordered by ID.
+     */
+    public List<Pokemon> getPokemonByRange(int fromId, int toId) {
+        long start = Metrics.startTimer();
+        try {
+            return dataService.getPokemonByRange(fromId, toId);
+        } finally {
+            GET_BY_RANGE.recordSince(start);
+        }
+    }
 
+    /**
+     * Retrieves a Pokémon by its name, ignoring case and diacritics.
+     * Delegates the name lookup to the data service.
+     *
+     * @param name The name of the Pokémon to be retrieved.
+     * @return The Pokémon with that name, or null if no Pokémon is found.
+     */
+    public Pokemon getPokemonByName(String name) {
+        long start = Metrics.startTimer();
+        try {
+            return dataService.getPokemonByName(name);
+        } finally {
+            GET_BY_NAME.recordSince(start);
+        }
+    }
+
+    /**
+     * Searches the Pokémon whose name starts with the given text, falling back to the names
+     * within {@link PokemonNameIndex#MAX_EDIT_DISTANCE} edits of it when none does.
+     * Delegates the searches to the data service.
+     *
+     * @param text The beginning of the name, or an approximate name.
+     * @param limit The maximum number of Pokémon returned.
+     * @return The matching Pokémon, best matches first.
+     */
+    public List<Pokemon> searchPokemonByName(String text, int limit) {
+        long start = Metrics.startTimer();
+        try {
+            List<Pokemon> pokemons = dataService.findPokemonByNamePrefix(text, limit);
+            if (pokemons.isEmpty()) {
+                pokemons = dataService.findPokemonByApproximateName(text, PokemonNameIndex.MAX_EDIT_DISTANCE, limit);
+            }
+            return pokemons;
+        } finally {
+            SEARCH.recordSince(start);
+        }
+    }
+
+    /**
+     * @return true if the data service can be queried by height and weight.
+     */
+    public boolean supportsQueries() {
+        return dataService.supportsQueries();
+    }
+
+    /**
+     * Streams every Pokémon matching a query on height and weight, ordered by ID.
+     * Delegates the query to the data service.
+     *
+     * @param query The criteria the Pokémon must match.
+     * @param action The action run for each matching Pokémon.
+     * The time recorded includes the action, which usually renders the Pokémon.
+     *
+     * @return The number of matching Pokémon.
+     */
+    public int findPokemon(PokemonQuery query, Consumer<? super Pokemon> action) {
+        long start = Metrics.startTimer();
+        try {
+            return dataService.findPokemon(query, action);
+        } finally {
+            QUERY.recordSince(start);
+        }
+    }
+}
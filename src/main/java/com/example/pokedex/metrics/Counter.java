@@ -0,0 +1,42 @@
+package com.example.pokedex.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter, such as a number of lookups, errors or bytes.
+ * Increments are ignored while metrics are disabled, and striped across threads otherwise,
+ * so that counting on a hot path costs a flag check or an uncontended add.
+ */
+public class Counter {
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    /**
+     * Adds one to the counter.
+     */
+    public void increment() {
+        if (Metrics.isEnabled()) {
+            value.increment();
+        }
+    }
+
+    /**
+     * Adds an amount to the counter.
+     *
+     * @param amount The amount to be added.
+     */
+    public void add(long amount) {
+        if (Metrics.isEnabled()) {
+            value.add(amount);
+        }
+    }
+
+    /**
+     * @return The current value of the counter.
+     */
+    public long get() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.pokedex.metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream adding the number of bytes written to a counter, such as the bytes sent to clients.
+ */
+public class CountingOutputStream extends FilterOutputStream {
+    private final Counter counter;
+
+    /**
+     * Constructor for CountingOutputStream.
+     *
+     * @param out The stream being written.
+     * @param counter The counter receiving the number of bytes written.
+     */
+    public CountingOutputStream(OutputStream out, Counter counter) {
+        super(out);
+        this.counter = counter;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        counter.increment();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        // Writing the array at once; FilterOutputStream would write it byte by byte
+        out.write(b, off, len);
+        counter.add(len);
+    }
+}
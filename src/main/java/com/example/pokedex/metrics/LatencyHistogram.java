@@ -0,0 +1,129 @@
+package com.example.pokedex.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in nanoseconds, with buckets laid out like an HDR histogram.
+ * Durations below 128 ns each have their own bucket; above, every power of two is split into
+ * 64 linear sub-buckets, so any percentile is known within 1/64 (about 1.6%) of its value,
+ * from nanoseconds up to hours, in a fixed array of counts. Recording is lock-free.
+ * The same buckets hold sizes, such as numbers of IDs, for the histograms of {@link Metrics#sizeHistogram}.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;       // 128 exact buckets
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;   // 64 sub-buckets per power of two
+    // Durations are clamped to 2^43 ns, a little more than two hours
+    private static final int MAX_MAGNITUDE = 43;
+    private static final long MAX_TRACKABLE = (1L << MAX_MAGNITUDE) - 1;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructor for LatencyHistogram.
+     * Histograms exported with the metrics are created by {@link Metrics#histogram}; a histogram created
+     * here is private to its owner, which records into it whether metrics are enabled or not.
+     */
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Records the time elapsed since a start time given by {@link Metrics#startTimer()}.
+     * Nothing is recorded if metrics were disabled when the timer was started.
+     *
+     * @param startNanos The start time, or 0 if metrics were disabled.
+     */
+    public void recordSince(long startNanos) {
+        if (startNanos != 0) {
+            record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration, in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_TRACKABLE));
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * @return The number of recorded durations.
+     */
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * @return The sum of the recorded durations, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * @return The longest recorded duration, in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the duration below which the given fraction of the recorded durations fall.
+     *
+     * @param quantile The fraction, between 0 and 1 (0.99 for the 99th percentile).
+     * @return The duration, in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getValueAtQuantile(double quantile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            seen += counts.get(index);
+            if (seen >= rank) {
+                return Math.min(highestValueIn(index), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Returns the bucket of a value: the value itself below 128, else the power of two holding
+     * the value and the 64th of that power the value falls in.
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);        // At least SUB_BUCKET_BITS
+        int shift = magnitude - (SUB_BUCKET_BITS - 1);                  // Keeps the 7 highest bits
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_HALF_COUNT;  // 0 to 63
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the largest value falling in a bucket.
+     */
+    static long highestValueIn(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
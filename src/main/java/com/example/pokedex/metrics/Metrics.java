@@ -0,0 +1,223 @@
+package com.example.pokedex.metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Registry of the application metrics: counters and latency histograms, grouped in families
+ * sharing a name and told apart by labels (such as the backend that answered a lookup).
+ * Instruments are registered once, usually in static fields of the instrumented class, and
+ * are cheap to update; while metrics are disabled, which is the default, timers are not even
+ * started and updates reduce to a flag check.
+ * The registry can be written in the Prometheus text format, or as a summary for humans.
+ */
+public final class Metrics {
+    private static volatile boolean enabled;
+    private static final Map<String, Family> FAMILIES = new LinkedHashMap<>();
+
+    // Quantiles exported for each histogram
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private Metrics() {
+    }
+
+    /**
+     * Enables or disables the recording of metrics; the values recorded so far are kept.
+     *
+     * @param value true to record metrics.
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * @return true if metrics are being recorded.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts a timer, to be stopped by {@link LatencyHistogram#recordSince(long)}.
+     *
+     * @return The current time in nanoseconds, or 0 if metrics are disabled.
+     */
+    public static long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Returns the counter of a family, registering it on first use.
+     *
+     * @param name The name of the family, such as {@code pokedex_backend_lookups_total}.
+     * @param help The description of the family.
+     * @param labels Label names and values, alternately.
+     * @return The counter.
+     */
+    public static Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, "counter", false).instrument(labelSet(labels), true);
+    }
+
+    /**
+     * Returns the latency histogram of a family, registering it on first use.
+     *
+     * @param name The name of the family, such as {@code pokedex_jdbc_seconds}.
+     * @param help The description of the family.
+     * @param labels Label names and values, alternately.
+     * @return The histogram.
+     */
+    public static LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) family(name, help, "summary", true).instrument(labelSet(labels), false);
+    }
+
+    /**
+     * Returns the histogram of a family of sizes, such as the number of IDs sent in a batch, registering it
+     * on first use. Its values are exported as they are recorded, not as durations; like every registered
+     * histogram, it records whether metrics are enabled or not, so callers check {@link #isEnabled()} first.
+     *
+     * @param name The name of the family, such as {@code pokedex_coalescer_batch_size}.
+     * @param help The description of the family.
+     * @param labels Label names and values, alternately.
+     * @return The histogram.
+     */
+    public static LatencyHistogram sizeHistogram(String name, String help, String... labels) {
+        return (LatencyHistogram) family(name, help, "summary", false).instrument(labelSet(labels), false);
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format; durations are in seconds.
+     *
+     * @param out The output receiving the metrics.
+     * @throws IOException if the output cannot be written.
+     */
+    public static void writePrometheus(Appendable out) throws IOException {
+        for (Family family : families()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> entry : family.instruments()) {
+                String labels = entry.getKey();
+                if (entry.getValue() instanceof Counter) {
+                    out.append(family.name).append(braces(labels)).append(' ')
+                            .append(Long.toString(((Counter) entry.getValue()).get())).append('\n');
+                    continue;
+                }
+                LatencyHistogram histogram = (LatencyHistogram) entry.getValue();
+                for (double quantile : QUANTILES) {
+                    String quantileLabel = "quantile=\"" + quantile + "\"";
+                    out.append(family.name).append(braces(labels.isEmpty() ? quantileLabel : labels + "," + quantileLabel))
+                            .append(' ').append(family.value(histogram.getValueAtQuantile(quantile))).append('\n');
+                }
+                out.append(family.name).append("_sum").append(braces(labels)).append(' ')
+                        .append(family.value(histogram.getTotalNanos())).append('\n');
+                out.append(family.name).append("_count").append(braces(labels)).append(' ')
+                        .append(Long.toString(histogram.getCount())).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes the metrics that recorded something, one per line, durations in milliseconds.
+     *
+     * @param out The output receiving the summary.
+     * @throws IOException if the output cannot be written.
+     */
+    public static void writeSummary(Appendable out) throws IOException {
+        for (Family family : families()) {
+            for (Map.Entry<String, Object> entry : family.instruments()) {
+                String name = family.name + braces(entry.getKey());
+                if (entry.getValue() instanceof Counter) {
+                    long value = ((Counter) entry.getValue()).get();
+                    if (value != 0) {
+                        out.append(String.format(Locale.ROOT, "%-60s %d%n", name, value));
+                    }
+                    continue;
+                }
+                LatencyHistogram histogram = (LatencyHistogram) entry.getValue();
+                long count = histogram.getCount();
+                if (count != 0 && !family.durations) {
+                    out.append(String.format(Locale.ROOT, "%-60s count=%d mean=%.1f p50=%d p90=%d p99=%d max=%d%n",
+                            name, count, (double) histogram.getTotalNanos() / count,
+                            histogram.getValueAtQuantile(0.5), histogram.getValueAtQuantile(0.9),
+                            histogram.getValueAtQuantile(0.99), histogram.getMaxNanos()));
+                } else if (count != 0) {
+                    out.append(String.format(Locale.ROOT, "%-60s count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms%n",
+                            name, count, histogram.getTotalNanos() / 1e6 / count,
+                            histogram.getValueAtQuantile(0.5) / 1e6, histogram.getValueAtQuantile(0.9) / 1e6,
+                            histogram.getValueAtQuantile(0.99) / 1e6, histogram.getMaxNanos() / 1e6));
+                }
+            }
+        }
+    }
+
+    private static synchronized Family family(String name, String help, String type, boolean durations) {
+        Family family = FAMILIES.get(name);
+        if (family == null) {
+            family = new Family(name, help, type, durations);
+            FAMILIES.put(name, family);
+        } else if (!family.type.equals(type) || family.durations != durations) {
+            throw new IllegalArgumentException("The metric " + name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    private static synchronized List<Family> families() {
+        return new ArrayList<>(FAMILIES.values());
+    }
+
+    /**
+     * Formats label names and values as they appear between the braces of a Prometheus sample.
+     */
+    private static String labelSet(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name and value pairs");
+        }
+        StringBuilder labelSet = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            labelSet.append(i == 0 ? "" : ",").append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return labelSet.toString();
+    }
+
+    private static String braces(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    /**
+     * Metrics sharing a name, a description and a type, each with its own labels.
+     */
+    private static class Family {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final boolean durations;  // Histogram values are nanoseconds, exported in seconds
+        private final Map<String, Object> instruments = new LinkedHashMap<>();
+
+        Family(String name, String help, String type, boolean durations) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.durations = durations;
+        }
+
+        String value(long recorded) {
+            return durations ? seconds(recorded) : Long.toString(recorded);
+        }
+
+        synchronized Object instrument(String labels, boolean counter) {
+            return instruments.computeIfAbsent(labels, key -> counter ? new Counter() : new LatencyHistogram());
+        }
+
+        synchronized List<Map.Entry<String, Object>> instruments() {
+            return new ArrayList<>(instruments.entrySet());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.pokedex.models;
+
+/**
+ * Represents the base stats of a Pokémon: hit points, attack, defense, special attack,
+ * special defense and speed.
+ */
+public final class BaseStats {
+    private final int hp;
+    private final int attack;
+    private final int defense;
+    private final int specialAttack;
+    private final int specialDefense;
+    private final int speed;
+
+    /**
+     * Constructor for the BaseStats class.
+     *
+     * @param hp The base hit points.
+     * @param attack The base attack.
+     * @param defense The base defense.
+     * @param specialAttack The base special attack.
+     * @param specialDefense The base special defense.
+     * @param speed The base speed.
+     */
+    public BaseStats(int hp, int attack, int defense, int specialAttack, int specialDefense, int speed) {
+        this.hp = hp;
+        this.attack = attack;
+        this.defense = defense;
+        this.specialAttack = specialAttack;
+        this.specialDefense = specialDefense;
+        this.speed = speed;
+    }
+
+    /**
+     * @return The base hit points.
+     */
+    public int getHp() {
+        return hp;
+    }
+
+    /**
+     * @return The base attack.
+     */
+    public int getAttack() {
+        return attack;
+    }
+
+    /**
+     * @return The base defense.
+     */
+    public int getDefense() {
+        return defense;
+    }
+
+    /**
+     * @return The base special attack.
+     */
+    public int getSpecialAttack() {
+        return specialAttack;
+    }
+
+    /**
+     * @return The base special defense.
+     */
+    public int getSpecialDefense() {
+        return specialDefense;
+    }
+
+    /**
+     * @return The base speed.
+     */
+    public int getSpeed() {
+        return speed;
+    }
+
+    /**
+     * @return The sum of the base stats.
+     */
+    public int getTotal() {
+        return hp + attack + defense + specialAttack + specialDefense + speed;
+    }
+}
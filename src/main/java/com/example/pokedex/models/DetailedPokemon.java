@@ -1,12 +1,22 @@
 package com.example.pokedex.models;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
 /**
  * Represents a detailed Pokémon entity, extending the basic Pokémon model.
  * This class includes additional information in the form of a description,
- * providing more detailed data about the Pokémon.
+ * providing more detailed data about the Pokémon, and of its evolution chain.
+ * These details may be loaded lazily: a data service for which they are separate,
+ * expensive resources provides loaders, run once on first access only.
  */
 public class DetailedPokemon extends Pokemon {
-    private String description;  // Detailed description of the Pokémon
+    private volatile String description;  // Detailed description of the Pokémon
+    private volatile List<String> evolutionChain;
+    // Loaders of the details not loaded yet; cleared once they have run
+    private volatile Supplier<String> descriptionLoader;
+    private volatile Supplier<List<String>> evolutionChainLoader;
 
     /**
      * Constructor for the DetailedPokemon class.
@@ -22,15 +32,94 @@ public class DetailedPokemon extends Pokemon {
     public DetailedPokemon(int id, String name, int height, int weight, String description) {
         super(id, name, height, weight);  // Call to the superclass (Pokemon) constructor
         this.description = description;   // Setting the description
+        this.evolutionChain = Collections.emptyList();
+    }
+
+    /**
+     * Constructor for the DetailedPokemon class.
+     * Initializes a new instance of DetailedPokemon with the attributes of a Pokémon and a description.
+     *
+     * @param pokemon The Pokémon whose attributes are copied.
+     * @param description The detailed description of the Pokémon.
+     */
+    public DetailedPokemon(Pokemon pokemon, String description) {
+        super(pokemon);
+        this.description = description;
+        this.evolutionChain = Collections.emptyList();
+    }
+
+    /**
+     * Constructor for the DetailedPokemon class.
+     * Initializes a new instance of DetailedPokemon with the attributes of a Pokémon, and with
+     * details loaded the first time they are read.
+     *
+     * @param pokemon The Pokémon whose attributes are copied.
+     * @param descriptionLoader The loader of the description, returning null if there is none.
+     * @param evolutionChainLoader The loader of the evolution chain, or null if it is unknown.
+     */
+    public DetailedPokemon(Pokemon pokemon, Supplier<String> descriptionLoader,
+                           Supplier<List<String>> evolutionChainLoader) {
+        super(pokemon);
+        this.descriptionLoader = descriptionLoader;
+        this.evolutionChainLoader = evolutionChainLoader;
+        if (evolutionChainLoader == null) {
+            this.evolutionChain = Collections.emptyList();
+        }
     }
 
     /**
      * Retrieves the description of the Pokémon.
-     * This method returns the detailed description associated with the Pokémon.
+     * This method returns the detailed description associated with the Pokémon,
+     * loading it first if it has not been loaded yet.
      *
-     * @return A string representing the description of the Pokémon.
+     * @return A string representing the description of the Pokémon, or null if it has none.
      */
     public String getDescription() {
+        if (descriptionLoader != null) {
+            synchronized (this) {
+                if (descriptionLoader != null) {
+                    description = descriptionLoader.get();
+                    descriptionLoader = null;
+                }
+            }
+        }
         return description;
     }
+
+    /**
+     * Tells whether the description is available without being loaded.
+     *
+     * @return true if {@link #getDescription()} will not run a loader.
+     */
+    public boolean isDescriptionLoaded() {
+        return descriptionLoader == null;
+    }
+
+    /**
+     * Retrieves the evolution chain the Pokémon belongs to, loading it first if needed.
+     *
+     * @return The names of the species of the chain, from the base form to the last evolutions,
+     *         or an empty list if the chain is unknown.
+     */
+    public List<String> getEvolutionChain() {
+        if (evolutionChain == null) {
+            synchronized (this) {
+                if (evolutionChain == null) {
+                    List<String> chain = evolutionChainLoader.get();
+                    evolutionChain = chain != null ? chain : Collections.<String>emptyList();
+                    evolutionChainLoader = null;
+                }
+            }
+        }
+        return evolutionChain;
+    }
+
+    /**
+     * Tells whether the evolution chain is available without being loaded.
+     *
+     * @return true if {@link #getEvolutionChain()} will not run a loader.
+     */
+    public boolean isEvolutionChainLoaded() {
+        return evolutionChain != null;
+    }
 }
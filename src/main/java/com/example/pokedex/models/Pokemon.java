@@ -1,14 +1,21 @@
 package com.example.pokedex.models;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Represents a Pokémon entity.
- * This class models the essential attributes of a Pokémon, such as its ID, name, height, and weight.
+ * This class models the essential attributes of a Pokémon, such as its ID, name, height, and weight,
+ * along with its types, base stats and abilities when the data source provides them.
  */
 public class Pokemon {
     private int id;
     private String name;
     private int height;
     private int weight;
+    private List<PokemonType> types;         // Shared with the Pokémon of the same types; empty if unknown
+    private BaseStats baseStats;             // null if unknown
+    private List<PokemonAbility> abilities;  // Empty if unknown
 
     /**
      * Constructor for the Pokemon class.
@@ -24,6 +31,42 @@ public class Pokemon {
         this.name = name;
         this.height = height;
         this.weight = weight;
+        this.types = Collections.emptyList();
+        this.abilities = Collections.emptyList();
+    }
+
+    /**
+     * Constructor for the Pokemon class.
+     * Initializes a new Pokémon instance with the specified attributes, including its types,
+     * base stats and abilities.
+     *
+     * @param id The unique identifier for the Pokémon.
+     * @param name The name of the Pokémon.
+     * @param height The height of the Pokémon.
+     * @param weight The weight of the Pokémon.
+     * @param types The types of the Pokémon, by slot.
+     * @param baseStats The base stats of the Pokémon, or null if unknown.
+     * @param abilities The abilities of the Pokémon, by slot.
+     */
+    public Pokemon(int id, String name, int height, int weight, List<PokemonType> types, BaseStats baseStats,
+                   List<PokemonAbility> abilities) {
+        this.id = id;
+        this.name = name;
+        this.height = height;
+        this.weight = weight;
+        this.types = types != null ? types : Collections.<PokemonType>emptyList();
+        this.baseStats = baseStats;
+        this.abilities = abilities != null ? abilities : Collections.<PokemonAbility>emptyList();
+    }
+
+    /**
+     * Constructor for the Pokemon class.
+     * Initializes a new Pokémon instance with the attributes of another one.
+     *
+     * @param other The Pokémon whose attributes are copied.
+     */
+    protected Pokemon(Pokemon other) {
+        this(other.id, other.name, other.height, other.weight, other.types, other.baseStats, other.abilities);
     }
 
     // Getters
@@ -61,4 +104,31 @@ public class Pokemon {
     public int getWeight() {
         return weight;
     }
+
+    /**
+     * Gets the types of the Pokémon.
+     *
+     * @return The types of the Pokémon, by slot, or an empty list if they are unknown.
+     */
+    public List<PokemonType> getTypes() {
+        return types;
+    }
+
+    /**
+     * Gets the base stats of the Pokémon.
+     *
+     * @return The base stats of the Pokémon, or null if they are unknown.
+     */
+    public BaseStats getBaseStats() {
+        return baseStats;
+    }
+
+    /**
+     * Gets the abilities of the Pokémon.
+     *
+     * @return The abilities of the Pokémon, by slot, or an empty list if they are unknown.
+     */
+    public List<PokemonAbility> getAbilities() {
+        return abilities;
+    }
 }
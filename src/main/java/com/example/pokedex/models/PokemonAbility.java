@@ -0,0 +1,56 @@
+package com.example.pokedex.models;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents an ability a Pokémon can have, such as overgrow.
+ * Abilities are interned: there is a single instance per name and hidden flag, shared by
+ * every Pokémon having that ability.
+ */
+public final class PokemonAbility {
+    private static final Map<String, PokemonAbility> ABILITIES = new ConcurrentHashMap<>();
+    private static final Map<String, PokemonAbility> HIDDEN_ABILITIES = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final boolean hidden;
+
+    private PokemonAbility(String name, boolean hidden) {
+        this.name = name;
+        this.hidden = hidden;
+    }
+
+    /**
+     * Returns the ability with the given name.
+     *
+     * @param name The name of the ability, as given by the PokeAPI (such as "overgrow").
+     * @param hidden Whether the ability is a hidden ability, which Pokémon rarely have.
+     * @return The shared instance of the ability.
+     */
+    public static PokemonAbility of(String name, boolean hidden) {
+        return (hidden ? HIDDEN_ABILITIES : ABILITIES).computeIfAbsent(name, key -> new PokemonAbility(key, hidden));
+    }
+
+    /**
+     * Gets the name of the ability.
+     *
+     * @return The name of the ability.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Tells whether the ability is a hidden ability.
+     *
+     * @return true for a hidden ability.
+     */
+    public boolean isHidden() {
+        return hidden;
+    }
+
+    @Override
+    public String toString() {
+        return hidden ? name + " (hidden)" : name;
+    }
+}
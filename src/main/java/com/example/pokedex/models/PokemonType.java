@@ -0,0 +1,66 @@
+package com.example.pokedex.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents an elemental type of Pokémon, such as grass or fire.
+ * Types are interned: there is a single instance per name, shared by every Pokémon of that
+ * type, and so is each list of types, as only a few hundred combinations exist.
+ */
+public final class PokemonType {
+    private static final Map<String, PokemonType> TYPES = new ConcurrentHashMap<>();
+    private static final Map<List<String>, List<PokemonType>> COMBINATIONS = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    private PokemonType(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the type with the given name.
+     *
+     * @param name The name of the type, as given by the PokeAPI (such as "grass").
+     * @return The shared instance of the type.
+     */
+    public static PokemonType of(String name) {
+        return TYPES.computeIfAbsent(name, PokemonType::new);
+    }
+
+    /**
+     * Returns the list of the types with the given names.
+     *
+     * @param names The names of the types, by slot.
+     * @return The shared, unmodifiable list of the types.
+     */
+    public static List<PokemonType> combination(List<String> names) {
+        if (names.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return COMBINATIONS.computeIfAbsent(new ArrayList<>(names), key -> {
+            List<PokemonType> types = new ArrayList<>(key.size());
+            for (String name : key) {
+                types.add(of(name));
+            }
+            return Collections.unmodifiableList(types);
+        });
+    }
+
+    /**
+     * Gets the name of the type.
+     *
+     * @return The name of the type.
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,435 @@
+package com.example.pokedex.server;
+
+import com.example.pokedex.controllers.PokedexController;
+import com.example.pokedex.metrics.Counter;
+import com.example.pokedex.metrics.CountingOutputStream;
+import com.example.pokedex.metrics.LatencyHistogram;
+import com.example.pokedex.metrics.Metrics;
+import com.example.pokedex.models.Pokemon;
+import com.example.pokedex.services.AsyncLookupExecutor;
+import com.example.pokedex.services.PokemonQuery;
+import com.example.pokedex.utilities.OutputFormat;
+import com.example.pokedex.utilities.PokemonIdParser;
+import com.example.pokedex.utilities.RenderMetrics;
+import com.example.pokedex.utilities.StreamingOutputWriter;
+import com.example.pokedex.views.PokemonView;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Long-running HTTP server answering Pokémon lookups.
+ * The server shares a single controller, and therefore warm data service connections, between
+ * all the requests, which run on virtual threads when the Java runtime supports them, and on a
+ * bounded pool of threads otherwise.
+ * <ul>
+ *     <li>{@code GET /pokemon/25} returns one Pokémon;</li>
+ *     <li>{@code GET /pokemon/1-151}, {@code GET /pokemon/1,4,7} or {@code GET /pokemon?ids=1-3,25} return several;</li>
+ *     <li>{@code GET /pokemon/pikachu} returns one Pokémon by name;</li>
+ *     <li>{@code GET /pokemon?search=pika} returns the Pokémon whose name starts with, or is close to, the text;</li>
+ *     <li>{@code GET /pokemon?minWeight=500&maxHeight=10} streams the Pokémon matching height and weight bounds;</li>
+ *     <li>{@code GET /metrics} returns the application metrics in the Prometheus text format.</li>
+ * </ul>
+ * The format is chosen by the {@code format} query parameter (text, html, csv, json) or, failing
+ * that, by the {@code Accept} header; JSON is used when the client accepts anything. The description and
+ * evolution chain of Pokémon read from the PokeAPI cost two more requests each, and are only written
+ * with {@code details=true}.
+ * Responses are written in several small packets (headers, chunks, last chunk); without TCP_NODELAY,
+ * Nagle's algorithm and delayed ACKs add tens of milliseconds to each request. The JDK server only
+ * sets it when the {@code sun.net.httpserver.nodelay} system property is true, a setting shared by
+ * every server of the process and read once; the launcher sets it before the first server is created.
+ */
+public class PokedexHttpServer implements AutoCloseable {
+    private static final String POKEMON_PATH = "/pokemon";
+    private static final String METRICS_PATH = "/metrics";
+    // Maximum number of Pokémon returned by a name search
+    private static final int SEARCH_LIMIT = 10;
+    // Number of requests served at the same time when the runtime has no virtual threads
+    private static final int MAX_PLATFORM_THREADS = 64;
+
+    private static final LatencyHistogram REQUEST_SECONDS = Metrics.histogram("pokedex_http_server_request_seconds",
+            "Time spent serving /pokemon requests, from the request line to the last byte of the response");
+    private static final Counter BYTES_SENT = Metrics.counter("pokedex_http_server_sent_bytes_total",
+            "Bytes of /pokemon response bodies sent");
+
+    private final PokedexController controller;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor for PokedexHttpServer.
+     * Binds the server to the given port; requests are served once {@link #start()} is called.
+     *
+     * @param controller The controller answering the lookups.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException if the server cannot be bound to the port.
+     */
+    public PokedexHttpServer(PokedexController controller, int port) throws IOException {
+        this.controller = controller;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = AsyncLookupExecutor.newVirtualThreadPerTaskExecutor(MAX_PLATFORM_THREADS);
+        server.setExecutor(executor);
+        HttpContext pokemonContext = server.createContext(POKEMON_PATH, this::handlePokemon);
+        pokemonContext.getFilters().add(new MetricsFilter());
+        server.createContext(METRICS_PATH, PokedexHttpServer::handleMetrics);
+    }
+
+    /**
+     * Starts serving requests in the background.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return The port the server listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, letting the requests being served finish for up to one second.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Handles the requests made to the /pokemon endpoints.
+     */
+    private void handlePokemon(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+
+            URI uri = exchange.getRequestURI();
+            String path = uri.getPath();
+            // The context matches every path starting with /pokemon, /pokemonfoo included
+            if (!path.equals(POKEMON_PATH) && !path.startsWith(POKEMON_PATH + "/")) {
+                sendError(exchange, 404, "Unknown path " + path);
+                return;
+            }
+            String idSpec = path.length() > POKEMON_PATH.length() + 1
+                    ? path.substring(POKEMON_PATH.length() + 1)
+                    : queryParameter(uri, "ids");
+            String searchText = idSpec == null ? queryParameter(uri, "search") : null;
+            PokemonQuery query;
+            try {
+                query = idSpec == null && searchText == null ? parseQuery(uri) : null;
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "Height and weight bounds must be integers");
+                return;
+            }
+            if ((idSpec == null || idSpec.isEmpty()) && (searchText == null || searchText.isEmpty()) && query == null) {
+                sendError(exchange, 400, "Use /pokemon/{id}, /pokemon/{firstId}-{lastId}, /pokemon/{name}, "
+                        + "/pokemon?ids={ids}, /pokemon?search={text} or /pokemon?minHeight=&maxHeight=&minWeight=&maxWeight=");
+                return;
+            }
+
+            OutputFormat format = negotiateFormat(exchange);
+            if (format == null) {
+                sendError(exchange, 406, "Supported formats are text/plain, text/html, text/csv and application/json");
+                return;
+            }
+            boolean details = "true".equalsIgnoreCase(queryParameter(uri, "details"));
+
+            if (query != null) {
+                sendQueryResults(exchange, format, query, details);
+                return;
+            }
+            if (searchText != null) {
+                sendPokemons(exchange, format, controller.searchPokemonByName(searchText, SEARCH_LIMIT), details);
+                return;
+            }
+            // A specification starting with a letter is a name rather than IDs
+            if (Character.isLetter(idSpec.charAt(0))) {
+                Pokemon pokemon = controller.getPokemonByName(idSpec);
+                if (pokemon == null) {
+                    sendError(exchange, 404, "No pokemon named '" + idSpec + "'");
+                    return;
+                }
+                sendPokemon(exchange, format, pokemon, details);
+                return;
+            }
+
+            List<Integer> ids;
+            try {
+                ids = PokemonIdParser.parse(idSpec);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+
+            boolean single = ids.size() == 1 && idSpec.indexOf(',') < 0 && idSpec.indexOf('-', 1) < 0;
+            if (single) {
+                Pokemon pokemon = controller.getPokemonById(ids.get(0));
+                if (pokemon == null) {
+                    sendError(exchange, 404, "No pokemon with the ID " + ids.get(0));
+                    return;
+                }
+                sendPokemon(exchange, format, pokemon, details);
+            } else {
+                sendPokemons(exchange, format, controller.getPokemonByIds(ids), details);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Handles the requests made to the /metrics endpoint.
+     */
+    private static void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+            StringWriter text = new StringWriter(4096);
+            Metrics.writePrometheus(text);
+            byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Sends a single Pokémon, rendered by its view into a buffer so that its length is known.
+     */
+    private static void sendPokemon(HttpExchange exchange, OutputFormat format, Pokemon pokemon, boolean details)
+            throws IOException {
+        long start = Metrics.startTimer();
+        PokemonView view = PokemonView.forPokemon(pokemon, details);
+        StringBuilder body = new StringBuilder(256);
+        switch (format) {
+            case HTML:
+                view.appendHTML(body);
+                break;
+            case CSV:
+                view.appendCSVHeader(body);
+                view.appendCSVRecord(body);
+                break;
+            case JSON:
+                view.appendJSON(body);
+                body.append('\n');
+                break;
+            default:
+                view.appendHumanReadableText(body);
+                break;
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        RenderMetrics.renderSeconds(format).recordSince(start);
+        exchange.getResponseHeaders().set("Content-Type", contentType(format));
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Streams several Pokémon, with the format header and footer written once.
+     */
+    private static void sendPokemons(HttpExchange exchange, OutputFormat format, List<Pokemon> pokemons, boolean details)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType(format));
+        exchange.sendResponseHeaders(200, 0);
+        try (StreamingOutputWriter writer = new StreamingOutputWriter(format, exchange.getResponseBody())) {
+            for (Pokemon pokemon : pokemons) {
+                writer.write(PokemonView.forPokemon(pokemon, details));
+            }
+        }
+    }
+
+    /**
+     * Streams the Pokémon matching a query as the data service reads them.
+     * The headers are only sent with the first Pokémon, so that an error raised before it still gets an error status.
+     */
+    private void sendQueryResults(HttpExchange exchange, OutputFormat format, PokemonQuery query, boolean details)
+            throws IOException {
+        if (!controller.supportsQueries()) {
+            sendError(exchange, 501, "The data service cannot be queried by height or weight");
+            return;
+        }
+        StreamingOutputWriter[] writer = new StreamingOutputWriter[1];
+        try {
+            controller.findPokemon(query, pokemon -> {
+                try {
+                    if (writer[0] == null) {
+                        writer[0] = startStreaming(exchange, format);
+                    }
+                    writer[0].write(PokemonView.forPokemon(pokemon, details));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (writer[0] == null) {
+                writer[0] = startStreaming(exchange, format);
+            }
+            writer[0].close();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static StreamingOutputWriter startStreaming(HttpExchange exchange, OutputFormat format) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType(format));
+        exchange.sendResponseHeaders(200, 0);
+        return new StreamingOutputWriter(format, exchange.getResponseBody());
+    }
+
+    /**
+     * Builds the query described by the height and weight bound parameters.
+     *
+     * @return The query, or null if no bound is given.
+     * @throws NumberFormatException if a bound is not an integer.
+     */
+    private static PokemonQuery parseQuery(URI uri) {
+        String[] names = {"minHeight", "maxHeight", "minWeight", "maxWeight"};
+        int[] bounds = {Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        boolean bounded = false;
+        for (int i = 0; i < names.length; i++) {
+            String value = queryParameter(uri, names[i]);
+            if (value != null) {
+                bounds[i] = Integer.parseInt(value.trim());
+                bounded = true;
+            }
+        }
+        return bounded ? new PokemonQuery(bounds[0], bounds[1], bounds[2], bounds[3]) : null;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Chooses the output format from the format query parameter, then from the Accept header.
+     *
+     * @return The output format, or null if the client accepts none of the supported formats.
+     */
+    static OutputFormat negotiateFormat(HttpExchange exchange) {
+        String formatParameter = queryParameter(exchange.getRequestURI(), "format");
+        if (formatParameter != null) {
+            for (OutputFormat format : OutputFormat.values()) {
+                if (format.name().equalsIgnoreCase(formatParameter)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        if (accept == null || accept.isEmpty()) {
+            return OutputFormat.JSON;
+        }
+        boolean acceptsAnything = false;
+        for (String mediaRange : accept.split(",")) {
+            int parameters = mediaRange.indexOf(';');
+            String mediaType = (parameters < 0 ? mediaRange : mediaRange.substring(0, parameters)).trim().toLowerCase();
+            switch (mediaType) {
+                case "application/json":
+                    return OutputFormat.JSON;
+                case "text/html":
+                    return OutputFormat.HTML;
+                case "text/csv":
+                    return OutputFormat.CSV;
+                case "text/plain":
+                case "text/*":
+                    return OutputFormat.TEXT;
+                case "application/*":
+                case "*/*":
+                    acceptsAnything = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return acceptsAnything ? OutputFormat.JSON : null;
+    }
+
+    private static String contentType(OutputFormat format) {
+        switch (format) {
+            case HTML:
+                return "text/html; charset=utf-8";
+            case CSV:
+                return "text/csv; charset=utf-8";
+            case JSON:
+                return "application/json; charset=utf-8";
+            default:
+                return "text/plain; charset=utf-8";
+        }
+    }
+
+    /**
+     * Returns the decoded value of a query parameter, or null if it is absent.
+     */
+    private static String queryParameter(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            if (key.equals(name)) {
+                return separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Filter recording the latency, status and size of the responses while metrics are enabled.
+     */
+    private static class MetricsFilter extends Filter {
+        @Override
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            long start = Metrics.startTimer();
+            if (start == 0) {
+                chain.doFilter(exchange);
+                return;
+            }
+            exchange.setStreams(null, new CountingOutputStream(exchange.getResponseBody(), BYTES_SENT));
+            try {
+                chain.doFilter(exchange);
+            } finally {
+                REQUEST_SECONDS.recordSince(start);
+                Metrics.counter("pokedex_http_server_responses_total", "Responses sent to /pokemon requests, by status",
+                        "status", Integer.toString(exchange.getResponseCode())).increment();
+            }
+        }
+
+        @Override
+        public String description() {
+            return "Records the metrics of /pokemon requests";
+        }
+    }
+}
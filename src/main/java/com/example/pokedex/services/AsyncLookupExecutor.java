@@ -0,0 +1,183 @@
+package com.example.pokedex.services;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Executor running blocking lookups in the background for the asynchronous data service API.
+ * Each lookup runs on its own virtual thread when the Java runtime supports them (Java 21 and
+ * later), so thousands of pending lookups only cost a few hundred bytes each, and a semaphore
+ * bounds how many of them hit the data source at the same time. Older runtimes fall back to a
+ * pool of as many daemon threads as the concurrency limit, the other lookups waiting in its queue.
+ * An optional timeout fails lookups that take too long.
+ */
+public class AsyncLookupExecutor implements AutoCloseable {
+    // Default maximum number of lookups running at the same time
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+    // Default maximum duration of a lookup, in milliseconds
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    private static volatile AsyncLookupExecutor sharedExecutor;
+
+    private final ExecutorService executor;
+    // Bounds the running lookups on virtual threads; null when the pool size bounds them
+    private final Semaphore permits;
+    private final long timeoutMillis;
+
+    /**
+     * Constructor for AsyncLookupExecutor.
+     * Uses the default concurrency limit and timeout.
+     */
+    public AsyncLookupExecutor() {
+        this(DEFAULT_MAX_CONCURRENCY, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Constructor for AsyncLookupExecutor.
+     *
+     * @param maxConcurrency The maximum number of lookups running at the same time; the others wait.
+     * @param timeoutMillis The maximum duration of a lookup, waiting included, in milliseconds (0 or less for no timeout).
+     */
+    public AsyncLookupExecutor(int maxConcurrency, long timeoutMillis) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        ExecutorService virtualThreads = newVirtualThreadExecutorOrNull();
+        if (virtualThreads != null) {
+            this.executor = virtualThreads;
+            this.permits = new Semaphore(maxConcurrency);
+        } else {
+            this.executor = newDaemonThreadPool(maxConcurrency);
+            this.permits = null;
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Returns the executor shared by data services that do not provide their own.
+     *
+     * @return The shared executor, created on first use with the default settings.
+     */
+    public static AsyncLookupExecutor shared() {
+        AsyncLookupExecutor executor = sharedExecutor;
+        if (executor == null) {
+            synchronized (AsyncLookupExecutor.class) {
+                executor = sharedExecutor;
+                if (executor == null) {
+                    executor = new AsyncLookupExecutor();
+                    sharedExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Runs a blocking task in the background.
+     * The task waits for a free slot under the concurrency limit before it starts. If the
+     * returned future completes exceptionally (timeout or cancellation), the task is interrupted.
+     *
+     * @param task The task to be run.
+     * @return A future completed with the result of the task.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running;
+        try {
+            running = executor.submit(() -> {
+                if (permits != null) {
+                    try {
+                        permits.acquire();
+                    } catch (InterruptedException e) {
+                        result.completeExceptionally(e);
+                        return;
+                    }
+                }
+                try {
+                    result.complete(task.get());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    if (permits != null) {
+                        permits.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        if (timeoutMillis > 0) {
+            result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Stops accepting new lookups. Lookups already submitted run to completion.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task, or a pool of at most
+     * {@code maxPlatformThreads} daemon threads when the runtime has no virtual threads;
+     * the tasks submitted while every thread is busy then wait in the queue of the pool.
+     *
+     * @param maxPlatformThreads The number of threads of the fallback pool.
+     * @return A new executor, to be shut down by the caller.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(int maxPlatformThreads) {
+        if (maxPlatformThreads < 1) {
+            throw new IllegalArgumentException("maxPlatformThreads must be at least 1");
+        }
+        ExecutorService virtualThreads = newVirtualThreadExecutorOrNull();
+        return virtualThreads != null ? virtualThreads : newDaemonThreadPool(maxPlatformThreads);
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task. Reflection keeps the code compiling on older JDKs.
+     *
+     * @return A new executor, or null when the runtime has no virtual threads.
+     */
+    private static ExecutorService newVirtualThreadExecutorOrNull() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a pool of a fixed number of daemon threads with an unbounded queue.
+     * Idle threads stop after a minute, so an unused pool holds no thread.
+     */
+    private static ExecutorService newDaemonThreadPool(int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "pokedex-async-lookup");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,400 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.metrics.Counter;
+import com.example.pokedex.metrics.LatencyHistogram;
+import com.example.pokedex.metrics.Metrics;
+import com.example.pokedex.models.Pokemon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache in front of any PokemonDataService.
+ * Entries are evicted in least-recently-used order once the cache is full and expire after a
+ * time-to-live. IDs the underlying service has no Pokémon for are cached too, with their
+ * own (usually shorter) time-to-live, so that unknown IDs do not hit the data source every time;
+ * IDs whose lookup failed are not, as they may well be found when asked again.
+ * Concurrent misses on the same ID are collapsed into a single call to the underlying service.
+ * Hits, misses, evictions and load times are recorded in the application {@link Metrics}.
+ */
+public class CachingPokemonDataService implements PokemonDataService {
+    // Default maximum number of cached IDs
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    // Default time-to-live of a cached Pokémon, in milliseconds
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    // Default time-to-live of a cached miss, in milliseconds
+    public static final long DEFAULT_NEGATIVE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final Counter HITS = Metrics.counter("pokedex_cache_hits_total",
+            "Lookups answered from the read-through cache");
+    private static final Counter MISSES = Metrics.counter("pokedex_cache_misses_total",
+            "Lookups not found in the read-through cache");
+    private static final Counter EVICTIONS = Metrics.counter("pokedex_cache_evictions_total",
+            "Entries evicted from the read-through cache because it was full");
+    private static final LatencyHistogram LOAD_SECONDS = Metrics.histogram("pokedex_cache_load_seconds",
+            "Time spent by the read-through cache in calls to the underlying service");
+
+    private final PokemonDataService delegate;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+
+    private final Map<Integer, CacheEntry> entries;
+    private final Map<Integer, CompletableFuture<Pokemon>> inFlightLoads = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+
+    /**
+     * Constructor for CachingPokemonDataService.
+     * Uses the default size and time-to-live settings.
+     *
+     * @param delegate The data service whose results are cached.
+     */
+    public CachingPokemonDataService(PokemonDataService delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS, DEFAULT_NEGATIVE_TTL_MILLIS);
+    }
+
+    /**
+     * Constructor for CachingPokemonDataService.
+     *
+     * @param delegate The data service whose results are cached.
+     * @param maxEntries The maximum number of cached IDs.
+     * @param ttlMillis The time-to-live of a cached Pokémon, in milliseconds (0 or less never expires).
+     * @param negativeTtlMillis The time-to-live of a cached miss, in milliseconds (0 or less disables negative caching).
+     */
+    public CachingPokemonDataService(PokemonDataService delegate, int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.delegate = delegate;
+        this.ttlNanos = ttlMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMillis) : Long.MAX_VALUE;
+        this.negativeTtlNanos = negativeTtlMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis) : 0;
+        // An access-ordered LinkedHashMap keeps the least recently used entry first
+        this.entries = new LinkedHashMap<Integer, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CacheEntry> eldest) {
+                if (size() > maxEntries) {
+                    evictionCount.increment();
+                    EVICTIONS.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the name index of the underlying service.
+     * Pokémon found by name are then retrieved through the cache.
+     *
+     * @return The name index of the underlying service, or null if it cannot search by name.
+     */
+    @Override
+    public PokemonNameIndex getNameIndex() {
+        return delegate.getNameIndex();
+    }
+
+    /**
+     * @return true if the underlying service can be queried by height and weight.
+     */
+    @Override
+    public boolean supportsQueries() {
+        return delegate.supportsQueries();
+    }
+
+    /**
+     * Streams the Pokémon matching a query from the underlying service.
+     * Query results bypass the cache, as they would otherwise evict the entries of regular lookups.
+     *
+     * @param query The criteria the Pokémon must match.
+     * @param action The action run for each matching Pokémon.
+     * @return The number of matching Pokémon.
+     */
+    @Override
+    public int findPokemon(PokemonQuery query, Consumer<? super Pokemon> action) {
+        return delegate.findPokemon(query, action);
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID, from the cache if possible.
+     * On a miss, the underlying service is called once even if several threads ask for the same ID.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return A Pokemon object corresponding to the specified ID, or null if no Pokémon is found.
+     */
+    @Override
+    public Pokemon getPokemonById(int id) {
+        CacheEntry entry = lookup(id);
+        if (entry != null) {
+            recordHit();
+            return entry.pokemon;
+        }
+        recordMiss();
+
+        CompletableFuture<Pokemon> load = new CompletableFuture<>();
+        CompletableFuture<Pokemon> pendingLoad = inFlightLoads.putIfAbsent(id, load);
+        if (pendingLoad != null) {
+            // Another thread is already loading this ID: wait for its result
+            try {
+                return pendingLoad.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            // The entry may have been stored between the lookup and the registration of this load
+            entry = lookup(id);
+            Pokemon pokemon = entry != null ? entry.pokemon : load(id);
+            load.complete(pokemon);
+            return pokemon;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(id, load);
+        }
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID without blocking the calling thread, from the cache if possible.
+     * A miss is loaded in the background on the shared {@link AsyncLookupExecutor}, the load being
+     * shared by every caller asking for the same ID in the meantime.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return A future completed with the Pokémon, or with null if no Pokémon is found.
+     */
+    @Override
+    public CompletableFuture<Pokemon> getPokemonByIdAsync(int id) {
+        CacheEntry entry = lookup(id);
+        if (entry != null) {
+            recordHit();
+            return CompletableFuture.completedFuture(entry.pokemon);
+        }
+        recordMiss();
+
+        CompletableFuture<Pokemon> load = new CompletableFuture<>();
+        CompletableFuture<Pokemon> pendingLoad = inFlightLoads.putIfAbsent(id, load);
+        if (pendingLoad != null) {
+            return pendingLoad;
+        }
+
+        AsyncLookupExecutor.shared().submit(() -> load(id)).whenComplete((pokemon, error) -> {
+            inFlightLoads.remove(id, load);
+            if (error == null) {
+                load.complete(pokemon);
+            } else {
+                load.completeExceptionally(error);
+            }
+        });
+        return load;
+    }
+
+    /**
+     * Retrieves several Pokémon, answering from the cache where possible and fetching
+     * every missing ID from the underlying service in a single batch.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @return The Pokémon found, in the order of the requested IDs.
+     */
+    @Override
+    public List<Pokemon> getPokemonByIds(Collection<Integer> ids) {
+        return getPokemonByIds(ids, new ArrayList<>());
+    }
+
+    /**
+     * Retrieves several Pokémon like {@link #getPokemonByIds(Collection)}, reporting the IDs the
+     * underlying service failed to look up; these are not cached.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @param failedIds Receives the requested IDs whose lookup failed.
+     * @return The Pokémon found, in the order of the requested IDs.
+     */
+    @Override
+    public List<Pokemon> getPokemonByIds(Collection<Integer> ids, Collection<Integer> failedIds) {
+        Map<Integer, Pokemon> found = new LinkedHashMap<>();
+        Set<Integer> missingIds = new LinkedHashSet<>();
+        for (int id : ids) {
+            CacheEntry entry = lookup(id);
+            if (entry != null) {
+                recordHit();
+                found.put(id, entry.pokemon);
+            } else if (missingIds.add(id)) {
+                recordMiss();
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            long timer = Metrics.startTimer();
+            Set<Integer> loadFailedIds = new HashSet<>();
+            List<Pokemon> loaded = delegate.getPokemonByIds(missingIds, loadFailedIds);
+            recordLoad(timer);
+            for (Pokemon pokemon : loaded) {
+                found.put(pokemon.getId(), pokemon);
+                store(pokemon.getId(), pokemon);
+            }
+            for (int id : missingIds) {
+                if (found.containsKey(id)) {
+                    continue;
+                }
+                if (loadFailedIds.contains(id)) {
+                    failedIds.add(id);
+                } else {
+                    store(id, null);
+                }
+            }
+        }
+
+        List<Pokemon> pokemons = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Pokemon pokemon = found.get(id);
+            if (pokemon != null) {
+                pokemons.add(pokemon);
+            }
+        }
+        return pokemons;
+    }
+
+    /**
+     * Closes the underlying data service.
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Removes every entry from the cache. Counters are left untouched.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return The number of lookups answered from the cache.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return The number of lookups that were not in the cache.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return The number of entries evicted because the cache was full.
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return The number of calls made to the underlying service.
+     */
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    /**
+     * @return The number of entries currently cached, including expired ones not yet removed.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Calls the underlying service once, through the lookup reporting failures, and stores its result
+     * unless the lookup failed: a single lookup returns null on errors as well as for unknown IDs.
+     */
+    private Pokemon load(int id) {
+        long timer = Metrics.startTimer();
+        List<Integer> failedIds = new ArrayList<>(1);
+        List<Pokemon> pokemons = delegate.getPokemonByIds(Collections.singletonList(id), failedIds);
+        recordLoad(timer);
+        Pokemon pokemon = pokemons.isEmpty() ? null : pokemons.get(0);
+        if (pokemon != null || failedIds.isEmpty()) {
+            store(id, pokemon);
+        }
+        return pokemon;
+    }
+
+    private void recordLoad(long timer) {
+        loadCount.increment();
+        LOAD_SECONDS.recordSince(timer);
+    }
+
+    private void recordHit() {
+        hitCount.increment();
+        HITS.increment();
+    }
+
+    private void recordMiss() {
+        missCount.increment();
+        MISSES.increment();
+    }
+
+    /**
+     * Returns the live entry for an ID, removing it if it has expired.
+     */
+    private CacheEntry lookup(int id) {
+        synchronized (entries) {
+            CacheEntry entry = entries.get(id);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(id);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void store(int id, Pokemon pokemon) {
+        long ttl = pokemon != null ? ttlNanos : negativeTtlNanos;
+        if (ttl == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long expiresAt = ttl == Long.MAX_VALUE || now + ttl < now ? Long.MAX_VALUE : now + ttl;
+        synchronized (entries) {
+            entries.put(id, new CacheEntry(pokemon, expiresAt));
+        }
+    }
+
+    /**
+     * A cached lookup result; a null Pokémon records that the ID is unknown.
+     */
+    private static class CacheEntry {
+        private final Pokemon pokemon;
+        private final long expiresAtNanos;
+
+        CacheEntry(Pokemon pokemon, long expiresAtNanos) {
+            this.pokemon = pokemon;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long nowNanos) {
+            return expiresAtNanos != Long.MAX_VALUE && nowNanos - expiresAtNanos > 0;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.pokedex.services;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker stopping requests to a failing dependency.
+ * After {@code failureThreshold} consecutive failures the circuit opens and requests fail fast
+ * for {@code openMillis}; a single trial request is then let through (half-open), which closes
+ * the circuit on success or opens it again on failure.
+ */
+public class CircuitBreaker {
+    // Default number of consecutive failures opening the circuit
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    // Default time the circuit stays open before a trial request
+    public static final long DEFAULT_OPEN_MILLIS = 30_000;
+
+    /**
+     * Enumeration for the states of the circuit.
+     * CLOSED - requests are sent
+     * OPEN - requests fail fast
+     * HALF_OPEN - a trial request is being sent
+     */
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+
+    /**
+     * Constructor for CircuitBreaker.
+     * Uses the default threshold and open time.
+     */
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS);
+    }
+
+    /**
+     * Constructor for CircuitBreaker.
+     *
+     * @param failureThreshold The number of consecutive failures opening the circuit.
+     * @param openMillis The time the circuit stays open before a trial request, in milliseconds.
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * Tells whether a request may be sent; when the open time has elapsed, the caller is the trial request.
+     *
+     * @return true if the request may be sent, false if it must fail fast.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Records a request that succeeded, closing the circuit.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Records a request that failed, opening the circuit if the trial request failed
+     * or too many requests failed in a row.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return The current state of the circuit.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+}
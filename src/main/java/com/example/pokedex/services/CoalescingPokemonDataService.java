@@ -0,0 +1,361 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.metrics.Counter;
+import com.example.pokedex.metrics.LatencyHistogram;
+import com.example.pokedex.metrics.Metrics;
+import com.example.pokedex.models.Pokemon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Dispatcher in front of a data service whose lookups are remote calls, such as {@link PokeApiService}.
+ * Lookups of an ID already being fetched wait for that fetch instead of starting another one.
+ * The other lookups are gathered for a short window, or until a batch is full, then fetched
+ * together with one {@link PokemonDataService#getPokemonByIds(Collection)} call, which the
+ * underlying service spreads over its pooled connections. Under bursts of overlapping lookups,
+ * the underlying service sees each ID once per window rather than once per caller.
+ */
+public class CoalescingPokemonDataService implements PokemonDataService {
+    // Default time a lookup waits for others to join its batch, in microseconds
+    public static final long DEFAULT_BATCH_WINDOW_MICROS = 2_000;
+    // Default maximum number of IDs fetched in one batch
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    private static final Counter REQUESTS = Metrics.counter("pokedex_coalescer_requests_total",
+            "Lookups received by the coalescing dispatcher");
+    private static final Counter COALESCED = Metrics.counter("pokedex_coalescer_coalesced_total",
+            "Lookups answered by a fetch already in flight for the same ID");
+    private static final Counter BATCHES = Metrics.counter("pokedex_coalescer_batches_total",
+            "Batches sent to the underlying service");
+    private static final LatencyHistogram BATCH_SIZES = Metrics.sizeHistogram("pokedex_coalescer_batch_size",
+            "Number of IDs in the batches sent to the underlying service");
+    // Completes the fetches of IDs whose lookup failed in the underlying service, unlike null for IDs it has no Pokémon for
+    private static final Pokemon LOOKUP_FAILED = new Pokemon(0, "", 0, 0);
+
+    private final PokemonDataService delegate;
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService windowTimer;
+    private final ExecutorService dispatchExecutor;
+
+    private final Map<Integer, CompletableFuture<Pokemon>> inFlight = new ConcurrentHashMap<>();
+    private final Object pendingLock = new Object();
+    private List<Integer> pendingIds = new ArrayList<>();  // Guarded by pendingLock
+    private boolean windowScheduled;                       // Guarded by pendingLock
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder batchedIdCount = new LongAdder();
+
+    /**
+     * Constructor for CoalescingPokemonDataService.
+     * Uses the default batch window and size.
+     *
+     * @param delegate The data service fetching the batches.
+     */
+    public CoalescingPokemonDataService(PokemonDataService delegate) {
+        this(delegate, DEFAULT_BATCH_WINDOW_MICROS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor for CoalescingPokemonDataService.
+     *
+     * @param delegate The data service fetching the batches.
+     * @param batchWindowMicros The time a lookup waits for others to join its batch, in microseconds.
+     * @param maxBatchSize The maximum number of IDs fetched in one batch; a full batch is sent at once.
+     */
+    public CoalescingPokemonDataService(PokemonDataService delegate, long batchWindowMicros, int maxBatchSize) {
+        if (batchWindowMicros < 0 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("The batch window must be positive and the batch size at least 1");
+        }
+        this.delegate = delegate;
+        this.batchWindowNanos = TimeUnit.MICROSECONDS.toNanos(batchWindowMicros);
+        this.maxBatchSize = maxBatchSize;
+        this.windowTimer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "pokedex-batch-window");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatchExecutor = AsyncLookupExecutor.newVirtualThreadPerTaskExecutor(AsyncLookupExecutor.DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID, waiting for the batch it joined to be fetched.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return A Pokemon object corresponding to the specified ID, or null if no Pokémon is found.
+     */
+    @Override
+    public Pokemon getPokemonById(int id) {
+        return orNull(join(fetch(id)));
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID without blocking the calling thread.
+     * The lookup joins the fetch in flight for the same ID if there is one, or the next batch.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return A future completed with the Pokémon, or with null if no Pokémon is found.
+     */
+    @Override
+    public CompletableFuture<Pokemon> getPokemonByIdAsync(int id) {
+        return fetch(id).thenApply(CoalescingPokemonDataService::orNull);
+    }
+
+    /**
+     * Joins the fetch in flight for an ID if there is one, or the next batch.
+     *
+     * @return The fetch, completed with {@link #LOOKUP_FAILED} if the underlying service failed to look the ID up.
+     */
+    private CompletableFuture<Pokemon> fetch(int id) {
+        requestCount.increment();
+        REQUESTS.increment();
+        CompletableFuture<Pokemon> lookup = new CompletableFuture<>();
+        CompletableFuture<Pokemon> pendingLookup = inFlight.putIfAbsent(id, lookup);
+        if (pendingLookup != null) {
+            coalescedCount.increment();
+            COALESCED.increment();
+            return pendingLookup;
+        }
+        enqueue(id);
+        return lookup;
+    }
+
+    /**
+     * Retrieves several Pokémon, each ID joining a fetch in flight or a batch like a single lookup.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @return The Pokémon found, in the order of the requested IDs.
+     */
+    @Override
+    public List<Pokemon> getPokemonByIds(Collection<Integer> ids) {
+        return getPokemonByIds(ids, new ArrayList<>());
+    }
+
+    /**
+     * Retrieves several Pokémon like {@link #getPokemonByIds(Collection)}, reporting the IDs the
+     * underlying service failed to look up.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @param failedIds Receives the requested IDs whose lookup failed.
+     * @return The Pokémon found, in the order of the requested IDs.
+     */
+    @Override
+    public List<Pokemon> getPokemonByIds(Collection<Integer> ids, Collection<Integer> failedIds) {
+        Map<Integer, CompletableFuture<Pokemon>> lookups = new LinkedHashMap<>();
+        for (int id : ids) {
+            lookups.computeIfAbsent(id, this::fetch);
+        }
+        Map<Integer, Pokemon> found = new HashMap<>();
+        for (Map.Entry<Integer, CompletableFuture<Pokemon>> lookup : lookups.entrySet()) {
+            Pokemon pokemon = join(lookup.getValue());
+            if (pokemon == LOOKUP_FAILED) {
+                failedIds.add(lookup.getKey());
+            } else if (pokemon != null) {
+                found.put(lookup.getKey(), pokemon);
+            }
+        }
+        List<Pokemon> pokemons = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Pokemon pokemon = found.get(id);
+            if (pokemon != null) {
+                pokemons.add(pokemon);
+            }
+        }
+        return pokemons;
+    }
+
+    /**
+     * Returns the name index of the underlying service.
+     *
+     * @return The name index of the underlying service, or null if it cannot search by name.
+     */
+    @Override
+    public PokemonNameIndex getNameIndex() {
+        return delegate.getNameIndex();
+    }
+
+    /**
+     * @return true if the underlying service can be queried by height and weight.
+     */
+    @Override
+    public boolean supportsQueries() {
+        return delegate.supportsQueries();
+    }
+
+    /**
+     * Streams the Pokémon matching a query from the underlying service.
+     *
+     * @param query The criteria the Pokémon must match.
+     * @param action The action run for each matching Pokémon.
+     * @return The number of matching Pokémon.
+     */
+    @Override
+    public int findPokemon(PokemonQuery query, Consumer<? super Pokemon> action) {
+        return delegate.findPokemon(query, action);
+    }
+
+    /**
+     * Stops dispatching batches and closes the underlying data service.
+     * Lookups still waiting for a batch fail.
+     */
+    @Override
+    public void close() {
+        windowTimer.shutdownNow();
+        dispatchExecutor.shutdown();
+        List<Integer> abandonedIds;
+        synchronized (pendingLock) {
+            abandonedIds = pendingIds;
+            pendingIds = new ArrayList<>();
+        }
+        fail(abandonedIds, new IllegalStateException("The coalescing dispatcher has been closed"));
+        delegate.close();
+    }
+
+    /**
+     * @return The number of lookups received.
+     */
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    /**
+     * @return The number of lookups answered by a fetch already in flight for the same ID.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * @return The number of batches sent to the underlying service.
+     */
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /**
+     * @return The number of IDs sent to the underlying service.
+     */
+    public long getBatchedIdCount() {
+        return batchedIdCount.sum();
+    }
+
+    /**
+     * Adds an ID to the pending batch, sending the batch if it is full or opening its window if it is new.
+     */
+    private void enqueue(int id) {
+        List<Integer> fullBatch = null;
+        List<Integer> rejectedIds = null;
+        synchronized (pendingLock) {
+            pendingIds.add(id);
+            if (pendingIds.size() >= maxBatchSize) {
+                fullBatch = pendingIds;
+                pendingIds = new ArrayList<>();
+            } else if (!windowScheduled) {
+                try {
+                    windowTimer.schedule(this::closeWindow, batchWindowNanos, TimeUnit.NANOSECONDS);
+                    windowScheduled = true;
+                } catch (RejectedExecutionException e) {
+                    // The dispatcher has been closed: no window will ever send these IDs
+                    rejectedIds = pendingIds;
+                    pendingIds = new ArrayList<>();
+                }
+            }
+        }
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        if (rejectedIds != null) {
+            fail(rejectedIds, new IllegalStateException("The coalescing dispatcher has been closed"));
+        }
+    }
+
+    /**
+     * Sends the IDs gathered during the window that just ended.
+     */
+    private void closeWindow() {
+        List<Integer> batch;
+        synchronized (pendingLock) {
+            windowScheduled = false;
+            batch = pendingIds;
+            pendingIds = new ArrayList<>();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Fetches a batch with the underlying service on its own thread, then completes the lookups of its IDs.
+     */
+    private void dispatch(List<Integer> batch) {
+        batchCount.increment();
+        batchedIdCount.add(batch.size());
+        BATCHES.increment();
+        if (Metrics.isEnabled()) {
+            BATCH_SIZES.record(batch.size());
+        }
+        try {
+            dispatchExecutor.execute(() -> {
+                Map<Integer, Pokemon> found = new HashMap<>();
+                List<Integer> failedIds = new ArrayList<>();
+                try {
+                    for (Pokemon pokemon : delegate.getPokemonByIds(batch, failedIds)) {
+                        found.put(pokemon.getId(), pokemon);
+                    }
+                } catch (RuntimeException e) {
+                    fail(batch, e);
+                    return;
+                }
+                for (int id : failedIds) {
+                    found.put(id, LOOKUP_FAILED);
+                }
+                for (int id : batch) {
+                    CompletableFuture<Pokemon> lookup = inFlight.remove(id);
+                    if (lookup != null) {
+                        lookup.complete(found.get(id));
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            fail(batch, new IllegalStateException("The coalescing dispatcher has been closed", e));
+        }
+    }
+
+    private void fail(List<Integer> ids, RuntimeException failure) {
+        for (int id : ids) {
+            CompletableFuture<Pokemon> lookup = inFlight.remove(id);
+            if (lookup != null) {
+                lookup.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static Pokemon orNull(Pokemon pokemon) {
+        return pokemon == LOOKUP_FAILED ? null : pokemon;
+    }
+
+    private static Pokemon join(CompletableFuture<Pokemon> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+}
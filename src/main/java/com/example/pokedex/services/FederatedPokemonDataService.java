@@ -0,0 +1,410 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.metrics.Counter;
+import com.example.pokedex.metrics.LatencyHistogram;
+import com.example.pokedex.metrics.Metrics;
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Data service answering from several data services, such as local databases and PokeAPI mirrors,
+ * by order of priority.
+ * A lookup is sent to the first source. If it has not answered within its usual latency (a quantile
+ * of its recent lookups, the 95th percentile by default), the lookup is hedged: the next source is
+ * asked too, and the first Pokémon found is kept. A source that answers nothing, or fails, hands the
+ * lookup to the next one at once. A slow source thus costs its usual latency, not its worst one.
+ * When the Pokémon kept has no description, the description is read from the other sources the
+ * first time it is needed, the answers already received being used first.
+ * Batch lookups are not hedged: each source is asked in turn for the IDs the previous ones did not have.
+ */
+public class FederatedPokemonDataService implements PokemonDataService {
+    // Default quantile of the latency of a source after which its lookups are hedged
+    public static final double DEFAULT_HEDGE_QUANTILE = 0.95;
+    // Bounds of the hedge delay, whatever the latency of the source, in milliseconds
+    public static final long DEFAULT_MIN_HEDGE_DELAY_MILLIS = 2;
+    public static final long DEFAULT_MAX_HEDGE_DELAY_MILLIS = 1_000;
+    // Hedge delay used until a source has answered enough lookups for its quantile to mean something
+    private static final long INITIAL_HEDGE_DELAY_MILLIS = 100;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    // Number of lookups after which the latency of a source is measured afresh
+    private static final int LATENCY_WINDOW_SAMPLES = 1_000;
+
+    private static final Counter HEDGED = Metrics.counter("pokedex_federation_hedged_lookups_total",
+            "Lookups sent to another source because the previous one was slower than usual");
+    private static final Counter FALLEN_THROUGH = Metrics.counter("pokedex_federation_fallthrough_lookups_total",
+            "Lookups sent to another source because the previous one had no answer");
+    private static final Counter MERGED = Metrics.counter("pokedex_federation_merged_descriptions_total",
+            "Descriptions read from another source than the one the Pokémon came from");
+
+    private final List<PokemonDataService> sources;
+    private final List<LatencyWindow> latencies;
+    private final double hedgeQuantile;
+    private final long minHedgeDelayNanos;
+    private final long maxHedgeDelayNanos;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor for FederatedPokemonDataService.
+     * Uses the default hedge quantile and delay bounds.
+     *
+     * @param sources The data services, by order of priority; they are closed with this service.
+     */
+    public FederatedPokemonDataService(List<? extends PokemonDataService> sources) {
+        this(sources, DEFAULT_HEDGE_QUANTILE, DEFAULT_MIN_HEDGE_DELAY_MILLIS, DEFAULT_MAX_HEDGE_DELAY_MILLIS);
+    }
+
+    /**
+     * Constructor for FederatedPokemonDataService.
+     *
+     * @param sources The data services, by order of priority; they are closed with this service.
+     * @param hedgeQuantile The quantile of the latency of a source after which its lookups are hedged.
+     * @param minHedgeDelayMillis The shortest time a lookup waits for a source before being hedged, in milliseconds.
+     * @param maxHedgeDelayMillis The longest time a lookup waits for a source before being hedged, in milliseconds.
+     */
+    public FederatedPokemonDataService(List<? extends PokemonDataService> sources, double hedgeQuantile,
+                                       long minHedgeDelayMillis, long maxHedgeDelayMillis) {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("At least one source is needed");
+        }
+        if (!(hedgeQuantile > 0 && hedgeQuantile <= 1) || minHedgeDelayMillis < 0 || maxHedgeDelayMillis < minHedgeDelayMillis) {
+            throw new IllegalArgumentException("Invalid hedge quantile or delay bounds");
+        }
+        this.sources = new ArrayList<>(sources);
+        this.latencies = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            latencies.add(new LatencyWindow());
+        }
+        this.hedgeQuantile = hedgeQuantile;
+        this.minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(minHedgeDelayMillis);
+        this.maxHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxHedgeDelayMillis);
+        this.executor = AsyncLookupExecutor.newVirtualThreadPerTaskExecutor(AsyncLookupExecutor.DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID from the first source having it, hedging slow sources.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return The Pokémon, or null if no source has it.
+     */
+    @Override
+    public Pokemon getPokemonById(int id) {
+        BlockingQueue<Answer> answers = new LinkedBlockingQueue<>();
+        List<CompletableFuture<Pokemon>> lookups = new ArrayList<>(sources.size());
+        int answered = 0;
+        try {
+            lookups.add(ask(0, id, answers));
+            while (answered < sources.size()) {
+                int asked = lookups.size();
+                Answer answer;
+                if (asked == answered) {
+                    // Every source asked so far has no answer: the next one is asked at once
+                    FALLEN_THROUGH.increment();
+                    lookups.add(ask(asked, id, answers));
+                    continue;
+                } else if (asked < sources.size()) {
+                    answer = answers.poll(hedgeDelayNanos(asked - 1), TimeUnit.NANOSECONDS);
+                    if (answer == null) {
+                        HEDGED.increment();
+                        lookups.add(ask(asked, id, answers));
+                        continue;
+                    }
+                } else {
+                    answer = answers.take();
+                }
+                answered++;
+                if (answer.pokemon != null) {
+                    return withDescription(answer.pokemon, answer.source, id, lookups);
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID without blocking the calling thread.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return A future completed with the Pokémon, or with null if no source has it.
+     */
+    @Override
+    public CompletableFuture<Pokemon> getPokemonByIdAsync(int id) {
+        return CompletableFuture.supplyAsync(() -> getPokemonById(id), executor);
+    }
+
+    /**
+     * Retrieves several Pokémon, asking each source in turn for the IDs the previous ones did not have.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @return The Pokémon found, in the order of the requested IDs.
+     */
+    @Override
+    public List<Pokemon> getPokemonByIds(Collection<Integer> ids) {
+        return getPokemonByIds(ids, new ArrayList<>());
+    }
+
+    /**
+     * Retrieves several Pokémon like {@link #getPokemonByIds(Collection)}, reporting the IDs no
+     * source has a Pokémon for while at least one source failed to look them up.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @param failedIds Receives the requested IDs whose lookup failed.
+     * @return The Pokémon found, in the order of the requested IDs.
+     */
+    @Override
+    public List<Pokemon> getPokemonByIds(Collection<Integer> ids, Collection<Integer> failedIds) {
+        Set<Integer> sourceFailedIds = new HashSet<>();
+        Map<Integer, Pokemon> found = new LinkedHashMap<>();
+        Map<Integer, Integer> sourceById = new LinkedHashMap<>();
+        for (int id : ids) {
+            found.put(id, null);
+        }
+        List<Integer> missing = new ArrayList<>(found.keySet());
+        for (int source = 0; source < sources.size() && !missing.isEmpty(); source++) {
+            if (source > 0) {
+                FALLEN_THROUGH.add(missing.size());
+            }
+            List<Pokemon> answered;
+            try {
+                answered = sources.get(source).getPokemonByIds(missing, sourceFailedIds);
+            } catch (RuntimeException e) {
+                System.err.println("Source " + (source + 1) + " failed: " + e.getMessage());
+                sourceFailedIds.addAll(missing);
+                continue;
+            }
+            for (Pokemon pokemon : answered) {
+                if (found.containsKey(pokemon.getId()) && found.get(pokemon.getId()) == null) {
+                    found.put(pokemon.getId(), pokemon);
+                    sourceById.put(pokemon.getId(), source);
+                }
+            }
+            missing.removeIf(id -> found.get(id) != null);
+        }
+        for (int id : missing) {
+            if (sourceFailedIds.contains(id)) {
+                failedIds.add(id);
+            }
+        }
+        List<Pokemon> pokemons = new ArrayList<>(found.size());
+        for (Pokemon pokemon : found.values()) {
+            if (pokemon != null) {
+                pokemons.add(withDescription(pokemon, sourceById.get(pokemon.getId()), pokemon.getId(),
+                        new ArrayList<>()));
+            }
+        }
+        return pokemons;
+    }
+
+    /**
+     * Returns the name index of the first source able to search by name.
+     *
+     * @return The name index, or null if no source can search by name.
+     */
+    @Override
+    public PokemonNameIndex getNameIndex() {
+        for (PokemonDataService source : sources) {
+            PokemonNameIndex index = source.getNameIndex();
+            if (index != null) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if at least one source can be queried by height and weight.
+     */
+    @Override
+    public boolean supportsQueries() {
+        for (PokemonDataService source : sources) {
+            if (source.supportsQueries()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Streams the Pokémon matching a query from every source able to enumerate its Pokémon, by order
+     * of priority; a Pokémon found in several sources is only given once.
+     *
+     * @param query The criteria the Pokémon must match.
+     * @param action The action run for each matching Pokémon.
+     * @return The number of matching Pokémon.
+     * @throws UnsupportedOperationException if no source can enumerate its Pokémon.
+     */
+    @Override
+    public int findPokemon(PokemonQuery query, Consumer<? super Pokemon> action) {
+        if (!supportsQueries()) {
+            throw new UnsupportedOperationException("No source can enumerate its pokemons");
+        }
+        Set<Integer> seen = new HashSet<>();
+        for (PokemonDataService source : sources) {
+            // Remote sources cannot enumerate their Pokémon; the others still answer
+            if (source.supportsQueries()) {
+                source.findPokemon(query, pokemon -> {
+                    if (seen.add(pokemon.getId())) {
+                        action.accept(pokemon);
+                    }
+                });
+            }
+        }
+        return seen.size();
+    }
+
+    /**
+     * Closes every source. Lookups still running on a source finish on their own.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        for (PokemonDataService source : sources) {
+            source.close();
+        }
+    }
+
+    /**
+     * Returns the time a lookup currently waits for a source before being hedged.
+     *
+     * @param source The index of the source.
+     * @return The hedge delay, in nanoseconds.
+     */
+    public long hedgeDelayNanos(int source) {
+        long latency = latencies.get(source).getValueAtQuantile(hedgeQuantile);
+        if (latency < 0) {
+            latency = TimeUnit.MILLISECONDS.toNanos(INITIAL_HEDGE_DELAY_MILLIS);
+        }
+        return Math.max(minHedgeDelayNanos, Math.min(maxHedgeDelayNanos, latency));
+    }
+
+    /**
+     * Asks a source for a Pokémon on its own thread; the answer is put in the queue, null standing for a failure.
+     */
+    private CompletableFuture<Pokemon> ask(int source, int id, BlockingQueue<Answer> answers) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                Pokemon pokemon = null;
+                try {
+                    pokemon = sources.get(source).getPokemonById(id);
+                    latencies.get(source).record(System.nanoTime() - start);
+                } catch (RuntimeException e) {
+                    System.err.println("Source " + (source + 1) + " failed on the pokemon " + id + ": " + e.getMessage());
+                } finally {
+                    answers.add(new Answer(source, pokemon));
+                }
+                return pokemon;
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            // The service has been closed
+            answers.add(new Answer(source, null));
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Gives a Pokémon without a description a loader reading it from the other sources.
+     *
+     * @param pokemon The Pokémon kept.
+     * @param source The index of the source it came from.
+     * @param id The ID of the Pokémon.
+     * @param lookups The lookups sent to the sources for this Pokémon, by source index.
+     * @return The Pokémon, or a DetailedPokemon whose description is read from the other sources.
+     */
+    private Pokemon withDescription(Pokemon pokemon, int source, int id, List<CompletableFuture<Pokemon>> lookups) {
+        if (sources.size() == 1 || (pokemon instanceof DetailedPokemon
+                && (!((DetailedPokemon) pokemon).isDescriptionLoaded() || ((DetailedPokemon) pokemon).getDescription() != null))) {
+            return pokemon;
+        }
+        List<CompletableFuture<Pokemon>> sentLookups = new ArrayList<>(lookups);
+        return new DetailedPokemon(pokemon, () -> findDescription(source, id, sentLookups),
+                pokemon instanceof DetailedPokemon ? ((DetailedPokemon) pokemon)::getEvolutionChain : null);
+    }
+
+    /**
+     * Reads the description of a Pokémon from the sources other than the one it came from, by order
+     * of priority; the lookups already sent are waited for rather than sent again.
+     */
+    private String findDescription(int excludedSource, int id, List<CompletableFuture<Pokemon>> lookups) {
+        for (int source = 0; source < sources.size(); source++) {
+            if (source == excludedSource) {
+                continue;
+            }
+            Pokemon pokemon;
+            try {
+                pokemon = source < lookups.size() ? lookups.get(source).join() : sources.get(source).getPokemonById(id);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            if (pokemon instanceof DetailedPokemon && ((DetailedPokemon) pokemon).getDescription() != null) {
+                MERGED.increment();
+                return ((DetailedPokemon) pokemon).getDescription();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The answer of a source to a lookup.
+     */
+    private static class Answer {
+        private final int source;
+        private final Pokemon pokemon;
+
+        Answer(int source, Pokemon pokemon) {
+            this.source = source;
+            this.pokemon = pokemon;
+        }
+    }
+
+    /**
+     * Latencies of the recent lookups of a source: the current window, and the previous one until
+     * the current one has enough samples.
+     */
+    private static class LatencyWindow {
+        private volatile LatencyHistogram current = new LatencyHistogram();
+        private volatile LatencyHistogram previous;
+
+        void record(long nanos) {
+            LatencyHistogram histogram = current;
+            histogram.record(nanos);
+            if (histogram.getCount() >= LATENCY_WINDOW_SAMPLES) {
+                synchronized (this) {
+                    if (current == histogram) {
+                        previous = histogram;
+                        current = new LatencyHistogram();
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return The latency at the quantile, in nanoseconds, or -1 if too few lookups were recorded.
+         */
+        long getValueAtQuantile(double quantile) {
+            LatencyHistogram histogram = current;
+            if (histogram.getCount() < MIN_LATENCY_SAMPLES) {
+                histogram = previous;
+            }
+            return histogram != null && histogram.getCount() >= MIN_LATENCY_SAMPLES
+                    ? histogram.getValueAtQuantile(quantile) : -1;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.example.pokedex.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Local store of HTTP response bodies, so that documents are parsed again from disk instead of
+ * being requested again. Bodies are compressed with deflate and stored under the SHA-256 hash of
+ * their content, so identical documents are stored once; each URL has an index file naming its body,
+ * with the validators and the Cache-Control directives of the response.
+ * <pre>
+ *     directory/objects/ab/abcdef....deflate   the body whose hash starts with ab
+ *     directory/index/0123....properties       the response of the URL whose hash is 0123...
+ * </pre>
+ * A response is fresh for the max-age of its Cache-Control header; "no-cache" responses, and those
+ * without a max-age, are revalidated before being used, and "no-store" responses are not stored.
+ * An offline cache answers every request from the stored responses, fresh or not, and never sends one.
+ * Files are written to a temporary file then moved into place, so the store can be shared by several
+ * processes and read while it is written.
+ */
+public class HttpResponseCache {
+    private static final String OBJECTS_DIRECTORY = "objects";
+    private static final String INDEX_DIRECTORY = "index";
+    private static final String BODY_SUFFIX = ".deflate";
+    private static final String INDEX_SUFFIX = ".properties";
+
+    private final Path objectsDirectory;
+    private final Path indexDirectory;
+    private final boolean offline;
+
+    /**
+     * Constructor for HttpResponseCache.
+     * Opens or creates a store used online: stale responses are revalidated.
+     *
+     * @param directory The directory of the store, created if needed.
+     * @throws IOException if the directory cannot be created.
+     */
+    public HttpResponseCache(Path directory) throws IOException {
+        this(directory, false);
+    }
+
+    /**
+     * Constructor for HttpResponseCache.
+     * Opens or creates a store.
+     *
+     * @param directory The directory of the store, created if needed.
+     * @param offline Whether every request is answered from the store, without sending any.
+     * @throws IOException if the directory cannot be created.
+     */
+    public HttpResponseCache(Path directory, boolean offline) throws IOException {
+        this.objectsDirectory = directory.resolve(OBJECTS_DIRECTORY);
+        this.indexDirectory = directory.resolve(INDEX_DIRECTORY);
+        this.offline = offline;
+        Files.createDirectories(objectsDirectory);
+        Files.createDirectories(indexDirectory);
+    }
+
+    /**
+     * @return Whether every request is answered from the store, without sending any.
+     */
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Looks up the stored response of a URL.
+     *
+     * @param url The URL of the document.
+     * @return The stored response, or null if there is none or it cannot be read.
+     */
+    public Entry lookup(String url) {
+        try {
+            Entry entry = readEntry(indexDirectory.resolve(hash(url.getBytes(StandardCharsets.UTF_8)) + INDEX_SUFFIX));
+            // Two URLs sharing a hash is not expected, but the stored URL is the key
+            return entry != null && entry.url.equals(url) ? entry : null;
+        } catch (IOException e) {
+            System.err.println("Unable to read the cached response of " + url + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores the body of a response, replacing the previous response of the URL.
+     *
+     * @param url The URL of the document.
+     * @param body The uncompressed body of the response.
+     * @param etag The ETag header of the response, or null.
+     * @param lastModified The Last-Modified header of the response, or null.
+     * @param cacheControl The Cache-Control header of the response, or null.
+     * @return The stored response, or null if the response may not be stored or cannot be written.
+     */
+    public Entry store(String url, byte[] body, String etag, String lastModified, String cacheControl) {
+        CacheControl directives = CacheControl.parse(cacheControl);
+        Path indexFile = indexDirectory.resolve(hash(url.getBytes(StandardCharsets.UTF_8)) + INDEX_SUFFIX);
+        try {
+            if (directives.noStore) {
+                // A response that may not be stored must not be replayed either
+                Files.deleteIfExists(indexFile);
+                return null;
+            }
+            String bodyHash = hash(body);
+            Path bodyFile = bodyFile(bodyHash);
+            // The name is the hash of the content, so an existing file already holds this body
+            if (!Files.exists(bodyFile)) {
+                Files.createDirectories(bodyFile.getParent());
+                Path temporary = Files.createTempFile(bodyFile.getParent(), bodyHash, ".tmp");
+                try (OutputStream out = new DeflaterOutputStream(Files.newOutputStream(temporary),
+                        new Deflater(Deflater.BEST_COMPRESSION), true)) {
+                    out.write(body);
+                }
+                moveIntoPlace(temporary, bodyFile);
+            }
+            Entry entry = new Entry(url, bodyHash, body.length, etag, lastModified, System.currentTimeMillis(),
+                    directives.maxAgeSeconds, directives.noCache);
+            writeEntry(indexFile, entry);
+            return entry;
+        } catch (IOException e) {
+            System.err.println("Unable to cache the response of " + url + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Records that a stored response was revalidated by a "304 Not Modified" answer: it is fresh again,
+     * for the directives of the new answer.
+     *
+     * @param entry The stored response.
+     * @param etag The ETag header of the answer, or null to keep the stored one.
+     * @param lastModified The Last-Modified header of the answer, or null to keep the stored one.
+     * @param cacheControl The Cache-Control header of the answer, or null.
+     * @return The refreshed response.
+     */
+    public Entry refresh(Entry entry, String etag, String lastModified, String cacheControl) {
+        CacheControl directives = CacheControl.parse(cacheControl);
+        Entry refreshed = new Entry(entry.url, entry.bodyHash, entry.bodyLength,
+                etag != null ? etag : entry.etag, lastModified != null ? lastModified : entry.lastModified,
+                System.currentTimeMillis(), directives.maxAgeSeconds, directives.noCache);
+        try {
+            writeEntry(indexDirectory.resolve(hash(entry.url.getBytes(StandardCharsets.UTF_8)) + INDEX_SUFFIX), refreshed);
+        } catch (IOException e) {
+            System.err.println("Unable to refresh the cached response of " + entry.url + ": " + e.getMessage());
+        }
+        return refreshed;
+    }
+
+    /**
+     * Opens the uncompressed body of a stored response.
+     *
+     * @param entry The stored response.
+     * @return The body, to be closed by the caller.
+     * @throws IOException if the body cannot be read.
+     */
+    public InputStream openBody(Entry entry) throws IOException {
+        return new InflaterInputStream(Files.newInputStream(bodyFile(entry.bodyHash)));
+    }
+
+    /**
+     * Lists every stored response, so that the stored documents can be read again without any request.
+     * Index files that cannot be read are skipped.
+     *
+     * @return The stored responses, in no particular order.
+     * @throws IOException if the index cannot be listed.
+     */
+    public List<Entry> getEntries() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(indexDirectory, "*" + INDEX_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    Entry entry = readEntry(file);
+                    if (entry != null) {
+                        entries.add(entry);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Unable to read the cache index file " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads a whole stream, closing it.
+     *
+     * @param in The stream.
+     * @return The bytes read.
+     * @throws IOException if the stream cannot be read.
+     */
+    static byte[] readFully(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                bytes.write(buffer, 0, count);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    private Path bodyFile(String bodyHash) {
+        // Spreading the bodies over 256 directories keeps each directory small
+        return objectsDirectory.resolve(bodyHash.substring(0, 2)).resolve(bodyHash + BODY_SUFFIX);
+    }
+
+    private static Entry readEntry(Path indexFile) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        String url = properties.getProperty("url");
+        String bodyHash = properties.getProperty("body");
+        if (url == null || bodyHash == null) {
+            throw new IOException("Incomplete cache index file");
+        }
+        try {
+            return new Entry(url, bodyHash, Long.parseLong(properties.getProperty("length", "-1")),
+                    properties.getProperty("etag"), properties.getProperty("lastModified"),
+                    Long.parseLong(properties.getProperty("storedAt", "0")),
+                    Long.parseLong(properties.getProperty("maxAge", "-1")),
+                    Boolean.parseBoolean(properties.getProperty("noCache")));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid cache index file", e);
+        }
+    }
+
+    private static void writeEntry(Path indexFile, Entry entry) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("url", entry.url);
+        properties.setProperty("body", entry.bodyHash);
+        properties.setProperty("length", Long.toString(entry.bodyLength));
+        if (entry.etag != null) {
+            properties.setProperty("etag", entry.etag);
+        }
+        if (entry.lastModified != null) {
+            properties.setProperty("lastModified", entry.lastModified);
+        }
+        properties.setProperty("storedAt", Long.toString(entry.storedAtMillis));
+        properties.setProperty("maxAge", Long.toString(entry.maxAgeSeconds));
+        properties.setProperty("noCache", Boolean.toString(entry.noCache));
+
+        Path temporary = Files.createTempFile(indexFile.getParent(), "index", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        moveIntoPlace(temporary, indexFile);
+    }
+
+    private static void moveIntoPlace(Path temporary, Path target) throws IOException {
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hash = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Directives of a Cache-Control header that matter to a private cache.
+     */
+    private static final class CacheControl {
+        private boolean noStore;
+        private boolean noCache;
+        private long maxAgeSeconds = -1;
+
+        static CacheControl parse(String header) {
+            CacheControl directives = new CacheControl();
+            if (header == null) {
+                return directives;
+            }
+            for (String directive : header.split(",")) {
+                String name = directive.trim().toLowerCase(Locale.ROOT);
+                if (name.equals("no-store")) {
+                    directives.noStore = true;
+                } else if (name.equals("no-cache") || name.startsWith("no-cache=")) {
+                    directives.noCache = true;
+                } else if (name.startsWith("max-age=")) {
+                    try {
+                        directives.maxAgeSeconds = Long.parseLong(name.substring("max-age=".length()).replace("\"", ""));
+                    } catch (NumberFormatException e) {
+                        // An invalid max-age makes the response stale
+                        directives.maxAgeSeconds = 0;
+                    }
+                }
+            }
+            return directives;
+        }
+    }
+
+    /**
+     * Stored response of a URL.
+     */
+    public static class Entry {
+        private final String url;
+        private final String bodyHash;
+        private final long bodyLength;
+        private final String etag;          // null when the server sent none
+        private final String lastModified;  // null when the server sent none
+        private final long storedAtMillis;
+        private final long maxAgeSeconds;   // -1 when the server gave none
+        private final boolean noCache;
+
+        Entry(String url, String bodyHash, long bodyLength, String etag, String lastModified,
+              long storedAtMillis, long maxAgeSeconds, boolean noCache) {
+            this.url = url;
+            this.bodyHash = bodyHash;
+            this.bodyLength = bodyLength;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.storedAtMillis = storedAtMillis;
+            this.maxAgeSeconds = maxAgeSeconds;
+            this.noCache = noCache;
+        }
+
+        /**
+         * Tells whether the response may be used without being revalidated.
+         *
+         * @param nowMillis The current time, in milliseconds since the epoch.
+         * @return true if the response is younger than its max-age and not marked "no-cache".
+         */
+        public boolean isFresh(long nowMillis) {
+            return !noCache && maxAgeSeconds >= 0 && nowMillis - storedAtMillis < maxAgeSeconds * 1000;
+        }
+
+        /**
+         * @return The URL of the document.
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * @return The SHA-256 hash of the uncompressed body, naming the stored body.
+         */
+        public String getBodyHash() {
+            return bodyHash;
+        }
+
+        /**
+         * @return The length of the uncompressed body, in bytes.
+         */
+        public long getBodyLength() {
+            return bodyLength;
+        }
+
+        /**
+         * @return The ETag of the response, or null if the server sent none.
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * @return The Last-Modified date of the response, or null if the server sent none.
+         */
+        public String getLastModified() {
+            return lastModified;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.metrics.Counter;
+import com.example.pokedex.metrics.Metrics;
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Read-only data service holding a whole Pokédex in memory, in a compact columnar layout.
+ * The {@code pokemons} table is loaded once into primitive arrays: IDs, heights and weights
+ * are {@code int[]} columns, names are dictionary-encoded into a pool of distinct strings, and
+ * descriptions are kept as UTF-8 bytes in a single heap, decoded only when a Pokémon is returned.
+ * Pokemon and DetailedPokemon objects are created on demand, so a lookup is an array access
+ * with no JDBC involved, and each entry costs a few dozen bytes instead of a model object graph.
+ * Instances are immutable and safe to share between threads.
+ */
+public class InMemoryPokemonService implements PokemonDataService {
+    // IDs are addressed directly when at least this fraction of the ID range is used
+    private static final int MAX_DIRECT_SPARSENESS = 4;
+    private static final Counter CALLS = Metrics.counter("pokedex_backend_calls_total",
+            "Calls made to a data backend", "backend", "memory");
+
+    private final int size;
+    private final int[] ids;              // Sorted ascending
+    private final int[] heights;
+    private final int[] weights;
+    private final int[] nameRefs;         // Index of each name in namePool
+    private final String[] namePool;      // Distinct names
+    private final int[] descriptionOffsets;  // size + 1 offsets into descriptionHeap; empty slice for no description
+    private final byte[] descriptionHeap;
+
+    // Direct ID to row mapping for dense ID ranges, or null to binary search the ids column
+    private final int[] rowById;
+    private final int minId;
+
+    private volatile PokemonNameIndex nameIndex;  // Built on the first name query
+    // Height and weight indexes, built on the first query
+    private volatile SortedColumnIndex heightIndex;
+    private volatile SortedColumnIndex weightIndex;
+
+    /**
+     * Constructor for InMemoryPokemonService.
+     * The columns must all have {@code size} entries, sorted by ascending ID.
+     */
+    InMemoryPokemonService(int size, int[] ids, int[] heights, int[] weights, int[] nameRefs, String[] namePool,
+                           int[] descriptionOffsets, byte[] descriptionHeap) {
+        this.size = size;
+        this.ids = ids;
+        this.heights = heights;
+        this.weights = weights;
+        this.nameRefs = nameRefs;
+        this.namePool = namePool;
+        this.descriptionOffsets = descriptionOffsets;
+        this.descriptionHeap = descriptionHeap;
+
+        this.minId = size == 0 ? 0 : ids[0];
+        long idRange = size == 0 ? 0 : (long) ids[size - 1] - ids[0] + 1;
+        if (size > 0 && idRange <= (long) size * MAX_DIRECT_SPARSENESS) {
+            rowById = new int[(int) idRange];
+            Arrays.fill(rowById, -1);
+            for (int row = 0; row < size; row++) {
+                rowById[ids[row] - minId] = row;
+            }
+        } else {
+            rowById = null;
+        }
+    }
+
+    /**
+     * Loads the whole {@code pokemons} table of an SQLite database into memory.
+     *
+     * @param dbPath The file path to the SQLite database.
+     * @return The in-memory service holding every Pokémon of the database.
+     * @throws SQLException if the database cannot be read.
+     */
+    public static InMemoryPokemonService loadFromSQLite(String dbPath) throws SQLException {
+        Builder builder = new Builder();
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name, height, weight, description FROM pokemons ORDER BY id")) {
+            while (rs.next()) {
+                builder.add(rs.getInt("id"), rs.getString("name"), rs.getInt("height"), rs.getInt("weight"),
+                        rs.getString("description"));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Loads the given Pokémon into memory.
+     *
+     * @param pokemons The Pokémon to be held, in any order; for duplicated IDs the last one wins.
+     * @return The in-memory service holding the Pokémon.
+     */
+    public static InMemoryPokemonService of(Collection<? extends Pokemon> pokemons) {
+        Map<Integer, Pokemon> byId = new HashMap<>();
+        for (Pokemon pokemon : pokemons) {
+            byId.put(pokemon.getId(), pokemon);
+        }
+        List<Pokemon> sorted = new ArrayList<>(byId.values());
+        sorted.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+
+        Builder builder = new Builder();
+        for (Pokemon pokemon : sorted) {
+            builder.add(pokemon.getId(), pokemon.getName(), pokemon.getHeight(), pokemon.getWeight(),
+                    pokemon instanceof DetailedPokemon ? ((DetailedPokemon) pokemon).getDescription() : null);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID from memory.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return A Pokemon object, or DetailedPokemon if a description is available, or null if no Pokémon is found.
+     */
+    @Override
+    public Pokemon getPokemonById(int id) {
+        CALLS.increment();
+        int row = rowOf(id);
+        return row < 0 ? null : materialize(row);
+    }
+
+    /**
+     * Retrieves every Pokémon whose ID lies in the given range, scanning the sorted ID column.
+     *
+     * @param fromId The first ID of the range (inclusive).
+     * @param toId The last ID of the range (inclusive).
+     * @return The Pokémon found, ordered by ID.
+     */
+    @Override
+    public List<Pokemon> getPokemonByRange(int fromId, int toId) {
+        CALLS.increment();
+        List<Pokemon> pokemons = new ArrayList<>();
+        for (int row = lowerBound(fromId); row < size && ids[row] <= toId; row++) {
+            pokemons.add(materialize(row));
+        }
+        return pokemons;
+    }
+
+    /**
+     * @return true, as the columns hold every Pokémon of the service.
+     */
+    @Override
+    public boolean supportsQueries() {
+        return true;
+    }
+
+    /**
+     * Streams every Pokémon matching a query on height and weight, ordered by ID.
+     * The more selective of the height and weight indexes gives the candidate rows, which are
+     * checked against the other criterion on the columns; only matching Pokémon are created.
+     *
+     * @param query The criteria the Pokémon must match.
+     * @param action The action run for each matching Pokémon.
+     * @return The number of matching Pokémon.
+     */
+    @Override
+    public int findPokemon(PokemonQuery query, Consumer<? super Pokemon> action) {
+        CALLS.increment();
+        if (!query.hasHeightCriterion() && !query.hasWeightCriterion()) {
+            for (int row = 0; row < size; row++) {
+                action.accept(materialize(row));
+            }
+            return size;
+        }
+
+        buildSecondaryIndexes();
+        int heightCount = query.hasHeightCriterion() ? heightIndex.count(query.getMinHeight(), query.getMaxHeight()) : size;
+        int weightCount = query.hasWeightCriterion() ? weightIndex.count(query.getMinWeight(), query.getMaxWeight()) : size;
+        // Matching rows are collected first so that the Pokémon come out in ID order
+        BitSet matching = new BitSet(size);
+        if (heightCount <= weightCount) {
+            heightIndex.markMatchingRows(query.getMinHeight(), query.getMaxHeight(), this, query, matching);
+        } else {
+            weightIndex.markMatchingRows(query.getMinWeight(), query.getMaxWeight(), this, query, matching);
+        }
+
+        int count = 0;
+        for (int row = matching.nextSetBit(0); row >= 0; row = matching.nextSetBit(row + 1)) {
+            action.accept(materialize(row));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the name index of the Pokémon held in memory, building it the first time it is needed.
+     *
+     * @return The name index.
+     */
+    @Override
+    public PokemonNameIndex getNameIndex() {
+        PokemonNameIndex index = nameIndex;
+        if (index == null) {
+            synchronized (this) {
+                if (nameIndex == null) {
+                    Map<Integer, String> namesById = new HashMap<>(size * 2);
+                    for (int row = 0; row < size; row++) {
+                        namesById.put(ids[row], nameAt(row));
+                    }
+                    nameIndex = new PokemonNameIndex(namesById);
+                }
+                index = nameIndex;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Builds the height and weight indexes if they do not exist yet.
+     */
+    private void buildSecondaryIndexes() {
+        if (weightIndex == null) {
+            synchronized (this) {
+                if (weightIndex == null) {
+                    heightIndex = new SortedColumnIndex(heights, size);
+                    // Written last, as its presence tells that both indexes are built
+                    weightIndex = new SortedColumnIndex(weights, size);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of Pokémon held in memory.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the row holding a Pokémon, or -1 if there is none.
+     */
+    int rowOf(int id) {
+        if (rowById != null) {
+            long slot = (long) id - minId;
+            return slot < 0 || slot >= rowById.length ? -1 : rowById[(int) slot];
+        }
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row < 0 ? -1 : row;
+    }
+
+    /**
+     * Returns the first row whose ID is greater than or equal to the given ID.
+     */
+    int lowerBound(int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ids[middle] < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Creates the model object of a row, decoding its description if it has one.
+     */
+    Pokemon materialize(int row) {
+        int descriptionStart = descriptionOffsets[row];
+        int descriptionLength = descriptionOffsets[row + 1] - descriptionStart;
+        String name = namePool[nameRefs[row]];
+        if (descriptionLength == 0) {
+            return new Pokemon(ids[row], name, heights[row], weights[row]);
+        }
+        String description = new String(descriptionHeap, descriptionStart, descriptionLength, StandardCharsets.UTF_8);
+        return new DetailedPokemon(ids[row], name, heights[row], weights[row], description);
+    }
+
+    // Column accessors for the indexes built on top of this service
+
+    int idAt(int row) {
+        return ids[row];
+    }
+
+    int heightAt(int row) {
+        return heights[row];
+    }
+
+    int weightAt(int row) {
+        return weights[row];
+    }
+
+    String nameAt(int row) {
+        return namePool[nameRefs[row]];
+    }
+
+    /**
+     * Accumulates rows in growable columns, then builds the service with exactly sized arrays.
+     * Rows must be added by ascending ID.
+     */
+    static class Builder {
+        private int size;
+        private int[] ids = new int[1024];
+        private int[] heights = new int[1024];
+        private int[] weights = new int[1024];
+        private int[] nameRefs = new int[1024];
+        private int[] descriptionOffsets = new int[1025];
+        private byte[] descriptionHeap = new byte[64 * 1024];
+        private int descriptionHeapSize;
+        private final Map<String, Integer> nameDictionary = new HashMap<>();
+        private final List<String> namePool = new ArrayList<>();
+
+        void add(int id, String name, int height, int weight, String description) {
+            if (size > 0 && id <= ids[size - 1]) {
+                throw new IllegalArgumentException("Rows must be added by ascending ID");
+            }
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                heights = Arrays.copyOf(heights, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                nameRefs = Arrays.copyOf(nameRefs, capacity);
+                descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity + 1);
+            }
+            ids[size] = id;
+            heights[size] = height;
+            weights[size] = weight;
+
+            Integer nameRef = nameDictionary.get(name);
+            if (nameRef == null) {
+                nameRef = namePool.size();
+                namePool.add(name);
+                nameDictionary.put(name, nameRef);
+            }
+            nameRefs[size] = nameRef;
+
+            if (description != null && !description.isEmpty()) {
+                byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+                if (descriptionHeapSize + bytes.length > descriptionHeap.length) {
+                    descriptionHeap = Arrays.copyOf(descriptionHeap,
+                            Math.max(descriptionHeap.length * 2, descriptionHeapSize + bytes.length));
+                }
+                System.arraycopy(bytes, 0, descriptionHeap, descriptionHeapSize, bytes.length);
+                descriptionHeapSize += bytes.length;
+            }
+            descriptionOffsets[size + 1] = descriptionHeapSize;
+            size++;
+        }
+
+        InMemoryPokemonService build() {
+            return new InMemoryPokemonService(size, Arrays.copyOf(ids, size), Arrays.copyOf(heights, size),
+                    Arrays.copyOf(weights, size), Arrays.copyOf(nameRefs, size), namePool.toArray(new String[0]),
+                    Arrays.copyOf(descriptionOffsets, size + 1), Arrays.copyOf(descriptionHeap, descriptionHeapSize));
+        }
+    }
+}
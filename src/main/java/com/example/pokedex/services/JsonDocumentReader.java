@@ -0,0 +1,15 @@
+package com.example.pokedex.services;
+
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads a value from a streamed JSON document, such as the methods of {@link PokemonJsonReader}.
+ *
+ * @param <T> The type of the value read.
+ */
+interface JsonDocumentReader<T> {
+    T read(Reader reader) throws IOException, ParseException;
+}
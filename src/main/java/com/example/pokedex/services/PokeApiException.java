@@ -0,0 +1,96 @@
+package com.example.pokedex.services;
+
+import java.io.IOException;
+
+/**
+ * Failure of a request to the PokeAPI, typed by its reason so that callers can tell a missing
+ * Pokémon apart from a degraded API, and a retryable failure apart from a final one.
+ */
+public class PokeApiException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Enumeration for the reasons a request fails.
+     * NOT_FOUND - the resource does not exist (404)
+     * RATE_LIMITED - the API asked the client to slow down (429)
+     * SERVER_ERROR - the API failed to answer (5xx)
+     * CLIENT_ERROR - the API rejected the request (other 4xx)
+     * TIMEOUT - no connection or no data within the configured timeouts
+     * NETWORK - the connection failed
+     * INVALID_RESPONSE - the response is not the expected document
+     * DEADLINE_EXCEEDED - the request, retries included, did not complete before its deadline
+     * CIRCUIT_OPEN - the request was not sent, as the API has been failing
+     * NOT_CACHED - the request was not sent, as the client is offline and has no stored response
+     */
+    public enum Reason {
+        NOT_FOUND, RATE_LIMITED, SERVER_ERROR, CLIENT_ERROR, TIMEOUT, NETWORK, INVALID_RESPONSE,
+        DEADLINE_EXCEEDED, CIRCUIT_OPEN, NOT_CACHED
+    }
+
+    private final Reason reason;
+    private final int statusCode;         // HTTP status, or 0 if no response was received
+    private final long retryAfterMillis;  // Delay asked by the Retry-After header, or -1
+
+    /**
+     * Constructor for PokeApiException.
+     *
+     * @param reason The reason of the failure.
+     * @param message The detailed error message.
+     * @param cause The underlying exception, or null.
+     */
+    public PokeApiException(Reason reason, String message, Throwable cause) {
+        this(reason, message, cause, 0, -1);
+    }
+
+    /**
+     * Constructor for PokeApiException.
+     *
+     * @param reason The reason of the failure.
+     * @param message The detailed error message.
+     * @param cause The underlying exception, or null.
+     * @param statusCode The HTTP status of the response, or 0 if no response was received.
+     * @param retryAfterMillis The delay asked by the Retry-After header, in milliseconds, or -1 if there is none.
+     */
+    public PokeApiException(Reason reason, String message, Throwable cause, int statusCode, long retryAfterMillis) {
+        super(message, cause);
+        this.reason = reason;
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return The reason of the failure.
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * @return The HTTP status of the response, or 0 if no response was received.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return The delay asked by the Retry-After header, in milliseconds, or -1 if there is none.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * @return true if sending the same request again may succeed.
+     */
+    public boolean isRetryable() {
+        return reason == Reason.RATE_LIMITED || reason == Reason.SERVER_ERROR
+                || reason == Reason.TIMEOUT || reason == Reason.NETWORK;
+    }
+
+    /**
+     * @return true if the failure means the API is degraded, rather than the request being wrong.
+     */
+    public boolean isUpstreamFailure() {
+        return isRetryable() || reason == Reason.DEADLINE_EXCEEDED;
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.json.simple.parser.ParseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+/**
+ * Builds an SQLite Pokédex, as read by {@link SQLitePokemonService}, by crawling the PokeAPI.
+ * Each Pokémon is read from the pokemon endpoint and its description from the pokemon-species
+ * endpoint, with a bounded number of requests in flight; failed requests are retried following
+ * a {@link RetryPolicy}. Pokémon are written in large batched transactions, each committed batch
+ * being a checkpoint: Pokémon already imported are skipped, so an interrupted import resumes
+ * where it stopped. The height and weight indexes are dropped during the load and built once at the end.
+ */
+public class PokeApiImporter implements AutoCloseable {
+    // Base URL of the PokeAPI; the pokemon and pokemon-species endpoints are resolved against it
+    public static final String DEFAULT_BASE_URL = "https://pokeapi.co/api/v2/";
+    // Default number of Pokémon fetched at the same time; the PokeAPI asks clients to stay reasonable
+    public static final int DEFAULT_CONCURRENCY = 8;
+    // Default number of attempts after the first one failed
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    // Default number of Pokémon written per transaction
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    // Languages of the descriptions, by order of preference
+    public static final List<String> DEFAULT_LANGUAGES = Arrays.asList("fr", "en");
+
+    private static final long RETRY_BASE_DELAY_MILLIS = 500;
+    private static final long RETRY_MAX_DELAY_MILLIS = 30_000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+    private static final int SOCKET_TIMEOUT_MILLIS = 30_000;
+    // Page size asking the pokemon endpoint to list every Pokémon in one response
+    private static final int LIST_LIMIT = 100_000;
+
+    private final String baseUrl;
+    private final int concurrency;
+    private final RetryPolicy retryPolicy;
+    private final int batchSize;
+    private final List<String> languages;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    /**
+     * Constructor for PokeApiImporter.
+     * Crawls the public PokeAPI with the default settings.
+     */
+    public PokeApiImporter() {
+        this(DEFAULT_BASE_URL, DEFAULT_CONCURRENCY, DEFAULT_MAX_RETRIES, DEFAULT_BATCH_SIZE, DEFAULT_LANGUAGES);
+    }
+
+    /**
+     * Constructor for PokeApiImporter.
+     *
+     * @param baseUrl The base URL of the PokeAPI, ending with a slash, such as {@link #DEFAULT_BASE_URL}.
+     * @param concurrency The maximum number of Pokémon fetched at the same time.
+     * @param maxRetries The number of attempts made after a request failed.
+     * @param batchSize The number of Pokémon written per transaction.
+     * @param languages The languages of the descriptions, by order of preference.
+     */
+    public PokeApiImporter(String baseUrl, int concurrency, int maxRetries, int batchSize, List<String> languages) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.concurrency = concurrency;
+        this.retryPolicy = new RetryPolicy(maxRetries, RETRY_BASE_DELAY_MILLIS, RETRY_MAX_DELAY_MILLIS);
+        this.batchSize = batchSize;
+        this.languages = languages;
+
+        // Each Pokémon needs two sequential requests, so one connection per worker is enough
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(concurrency);
+        connectionManager.setDefaultMaxPerRoute(concurrency);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT_MILLIS)
+                .setConnectionRequestTimeout(CONNECT_TIMEOUT_MILLIS)
+                .setSocketTimeout(SOCKET_TIMEOUT_MILLIS)
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+    }
+
+    /**
+     * Lists the ID of every Pokémon known to the PokeAPI, including the alternative forms.
+     *
+     * @return The IDs, in ascending order.
+     * @throws IOException if the list cannot be fetched.
+     */
+    public List<Integer> listPokemonIds() throws IOException {
+        try {
+            Set<Integer> ids = fetch(baseUrl + "pokemon/?limit=" + LIST_LIMIT,
+                    reader -> new TreeSet<>(PokemonJsonReader.readResourceNames(reader).keySet()));
+            if (ids == null) {
+                throw new IOException("The PokeAPI at " + baseUrl + " has no pokemon list");
+            }
+            return new ArrayList<>(ids);
+        } catch (ParseException e) {
+            throw new IOException("The pokemon list is not valid JSON", e);
+        }
+    }
+
+    /**
+     * Imports Pokémon into an SQLite database, creating the file and the tables if needed.
+     * Pokémon already in the database are skipped.
+     *
+     * @param dbPath The file path to the SQLite database.
+     * @param ids The IDs of the Pokémon to be imported.
+     * @param progress Called after each committed batch with the number of Pokémon processed and to be processed, or null.
+     * @return The summary of the import.
+     * @throws SQLException if the database cannot be opened or written; batches already committed are kept.
+     */
+    public ImportSummary importInto(String dbPath, Collection<Integer> ids, BiConsumer<Integer, Integer> progress)
+            throws SQLException {
+        long start = System.nanoTime();
+        List<Integer> requested = new ArrayList<>(new TreeSet<>(ids));
+        try (SQLitePokemonWriter writer = new SQLitePokemonWriter(dbPath)) {
+            // Pokémon written by a previous run are the checkpoint of an interrupted import
+            Set<Integer> imported = writer.getFetchTimes(requested).keySet();
+            List<Integer> pending = new ArrayList<>(requested.size());
+            for (int id : requested) {
+                if (!imported.contains(id)) {
+                    pending.add(id);
+                }
+            }
+
+            ImportSummary summary = new ImportSummary(requested.size(), requested.size() - pending.size());
+            if (!pending.isEmpty()) {
+                writer.dropSecondaryIndexes();
+                fetchAndWrite(writer, pending, summary, progress);
+            }
+            // Built once the rows are in place, instead of being updated on every insert
+            writer.createSecondaryIndexes();
+            summary.elapsedNanos = System.nanoTime() - start;
+            return summary;
+        }
+    }
+
+    /**
+     * Fetches the pending Pokémon with at most {@code concurrency} of them in flight, and writes
+     * them in batches as they arrive.
+     */
+    private void fetchAndWrite(SQLitePokemonWriter writer, List<Integer> pending, ImportSummary summary,
+                               BiConsumer<Integer, Integer> progress) throws SQLException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, pending.size()));
+        try {
+            CompletionService<FetchResult> completion = new ExecutorCompletionService<>(executor);
+            for (int id : pending) {
+                completion.submit(() -> fetchPokemon(id));
+            }
+
+            List<Pokemon> batch = new ArrayList<>(batchSize);
+            for (int done = 1; done <= pending.size(); done++) {
+                FetchResult result;
+                try {
+                    result = completion.take().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException e) {
+                    // fetchPokemon reports its failures in its result; this is a programming error
+                    throw new IllegalStateException(e.getCause());
+                }
+
+                if (result.failure != null) {
+                    summary.failedIds.add(result.id);
+                } else if (result.pokemon == null) {
+                    summary.missingIds.add(result.id);
+                } else {
+                    batch.add(result.pokemon);
+                }
+                if (batch.size() == batchSize || (done == pending.size() && !batch.isEmpty())) {
+                    writer.write(batch);
+                    summary.importedCount += batch.size();
+                    batch.clear();
+                    if (progress != null) {
+                        progress.accept(summary.skippedCount + done, summary.requestedCount);
+                    }
+                }
+            }
+            // Pokémon fetched before an interruption are still written
+            writer.write(batch);
+            summary.importedCount += batch.size();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Fetches a Pokémon and its description, without ever throwing.
+     */
+    private FetchResult fetchPokemon(int id) {
+        try {
+            Pokemon pokemon = fetch(baseUrl + "pokemon/" + id + "/", PokemonJsonReader::read);
+            if (pokemon == null) {
+                return new FetchResult(id, null, null);
+            }
+            // Alternative forms have no species of their own ID; they are kept without a description
+            String description = fetch(baseUrl + "pokemon-species/" + id + "/",
+                    reader -> PokemonJsonReader.readFlavorText(reader, languages));
+            if (description == null) {
+                return new FetchResult(id, pokemon, null);
+            }
+            return new FetchResult(id, new DetailedPokemon(pokemon, description), null);
+        } catch (IOException | ParseException | RuntimeException e) {
+            return new FetchResult(id, null, e);
+        }
+    }
+
+    /**
+     * Fetches and reads a document, retrying on network errors, rate limiting (429) and server errors (5xx).
+     *
+     * @return The value read from the document, or null if the resource does not exist (404).
+     * @throws IOException if the document cannot be fetched after every retry, or the status is unexpected.
+     */
+    private <T> T fetch(String url, JsonDocumentReader<T> documentReader) throws IOException, ParseException {
+        for (int attempt = 0; ; attempt++) {
+            IOException failure;
+            long retryAfterMillis = -1;
+            try (CloseableHttpResponse response = httpClient.execute(new HttpGet(url))) {
+                int status = response.getStatusLine().getStatusCode();
+                HttpEntity entity = response.getEntity();
+                if (status == 200 && entity != null) {
+                    try (Reader reader = new BufferedReader(new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8))) {
+                        return documentReader.read(reader);
+                    }
+                }
+                EntityUtils.consumeQuietly(entity);
+                if (status == 404) {
+                    return null;
+                }
+                Header retryAfter = response.getFirstHeader("Retry-After");
+                retryAfterMillis = RetryPolicy.parseRetryAfter(retryAfter == null ? null : retryAfter.getValue());
+                failure = new PokeApiException(RetryPolicy.isRetryableStatus(status)
+                        ? PokeApiException.Reason.SERVER_ERROR : PokeApiException.Reason.CLIENT_ERROR,
+                        "HTTP " + status + " for " + url, null, status, retryAfterMillis);
+            } catch (IOException e) {
+                failure = e;
+            }
+            if (failure instanceof PokeApiException && !((PokeApiException) failure).isRetryable()) {
+                throw failure;
+            }
+            if (attempt >= retryPolicy.getMaxRetries()) {
+                throw failure;
+            }
+            try {
+                Thread.sleep(retryPolicy.delayMillis(attempt, retryAfterMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting to retry", e);
+            }
+        }
+    }
+
+    /**
+     * Releases the HTTP connections.
+     */
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        connectionManager.close();
+    }
+
+    /**
+     * Outcome of fetching one Pokémon: the Pokémon, nothing if it does not exist, or a failure.
+     */
+    private static class FetchResult {
+        private final int id;
+        private final Pokemon pokemon;
+        private final Exception failure;
+
+        FetchResult(int id, Pokemon pokemon, Exception failure) {
+            this.id = id;
+            this.pokemon = pokemon;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Counts of an import run.
+     */
+    public static class ImportSummary {
+        private final int requestedCount;
+        private final int skippedCount;
+        private int importedCount;
+        private final List<Integer> missingIds = new ArrayList<>();
+        private final List<Integer> failedIds = new ArrayList<>();
+        private long elapsedNanos;
+
+        ImportSummary(int requestedCount, int skippedCount) {
+            this.requestedCount = requestedCount;
+            this.skippedCount = skippedCount;
+        }
+
+        /**
+         * @return The number of Pokémon requested.
+         */
+        public int getRequestedCount() {
+            return requestedCount;
+        }
+
+        /**
+         * @return The number of Pokémon already in the database, which were not fetched again.
+         */
+        public int getSkippedCount() {
+            return skippedCount;
+        }
+
+        /**
+         * @return The number of Pokémon fetched and written.
+         */
+        public int getImportedCount() {
+            return importedCount;
+        }
+
+        /**
+         * @return The IDs the PokeAPI has no Pokémon for.
+         */
+        public List<Integer> getMissingIds() {
+            return missingIds;
+        }
+
+        /**
+         * @return The IDs that could not be fetched; running the import again retries them.
+         */
+        public List<Integer> getFailedIds() {
+            return failedIds;
+        }
+
+        /**
+         * @return The duration of the import, in milliseconds.
+         */
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("Imported %d pokemons in %.1f s (%.0f pokemons/s); %d already imported, %d missing, %d failed",
+                    importedCount, seconds, seconds > 0 ? importedCount / seconds : 0.0,
+                    skippedCount, missingIds.size(), failedIds.size());
+        }
+    }
+}
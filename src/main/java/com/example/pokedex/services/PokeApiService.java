@@ -1,57 +1,933 @@
 package com.example.pokedex.services;
 
+import com.example.pokedex.metrics.Counter;
+import com.example.pokedex.metrics.CountingInputStream;
+import com.example.pokedex.metrics.LatencyHistogram;
+import com.example.pokedex.metrics.Metrics;
+import com.example.pokedex.models.DetailedPokemon;
 import com.example.pokedex.models.Pokemon;
-import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.util.EntityUtils;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service class for interacting with the PokeAPI.
  * This class is responsible for making HTTP requests to the PokeAPI to retrieve Pokémon data.
+ * A single pooled HTTP client is shared by every lookup so that connections are kept alive
+ * and reused; it is released by {@link #close()}.
+ * Requests are protected against a degraded API: each lookup has a deadline covering its retries,
+ * rate-limited (429) and failed (5xx) requests are retried with a jittered exponential backoff
+ * honouring Retry-After, an optional token bucket caps the request rate, and a circuit breaker
+ * fails fast while the API keeps failing, answering from an optional fallback service instead.
+ * The description and evolution chain of a Pokémon live in separate species and evolution-chain
+ * documents; they are only requested when they are first read, and evolution chains are shared
+ * by every Pokémon of the chain.
+ * A Pokémon may also be requested conditionally, with the validators of a previous response, so that
+ * an unchanged document costs a "304 Not Modified" answer instead of the whole document.
+ * With an {@link HttpResponseCache}, response bodies are stored on disk: a fresh stored response is
+ * read again without any request, a stale one is revalidated, and an offline cache answers every
+ * document from the store.
  */
 public class PokeApiService implements PokemonDataService {
     // URL of the PokeAPI endpoint
-    private static final String API_URL = "https://pokeapi.co/api/v2/pokemon/";
+    public static final String DEFAULT_API_URL = "https://pokeapi.co/api/v2/pokemon/";
+    // Default number of requests sent to the PokeAPI at the same time during batch lookups
+    public static final int DEFAULT_MAX_PARALLELISM = 8;
+    // Default number of pooled connections kept open to the PokeAPI host
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = DEFAULT_MAX_PARALLELISM;
+    // Default timeouts, in milliseconds
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 5_000;
+    public static final int DEFAULT_SOCKET_TIMEOUT_MILLIS = 10_000;
+    // Default time an idle connection is kept alive when the server does not say otherwise
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = 30_000;
+    // Default time a lookup may take, retries and rate limiting included
+    public static final long DEFAULT_REQUEST_DEADLINE_MILLIS = 15_000;
+    // Page size asking the pokemon endpoint to list every Pokémon in one response
+    private static final int NAME_LIST_LIMIT = 100_000;
+
+    private static final LatencyHistogram HTTP_SECONDS = Metrics.histogram("pokedex_http_request_seconds",
+            "Time spent on PokeAPI requests, from sending to reading the response");
+    private static final Counter CALLS = Metrics.counter("pokedex_backend_calls_total",
+            "Calls made to a data backend", "backend", "pokeapi");
+    private static final Counter ERRORS = Metrics.counter("pokedex_backend_errors_total",
+            "Calls to a data backend that failed", "backend", "pokeapi");
+    private static final Counter RETRIES = Metrics.counter("pokedex_http_retries_total",
+            "PokeAPI requests sent again after a failure");
+    private static final Counter BYTES_RECEIVED = Metrics.counter("pokedex_http_received_bytes_total",
+            "Bytes of PokeAPI response documents received");
+    private static final Counter NOT_MODIFIED = Metrics.counter("pokedex_http_not_modified_total",
+            "Conditional PokeAPI requests answered by 304 Not Modified");
+    private static final Counter CACHE_HITS = Metrics.counter("pokedex_http_cache_hits_total",
+            "PokeAPI documents read from the response cache without sending a request");
+    private static final Map<PokeApiException.Reason, Counter> FAILURES = new EnumMap<>(PokeApiException.Reason.class);
+
+    static {
+        for (PokeApiException.Reason reason : PokeApiException.Reason.values()) {
+            FAILURES.put(reason, Metrics.counter("pokedex_http_failures_total",
+                    "Failed PokeAPI requests, by reason", "reason", reason.name().toLowerCase()));
+        }
+    }
+
+    private final String apiUrl;
+    private final int maxParallelism;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final AsyncLookupExecutor asyncExecutor;
+    // Runs the lookups of batches, at most maxParallelism at a time; lookups are bound by their own deadline
+    private final AsyncLookupExecutor batchExecutor;
+    private final RequestConfig requestConfig;
+    private final RetryPolicy retryPolicy;
+    private final long requestDeadlineNanos;
+    private final TokenBucketRateLimiter rateLimiter;   // null when the rate is not limited
+    private final CircuitBreaker circuitBreaker;
+    private final PokemonDataService fallbackService;   // null when failures are not covered
+    private final HttpResponseCache responseCache;      // null when responses are not stored
+    private volatile PokemonNameIndex nameIndex;  // Built from the resource list on the first name query
+    // Evolution chains already read, by URL of their document
+    private final Map<String, List<String>> evolutionChains = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for PokeApiService.
+     * Uses the default parallelism limit, connection pool size, timeouts and keep-alive duration.
+     */
+    public PokeApiService() {
+        this(DEFAULT_MAX_PARALLELISM);
+    }
+
+    /**
+     * Constructor for PokeApiService.
+     * Sends the requests to another server implementing the PokeAPI pokemon endpoint, such as a mirror
+     * or a local stub, with the default settings.
+     *
+     * @param apiUrl The URL of the pokemon endpoint, ending with a slash; the Pokémon ID is appended to it.
+     */
+    public PokeApiService(String apiUrl) {
+        this(apiUrl, DEFAULT_MAX_PARALLELISM, DEFAULT_MAX_CONNECTIONS_PER_ROUTE,
+                DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_SOCKET_TIMEOUT_MILLIS, DEFAULT_KEEP_ALIVE_MILLIS,
+                new AsyncLookupExecutor(DEFAULT_MAX_CONNECTIONS_PER_ROUTE, AsyncLookupExecutor.DEFAULT_TIMEOUT_MILLIS));
+    }
+
+    /**
+     * Constructor for PokeApiService.
+     * Limits the request rate and answers from a fallback service when the PokeAPI fails,
+     * with the default settings otherwise.
+     *
+     * @param apiUrl The URL of the pokemon endpoint, ending with a slash; the Pokémon ID is appended to it.
+     * @param rateLimiter The limiter of the request rate, or null for no limit.
+     * @param fallbackService The service answering when the PokeAPI fails, closed with this service, or null.
+     */
+    public PokeApiService(String apiUrl, TokenBucketRateLimiter rateLimiter, PokemonDataService fallbackService) {
+        this(apiUrl, rateLimiter, fallbackService, null);
+    }
+
+    /**
+     * Constructor for PokeApiService.
+     * Limits the request rate, answers from a fallback service when the PokeAPI fails and stores the
+     * responses in a cache, with the default settings otherwise.
+     *
+     * @param apiUrl The URL of the pokemon endpoint, ending with a slash; the Pokémon ID is appended to it.
+     * @param rateLimiter The limiter of the request rate, or null for no limit.
+     * @param fallbackService The service answering when the PokeAPI fails, closed with this service, or null.
+     * @param responseCache The store of the response bodies, or null.
+     */
+    public PokeApiService(String apiUrl, TokenBucketRateLimiter rateLimiter, PokemonDataService fallbackService,
+                          HttpResponseCache responseCache) {
+        this(apiUrl, DEFAULT_MAX_PARALLELISM, DEFAULT_MAX_CONNECTIONS_PER_ROUTE,
+                DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_SOCKET_TIMEOUT_MILLIS, DEFAULT_KEEP_ALIVE_MILLIS,
+                new AsyncLookupExecutor(DEFAULT_MAX_CONNECTIONS_PER_ROUTE, AsyncLookupExecutor.DEFAULT_TIMEOUT_MILLIS),
+                new RetryPolicy(), DEFAULT_REQUEST_DEADLINE_MILLIS, rateLimiter, new CircuitBreaker(), fallbackService,
+                responseCache);
+    }
+
+    /**
+     * Constructor for PokeApiService.
+     *
+     * @param maxParallelism The maximum number of concurrent requests sent during batch lookups.
+     */
+    public PokeApiService(int maxParallelism) {
+        this(maxParallelism, Math.max(maxParallelism, DEFAULT_MAX_CONNECTIONS_PER_ROUTE),
+                DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_SOCKET_TIMEOUT_MILLIS, DEFAULT_KEEP_ALIVE_MILLIS);
+    }
+
+    /**
+     * Constructor for PokeApiService.
+     * Creates the pooled HTTP client shared by all the lookups of this service.
+     *
+     * @param maxParallelism The maximum number of concurrent requests sent during batch lookups.
+     * @param maxConnectionsPerRoute The maximum number of pooled connections to the PokeAPI host.
+     * @param connectTimeoutMillis The timeout for establishing a connection, in milliseconds.
+     * @param socketTimeoutMillis The maximum inactivity between two data packets, in milliseconds.
+     * @param keepAliveMillis The maximum time an idle connection is kept alive, in milliseconds.
+     */
+    public PokeApiService(int maxParallelism, int maxConnectionsPerRoute,
+                          int connectTimeoutMillis, int socketTimeoutMillis, long keepAliveMillis) {
+        // Asynchronous lookups wait for a free pooled connection on the executor, not in the pool
+        this(DEFAULT_API_URL, maxParallelism, maxConnectionsPerRoute, connectTimeoutMillis, socketTimeoutMillis, keepAliveMillis,
+                new AsyncLookupExecutor(maxConnectionsPerRoute, AsyncLookupExecutor.DEFAULT_TIMEOUT_MILLIS));
+    }
+
+    /**
+     * Constructor for PokeApiService.
+     * Creates the pooled HTTP client shared by all the lookups of this service.
+     *
+     * @param apiUrl The URL of the pokemon endpoint, ending with a slash; the Pokémon ID is appended to it.
+     * @param maxParallelism The maximum number of concurrent requests sent during batch lookups.
+     * @param maxConnectionsPerRoute The maximum number of pooled connections to the PokeAPI host.
+     * @param connectTimeoutMillis The timeout for establishing a connection, in milliseconds.
+     * @param socketTimeoutMillis The maximum inactivity between two data packets, in milliseconds.
+     * @param keepAliveMillis The maximum time an idle connection is kept alive, in milliseconds.
+     * @param asyncExecutor The executor running asynchronous lookups, closed with this service.
+     */
+    public PokeApiService(String apiUrl, int maxParallelism, int maxConnectionsPerRoute,
+                          int connectTimeoutMillis, int socketTimeoutMillis, long keepAliveMillis,
+                          AsyncLookupExecutor asyncExecutor) {
+        this(apiUrl, maxParallelism, maxConnectionsPerRoute, connectTimeoutMillis, socketTimeoutMillis, keepAliveMillis,
+                asyncExecutor, new RetryPolicy(), DEFAULT_REQUEST_DEADLINE_MILLIS, null, new CircuitBreaker(), null);
+    }
+
+    /**
+     * Constructor for PokeApiService.
+     * Creates the pooled HTTP client shared by all the lookups of this service.
+     *
+     * @param apiUrl The URL of the pokemon endpoint, ending with a slash; the Pokémon ID is appended to it.
+     * @param maxParallelism The maximum number of concurrent requests sent during batch lookups.
+     * @param maxConnectionsPerRoute The maximum number of pooled connections to the PokeAPI host.
+     * @param connectTimeoutMillis The timeout for establishing a connection, in milliseconds.
+     * @param socketTimeoutMillis The maximum inactivity between two data packets, in milliseconds.
+     * @param keepAliveMillis The maximum time an idle connection is kept alive, in milliseconds.
+     * @param asyncExecutor The executor running asynchronous lookups, closed with this service.
+     * @param retryPolicy The retries of rate-limited, failed and timed out requests.
+     * @param requestDeadlineMillis The time a lookup may take, retries and rate limiting included, in milliseconds.
+     * @param rateLimiter The limiter of the request rate, or null for no limit.
+     * @param circuitBreaker The breaker stopping requests while the PokeAPI keeps failing.
+     * @param fallbackService The service answering when the PokeAPI fails, closed with this service, or null.
+     */
+    public PokeApiService(String apiUrl, int maxParallelism, int maxConnectionsPerRoute,
+                          int connectTimeoutMillis, int socketTimeoutMillis, long keepAliveMillis,
+                          AsyncLookupExecutor asyncExecutor, RetryPolicy retryPolicy, long requestDeadlineMillis,
+                          TokenBucketRateLimiter rateLimiter, CircuitBreaker circuitBreaker,
+                          PokemonDataService fallbackService) {
+        this(apiUrl, maxParallelism, maxConnectionsPerRoute, connectTimeoutMillis, socketTimeoutMillis, keepAliveMillis,
+                asyncExecutor, retryPolicy, requestDeadlineMillis, rateLimiter, circuitBreaker, fallbackService, null);
+    }
+
+    /**
+     * Constructor for PokeApiService.
+     * Creates the pooled HTTP client shared by all the lookups of this service.
+     *
+     * @param apiUrl The URL of the pokemon endpoint, ending with a slash; the Pokémon ID is appended to it.
+     * @param maxParallelism The maximum number of concurrent requests sent during batch lookups.
+     * @param maxConnectionsPerRoute The maximum number of pooled connections to the PokeAPI host.
+     * @param connectTimeoutMillis The timeout for establishing a connection, in milliseconds.
+     * @param socketTimeoutMillis The maximum inactivity between two data packets, in milliseconds.
+     * @param keepAliveMillis The maximum time an idle connection is kept alive, in milliseconds.
+     * @param asyncExecutor The executor running asynchronous lookups, closed with this service.
+     * @param retryPolicy The retries of rate-limited, failed and timed out requests.
+     * @param requestDeadlineMillis The time a lookup may take, retries and rate limiting included, in milliseconds.
+     * @param rateLimiter The limiter of the request rate, or null for no limit.
+     * @param circuitBreaker The breaker stopping requests while the PokeAPI keeps failing.
+     * @param fallbackService The service answering when the PokeAPI fails, closed with this service, or null.
+     * @param responseCache The store of the response bodies, or null.
+     */
+    public PokeApiService(String apiUrl, int maxParallelism, int maxConnectionsPerRoute,
+                          int connectTimeoutMillis, int socketTimeoutMillis, long keepAliveMillis,
+                          AsyncLookupExecutor asyncExecutor, RetryPolicy retryPolicy, long requestDeadlineMillis,
+                          TokenBucketRateLimiter rateLimiter, CircuitBreaker circuitBreaker,
+                          PokemonDataService fallbackService, HttpResponseCache responseCache) {
+        if (maxParallelism < 1) {
+            throw new IllegalArgumentException("maxParallelism must be at least 1");
+        }
+        if (maxConnectionsPerRoute < 1) {
+            throw new IllegalArgumentException("maxConnectionsPerRoute must be at least 1");
+        }
+        this.apiUrl = apiUrl;
+        this.maxParallelism = maxParallelism;
+        this.asyncExecutor = asyncExecutor;
+        this.batchExecutor = new AsyncLookupExecutor(maxParallelism, 0);
+        this.retryPolicy = retryPolicy;
+        this.requestDeadlineNanos = TimeUnit.MILLISECONDS.toNanos(requestDeadlineMillis);
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.fallbackService = fallbackService;
+        this.responseCache = responseCache;
+
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnectionsPerRoute);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+        this.requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMillis)
+                .setConnectionRequestTimeout(connectTimeoutMillis)
+                .setSocketTimeout(socketTimeoutMillis)
+                .build();
+
+        // Honour the server Keep-Alive header, but never keep an idle connection longer than keepAliveMillis
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMillis) : keepAliveMillis;
+        };
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
 
     /**
      * Retrieves a Pokémon by its ID from the PokeAPI.
-     * This method forms an HTTP GET request to the PokeAPI, parses the JSON
+     * The Pokémon fields are extracted while the JSON response is streamed, without reading the
+     * whole document into memory. When the PokeAPI fails, the fallback service answers if there is one.
+     *
      * @param id The ID of the Pokémon to be retrieved.
-     * @return A Pokemon object with data retrieved from the PokeAPI, or null in case of an error.
-     * @throws IOException if a network error occurs during the HTTP request.
-     * @throws ParseException if an error occurs during parsing of the JSON response.
+     * @return A Pokemon object with data retrieved from the PokeAPI, or null if no Pokémon is found
+     *         or the lookup failed.
      */
     @Override
     public Pokemon getPokemonById(int id) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            // Forming the GET request with the specified Pokémon ID
-            HttpGet request = new HttpGet(API_URL + id);
-            // Executing the request and getting the response
-            HttpResponse response = httpClient.execute(request);
-            // Converting the response entity to a String
-            String jsonString = EntityUtils.toString(response.getEntity());
-            // Parsing the JSON string to a JSONObject
-            JSONObject jsonObject = (JSONObject) new JSONParser().parse(jsonString);
-
-            // Extracting data from the JSON object
-            int pokemonId = ((Long) jsonObject.get("id")).intValue();
-            String name = (String) jsonObject.get("name");
-            int height = ((Long) jsonObject.get("height")).intValue();
-            int weight = ((Long) jsonObject.get("weight")).intValue();
-
-            // Creating and returning a new Pokemon object with the retrieved data
-            return new Pokemon(pokemonId, name, height, weight);
-        } catch (IOException | ParseException e) {
-            // Printing the stack trace in case of an exception and returning null
-            e.printStackTrace();
+        try {
+            return fetchPokemon(id);
+        } catch (PokeApiException e) {
+            if (e.getReason() == PokeApiException.Reason.NOT_FOUND) {
+                return null;
+            }
+            if (fallbackService != null) {
+                return fallbackService.getPokemonById(id);
+            }
+            System.err.println("Unable to retrieve the pokemon " + id + ": " + e.getMessage());
             return null;
         }
     }
+
+    /**
+     * Retrieves a Pokémon by its ID from the PokeAPI, reporting failures instead of hiding them.
+     * Only the pokemon document is requested; the description and evolution chain are requested
+     * the first time they are read from the returned {@link DetailedPokemon}.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return The Pokémon.
+     * @throws PokeApiException if the Pokémon does not exist, or cannot be retrieved before the deadline.
+     */
+    public Pokemon fetchPokemon(int id) throws PokeApiException {
+        return toPokemon(id, fetch(apiUrl + id, PokemonJsonReader::readDocument, null));
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID from the PokeAPI unless its document is unchanged since a previous
+     * revision. The request carries the ETag of the revision in If-None-Match, or else its Last-Modified
+     * date in If-Modified-Since; the server then answers "304 Not Modified", without a body, when the
+     * document is the same. The description and evolution chain are requested lazily, as by {@link #fetchPokemon(int)}.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @param revision The revision already known, or null to request the document unconditionally.
+     * @return The Pokémon if the document changed, with the validators of the new document.
+     * @throws PokeApiException if the Pokémon does not exist, or cannot be retrieved before the deadline.
+     */
+    public ConditionalPokemon fetchPokemonIfChanged(int id, PokemonRevision revision) throws PokeApiException {
+        Validators validators = revision == null ? new Validators(null, null)
+                : new Validators(revision.getEtag(), revision.getLastModified());
+        PokemonJsonReader.PokemonDocument document = fetch(apiUrl + id, PokemonJsonReader::readDocument, validators);
+        if (validators.notModified) {
+            return new ConditionalPokemon(null, validators.etag, validators.lastModified);
+        }
+        return new ConditionalPokemon(toPokemon(id, document), validators.etag, validators.lastModified);
+    }
+
+    /**
+     * Builds the Pokémon of a pokemon document, with loaders of its species document.
+     */
+    private Pokemon toPokemon(int id, PokemonJsonReader.PokemonDocument document) throws PokeApiException {
+        if (document == null || document.getPokemon() == null) {
+            throw new PokeApiException(PokeApiException.Reason.INVALID_RESPONSE,
+                    "The document of the pokemon " + id + " lacks a required field", null, 200, -1);
+        }
+        if (document.getSpeciesUrl() == null) {
+            return new DetailedPokemon(document.getPokemon(), (String) null);
+        }
+        SpeciesLoader species = new SpeciesLoader(id, resolve(document.getSpeciesUrl(), "pokemon-species/"));
+        return new DetailedPokemon(document.getPokemon(), species::getDescription, species::getEvolutionChain);
+    }
+
+    /**
+     * Returns the URL of a sub-resource linked from a document, on the server of this service.
+     * Documents link to pokeapi.co; when the pokemon endpoint is served by a mirror, the link is
+     * moved to the same mirror.
+     *
+     * @param resourceUrl The URL found in the document.
+     * @param endpoint The endpoint of the resource, such as "pokemon-species/".
+     * @return The URL to request.
+     */
+    private String resolve(String resourceUrl, String endpoint) {
+        int start = resourceUrl.lastIndexOf("/" + endpoint);
+        if (start < 0 || !apiUrl.endsWith("/pokemon/")) {
+            return resourceUrl;
+        }
+        return apiUrl.substring(0, apiUrl.length() - "pokemon/".length()) + resourceUrl.substring(start + 1);
+    }
+
+    /**
+     * Reads an evolution chain, from the chains already read if possible.
+     *
+     * @param url The URL of the evolution-chain document.
+     * @return The names of the species of the chain, or null in case of an error.
+     */
+    private List<String> getEvolutionChain(String url) {
+        List<String> chain = evolutionChains.get(url);
+        if (chain != null) {
+            return chain;
+        }
+        try {
+            chain = fetch(url, PokemonJsonReader::readEvolutionChain, null);
+        } catch (PokeApiException e) {
+            System.err.println("Unable to retrieve the evolution chain " + url + ": " + e.getMessage());
+            return null;
+        }
+        if (chain == null) {
+            return null;
+        }
+        // Concurrent readers of the same chain may both fetch it; the first one read is kept
+        List<String> previous = evolutionChains.putIfAbsent(url, chain);
+        return previous != null ? previous : chain;
+    }
+
+    /**
+     * Loader of the species document of a Pokémon, requested once for both its description and its
+     * evolution chain.
+     */
+    private final class SpeciesLoader {
+        private final int id;
+        private final String url;
+        private PokemonJsonReader.SpeciesDocument species;
+        private boolean loaded;
+
+        SpeciesLoader(int id, String url) {
+            this.id = id;
+            this.url = url;
+        }
+
+        /**
+         * Returns the species document, requesting it the first time; null in case of an error.
+         */
+        private synchronized PokemonJsonReader.SpeciesDocument load() {
+            if (!loaded) {
+                loaded = true;
+                try {
+                    species = fetch(url,
+                            reader -> PokemonJsonReader.readSpecies(reader, PokeApiImporter.DEFAULT_LANGUAGES), null);
+                } catch (PokeApiException e) {
+                    System.err.println("Unable to retrieve the species of the pokemon " + id + ": " + e.getMessage());
+                }
+            }
+            return species;
+        }
+
+        String getDescription() {
+            PokemonJsonReader.SpeciesDocument document = load();
+            return document != null ? document.getDescription() : null;
+        }
+
+        List<String> getEvolutionChain() {
+            PokemonJsonReader.SpeciesDocument document = load();
+            if (document == null || document.getEvolutionChainUrl() == null) {
+                return null;
+            }
+            return PokeApiService.this.getEvolutionChain(resolve(document.getEvolutionChainUrl(), "evolution-chain/"));
+        }
+    }
+
+    /**
+     * Returns the name index of the PokeAPI, fetching the list of every Pokémon name the first time
+     * it is needed; the list is a single request on the pokemon endpoint.
+     *
+     * @return The name index, or null in case of an error.
+     */
+    @Override
+    public PokemonNameIndex getNameIndex() {
+        PokemonNameIndex index = nameIndex;
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            if (nameIndex == null) {
+                try {
+                    Map<Integer, String> namesById = fetch(apiUrl + "?limit=" + NAME_LIST_LIMIT,
+                            PokemonJsonReader::readResourceNames, null);
+                    // An empty list is not kept, so that it is asked again next time
+                    if (!namesById.isEmpty()) {
+                        nameIndex = new PokemonNameIndex(namesById);
+                    }
+                } catch (PokeApiException e) {
+                    System.err.println("Unable to retrieve the pokemon names: " + e.getMessage());
+                }
+                if (nameIndex == null && fallbackService != null) {
+                    return fallbackService.getNameIndex();
+                }
+            }
+            return nameIndex;
+        }
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID from the PokeAPI without blocking the calling thread.
+     * The request runs on this service's executor, within its concurrency limit and timeout.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return A future completed with the Pokémon, or with null in case of an error.
+     */
+    @Override
+    public CompletableFuture<Pokemon> getPokemonByIdAsync(int id) {
+        return asyncExecutor.submit(() -> getPokemonById(id));
+    }
+
+    /**
+     * Retrieves several Pokémon from the PokeAPI concurrently.
+     * At most {@code maxParallelism} batch requests of this service are in flight at the same time. Each lookup is bound
+     * by its own deadline, so a slow API cannot hold the batch for longer; the lookups that failed
+     * are then sent to the fallback service in a single batch, if there is one.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @return The Pokémon found, in the order of the requested IDs. IDs that failed are skipped.
+     */
+    @Override
+    public List<Pokemon> getPokemonByIds(Collection<Integer> ids) {
+        return getPokemonByIds(ids, new ArrayList<>());
+    }
+
+    /**
+     * Retrieves several Pokémon from the PokeAPI concurrently, reporting the IDs whose lookup
+     * failed and that the fallback service, if there is one, could not answer either.
+     * IDs the PokeAPI answers with "404 Not Found" are not failures.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @param failedIds Receives the requested IDs whose lookup failed.
+     * @return The Pokémon found, in the order of the requested IDs. IDs that failed are skipped.
+     */
+    @Override
+    public List<Pokemon> getPokemonByIds(Collection<Integer> ids, Collection<Integer> failedIds) {
+        List<Pokemon> pokemons = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) {
+            return pokemons;
+        }
+
+        // Found Pokémon by ID, in the order of the requested IDs; failed lookups are kept as null
+        Map<Integer, Pokemon> found = new LinkedHashMap<>();
+        List<Integer> failedLookups = new ArrayList<>();
+        List<Integer> idList = new ArrayList<>(ids);
+        List<CompletableFuture<Pokemon>> lookups = new ArrayList<>(idList.size());
+        for (int id : idList) {
+            lookups.add(batchExecutor.submit(() -> {
+                try {
+                    return fetchPokemon(id);
+                } catch (PokeApiException e) {
+                    throw new CompletionException(e);
+                }
+            }));
+        }
+        int read = 0;  // Number of lookups whose outcome was read
+        try {
+            for (; read < lookups.size(); read++) {
+                int id = idList.get(read);
+                try {
+                    found.put(id, lookups.get(read).get());
+                } catch (ExecutionException e) {
+                    Throwable failure = e.getCause();
+                    boolean notFound = failure instanceof PokeApiException
+                            && ((PokeApiException) failure).getReason() == PokeApiException.Reason.NOT_FOUND;
+                    if (!notFound) {
+                        found.put(id, null);
+                        failedLookups.add(id);
+                        if (fallbackService == null) {
+                            System.err.println("Unable to retrieve the pokemon " + id + ": " + failure.getMessage());
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // The lookups not read yet are given up
+            for (int i = read; i < lookups.size(); i++) {
+                lookups.get(i).cancel(true);
+                failedLookups.add(idList.get(i));
+            }
+            Thread.currentThread().interrupt();
+        }
+
+        if (fallbackService != null && !failedLookups.isEmpty()) {
+            // The fallback tells the IDs it has no Pokémon for apart from its own failures
+            List<Integer> fallbackFailedIds = new ArrayList<>();
+            for (Pokemon pokemon : fallbackService.getPokemonByIds(failedLookups, fallbackFailedIds)) {
+                found.put(pokemon.getId(), pokemon);
+            }
+            failedIds.addAll(fallbackFailedIds);
+        } else {
+            failedIds.addAll(failedLookups);
+        }
+        for (Pokemon pokemon : found.values()) {
+            if (pokemon != null) {
+                pokemons.add(pokemon);
+            }
+        }
+        return pokemons;
+    }
+
+    /**
+     * Sends a GET request and reads the response document, within the deadline of a lookup.
+     * The request waits for the rate limiter, fails fast while the circuit is open, and is retried
+     * when the API is rate limiting, failing or too slow; the outcome is recorded by the circuit breaker.
+     * A fresh response of the cache, or any stored response when it is offline, is read without a
+     * request; conditional requests of the caller always go to the API, so they fail when it is offline.
+     *
+     * @param url The URL of the document.
+     * @param documentReader The reader extracting a value from the streamed document.
+     * @param validators The validators making the request conditional and receiving those of the response, or null.
+     * @return The value read from the document, or null if the document is not modified.
+     * @throws PokeApiException if the document cannot be retrieved.
+     */
+    private <T> T fetch(String url, JsonDocumentReader<T> documentReader, Validators validators) throws PokeApiException {
+        HttpResponseCache.Entry cached = null;
+        if (responseCache != null) {
+            cached = validators == null ? responseCache.lookup(url) : null;
+            if (cached != null && (responseCache.isOffline() || cached.isFresh(System.currentTimeMillis()))) {
+                try {
+                    T value = readCached(url, cached, documentReader, responseCache);
+                    CACHE_HITS.increment();
+                    return value;
+                } catch (IOException e) {
+                    // A damaged stored body is requested again, unless there is no way to
+                    System.err.println("Unable to read the cached response of " + url + ": " + e.getMessage());
+                    cached = null;
+                }
+            }
+            // Conditional requests of the caller cannot be answered offline either
+            if (responseCache.isOffline()) {
+                FAILURES.get(PokeApiException.Reason.NOT_CACHED).increment();
+                throw new PokeApiException(PokeApiException.Reason.NOT_CACHED, "No cached response for " + url, null);
+            }
+        }
+        long deadlineNanos = System.nanoTime() + requestDeadlineNanos;
+        if (!circuitBreaker.allowRequest()) {
+            FAILURES.get(PokeApiException.Reason.CIRCUIT_OPEN).increment();
+            throw new PokeApiException(PokeApiException.Reason.CIRCUIT_OPEN,
+                    "The PokeAPI has been failing; requests are suspended", null);
+        }
+        boolean healthy = false;
+        try {
+            for (int attempt = 0; ; attempt++) {
+                if (attempt > 0) {
+                    RETRIES.increment();
+                }
+                PokeApiException failure;
+                try {
+                    acquirePermit(deadlineNanos);
+                    T value = execute(url, documentReader, validators, cached, deadlineNanos);
+                    healthy = true;
+                    return value;
+                } catch (PokeApiException e) {
+                    // A missing Pokémon or a rejected request says nothing bad about the API
+                    healthy = !e.isUpstreamFailure();
+                    if (!e.isRetryable()) {
+                        throw e;
+                    }
+                    failure = e;
+                }
+                if (attempt >= retryPolicy.getMaxRetries()) {
+                    throw failure;
+                }
+                long delayNanos = TimeUnit.MILLISECONDS.toNanos(retryPolicy.delayMillis(attempt, failure.getRetryAfterMillis()));
+                if (System.nanoTime() + delayNanos - deadlineNanos >= 0) {
+                    throw new PokeApiException(PokeApiException.Reason.DEADLINE_EXCEEDED,
+                            "No retry possible before the deadline after: " + failure.getMessage(), failure,
+                            failure.getStatusCode(), failure.getRetryAfterMillis());
+                }
+                sleep(delayNanos);
+            }
+        } finally {
+            if (healthy) {
+                circuitBreaker.recordSuccess();
+            } else {
+                circuitBreaker.recordFailure();
+            }
+        }
+    }
+
+    /**
+     * Sends a single GET request, with timeouts shortened to what is left before the deadline.
+     * A stale stored response is revalidated with its own validators.
+     */
+    private <T> T execute(String url, JsonDocumentReader<T> documentReader, Validators validators,
+                          HttpResponseCache.Entry cached, long deadlineNanos) throws PokeApiException {
+        int remainingMillis = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+        HttpGet request = new HttpGet(url);
+        request.setConfig(RequestConfig.copy(requestConfig)
+                .setConnectTimeout(Math.min(requestConfig.getConnectTimeout(), remainingMillis))
+                .setConnectionRequestTimeout(Math.min(requestConfig.getConnectionRequestTimeout(), remainingMillis))
+                .setSocketTimeout(Math.min(requestConfig.getSocketTimeout(), remainingMillis))
+                .build());
+        if (validators == null && cached != null) {
+            validators = new Validators(cached.getEtag(), cached.getLastModified());
+        }
+        if (validators != null) {
+            // An ETag identifies the document exactly; the date is only used when there is no ETag
+            if (validators.ifNoneMatch != null) {
+                request.setHeader("If-None-Match", validators.ifNoneMatch);
+            } else if (validators.ifModifiedSince != null) {
+                request.setHeader("If-Modified-Since", validators.ifModifiedSince);
+            }
+        }
+
+        CALLS.increment();
+        long start = Metrics.startTimer();
+        try {
+            return execute(request, url, documentReader, validators, cached, responseCache, httpClient);
+        } catch (PokeApiException e) {
+            ERRORS.increment();
+            FAILURES.get(e.getReason()).increment();
+            throw e;
+        } finally {
+            HTTP_SECONDS.recordSince(start);
+        }
+    }
+
+    /**
+     * Sends a GET request and maps its outcome to a value or a typed failure.
+     * With a cache, the whole body is read and stored before it is parsed, and a revalidated stored
+     * response is read from the cache.
+     */
+    private static <T> T execute(HttpGet request, String url, JsonDocumentReader<T> documentReader,
+                                 Validators validators, HttpResponseCache.Entry cached,
+                                 HttpResponseCache responseCache, CloseableHttpClient httpClient) throws PokeApiException {
+        // Executing the request on the shared client; closing the response hands the connection back to the pool
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int status = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            if (validators != null && (status == 200 || status == 304)) {
+                Header etag = response.getFirstHeader("ETag");
+                Header lastModified = response.getFirstHeader("Last-Modified");
+                // A 304 answer may leave out the validators; the ones sent in the request still hold then
+                validators.etag = etag != null ? etag.getValue() : status == 304 ? validators.ifNoneMatch : null;
+                validators.lastModified = lastModified != null ? lastModified.getValue()
+                        : status == 304 ? validators.ifModifiedSince : null;
+                validators.notModified = status == 304;
+                if (status == 304) {
+                    NOT_MODIFIED.increment();
+                    EntityUtils.consumeQuietly(entity);
+                    if (cached != null) {
+                        Header cacheControl = response.getFirstHeader("Cache-Control");
+                        cached = responseCache.refresh(cached, etag != null ? etag.getValue() : null,
+                                lastModified != null ? lastModified.getValue() : null,
+                                cacheControl != null ? cacheControl.getValue() : null);
+                        return readCached(url, cached, documentReader, responseCache);
+                    }
+                    return null;
+                }
+            }
+            if (status != 200 || entity == null) {
+                // Reading the error body keeps the connection reusable
+                EntityUtils.consumeQuietly(entity);
+                throw statusFailure(url, status, response.getFirstHeader("Retry-After"));
+            }
+            // Closing the content stream drains what the parser did not read, which keeps the connection reusable
+            InputStream content = Metrics.isEnabled() ? new CountingInputStream(entity.getContent(), BYTES_RECEIVED) : entity.getContent();
+            if (responseCache != null) {
+                // The parser stops early, so the body is read whole to be stored
+                byte[] body = HttpResponseCache.readFully(content);
+                Header etag = response.getFirstHeader("ETag");
+                Header lastModified = response.getFirstHeader("Last-Modified");
+                Header cacheControl = response.getFirstHeader("Cache-Control");
+                responseCache.store(url, body, etag != null ? etag.getValue() : null,
+                        lastModified != null ? lastModified.getValue() : null,
+                        cacheControl != null ? cacheControl.getValue() : null);
+                content = new ByteArrayInputStream(body);
+            }
+            try (Reader reader = new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8))) {
+                return documentReader.read(reader);
+            }
+        } catch (PokeApiException e) {
+            throw e;
+        } catch (ConnectTimeoutException | SocketTimeoutException e) {
+            throw new PokeApiException(PokeApiException.Reason.TIMEOUT, "Timed out on " + url, e);
+        } catch (IOException e) {
+            throw new PokeApiException(PokeApiException.Reason.NETWORK, "Network error on " + url + ": " + e.getMessage(), e);
+        } catch (ParseException e) {
+            throw new PokeApiException(PokeApiException.Reason.INVALID_RESPONSE, "Invalid JSON from " + url, e, 200, -1);
+        }
+    }
+
+    /**
+     * Reads a document from the body of a stored response.
+     */
+    private static <T> T readCached(String url, HttpResponseCache.Entry cached, JsonDocumentReader<T> documentReader,
+                                    HttpResponseCache responseCache) throws IOException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(responseCache.openBody(cached), StandardCharsets.UTF_8))) {
+            return documentReader.read(reader);
+        } catch (ParseException e) {
+            throw new PokeApiException(PokeApiException.Reason.INVALID_RESPONSE, "Invalid cached JSON for " + url, e, 200, -1);
+        }
+    }
+
+    /**
+     * Builds the failure matching the HTTP status of a response.
+     */
+    private static PokeApiException statusFailure(String url, int status, Header retryAfter) {
+        PokeApiException.Reason reason;
+        if (status == 404) {
+            reason = PokeApiException.Reason.NOT_FOUND;
+        } else if (status == 429) {
+            reason = PokeApiException.Reason.RATE_LIMITED;
+        } else if (status >= 500) {
+            reason = PokeApiException.Reason.SERVER_ERROR;
+        } else if (status >= 400) {
+            reason = PokeApiException.Reason.CLIENT_ERROR;
+        } else {
+            reason = PokeApiException.Reason.INVALID_RESPONSE;
+        }
+        long retryAfterMillis = RetryPolicy.parseRetryAfter(retryAfter == null ? null : retryAfter.getValue());
+        return new PokeApiException(reason, "HTTP " + status + " on " + url, null, status, retryAfterMillis);
+    }
+
+    /**
+     * Waits for the rate limiter to allow a request before the deadline.
+     */
+    private void acquirePermit(long deadlineNanos) throws PokeApiException {
+        if (rateLimiter == null) {
+            return;
+        }
+        try {
+            if (!rateLimiter.acquire(deadlineNanos)) {
+                throw new PokeApiException(PokeApiException.Reason.DEADLINE_EXCEEDED,
+                        "The request rate limit leaves no room before the deadline", null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PokeApiException(PokeApiException.Reason.DEADLINE_EXCEEDED, "Interrupted while waiting for the rate limiter", e);
+        }
+    }
+
+    private static void sleep(long nanos) throws PokeApiException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PokeApiException(PokeApiException.Reason.DEADLINE_EXCEEDED, "Interrupted while waiting to retry", e);
+        }
+    }
+
+    /**
+     * Validators of a conditional request, and those of its response.
+     */
+    private static final class Validators {
+        private final String ifNoneMatch;       // null to leave the header out
+        private final String ifModifiedSince;   // null to leave the header out
+        private String etag;
+        private String lastModified;
+        private boolean notModified;
+
+        Validators(String ifNoneMatch, String ifModifiedSince) {
+            this.ifNoneMatch = ifNoneMatch;
+            this.ifModifiedSince = ifModifiedSince;
+        }
+    }
+
+    /**
+     * Outcome of a conditional request of a Pokémon: the Pokémon if its document changed, and the
+     * validators of the document to be sent with the next request.
+     */
+    public static class ConditionalPokemon {
+        private final Pokemon pokemon;
+        private final String etag;
+        private final String lastModified;
+
+        ConditionalPokemon(Pokemon pokemon, String etag, String lastModified) {
+            this.pokemon = pokemon;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * @return Whether the document changed since the known revision, in which case the Pokémon is returned.
+         */
+        public boolean isModified() {
+            return pokemon != null;
+        }
+
+        /**
+         * @return The Pokémon, or null if the document did not change.
+         */
+        public Pokemon getPokemon() {
+            return pokemon;
+        }
+
+        /**
+         * @return The ETag of the document, or null if the server sent none.
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * @return The Last-Modified date of the document, or null if the server sent none.
+         */
+        public String getLastModified() {
+            return lastModified;
+        }
+    }
+
+    /**
+     * @return The state of the circuit breaker guarding the PokeAPI.
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Closes the executors, the shared HTTP client, every pooled connection and the fallback service.
+     * The service must not be used after this method has been called.
+     */
+    @Override
+    public void close() {
+        asyncExecutor.close();
+        batchExecutor.close();
+        if (fallbackService != null) {
+            fallbackService.close();
+        }
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            connectionManager.shutdown();
+        }
+    }
 }
@@ -1,13 +1,21 @@
 package com.example.pokedex.services;
 
 import com.example.pokedex.models.Pokemon;
+import com.example.pokedex.utilities.PokemonIdParser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Interface for services that provide data about Pokémon.
  * This interface defines the contract for services that can retrieve Pokémon data,
  * ensuring a consistent API regardless of the underlying data source implementation.
+ * Services holding resources such as connections release them in {@link #close()}.
  */
-public interface PokemonDataService {
+public interface PokemonDataService extends AutoCloseable {
 
     /**
      * Retrieves a Pokémon by its ID.
@@ -18,4 +26,178 @@ public interface PokemonDataService {
      * @return A Pokemon object corresponding to the specified ID, or null if no Pokémon is found.
      */
     Pokemon getPokemonById(int id);
+
+    /**
+     * Retrieves several Pokémon by their IDs.
+     * The default implementation performs one lookup per ID; implementing classes should
+     * override it when their data source can answer a batch in fewer round trips.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @return The Pokémon found, in the order of the requested IDs. IDs with no Pokémon are skipped.
+     */
+    default List<Pokemon> getPokemonByIds(Collection<Integer> ids) {
+        List<Pokemon> pokemons = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Pokemon pokemon = getPokemonById(id);
+            if (pokemon != null) {
+                pokemons.add(pokemon);
+            }
+        }
+        return pokemons;
+    }
+
+    /**
+     * Retrieves several Pokémon by their IDs, telling the IDs no Pokémon has apart from the IDs
+     * whose lookup failed, which may well be found when asked again.
+     * The default implementation reports no failure; services skipping the IDs whose lookup
+     * failed, as a database or network error would, override it.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @param failedIds Receives the requested IDs whose lookup failed.
+     * @return The Pokémon found, in the order of the requested IDs. IDs with no Pokémon or whose lookup failed are skipped.
+     */
+    default List<Pokemon> getPokemonByIds(Collection<Integer> ids, Collection<Integer> failedIds) {
+        return getPokemonByIds(ids);
+    }
+
+    /**
+     * Retrieves every Pokémon whose ID lies in the given inclusive range.
+     *
+     * @param fromId The first ID of the range (inclusive).
+     * @param toId The last ID of the range (inclusive).
+     * @return The Pokémon found, ordered by ID. IDs with no Pokémon are skipped.
+     * @throws IllegalArgumentException if the range spans more than {@link PokemonIdParser#MAX_IDS} IDs;
+     *         the default implementation looks every ID up, so it does not accept unbounded ranges.
+     */
+    default List<Pokemon> getPokemonByRange(int fromId, int toId) {
+        if (fromId > toId) {
+            return new ArrayList<>();
+        }
+        long span = (long) toId - fromId + 1;
+        if (span > PokemonIdParser.MAX_IDS) {
+            throw new IllegalArgumentException("The range " + fromId + "-" + toId + " spans more than "
+                    + PokemonIdParser.MAX_IDS + " pokemon IDs");
+        }
+        List<Integer> ids = new ArrayList<>((int) span);
+        // Stopping at toId without incrementing past it, which would wrap around at Integer.MAX_VALUE
+        for (int id = fromId; ; id++) {
+            ids.add(id);
+            if (id == toId) {
+                break;
+            }
+        }
+        return getPokemonByIds(ids);
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID without blocking the calling thread.
+     * The default implementation runs {@link #getPokemonById(int)} on the shared
+     * {@link AsyncLookupExecutor}.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return A future completed with the Pokémon, or with null if no Pokémon is found.
+     */
+    default CompletableFuture<Pokemon> getPokemonByIdAsync(int id) {
+        return AsyncLookupExecutor.shared().submit(() -> getPokemonById(id));
+    }
+
+    /**
+     * Returns the index used to search Pokémon by name.
+     * The default implementation returns null, meaning the service cannot search by name;
+     * implementing classes typically build the index on first use.
+     *
+     * @return The name index of the service, or null if names cannot be searched.
+     */
+    default PokemonNameIndex getNameIndex() {
+        return null;
+    }
+
+    /**
+     * Retrieves a Pokémon by its name, ignoring case and diacritics.
+     *
+     * @param name The name of the Pokémon to be retrieved.
+     * @return The Pokémon with that name, or null if no Pokémon is found.
+     */
+    default Pokemon getPokemonByName(String name) {
+        PokemonNameIndex index = getNameIndex();
+        int id = index == null ? -1 : index.findExact(name);
+        return id < 0 ? null : getPokemonById(id);
+    }
+
+    /**
+     * Retrieves the Pokémon whose name starts with the given prefix, as needed for autocompletion.
+     *
+     * @param prefix The beginning of the name.
+     * @param limit The maximum number of Pokémon returned.
+     * @return The matching Pokémon in alphabetical order, an exact match coming first.
+     */
+    default List<Pokemon> findPokemonByNamePrefix(String prefix, int limit) {
+        PokemonNameIndex index = getNameIndex();
+        return index == null ? new ArrayList<>() : getPokemonByIds(index.findByPrefix(prefix, limit));
+    }
+
+    /**
+     * Retrieves the Pokémon whose name is close to the given, possibly misspelled, name.
+     *
+     * @param name The approximate name.
+     * @param maxDistance The largest edit distance accepted, at most {@link PokemonNameIndex#MAX_EDIT_DISTANCE}.
+     * @param limit The maximum number of Pokémon returned.
+     * @return The matching Pokémon, closest first.
+     */
+    default List<Pokemon> findPokemonByApproximateName(String name, int maxDistance, int limit) {
+        PokemonNameIndex index = getNameIndex();
+        return index == null ? new ArrayList<>() : getPokemonByIds(index.findApproximate(name, maxDistance, limit));
+    }
+
+    /**
+     * Tells whether the service can be queried by height and weight, which requires enumerating its Pokémon.
+     * The default implementation returns false; services overriding {@link #findPokemon} return true.
+     *
+     * @return true if {@link #findPokemon(PokemonQuery, Consumer)} can be called.
+     */
+    default boolean supportsQueries() {
+        return false;
+    }
+
+    /**
+     * Streams every Pokémon matching a query on height and weight, ordered by ID.
+     * Each Pokémon is handed to the action as soon as it is read, so that large results are
+     * never held in memory at once; the action should therefore not block for long.
+     * Callers check {@link #supportsQueries()} first; the default implementation throws,
+     * as a service must be able to enumerate its Pokémon.
+     *
+     * @param query The criteria the Pokémon must match.
+     * @param action The action run for each matching Pokémon.
+     * @return The number of matching Pokémon.
+     * @throws UnsupportedOperationException if the service cannot be queried by height or weight.
+     */
+    default int findPokemon(PokemonQuery query, Consumer<? super Pokemon> action) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be queried by height or weight");
+    }
+
+    /**
+     * Streams every Pokémon whose height lies in the given inclusive range, ordered by ID.
+     *
+     * @see #findPokemon(PokemonQuery, Consumer)
+     */
+    default int findByHeightRange(int minHeight, int maxHeight, Consumer<? super Pokemon> action) {
+        return findPokemon(PokemonQuery.heightBetween(minHeight, maxHeight), action);
+    }
+
+    /**
+     * Streams every Pokémon whose weight lies in the given inclusive range, ordered by ID.
+     *
+     * @see #findPokemon(PokemonQuery, Consumer)
+     */
+    default int findByWeightRange(int minWeight, int maxWeight, Consumer<? super Pokemon> action) {
+        return findPokemon(PokemonQuery.weightBetween(minWeight, maxWeight), action);
+    }
+
+    /**
+     * Releases the resources held by the service.
+     * The default implementation does nothing.
+     */
+    @Override
+    default void close() {
+    }
 }
@@ -0,0 +1,445 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.metrics.Metrics;
+import com.example.pokedex.models.Pokemon;
+import com.example.pokedex.utilities.OutputFormat;
+import com.example.pokedex.utilities.RenderMetrics;
+import com.example.pokedex.utilities.StreamingOutputWriter;
+import com.example.pokedex.views.PokemonView;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports Pokémon to files in one of the output formats, as printed by the application.
+ * The requested IDs are cut into chunks; each chunk is fetched from a {@link PokemonDataService}
+ * and rendered by its {@link PokemonView} into an encoded buffer on a pool of workers, a bounded
+ * number of chunks being in flight at the same time. The buffers are written in the order of the
+ * requested IDs, whole, through a file channel, optionally compressed with gzip. The output may be
+ * split into shards of a fixed number of requested IDs, each shard being a complete document.
+ * Every file is written under a temporary name and moved into place once complete, so that readers
+ * never see a partial export.
+ */
+public class PokemonExporter {
+    // Default number of Pokémon fetched and rendered by a worker at a time
+    public static final int DEFAULT_CHUNK_SIZE = 100;
+    // Default number of workers fetching and rendering chunks
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    // Number of chunks rendered ahead of the one being written, per worker
+    private static final int CHUNKS_AHEAD_PER_WORKER = 2;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final PokemonDataService service;
+    private final OutputFormat outputFormat;
+    private final int parallelism;
+    private final int chunkSize;
+    private final boolean gzip;
+    private final int shardSize;
+    private final boolean loadDetails;
+
+    /**
+     * Constructor for PokemonExporter.
+     * Uses the default parallelism and chunk size, and writes a single uncompressed file.
+     *
+     * @param service The data service the Pokémon are read from.
+     * @param outputFormat The format of the files.
+     */
+    public PokemonExporter(PokemonDataService service, OutputFormat outputFormat) {
+        this(service, outputFormat, DEFAULT_PARALLELISM, DEFAULT_CHUNK_SIZE, false, 0);
+    }
+
+    /**
+     * Constructor for PokemonExporter.
+     *
+     * @param service The data service the Pokémon are read from.
+     * @param outputFormat The format of the files.
+     * @param parallelism The number of chunks fetched and rendered at the same time.
+     * @param chunkSize The number of Pokémon fetched and rendered by a worker at a time.
+     * @param gzip Whether the files are compressed with gzip.
+     * @param shardSize The number of requested IDs per file, or 0 to write a single file.
+     */
+    public PokemonExporter(PokemonDataService service, OutputFormat outputFormat, int parallelism, int chunkSize,
+                           boolean gzip, int shardSize) {
+        this(service, outputFormat, parallelism, chunkSize, gzip, shardSize, false);
+    }
+
+    /**
+     * Constructor for PokemonExporter.
+     *
+     * @param service The data service the Pokémon are read from.
+     * @param outputFormat The format of the files.
+     * @param parallelism The number of chunks fetched and rendered at the same time.
+     * @param chunkSize The number of Pokémon fetched and rendered by a worker at a time.
+     * @param gzip Whether the files are compressed with gzip.
+     * @param shardSize The number of requested IDs per file, or 0 to write a single file.
+     * @param loadDetails Whether the descriptions and evolution chains not loaded by the data service are
+     *                    requested to be written, as explained in {@link PokemonView#forPokemon(Pokemon, boolean)}.
+     */
+    public PokemonExporter(PokemonDataService service, OutputFormat outputFormat, int parallelism, int chunkSize,
+                           boolean gzip, int shardSize, boolean loadDetails) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1");
+        }
+        if (shardSize < 0) {
+            throw new IllegalArgumentException("shardSize cannot be negative");
+        }
+        this.service = service;
+        this.outputFormat = outputFormat;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.gzip = gzip;
+        this.shardSize = shardSize;
+        this.loadDetails = loadDetails;
+    }
+
+    /**
+     * Exports Pokémon to a file, or to numbered shards next to it.
+     * With gzip, ".gz" is appended to the file name unless it already ends with it; shards are named
+     * after the file with a shard number before the extension, as in {@code dex-00001.csv.gz}.
+     * Existing files are replaced.
+     *
+     * @param target The path of the file.
+     * @param ids The IDs of the Pokémon to be exported, in the order they are written; unknown IDs are skipped.
+     * @param progress Called after each written chunk with the number of IDs processed and to be processed, or null.
+     * @return The summary of the export.
+     * @throws IOException if a file cannot be written, or the export is interrupted.
+     */
+    public ExportSummary exportTo(Path target, Collection<Integer> ids, BiConsumer<Integer, Integer> progress)
+            throws IOException {
+        long start = System.nanoTime();
+        if (gzip && !target.getFileName().toString().endsWith(GZIP_SUFFIX)) {
+            target = target.resolveSibling(target.getFileName() + GZIP_SUFFIX);
+        }
+        List<Integer> requested = new ArrayList<>(ids);
+        List<Chunk> chunks = split(requested);
+        ExportSummary summary = new ExportSummary(requested.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, chunks.size())));
+        Shard shard = null;
+        try {
+            // Chunks are submitted ahead of the one being written, and written in submission order
+            Deque<Future<RenderedChunk>> inFlight = new ArrayDeque<>();
+            int nextChunk = 0;
+            int done = 0;
+            while (nextChunk < chunks.size() || !inFlight.isEmpty()) {
+                while (nextChunk < chunks.size() && inFlight.size() < parallelism * CHUNKS_AHEAD_PER_WORKER) {
+                    Chunk chunk = chunks.get(nextChunk++);
+                    inFlight.add(executor.submit(() -> render(chunk)));
+                }
+                RenderedChunk rendered = inFlight.poll().get();
+                if (shard == null || shard.index != rendered.chunk.shard) {
+                    if (shard != null) {
+                        shard.close(summary);
+                    }
+                    shard = new Shard(rendered.chunk.shard, shardPath(target, rendered.chunk.shard));
+                }
+                shard.write(rendered);
+                summary.exportedCount += rendered.recordCount;
+                done += rendered.chunk.ids.size();
+                if (progress != null) {
+                    progress.accept(done, requested.size());
+                }
+            }
+            if (shard == null) {
+                // Nothing was requested; an empty document is still written
+                shard = new Shard(0, shardPath(target, 0));
+            }
+            shard.close(summary);
+            shard = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The export was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            // Data services report their failures by leaving Pokémon out; this is a programming error
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            if (shard != null) {
+                shard.discard();
+            }
+        }
+        summary.elapsedNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    /**
+     * Cuts the requested IDs into chunks, none of them spanning two shards.
+     */
+    private List<Chunk> split(List<Integer> ids) {
+        List<Chunk> chunks = new ArrayList<>(ids.size() / chunkSize + 1);
+        int from = 0;
+        while (from < ids.size()) {
+            int shard = shardSize > 0 ? from / shardSize : 0;
+            int shardEnd = shardSize > 0 ? Math.min(ids.size(), (shard + 1) * shardSize) : ids.size();
+            int to = Math.min(from + chunkSize, shardEnd);
+            chunks.add(new Chunk(shard, ids.subList(from, to)));
+            from = to;
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the path of a shard: the target itself when the output is not sharded.
+     */
+    private Path shardPath(Path target, int shard) {
+        if (shardSize == 0) {
+            return target;
+        }
+        String name = target.getFileName().toString();
+        // The extension starts at the first dot, so that "dex.csv.gz" gives "dex-00001.csv.gz"
+        int extension = name.indexOf('.', 1);
+        String base = extension < 0 ? name : name.substring(0, extension);
+        String suffix = extension < 0 ? "" : name.substring(extension);
+        return target.resolveSibling(String.format("%s-%05d%s", base, shard + 1, suffix));
+    }
+
+    /**
+     * Fetches the Pokémon of a chunk and renders them, separated as in a document, into an encoded buffer.
+     * Runs on a worker.
+     */
+    private RenderedChunk render(Chunk chunk) {
+        List<Pokemon> pokemons = service.getPokemonByIds(chunk.ids);
+        StringBuilder text = new StringBuilder(pokemons.size() * 256);
+        String csvHeader = null;
+        try {
+            for (int i = 0; i < pokemons.size(); i++) {
+                PokemonView view = PokemonView.forPokemon(pokemons.get(i), loadDetails);
+                long start = Metrics.startTimer();
+                if (i > 0) {
+                    text.append(StreamingOutputWriter.recordSeparator(outputFormat));
+                }
+                switch (outputFormat) {
+                    case TEXT:
+                        view.appendHumanReadableText(text);
+                        break;
+                    case HTML:
+                        view.appendHTML(text);
+                        break;
+                    case CSV:
+                        if (i == 0) {
+                            csvHeader = view.generateCSVHeader();
+                        }
+                        view.appendCSVRecord(text);
+                        break;
+                    case JSON:
+                        view.appendJSON(text);
+                        break;
+                    default:
+                        // Handling unexpected output format
+                        throw new IllegalArgumentException("Unknown output format");
+                }
+                RenderMetrics.renderSeconds(outputFormat).recordSince(start);
+            }
+        } catch (IOException e) {
+            // A StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return new RenderedChunk(chunk, pokemons.size(), StandardCharsets.UTF_8.encode(CharBuffer.wrap(text)), csvHeader);
+    }
+
+    /**
+     * Requested IDs fetched and rendered together.
+     */
+    private static class Chunk {
+        private final int shard;
+        private final List<Integer> ids;
+
+        Chunk(int shard, List<Integer> ids) {
+            this.shard = shard;
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * Records of a chunk, encoded in UTF-8.
+     */
+    private static class RenderedChunk {
+        private final Chunk chunk;
+        private final int recordCount;
+        private final ByteBuffer bytes;
+        private final String csvHeader;  // Header line of the first record in CSV, null otherwise
+
+        RenderedChunk(Chunk chunk, int recordCount, ByteBuffer bytes, String csvHeader) {
+            this.chunk = chunk;
+            this.recordCount = recordCount;
+            this.bytes = bytes;
+            this.csvHeader = csvHeader;
+        }
+    }
+
+    /**
+     * A file being written: a complete document, written under a temporary name.
+     */
+    private class Shard {
+        private final int index;
+        private final Path path;
+        private final Path tempPath;
+        private final FileChannel file;
+        private final GZIPOutputStream gzipStream;  // null when the file is not compressed
+        private final WritableByteChannel out;
+        private int recordCount;
+
+        Shard(int index, Path path) throws IOException {
+            this.index = index;
+            this.path = path;
+            this.tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+            this.file = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.gzipStream = gzip ? new GZIPOutputStream(Channels.newOutputStream(file), GZIP_BUFFER_SIZE) : null;
+            this.out = gzip ? Channels.newChannel(gzipStream) : file;
+        }
+
+        void write(RenderedChunk rendered) throws IOException {
+            if (rendered.recordCount == 0) {
+                return;
+            }
+            if (recordCount == 0) {
+                write(StreamingOutputWriter.documentStart(outputFormat));
+                if (rendered.csvHeader != null) {
+                    write(rendered.csvHeader);
+                }
+            } else {
+                write(StreamingOutputWriter.recordSeparator(outputFormat));
+            }
+            writeFully(rendered.bytes);
+            recordCount += rendered.recordCount;
+        }
+
+        private void write(String text) throws IOException {
+            if (!text.isEmpty()) {
+                writeFully(StandardCharsets.UTF_8.encode(text));
+            }
+        }
+
+        private void writeFully(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+        }
+
+        /**
+         * Ends the document, then moves the file into place.
+         */
+        void close(ExportSummary summary) throws IOException {
+            try {
+                if (recordCount == 0) {
+                    // Same empty documents as the console output
+                    write(outputFormat == OutputFormat.JSON ? "[]\n" : StreamingOutputWriter.documentStart(outputFormat));
+                    if (outputFormat == OutputFormat.HTML) {
+                        write(StreamingOutputWriter.documentEnd(outputFormat));
+                    }
+                } else {
+                    write(StreamingOutputWriter.documentEnd(outputFormat));
+                }
+                if (gzipStream != null) {
+                    gzipStream.finish();  // Writes the gzip trailer, leaving the file open
+                }
+                file.force(false);
+                summary.bytesWritten += file.size();
+            } finally {
+                file.close();
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            summary.files.add(path);
+        }
+
+        /**
+         * Closes and deletes the temporary file of an export that failed.
+         */
+        void discard() {
+            try {
+                file.close();
+                Files.deleteIfExists(tempPath);
+            } catch (IOException e) {
+                System.err.println("Unable to delete " + tempPath + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Counts of an export run.
+     */
+    public static class ExportSummary {
+        private final int requestedCount;
+        private int exportedCount;
+        private final List<Path> files = new ArrayList<>();
+        private long bytesWritten;
+        private long elapsedNanos;
+
+        ExportSummary(int requestedCount) {
+            this.requestedCount = requestedCount;
+        }
+
+        /**
+         * @return The number of Pokémon requested.
+         */
+        public int getRequestedCount() {
+            return requestedCount;
+        }
+
+        /**
+         * @return The number of Pokémon written.
+         */
+        public int getExportedCount() {
+            return exportedCount;
+        }
+
+        /**
+         * @return The files written, in order.
+         */
+        public List<Path> getFiles() {
+            return files;
+        }
+
+        /**
+         * @return The size of the files written, in bytes, after compression.
+         */
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        /**
+         * @return The duration of the export, in milliseconds.
+         */
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("Exported %d pokemons to %d file(s) in %.1f s (%.0f records/s, %.1f MB written); %d missing",
+                    exportedCount, files.size(), seconds, seconds > 0 ? exportedCount / seconds : 0.0,
+                    bytesWritten / (1024.0 * 1024.0), requestedCount - exportedCount);
+        }
+    }
+}
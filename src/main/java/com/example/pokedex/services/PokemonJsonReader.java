@@ -0,0 +1,662 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.BaseStats;
+import com.example.pokedex.models.Pokemon;
+import com.example.pokedex.models.PokemonAbility;
+import com.example.pokedex.models.PokemonType;
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts a Pokémon from a PokeAPI pokemon document without building the JSON tree.
+ * The document is read as a stream of events; only the top-level id, name, height and
+ * weight values, the types, base stats and abilities, and the URL of the species are kept,
+ * other nested objects and arrays (moves, game indices, sprites...) are skipped, and parsing
+ * stops as soon as every field has been found.
+ * Resource lists, pokemon-species and evolution-chain documents are read the same way.
+ */
+public class PokemonJsonReader {
+    // Words split across lines of a flavor text end with a soft hyphen
+    private static final Pattern HYPHENATED_LINE_BREAK = Pattern.compile("\u00ad\\s+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Reads a Pokémon from a PokeAPI pokemon document.
+     *
+     * @param reader The reader positioned at the start of the document.
+     * @return The Pokémon described by the document, or null if a required field is missing.
+     * @throws IOException if the document cannot be read.
+     * @throws ParseException if the document is not valid JSON.
+     */
+    public static Pokemon read(Reader reader) throws IOException, ParseException {
+        return readDocument(reader).getPokemon();
+    }
+
+    /**
+     * Reads a Pokémon and the URL of its species from a PokeAPI pokemon document.
+     *
+     * @param reader The reader positioned at the start of the document.
+     * @return The content of the document; its Pokémon is null if a required field is missing.
+     * @throws IOException if the document cannot be read.
+     * @throws ParseException if the document is not valid JSON.
+     */
+    static PokemonDocument readDocument(Reader reader) throws IOException, ParseException {
+        PokemonFieldsHandler handler = new PokemonFieldsHandler();
+        new JSONParser().parse(reader, handler);
+        return new PokemonDocument(handler.toPokemon(), handler.speciesUrl);
+    }
+
+    /**
+     * Reads the names listed by a PokeAPI resource list, such as {@code /api/v2/pokemon/?limit=100000}.
+     * The ID of each entry is taken from the last segment of its URL.
+     *
+     * @param reader The reader positioned at the start of the document.
+     * @return The name of every listed resource, by ID. Entries without a numeric URL are skipped.
+     * @throws IOException if the document cannot be read.
+     * @throws ParseException if the document is not valid JSON.
+     */
+    public static Map<Integer, String> readResourceNames(Reader reader) throws IOException, ParseException {
+        ResourceListHandler handler = new ResourceListHandler();
+        new JSONParser().parse(reader, handler);
+        return handler.namesById;
+    }
+
+    /**
+     * Reads the description of a Pokémon from a PokeAPI pokemon-species document.
+     * The first flavor text written in the first available language is kept; its line and
+     * page breaks, which follow the layout of the game screens, are turned into single spaces.
+     *
+     * @param reader The reader positioned at the start of the document.
+     * @param languages The accepted language codes (such as "fr" or "en"), by order of preference.
+     * @return The description, or null if no flavor text is written in an accepted language.
+     * @throws IOException if the document cannot be read.
+     * @throws ParseException if the document is not valid JSON.
+     */
+    public static String readFlavorText(Reader reader, List<String> languages) throws IOException, ParseException {
+        FlavorTextHandler handler = new FlavorTextHandler(languages, false);
+        new JSONParser().parse(reader, handler);
+        return handler.description();
+    }
+
+    /**
+     * Reads the description of a Pokémon and the URL of its evolution chain from a PokeAPI
+     * pokemon-species document. The description is read as by {@link #readFlavorText(Reader, List)}.
+     *
+     * @param reader The reader positioned at the start of the document.
+     * @param languages The accepted language codes (such as "fr" or "en"), by order of preference.
+     * @return The content of the document.
+     * @throws IOException if the document cannot be read.
+     * @throws ParseException if the document is not valid JSON.
+     */
+    static SpeciesDocument readSpecies(Reader reader, List<String> languages) throws IOException, ParseException {
+        FlavorTextHandler handler = new FlavorTextHandler(languages, true);
+        new JSONParser().parse(reader, handler);
+        return new SpeciesDocument(handler.description(), handler.evolutionChainUrl);
+    }
+
+    /**
+     * Reads the species of a PokeAPI evolution-chain document, such as {@code /api/v2/evolution-chain/1/}.
+     *
+     * @param reader The reader positioned at the start of the document.
+     * @return The names of the species of the chain, from the base form to the last evolutions,
+     *         each stage listed before the stages evolving from it.
+     * @throws IOException if the document cannot be read.
+     * @throws ParseException if the document is not valid JSON.
+     */
+    static List<String> readEvolutionChain(Reader reader) throws IOException, ParseException {
+        EvolutionChainHandler handler = new EvolutionChainHandler();
+        new JSONParser().parse(reader, handler);
+        return Collections.unmodifiableList(handler.speciesNames);
+    }
+
+    /**
+     * Extracts the ID at the end of a resource URL, such as {@code https://pokeapi.co/api/v2/pokemon/25/}.
+     *
+     * @return The ID, or -1 if the URL does not end with a number.
+     */
+    static int resourceId(String url) {
+        int end = url.endsWith("/") ? url.length() - 1 : url.length();
+        int start = url.lastIndexOf('/', end - 1) + 1;
+        try {
+            return Integer.parseInt(url.substring(start, end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Content handler collecting the name and URL of each entry of the results array of a resource list.
+     */
+    private static class ResourceListHandler implements ContentHandler {
+        private final Map<Integer, String> namesById = new HashMap<>();
+        private int depth;           // Nesting depth; 3 inside an entry of the results array
+        private boolean inResults;   // Whether the results array is being read
+        private String currentKey;
+        private String name;
+        private String url;
+
+        @Override
+        public void startJSON() {
+        }
+
+        @Override
+        public void endJSON() {
+        }
+
+        @Override
+        public boolean startObject() {
+            depth++;
+            if (depth == 3) {
+                name = null;
+                url = null;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+            if (depth == 3 && inResults && name != null && url != null) {
+                int id = resourceId(url);
+                if (id >= 0) {
+                    namesById.put(id, name);
+                }
+            }
+            depth--;
+            return true;
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+            currentKey = key;
+            if (depth == 1) {
+                inResults = "results".equals(key);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            currentKey = null;
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+            depth++;
+            return true;
+        }
+
+        @Override
+        public boolean endArray() {
+            depth--;
+            return true;
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+            if (depth == 3 && inResults && value instanceof String) {
+                if ("name".equals(currentKey)) {
+                    name = (String) value;
+                } else if ("url".equals(currentKey)) {
+                    url = (String) value;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Content handler keeping the flavor text of the preferred language in the flavor_text_entries array.
+     */
+    private static class FlavorTextHandler implements ContentHandler {
+        private final List<String> languages;
+        private final boolean readEvolutionChain;  // Whether the evolution chain URL is wanted too
+        private String bestText;
+        private int bestRank;        // Rank of the language of bestText; lower is better
+        private int depth;           // Nesting depth; 3 inside an entry, 4 inside its language object
+        private boolean inEntries;   // Whether the flavor_text_entries array is being read
+        private boolean inEvolutionChain;  // Whether the evolution_chain object is being read
+        private String currentKey;
+        private String entryKey;     // Key of the entry member being read, at depth 3
+        private String text;
+        private String language;
+        private String evolutionChainUrl;
+
+        FlavorTextHandler(List<String> languages, boolean readEvolutionChain) {
+            this.languages = languages;
+            this.readEvolutionChain = readEvolutionChain;
+            this.bestRank = languages.size();
+        }
+
+        /**
+         * Returns the kept flavor text, its line and page breaks turned into single spaces.
+         */
+        String description() {
+            if (bestText == null) {
+                return null;
+            }
+            String joined = HYPHENATED_LINE_BREAK.matcher(bestText).replaceAll("");
+            return WHITESPACE.matcher(joined).replaceAll(" ").trim();
+        }
+
+        @Override
+        public void startJSON() {
+        }
+
+        @Override
+        public void endJSON() {
+        }
+
+        @Override
+        public boolean startObject() {
+            depth++;
+            if (depth == 3) {
+                text = null;
+                language = null;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+            if (depth == 3 && inEntries && text != null && language != null) {
+                int rank = languages.indexOf(language);
+                if (rank >= 0 && rank < bestRank) {
+                    bestRank = rank;
+                    bestText = text;
+                }
+            }
+            depth--;
+            // Parsing stops once a text in the preferred language, and the evolution chain if wanted, have been found
+            return bestRank > 0 || (readEvolutionChain && evolutionChainUrl == null);
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+            currentKey = key;
+            if (depth == 1) {
+                inEntries = "flavor_text_entries".equals(key);
+                inEvolutionChain = "evolution_chain".equals(key);
+            } else if (depth == 3) {
+                entryKey = key;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            currentKey = null;
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+            depth++;
+            return true;
+        }
+
+        @Override
+        public boolean endArray() {
+            depth--;
+            return true;
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+            if (inEvolutionChain && depth == 2 && "url".equals(currentKey) && value instanceof String) {
+                evolutionChainUrl = (String) value;
+            }
+            if (!inEntries || !(value instanceof String)) {
+                return true;
+            }
+            if (depth == 3 && "flavor_text".equals(currentKey)) {
+                text = (String) value;
+            } else if (depth == 4 && "language".equals(entryKey) && "name".equals(currentKey)) {
+                language = (String) value;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Content handler collecting the species names of an evolution-chain document.
+     * Each stage of the chain is an object holding a species object and an evolves_to array of stages;
+     * as the array comes before the species in the document, the stages are gathered in a tree, listed
+     * once the document has been read.
+     */
+    private static class EvolutionChainHandler implements ContentHandler {
+        private final List<String> speciesNames = new ArrayList<>();
+        // Key under which each open object or array was opened; arrays get the key suffixed with [], their elements with [*]
+        private final List<String> containers = new ArrayList<>();
+        private final List<Stage> openStages = new ArrayList<>();
+        private String currentKey;
+
+        @Override
+        public void startJSON() {
+        }
+
+        @Override
+        public void endJSON() {
+        }
+
+        @Override
+        public boolean startObject() {
+            String parent = containers.isEmpty() ? null : containers.get(containers.size() - 1);
+            String key = parent != null && parent.endsWith("[]") ? parent.substring(0, parent.length() - 2) + "[*]" : currentKey;
+            if (isStage(key, containers.size())) {
+                openStages.add(new Stage());
+            }
+            containers.add(key);
+            currentKey = null;
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+            String key = containers.remove(containers.size() - 1);
+            if (isStage(key, containers.size())) {
+                Stage stage = openStages.remove(openStages.size() - 1);
+                if (openStages.isEmpty()) {
+                    stage.appendNames(speciesNames);
+                } else {
+                    openStages.get(openStages.size() - 1).evolutions.add(stage);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+            currentKey = key;
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            currentKey = null;
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+            containers.add(currentKey + "[]");
+            currentKey = null;
+            return true;
+        }
+
+        @Override
+        public boolean endArray() {
+            containers.remove(containers.size() - 1);
+            return true;
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+            if ("name".equals(currentKey) && value instanceof String && !openStages.isEmpty()
+                    && "species".equals(containers.get(containers.size() - 1))) {
+                openStages.get(openStages.size() - 1).speciesName = (String) value;
+            }
+            return true;
+        }
+
+        /**
+         * Tells whether an object is a stage: the chain member of the root object, or an element of an evolves_to array.
+         */
+        private static boolean isStage(String key, int depth) {
+            return ("chain".equals(key) && depth == 1) || "evolves_to[*]".equals(key);
+        }
+
+        /**
+         * A stage of an evolution chain.
+         */
+        private static class Stage {
+            private String speciesName;
+            private final List<Stage> evolutions = new ArrayList<>();
+
+            void appendNames(List<String> names) {
+                if (speciesName != null) {
+                    names.add(speciesName);
+                }
+                for (Stage evolution : evolutions) {
+                    evolution.appendNames(names);
+                }
+            }
+        }
+    }
+
+    /**
+     * Content handler collecting the top-level fields of a pokemon document, and the entries of its
+     * types, stats and abilities arrays. Each entry is an object at depth 3 naming its type, stat
+     * or ability in a nested object at depth 4.
+     */
+    private static class PokemonFieldsHandler implements ContentHandler {
+        private int depth;           // Nesting depth; 1 inside the root object
+        private String section;      // Key of the top-level entry being read
+        private String currentKey;   // Key of the entry being read, at any depth
+        private String entryKey;     // Key of the member of an array entry being read, at depth 3
+        private Long id;
+        private String name;
+        private Long height;
+        private Long weight;
+        private String speciesUrl;
+        private final List<String> typeNames = new ArrayList<>();
+        private final Map<String, Integer> baseStats = new HashMap<>();
+        private final List<PokemonAbility> abilities = new ArrayList<>();
+        private boolean typesRead;
+        private boolean statsRead;
+        private boolean abilitiesRead;
+        // Fields of the array entry being read
+        private String entryName;
+        private Long entryBaseStat;
+        private boolean entryHidden;
+
+        @Override
+        public void startJSON() {
+        }
+
+        @Override
+        public void endJSON() {
+        }
+
+        @Override
+        public boolean startObject() {
+            depth++;
+            if (depth == 3) {
+                entryName = null;
+                entryBaseStat = null;
+                entryHidden = false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+            if (depth == 3 && entryName != null && section != null) {
+                switch (section) {
+                    case "types":
+                        typeNames.add(entryName);
+                        break;
+                    case "stats":
+                        if (entryBaseStat != null) {
+                            baseStats.put(entryName, entryBaseStat.intValue());
+                        }
+                        break;
+                    case "abilities":
+                        abilities.add(PokemonAbility.of(entryName, entryHidden));
+                        break;
+                    default:
+                        break;
+                }
+            }
+            depth--;
+            return true;
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+            currentKey = key;
+            if (depth == 1) {
+                section = key;
+            } else if (depth == 3) {
+                entryKey = key;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            currentKey = null;
+            if (depth == 1) {
+                if ("types".equals(section)) {
+                    typesRead = true;
+                } else if ("stats".equals(section)) {
+                    statsRead = true;
+                } else if ("abilities".equals(section)) {
+                    abilitiesRead = true;
+                }
+                section = null;
+                // Returning false stops the parser once every field has been found
+                return !isComplete();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+            depth++;
+            return true;
+        }
+
+        @Override
+        public boolean endArray() {
+            depth--;
+            return true;
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+            if (currentKey == null || section == null) {
+                return true;
+            }
+            if (depth == 1) {
+                switch (currentKey) {
+                    case "id":
+                        id = asLong(value);
+                        break;
+                    case "name":
+                        name = value instanceof String ? (String) value : null;
+                        break;
+                    case "height":
+                        height = asLong(value);
+                        break;
+                    case "weight":
+                        weight = asLong(value);
+                        break;
+                    default:
+                        break;
+                }
+            } else if (depth == 2 && "species".equals(section) && "url".equals(currentKey)) {
+                speciesUrl = value instanceof String ? (String) value : null;
+            } else if (depth == 3 && "base_stat".equals(currentKey)) {
+                entryBaseStat = asLong(value);
+            } else if (depth == 3 && "is_hidden".equals(currentKey)) {
+                entryHidden = Boolean.TRUE.equals(value);
+            } else if (depth == 4 && "name".equals(currentKey) && value instanceof String
+                    && ("type".equals(entryKey) || "stat".equals(entryKey) || "ability".equals(entryKey))) {
+                entryName = (String) value;
+            }
+            return true;
+        }
+
+        private boolean hasRequiredFields() {
+            return id != null && name != null && height != null && weight != null;
+        }
+
+        private boolean isComplete() {
+            return hasRequiredFields() && speciesUrl != null && typesRead && statsRead && abilitiesRead;
+        }
+
+        private static Long asLong(Object value) {
+            return value instanceof Number ? ((Number) value).longValue() : null;
+        }
+
+        Pokemon toPokemon() {
+            if (!hasRequiredFields()) {
+                return null;
+            }
+            BaseStats stats = null;
+            if (baseStats.size() == 6) {
+                stats = new BaseStats(baseStats.getOrDefault("hp", 0), baseStats.getOrDefault("attack", 0),
+                        baseStats.getOrDefault("defense", 0), baseStats.getOrDefault("special-attack", 0),
+                        baseStats.getOrDefault("special-defense", 0), baseStats.getOrDefault("speed", 0));
+            }
+            return new Pokemon(id.intValue(), name, height.intValue(), weight.intValue(),
+                    PokemonType.combination(typeNames), stats,
+                    abilities.isEmpty() ? Collections.<PokemonAbility>emptyList() : Collections.unmodifiableList(abilities));
+        }
+    }
+
+    /**
+     * Content of a pokemon document: the Pokémon, and the URL of its species.
+     */
+    static class PokemonDocument {
+        private final Pokemon pokemon;
+        private final String speciesUrl;
+
+        PokemonDocument(Pokemon pokemon, String speciesUrl) {
+            this.pokemon = pokemon;
+            this.speciesUrl = speciesUrl;
+        }
+
+        /**
+         * @return The Pokémon, or null if a required field is missing.
+         */
+        Pokemon getPokemon() {
+            return pokemon;
+        }
+
+        /**
+         * @return The URL of the species document, or null if the document does not give one.
+         */
+        String getSpeciesUrl() {
+            return speciesUrl;
+        }
+    }
+
+    /**
+     * Content of a pokemon-species document: the description, and the URL of the evolution chain.
+     */
+    static class SpeciesDocument {
+        private final String description;
+        private final String evolutionChainUrl;
+
+        SpeciesDocument(String description, String evolutionChainUrl) {
+            this.description = description;
+            this.evolutionChainUrl = evolutionChainUrl;
+        }
+
+        /**
+         * @return The description, or null if no flavor text is written in an accepted language.
+         */
+        String getDescription() {
+            return description;
+        }
+
+        /**
+         * @return The URL of the evolution chain document, or null if the document does not give one.
+         */
+        String getEvolutionChainUrl() {
+            return evolutionChainUrl;
+        }
+    }
+}
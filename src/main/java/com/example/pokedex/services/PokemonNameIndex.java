@@ -0,0 +1,224 @@
+package com.example.pokedex.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory index of Pokémon names, answering exact, prefix and approximate name queries.
+ * Names are folded before being indexed and searched: case and diacritics are ignored,
+ * apostrophes and dots are dropped and other separators become dashes, so that "Mr. Mime",
+ * "mr mime" and "MR-MIME" all match the PokeAPI name "mr-mime".
+ * <ul>
+ *     <li>exact queries use a hash map of the folded names;</li>
+ *     <li>prefix queries binary search the sorted folded names, then scan the matching run;</li>
+ *     <li>approximate queries compute a bounded edit distance, skipping names whose length
+ *     alone rules them out.</li>
+ * </ul>
+ * Instances are immutable and safe to share between threads.
+ */
+public class PokemonNameIndex {
+    // Largest edit distance accepted by approximate queries
+    public static final int MAX_EDIT_DISTANCE = 2;
+
+    private final String[] sortedNames;  // Folded names, sorted
+    private final int[] sortedIds;       // ID of each entry of sortedNames
+    private final Map<String, Integer> idByName;
+
+    /**
+     * Constructor for PokemonNameIndex.
+     *
+     * @param namesById The name of every Pokémon, by ID.
+     */
+    public PokemonNameIndex(Map<Integer, String> namesById) {
+        int size = namesById.size();
+        String[][] entries = new String[size][];
+        int i = 0;
+        for (Map.Entry<Integer, String> entry : namesById.entrySet()) {
+            entries[i++] = new String[]{fold(entry.getValue()), Integer.toString(entry.getKey())};
+        }
+        Arrays.sort(entries, (a, b) -> a[0].compareTo(b[0]));
+
+        this.sortedNames = new String[size];
+        this.sortedIds = new int[size];
+        this.idByName = new HashMap<>(size * 2);
+        for (i = 0; i < size; i++) {
+            sortedNames[i] = entries[i][0];
+            sortedIds[i] = Integer.parseInt(entries[i][1]);
+            idByName.putIfAbsent(sortedNames[i], sortedIds[i]);
+        }
+    }
+
+    /**
+     * Finds the Pokémon with exactly the given name, case and diacritics aside.
+     *
+     * @param name The name to be searched.
+     * @return The ID of the Pokémon, or -1 if no Pokémon has that name.
+     */
+    public int findExact(String name) {
+        Integer id = idByName.get(fold(name));
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Finds the Pokémon whose name starts with the given prefix, in alphabetical order.
+     *
+     * @param prefix The beginning of the name.
+     * @param limit The maximum number of IDs returned.
+     * @return The IDs of the first matching Pokémon, an exact match coming first.
+     */
+    public List<Integer> findByPrefix(String prefix, int limit) {
+        String folded = fold(prefix);
+        List<Integer> ids = new ArrayList<>(Math.min(limit, 16));
+        for (int i = lowerBound(folded); i < sortedNames.length && ids.size() < limit
+                && sortedNames[i].startsWith(folded); i++) {
+            ids.add(sortedIds[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Finds the Pokémon whose name is within {@code maxDistance} edits (insertions, deletions or
+     * substitutions) of the given name, closest first, then in alphabetical order.
+     *
+     * @param name The approximate name.
+     * @param maxDistance The largest edit distance accepted, at most {@link #MAX_EDIT_DISTANCE}.
+     * @param limit The maximum number of IDs returned.
+     * @return The IDs of the closest Pokémon.
+     */
+    public List<Integer> findApproximate(String name, int maxDistance, int limit) {
+        String folded = fold(name);
+        int bound = Math.max(0, Math.min(maxDistance, MAX_EDIT_DISTANCE));
+
+        // Bucketing by distance keeps the alphabetical order within each distance
+        List<List<Integer>> byDistance = new ArrayList<>(bound + 1);
+        for (int d = 0; d <= bound; d++) {
+            byDistance.add(new ArrayList<>());
+        }
+        int[] previousRow = new int[folded.length() + 1];
+        int[] currentRow = new int[folded.length() + 1];
+        for (int i = 0; i < sortedNames.length; i++) {
+            String candidate = sortedNames[i];
+            if (Math.abs(candidate.length() - folded.length()) > bound) {
+                continue;
+            }
+            int distance = boundedDistance(folded, candidate, bound, previousRow, currentRow);
+            if (distance <= bound) {
+                byDistance.get(distance).add(sortedIds[i]);
+            }
+        }
+
+        List<Integer> ids = new ArrayList<>(Math.min(limit, 16));
+        for (List<Integer> bucket : byDistance) {
+            for (int id : bucket) {
+                if (ids.size() == limit) {
+                    return ids;
+                }
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Lists the IDs of the indexed Pokémon.
+     *
+     * @return The IDs, in ascending order.
+     */
+    public List<Integer> getIds() {
+        int[] ids = sortedIds.clone();
+        Arrays.sort(ids);
+        List<Integer> list = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    /**
+     * @return The number of indexed names.
+     */
+    public int size() {
+        return sortedNames.length;
+    }
+
+    /**
+     * Folds a name for comparison: lower case, no diacritics, no apostrophes or dots,
+     * and every other run of non-alphanumeric characters replaced by a single dash.
+     *
+     * @param name The name to be folded.
+     * @return The folded name.
+     */
+    public static String fold(String name) {
+        String decomposed = Normalizer.normalize(name.trim(), Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        boolean pendingDash = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK || c == '\'' || c == '’' || c == '.') {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingDash && folded.length() > 0) {
+                    folded.append('-');
+                }
+                pendingDash = false;
+                folded.append(Character.toLowerCase(c));
+            } else {
+                pendingDash = true;
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Returns the first position whose name is greater than or equal to the key.
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = sortedNames.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedNames[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings, giving up as soon as it exceeds the bound.
+     * The rows are supplied by the caller so that scanning the index allocates nothing.
+     *
+     * @return The distance, or {@code bound + 1} if it is larger than the bound.
+     */
+    private static int boundedDistance(String source, String target, int bound, int[] previousRow, int[] currentRow) {
+        int sourceLength = source.length();
+        for (int j = 0; j <= sourceLength; j++) {
+            previousRow[j] = j;
+        }
+        for (int i = 1; i <= target.length(); i++) {
+            currentRow[0] = i;
+            int rowMinimum = i;
+            char targetChar = target.charAt(i - 1);
+            for (int j = 1; j <= sourceLength; j++) {
+                int cost = source.charAt(j - 1) == targetChar ? 0 : 1;
+                int value = Math.min(Math.min(currentRow[j - 1] + 1, previousRow[j] + 1), previousRow[j - 1] + cost);
+                currentRow[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > bound) {
+                return bound + 1;
+            }
+            int[] swap = previousRow;
+            previousRow = currentRow;
+            currentRow = swap;
+        }
+        return Math.min(previousRow[sourceLength], bound + 1);
+    }
+}
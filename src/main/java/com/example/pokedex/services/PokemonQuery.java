@@ -0,0 +1,127 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.Pokemon;
+
+/**
+ * Immutable set of criteria on the height and weight of Pokémon.
+ * Each criterion is an inclusive range; {@link Integer#MIN_VALUE} and {@link Integer#MAX_VALUE}
+ * leave a side of the range open. A Pokémon matches when it satisfies every criterion.
+ */
+public class PokemonQuery {
+    private final int minHeight;
+    private final int maxHeight;
+    private final int minWeight;
+    private final int maxWeight;
+
+    /**
+     * Constructor for PokemonQuery.
+     *
+     * @param minHeight The smallest height accepted (inclusive).
+     * @param maxHeight The largest height accepted (inclusive).
+     * @param minWeight The smallest weight accepted (inclusive).
+     * @param maxWeight The largest weight accepted (inclusive).
+     */
+    public PokemonQuery(int minHeight, int maxHeight, int minWeight, int maxWeight) {
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+        this.minWeight = minWeight;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * @return A query matching every Pokémon whose height lies in the given inclusive range.
+     */
+    public static PokemonQuery heightBetween(int minHeight, int maxHeight) {
+        return new PokemonQuery(minHeight, maxHeight, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return A query matching every Pokémon whose weight lies in the given inclusive range.
+     */
+    public static PokemonQuery weightBetween(int minWeight, int maxWeight) {
+        return new PokemonQuery(Integer.MIN_VALUE, Integer.MAX_VALUE, minWeight, maxWeight);
+    }
+
+    /**
+     * @return A copy of this query, also requiring the height to lie in the given inclusive range.
+     */
+    public PokemonQuery andHeightBetween(int minHeight, int maxHeight) {
+        return new PokemonQuery(Math.max(this.minHeight, minHeight), Math.min(this.maxHeight, maxHeight), minWeight, maxWeight);
+    }
+
+    /**
+     * @return A copy of this query, also requiring the weight to lie in the given inclusive range.
+     */
+    public PokemonQuery andWeightBetween(int minWeight, int maxWeight) {
+        return new PokemonQuery(minHeight, maxHeight, Math.max(this.minWeight, minWeight), Math.min(this.maxWeight, maxWeight));
+    }
+
+    /**
+     * Checks a Pokémon against every criterion of the query.
+     *
+     * @param pokemon The Pokémon to be checked.
+     * @return true if the Pokémon matches the query.
+     */
+    public boolean matches(Pokemon pokemon) {
+        return matches(pokemon.getHeight(), pokemon.getWeight());
+    }
+
+    /**
+     * Checks a height and a weight against every criterion of the query.
+     */
+    public boolean matches(int height, int weight) {
+        return height >= minHeight && height <= maxHeight && weight >= minWeight && weight <= maxWeight;
+    }
+
+    /**
+     * @return true if the query restricts the height.
+     */
+    public boolean hasHeightCriterion() {
+        return minHeight != Integer.MIN_VALUE || maxHeight != Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return true if the query restricts the weight.
+     */
+    public boolean hasWeightCriterion() {
+        return minWeight != Integer.MIN_VALUE || maxWeight != Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return The smallest height accepted (inclusive).
+     */
+    public int getMinHeight() {
+        return minHeight;
+    }
+
+    /**
+     * @return The largest height accepted (inclusive).
+     */
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * @return The smallest weight accepted (inclusive).
+     */
+    public int getMinWeight() {
+        return minWeight;
+    }
+
+    /**
+     * @return The largest weight accepted (inclusive).
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    @Override
+    public String toString() {
+        return "height in [" + bound(minHeight) + ", " + bound(maxHeight) + "], weight in ["
+                + bound(minWeight) + ", " + bound(maxWeight) + "]";
+    }
+
+    private static String bound(int value) {
+        return value == Integer.MIN_VALUE ? "-inf" : value == Integer.MAX_VALUE ? "+inf" : Integer.toString(value);
+    }
+}
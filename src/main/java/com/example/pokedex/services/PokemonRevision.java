@@ -0,0 +1,75 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.Pokemon;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Immutable version of the PokeAPI document a stored Pokémon was read from.
+ * The validators sent back by the server, ETag and Last-Modified, allow a conditional request
+ * answered by "304 Not Modified" when the document has not changed; the content hash of the stored
+ * fields tells whether a document that did change, or came without validators, changes the row.
+ */
+public class PokemonRevision {
+    private final String etag;          // null when the server sent none
+    private final String lastModified;  // null when the server sent none
+    private final String contentHash;
+
+    /**
+     * Constructor for PokemonRevision.
+     *
+     * @param etag The ETag of the document, or null.
+     * @param lastModified The Last-Modified date of the document, as sent by the server, or null.
+     * @param contentHash The hash of the stored fields, as computed by {@link #contentHash(Pokemon)}.
+     */
+    public PokemonRevision(String etag, String lastModified, String contentHash) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Hashes the fields of a Pokémon stored by {@link SQLitePokemonWriter} and read from its pokemon
+     * document; the description, read from another document, is not part of it.
+     *
+     * @param pokemon The Pokémon.
+     * @return The hexadecimal SHA-256 hash of the name, height and weight.
+     */
+    public static String contentHash(Pokemon pokemon) {
+        String content = pokemon.getName() + '\0' + pokemon.getHeight() + '\0' + pokemon.getWeight();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hash = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return The ETag of the document, or null if the server sent none.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return The Last-Modified date of the document, or null if the server sent none.
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return The hash of the stored fields.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+}
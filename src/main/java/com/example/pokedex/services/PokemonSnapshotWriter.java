@@ -0,0 +1,116 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes Pokémon into a binary snapshot read by {@link SnapshotPokemonService}.
+ * The whole snapshot is laid out in memory, written to a temporary file next to the target,
+ * then moved over the target, so that readers never map a half-written snapshot.
+ * See {@link SnapshotPokemonService} for the layout.
+ */
+public final class PokemonSnapshotWriter {
+
+    private PokemonSnapshotWriter() {
+    }
+
+    /**
+     * Writes the Pokémon held by an SQLite database into a snapshot.
+     *
+     * @param dbPath The file path to the SQLite database.
+     * @param snapshotPath The path of the snapshot, replaced if it exists.
+     * @return The number of Pokémon written.
+     * @throws SQLException if the database cannot be read.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public static int writeFromSQLite(String dbPath, Path snapshotPath) throws SQLException, IOException {
+        InMemoryPokemonService source = InMemoryPokemonService.loadFromSQLite(dbPath);
+        List<Pokemon> pokemons = source.getPokemonByRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        write(pokemons, snapshotPath);
+        return pokemons.size();
+    }
+
+    /**
+     * Writes Pokémon into a snapshot.
+     *
+     * @param pokemons The Pokémon to be written, in any order; for duplicated IDs the last one wins.
+     * @param snapshotPath The path of the snapshot, replaced if it exists.
+     * @throws IOException if the snapshot cannot be written, or is too large for the format.
+     */
+    public static void write(Collection<? extends Pokemon> pokemons, Path snapshotPath) throws IOException {
+        Map<Integer, Pokemon> byId = new HashMap<>();
+        for (Pokemon pokemon : pokemons) {
+            byId.put(pokemon.getId(), pokemon);
+        }
+        List<Pokemon> sorted = new ArrayList<>(byId.values());
+        sorted.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        int count = sorted.size();
+
+        // Encoding the strings first gives the size of the heap
+        byte[][] strings = new byte[count * 2][];
+        long heapSize = 0;
+        for (int row = 0; row < count; row++) {
+            Pokemon pokemon = sorted.get(row);
+            String description = pokemon instanceof DetailedPokemon ? ((DetailedPokemon) pokemon).getDescription() : null;
+            strings[row * 2] = pokemon.getName() == null ? new byte[0] : pokemon.getName().getBytes(StandardCharsets.UTF_8);
+            strings[row * 2 + 1] = description == null ? new byte[0] : description.getBytes(StandardCharsets.UTF_8);
+            heapSize += strings[row * 2].length + strings[row * 2 + 1].length;
+        }
+        long stringTableOffset = SnapshotPokemonService.HEADER_SIZE + (long) count * SnapshotPokemonService.RECORD_SIZE;
+        long heapOffset = stringTableOffset + (count * 2L + 1) * Integer.BYTES;
+        long fileSize = heapOffset + heapSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Too many pokemons for a snapshot: " + fileSize + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) fileSize);
+        buffer.putInt(SnapshotPokemonService.MAGIC)
+                .putInt(SnapshotPokemonService.VERSION)
+                .putInt(count)
+                .putInt(SnapshotPokemonService.RECORD_SIZE)
+                .putLong(stringTableOffset)
+                .putLong(heapOffset);
+        for (Pokemon pokemon : sorted) {
+            buffer.putInt(pokemon.getId()).putInt(pokemon.getHeight()).putInt(pokemon.getWeight());
+        }
+        int heapPosition = 0;
+        buffer.putInt(heapPosition);
+        for (byte[] string : strings) {
+            heapPosition += string.length;
+            buffer.putInt(heapPosition);
+        }
+        for (byte[] string : strings) {
+            buffer.put(string);
+        }
+        buffer.flip();
+
+        Path absolutePath = snapshotPath.toAbsolutePath();
+        Path tempPath = Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(tempPath, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+/**
+ * Brings an SQLite Pokédex, as read by {@link SQLitePokemonService}, up to date with the PokeAPI
+ * without rebuilding it. Every Pokémon is requested conditionally through a {@link PokeApiService},
+ * with the validators of the {@link PokemonRevision} recorded when its row was last written: an
+ * unchanged document is answered by "304 Not Modified", so the bandwidth spent grows with the number
+ * of changed Pokémon rather than with the size of the Pokédex. A document that did change is only
+ * written if the hash of the stored fields differs, and its description is then requested again.
+ * Changed rows are upserted in batched transactions; the database being in the write-ahead log
+ * journal mode, readers keep working on the live file while the synchronization runs.
+ */
+public class PokemonSynchronizer {
+    // Default number of Pokémon checked at the same time
+    public static final int DEFAULT_CONCURRENCY = PokeApiService.DEFAULT_MAX_PARALLELISM;
+    // Default number of Pokémon checked per transaction
+    public static final int DEFAULT_BATCH_SIZE = PokeApiImporter.DEFAULT_BATCH_SIZE;
+
+    private final PokeApiService service;
+    private final int concurrency;
+    private final int batchSize;
+
+    /**
+     * Constructor for PokemonSynchronizer.
+     * Uses the default concurrency and batch size.
+     *
+     * @param service The service requesting the PokeAPI; it is not closed by the synchronizer.
+     */
+    public PokemonSynchronizer(PokeApiService service) {
+        this(service, DEFAULT_CONCURRENCY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor for PokemonSynchronizer.
+     *
+     * @param service The service requesting the PokeAPI; it is not closed by the synchronizer.
+     * @param concurrency The maximum number of Pokémon checked at the same time.
+     * @param batchSize The number of Pokémon checked per transaction.
+     */
+    public PokemonSynchronizer(PokeApiService service, int concurrency, int batchSize) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.service = service;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Synchronizes Pokémon of an SQLite database with the PokeAPI, creating the file and the tables
+     * if needed. Pokémon missing from the database are added.
+     *
+     * @param dbPath The file path to the SQLite database.
+     * @param ids The IDs of the Pokémon to be synchronized.
+     * @param progress Called after each committed batch with the number of Pokémon checked and to be checked, or null.
+     * @return The summary of the synchronization.
+     * @throws SQLException if the database cannot be opened or written; batches already committed are kept.
+     */
+    public SyncSummary syncInto(String dbPath, Collection<Integer> ids, BiConsumer<Integer, Integer> progress)
+            throws SQLException {
+        long start = System.nanoTime();
+        List<Integer> requested = new ArrayList<>(new TreeSet<>(ids));
+        SyncSummary summary = new SyncSummary(requested.size());
+        if (requested.isEmpty()) {
+            return summary;
+        }
+        try (SQLitePokemonWriter writer = new SQLitePokemonWriter(dbPath)) {
+            Map<Integer, PokemonRevision> known = writer.getRevisions(requested);
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, requested.size()));
+            try {
+                CompletionService<SyncResult> completion = new ExecutorCompletionService<>(executor);
+                for (int id : requested) {
+                    PokemonRevision revision = known.get(id);
+                    completion.submit(() -> checkPokemon(id, revision));
+                }
+
+                List<Pokemon> changed = new ArrayList<>();
+                Map<Integer, PokemonRevision> revisions = new HashMap<>();
+                for (int done = 1; done <= requested.size(); done++) {
+                    SyncResult result;
+                    try {
+                        result = completion.take().get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    } catch (ExecutionException e) {
+                        // checkPokemon reports its failures in its result; this is a programming error
+                        throw new IllegalStateException(e.getCause());
+                    }
+
+                    if (result.failure != null) {
+                        summary.failedIds.add(result.id);
+                    } else if (result.revision == null) {
+                        summary.missingIds.add(result.id);
+                    } else {
+                        if (result.pokemon != null) {
+                            changed.add(result.pokemon);
+                            summary.updatedCount++;
+                        } else if (result.notModified) {
+                            summary.notModifiedCount++;
+                        } else {
+                            summary.unchangedCount++;
+                        }
+                        revisions.put(result.id, result.revision);
+                    }
+                    if (revisions.size() == batchSize || done == requested.size()) {
+                        writer.write(changed, revisions);
+                        changed.clear();
+                        revisions.clear();
+                        if (progress != null) {
+                            progress.accept(done, requested.size());
+                        }
+                    }
+                }
+                // Pokémon checked before an interruption are still written
+                writer.write(changed, revisions);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        summary.elapsedNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    /**
+     * Requests a Pokémon unless its document is unchanged, without ever throwing.
+     * The description of a changed Pokémon is read here, so that it is requested by the workers.
+     */
+    private SyncResult checkPokemon(int id, PokemonRevision known) {
+        try {
+            PokeApiService.ConditionalPokemon response = service.fetchPokemonIfChanged(id, known);
+            if (!response.isModified()) {
+                return new SyncResult(id, null, new PokemonRevision(response.getEtag(), response.getLastModified(),
+                        known.getContentHash()), true, null);
+            }
+            Pokemon pokemon = response.getPokemon();
+            PokemonRevision revision = new PokemonRevision(response.getEtag(), response.getLastModified(),
+                    PokemonRevision.contentHash(pokemon));
+            // The document changed, but not what is stored of it; only the new validators are recorded
+            if (known != null && known.getContentHash().equals(revision.getContentHash())) {
+                return new SyncResult(id, null, revision, false, null);
+            }
+            if (pokemon instanceof DetailedPokemon) {
+                ((DetailedPokemon) pokemon).getDescription();
+            }
+            return new SyncResult(id, pokemon, revision, false, null);
+        } catch (PokeApiException e) {
+            if (e.getReason() == PokeApiException.Reason.NOT_FOUND) {
+                return new SyncResult(id, null, null, false, null);
+            }
+            return new SyncResult(id, null, null, false, e);
+        } catch (RuntimeException e) {
+            return new SyncResult(id, null, null, false, e);
+        }
+    }
+
+    /**
+     * Outcome of checking one Pokémon: the Pokémon to be written if it changed, the revision to be
+     * recorded, nothing if it does not exist, or a failure.
+     */
+    private static class SyncResult {
+        private final int id;
+        private final Pokemon pokemon;
+        private final PokemonRevision revision;
+        private final boolean notModified;
+        private final Exception failure;
+
+        SyncResult(int id, Pokemon pokemon, PokemonRevision revision, boolean notModified, Exception failure) {
+            this.id = id;
+            this.pokemon = pokemon;
+            this.revision = revision;
+            this.notModified = notModified;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Counts of a synchronization run.
+     */
+    public static class SyncSummary {
+        private final int requestedCount;
+        private int updatedCount;
+        private int notModifiedCount;
+        private int unchangedCount;
+        private final List<Integer> missingIds = new ArrayList<>();
+        private final List<Integer> failedIds = new ArrayList<>();
+        private long elapsedNanos;
+
+        SyncSummary(int requestedCount) {
+            this.requestedCount = requestedCount;
+        }
+
+        /**
+         * @return The number of Pokémon requested.
+         */
+        public int getRequestedCount() {
+            return requestedCount;
+        }
+
+        /**
+         * @return The number of Pokémon added or updated.
+         */
+        public int getUpdatedCount() {
+            return updatedCount;
+        }
+
+        /**
+         * @return The number of Pokémon whose document was answered by "304 Not Modified".
+         */
+        public int getNotModifiedCount() {
+            return notModifiedCount;
+        }
+
+        /**
+         * @return The number of Pokémon whose document was sent again without changing the stored row.
+         */
+        public int getUnchangedCount() {
+            return unchangedCount;
+        }
+
+        /**
+         * @return The IDs the PokeAPI has no Pokémon for; their rows, if any, are left as they are.
+         */
+        public List<Integer> getMissingIds() {
+            return missingIds;
+        }
+
+        /**
+         * @return The IDs that could not be checked; running the synchronization again retries them.
+         */
+        public List<Integer> getFailedIds() {
+            return failedIds;
+        }
+
+        /**
+         * @return The duration of the synchronization, in milliseconds.
+         */
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Synchronized %d pokemons in %.1f s: %d updated, %d not modified, %d unchanged, %d missing, %d failed",
+                    requestedCount, elapsedNanos / 1e9, updatedCount, notModifiedCount, unchangedCount,
+                    missingIds.size(), failedIds.size());
+        }
+    }
+}
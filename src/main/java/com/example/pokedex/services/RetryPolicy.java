@@ -0,0 +1,97 @@
+package com.example.pokedex.services;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter for retried HTTP requests.
+ * The delay before retry n is drawn uniformly between 0 and min(maxDelay, baseDelay * 2^n), so
+ * that clients failing together spread their retries; a Retry-After header sent by the server
+ * takes precedence, as it says when the server expects to recover.
+ */
+public class RetryPolicy {
+    // Default number of attempts made after the first one failed
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 200;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 10_000;
+
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    /**
+     * Constructor for RetryPolicy.
+     * Uses the default number of retries and delays.
+     */
+    public RetryPolicy() {
+        this(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Constructor for RetryPolicy.
+     *
+     * @param maxRetries The number of attempts made after the first one failed.
+     * @param baseDelayMillis The upper bound of the first delay, in milliseconds.
+     * @param maxDelayMillis The largest upper bound of a delay, in milliseconds.
+     */
+    public RetryPolicy(int maxRetries, long baseDelayMillis, long maxDelayMillis) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+    }
+
+    /**
+     * @return The number of attempts made after the first one failed.
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Computes the delay before a retry.
+     *
+     * @param attempt The number of the attempt that failed, starting at 0.
+     * @param retryAfterMillis The delay asked by the server, or a negative value if it asked none.
+     * @return The delay before the next attempt, in milliseconds.
+     */
+    public long delayMillis(int attempt, long retryAfterMillis) {
+        if (retryAfterMillis >= 0) {
+            return retryAfterMillis;
+        }
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * @return true if a response with the given HTTP status may succeed when the request is sent again.
+     */
+    public static boolean isRetryableStatus(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    /**
+     * Parses a Retry-After header, which holds either a number of seconds or an HTTP date.
+     *
+     * @param value The value of the header, or null.
+     * @return The delay it asks for, in milliseconds, or -1 if there is no valid header.
+     */
+    public static long parseRetryAfter(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(trimmed) * 1000);
+        } catch (NumberFormatException e) {
+            // Not a number of seconds; an HTTP date then
+        }
+        try {
+            long at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0, at - System.currentTimeMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.pokedex.services;
 
+import com.example.pokedex.metrics.Counter;
+import com.example.pokedex.metrics.LatencyHistogram;
+import com.example.pokedex.metrics.Metrics;
 import com.example.pokedex.models.Pokemon;
 import com.example.pokedex.models.DetailedPokemon;
 
@@ -8,23 +11,130 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Service class for interacting with an SQLite database to retrieve Pokémon data.
  * This class implements the PokemonDataService interface, providing the functionality
  * to retrieve Pokémon data from a local SQLite database.
+ * Lookups borrow a connection from a small pool of read-only connections, each keeping its
+ * prepared statements, so the database file is opened and configured only once per connection.
  */
 public class SQLitePokemonService implements PokemonDataService {
+    // Maximum number of bound parameters SQLite accepts in a single statement
+    private static final int MAX_SQL_PARAMETERS = 999;
+
+    // Default number of connections kept open to the database
+    public static final int DEFAULT_POOL_SIZE = 4;
+    // Default size of the memory-mapped I/O region, in bytes
+    public static final long DEFAULT_MMAP_SIZE = 64L * 1024 * 1024;
+    // Default page cache size; a negative value is a size in KiB, as defined by SQLite
+    public static final int DEFAULT_CACHE_SIZE = -8 * 1024;
+    // Number of rows a query reads before giving its connection back and handing them to its action
+    private static final int FIND_PAGE_SIZE = 256;
+    // Maximum time a lookup waits for a pooled connection, in milliseconds
+    private static final long BORROW_TIMEOUT_MILLIS = 30_000;
+    // Interval at which a waiting lookup checks whether the service has been closed, in milliseconds
+    private static final long BORROW_CHECK_INTERVAL_MILLIS = 100;
+    // Primary SQLite result code of a write to a read-only database
+    private static final int SQLITE_READONLY = 8;
+
+    private static final String SELECT_COLUMNS = "SELECT id, name, height, weight, description FROM pokemons";
+    private static final String SELECT_BY_ID = SELECT_COLUMNS + " WHERE id = ?";
+    private static final String SELECT_BY_RANGE = SELECT_COLUMNS + " WHERE id BETWEEN ? AND ? ORDER BY id";
+    private static final String SELECT_NAMES = "SELECT id, name FROM pokemons";
+
+    // Secondary indexes serving the height and weight queries, created if missing
+    static final String[] CREATE_SECONDARY_INDEXES = {
+            "CREATE INDEX IF NOT EXISTS pokemons_height ON pokemons(height)",
+            "CREATE INDEX IF NOT EXISTS pokemons_weight ON pokemons(weight)"
+    };
+    private static final String COUNT_SECONDARY_INDEXES =
+            "SELECT count(*) FROM sqlite_master WHERE type = 'index' AND name IN ('pokemons_height', 'pokemons_weight')";
+
+    private static final LatencyHistogram JDBC_SECONDS = Metrics.histogram("pokedex_jdbc_seconds",
+            "Time spent running SQL statements and reading their results");
+    private static final LatencyHistogram POOL_WAIT_SECONDS = Metrics.histogram("pokedex_jdbc_pool_wait_seconds",
+            "Time spent waiting for a pooled SQLite connection");
+    private static final Counter CALLS = Metrics.counter("pokedex_backend_calls_total",
+            "Calls made to a data backend", "backend", "sqlite");
+    private static final Counter ERRORS = Metrics.counter("pokedex_backend_errors_total",
+            "Calls to a data backend that failed", "backend", "sqlite");
+
     private final String dbPath;
+    private final int poolSize;
+    private final long mmapSize;
+    private final int cacheSize;
+    private final boolean walMode;
+
+    private final AsyncLookupExecutor asyncExecutor;
+
+    private final BlockingQueue<PooledConnection> idleConnections;
+    private final AtomicInteger openedConnections = new AtomicInteger();
+    private volatile boolean closed;
+    private volatile PokemonNameIndex nameIndex;  // Built on the first name query
+    private volatile boolean secondaryIndexesChecked;
 
     /**
      * Constructor for the SQLitePokemonService.
-     * Initializes a new instance with the specified database path.
+     * Initializes a new instance with the specified database path and the default pool settings.
      *
      * @param dbPath The file path to the SQLite database.
      */
     public SQLitePokemonService(String dbPath) {
+        this(dbPath, DEFAULT_POOL_SIZE, DEFAULT_MMAP_SIZE, DEFAULT_CACHE_SIZE, true);
+    }
+
+    /**
+     * Constructor for the SQLitePokemonService.
+     * Connections are opened lazily, up to {@code poolSize}, and configured once when opened.
+     *
+     * @param dbPath The file path to the SQLite database.
+     * @param poolSize The maximum number of connections kept open to the database.
+     * @param mmapSize The value of the mmap_size pragma, in bytes (0 disables memory-mapped I/O).
+     * @param cacheSize The value of the cache_size pragma (pages, or KiB when negative).
+     * @param walMode Whether to switch the database to the write-ahead log journal mode.
+     */
+    public SQLitePokemonService(String dbPath, int poolSize, long mmapSize, int cacheSize, boolean walMode) {
+        // Asynchronous lookups wait for a free connection on the executor rather than in the pool
+        this(dbPath, poolSize, mmapSize, cacheSize, walMode,
+                new AsyncLookupExecutor(poolSize, AsyncLookupExecutor.DEFAULT_TIMEOUT_MILLIS));
+    }
+
+    /**
+     * Constructor for the SQLitePokemonService.
+     * Connections are opened lazily, up to {@code poolSize}, and configured once when opened.
+     *
+     * @param dbPath The file path to the SQLite database.
+     * @param poolSize The maximum number of connections kept open to the database.
+     * @param mmapSize The value of the mmap_size pragma, in bytes (0 disables memory-mapped I/O).
+     * @param cacheSize The value of the cache_size pragma (pages, or KiB when negative).
+     * @param walMode Whether to switch the database to the write-ahead log journal mode.
+     * @param asyncExecutor The executor running asynchronous lookups, closed with this service.
+     */
+    public SQLitePokemonService(String dbPath, int poolSize, long mmapSize, int cacheSize, boolean walMode,
+                                AsyncLookupExecutor asyncExecutor) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("poolSize must be at least 1");
+        }
         this.dbPath = dbPath;
+        this.poolSize = poolSize;
+        this.mmapSize = mmapSize;
+        this.cacheSize = cacheSize;
+        this.walMode = walMode;
+        this.asyncExecutor = asyncExecutor;
+        this.idleConnections = new ArrayBlockingQueue<>(poolSize);
     }
 
     /**
@@ -38,31 +148,520 @@ public class SQLitePokemonService implements PokemonDataService {
      */
     @Override
     public Pokemon getPokemonById(int id) {
-        // SQL query to fetch Pokémon data by ID
-        String sql = "SELECT id, name, height, weight, description FROM pokemons WHERE id = ?";
+        try {
+            return withConnection(conn -> {
+                PreparedStatement pstmt = conn.prepare(SELECT_BY_ID);
+                pstmt.setInt(1, id);  // Setting the ID parameter in the SQL query
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? toPokemon(rs) : null;
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();  // Logging the SQL exception
+        }
+        return null;  // Returning null in case of an error
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID from the SQLite database without blocking the calling thread.
+     * The query runs on this service's executor, which admits as many lookups as there are pooled connections.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return A future completed with the Pokémon, or with null if no Pokémon is found or in case of a database error.
+     */
+    @Override
+    public CompletableFuture<Pokemon> getPokemonByIdAsync(int id) {
+        return asyncExecutor.submit(() -> getPokemonById(id));
+    }
+
+    /**
+     * Retrieves several Pokémon from the SQLite database using a single connection.
+     * IDs are sent as {@code WHERE id IN (...)} queries, split in chunks small enough for
+     * SQLite's parameter limit. A contiguous ascending run of IDs is answered with a range scan.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @return The Pokémon found, in the order of the requested IDs, or an empty list in case of a database error.
+     */
+    @Override
+    public List<Pokemon> getPokemonByIds(Collection<Integer> ids) {
+        return getPokemonByIds(ids, new ArrayList<>());
+    }
+
+    /**
+     * Retrieves several Pokémon from the SQLite database using a single connection,
+     * reporting every requested ID as failed in case of a database error.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @param failedIds Receives the requested IDs in case of a database error.
+     * @return The Pokémon found, in the order of the requested IDs, or an empty list in case of a database error.
+     */
+    @Override
+    public List<Pokemon> getPokemonByIds(Collection<Integer> ids, Collection<Integer> failedIds) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        Map<Integer, Pokemon> pokemonsById = new HashMap<>();
+        List<Integer> idList = new ArrayList<>(ids);
 
-            pstmt.setInt(1, id);  // Setting the ID parameter in the SQL query
+        try {
+            if (isContiguousRange(ids)) {
+                int first = ids.iterator().next();
+                return readRange(first, first + ids.size() - 1);
+            }
+            withConnection(conn -> {
+                for (int start = 0; start < idList.size(); start += MAX_SQL_PARAMETERS) {
+                    List<Integer> chunk = idList.subList(start, Math.min(start + MAX_SQL_PARAMETERS, idList.size()));
+                    // Rounding the placeholder count up keeps the number of distinct cached statements small;
+                    // the extra placeholders repeat the last ID of the chunk
+                    int parameterCount = parameterBucket(chunk.size());
+                    PreparedStatement pstmt = conn.prepare(SELECT_COLUMNS + " WHERE id IN ("
+                            + placeholders(parameterCount) + ")");
+                    for (int i = 0; i < parameterCount; i++) {
+                        pstmt.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            Pokemon pokemon = toPokemon(rs);
+                            pokemonsById.put(pokemon.getId(), pokemon);
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();  // Logging the SQL exception
+            failedIds.addAll(ids);
+            return new ArrayList<>();
+        }
+
+        // Restoring the order in which the IDs were requested
+        List<Pokemon> pokemons = new ArrayList<>(pokemonsById.size());
+        for (int id : ids) {
+            Pokemon pokemon = pokemonsById.get(id);
+            if (pokemon != null) {
+                pokemons.add(pokemon);
+            }
+        }
+        return pokemons;
+    }
+
+    /**
+     * Retrieves every Pokémon whose ID lies in the given range with a single range scan.
+     *
+     * @param fromId The first ID of the range (inclusive).
+     * @param toId The last ID of the range (inclusive).
+     * @return The Pokémon found, ordered by ID, or an empty list in case of a database error.
+     */
+    @Override
+    public List<Pokemon> getPokemonByRange(int fromId, int toId) {
+        try {
+            return readRange(fromId, toId);
+        } catch (SQLException e) {
+            e.printStackTrace();  // Logging the SQL exception
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Reads every Pokémon whose ID lies in the given inclusive range with a single range scan.
+     */
+    private List<Pokemon> readRange(int fromId, int toId) throws SQLException {
+        return withConnection(conn -> {
+            List<Pokemon> pokemons = new ArrayList<>();
+            PreparedStatement pstmt = conn.prepare(SELECT_BY_RANGE);
+            pstmt.setInt(1, fromId);
+            pstmt.setInt(2, toId);
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    // Extracting data from the ResultSet
-                    int pokemonId = rs.getInt("id");
-                    String name = rs.getString("name");
-                    int height = rs.getInt("height");
-                    int weight = rs.getInt("weight");
-                    String description = rs.getString("description");
-
-                    // Return a DetailedPokemon if description is available, else a regular Pokemon
-                    return (description != null && !description.isEmpty())
-                            ? new DetailedPokemon(pokemonId, name, height, weight, description)
-                            : new Pokemon(pokemonId, name, height, weight);
+                while (rs.next()) {
+                    pokemons.add(toPokemon(rs));
                 }
             }
+            return pokemons;
+        });
+    }
+
+    /**
+     * @return true, as the table holds every stored Pokémon.
+     */
+    @Override
+    public boolean supportsQueries() {
+        return true;
+    }
+
+    /**
+     * Streams every Pokémon matching a query on height and weight, ordered by ID.
+     * The criteria are pushed down to SQL, where the height and weight indexes serve them.
+     * Rows are read in pages of {@link #FIND_PAGE_SIZE}, each starting after the last ID of the
+     * previous one; the connection is given back before the rows of a page are handed to the
+     * action, so that an action writing to a slow client does not hold a pooled connection.
+     *
+     * @param query The criteria the Pokémon must match.
+     * @param action The action run for each matching Pokémon.
+     * @return The number of matching Pokémon, or the number handed to the action before a database error.
+     */
+    @Override
+    public int findPokemon(PokemonQuery query, Consumer<? super Pokemon> action) {
+        ensureSecondaryIndexes();
+        String sql = querySql(query);
+        int count = 0;
+        int lastId = Integer.MIN_VALUE;
+        try {
+            while (true) {
+                int afterId = lastId;
+                List<Pokemon> page = withConnection(conn -> {
+                    PreparedStatement pstmt = conn.prepare(sql);
+                    int parameter = 1;
+                    pstmt.setInt(parameter++, afterId);
+                    if (query.hasHeightCriterion()) {
+                        pstmt.setInt(parameter++, query.getMinHeight());
+                        pstmt.setInt(parameter++, query.getMaxHeight());
+                    }
+                    if (query.hasWeightCriterion()) {
+                        pstmt.setInt(parameter++, query.getMinWeight());
+                        pstmt.setInt(parameter++, query.getMaxWeight());
+                    }
+                    pstmt.setInt(parameter, FIND_PAGE_SIZE);
+                    List<Pokemon> pokemons = new ArrayList<>(FIND_PAGE_SIZE);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            pokemons.add(toPokemon(rs));
+                        }
+                    }
+                    return pokemons;
+                });
+                for (Pokemon pokemon : page) {
+                    action.accept(pokemon);
+                }
+                count += page.size();
+                if (page.size() < FIND_PAGE_SIZE) {
+                    return count;
+                }
+                lastId = page.get(page.size() - 1).getId();
+            }
         } catch (SQLException e) {
             e.printStackTrace();  // Logging the SQL exception
         }
-        return null;  // Returning null if no Pokémon is found or in case of an error
+        return count;
+    }
+
+    /**
+     * Returns the name index of the database, reading every name the first time it is needed.
+     * The index is not refreshed afterwards, as the pooled connections only read the database.
+     *
+     * @return The name index, or null in case of a database error.
+     */
+    @Override
+    public PokemonNameIndex getNameIndex() {
+        PokemonNameIndex index = nameIndex;
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            if (nameIndex == null) {
+                try {
+                    nameIndex = withConnection(conn -> {
+                        Map<Integer, String> namesById = new HashMap<>();
+                        try (ResultSet rs = conn.prepare(SELECT_NAMES).executeQuery()) {
+                            while (rs.next()) {
+                                namesById.put(rs.getInt("id"), rs.getString("name"));
+                            }
+                        }
+                        return new PokemonNameIndex(namesById);
+                    });
+                } catch (SQLException e) {
+                    e.printStackTrace();  // Logging the SQL exception
+                }
+            }
+            return nameIndex;
+        }
+    }
+
+    /**
+     * Closes every pooled connection along with its cached statements.
+     * Connections still borrowed are closed as soon as they are given back.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        asyncExecutor.close();
+        PooledConnection conn;
+        while ((conn = idleConnections.poll()) != null) {
+            conn.close();
+        }
+    }
+
+    /**
+     * Runs some work with a connection borrowed from the pool, then gives the connection back.
+     *
+     * @param work The work to be run.
+     * @return The result of the work.
+     * @throws SQLException if a connection cannot be opened or the work fails.
+     */
+    private <T> T withConnection(ConnectionWork<T> work) throws SQLException {
+        long start = Metrics.startTimer();
+        PooledConnection conn;
+        try {
+            conn = borrowConnection();
+        } catch (SQLException e) {
+            ERRORS.increment();
+            throw e;
+        }
+        POOL_WAIT_SECONDS.recordSince(start);
+        CALLS.increment();
+        long workStart = Metrics.startTimer();
+        boolean broken = false;
+        try {
+            return work.apply(conn);
+        } catch (SQLException e) {
+            ERRORS.increment();
+            // A failing connection is not handed to the next caller
+            broken = !conn.isValid();
+            throw e;
+        } finally {
+            JDBC_SECONDS.recordSince(workStart);
+            releaseConnection(conn, broken);
+        }
+    }
+
+    /**
+     * Takes an idle connection from the pool, opens a new one if the pool is not full yet,
+     * or waits for another caller to give one back, for up to {@link #BORROW_TIMEOUT_MILLIS}.
+     * The wait is cut in short polls so that closing the service, or a broken connection
+     * leaving room for a new one, is noticed while waiting.
+     */
+    private PooledConnection borrowConnection() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BORROW_TIMEOUT_MILLIS);
+        while (true) {
+            if (closed) {
+                throw new SQLException("The SQLite service has been closed");
+            }
+            PooledConnection conn = idleConnections.poll();
+            if (conn != null) {
+                return conn;
+            }
+            if (openedConnections.incrementAndGet() <= poolSize) {
+                try {
+                    return openConnection();
+                } catch (SQLException e) {
+                    openedConnections.decrementAndGet();
+                    throw e;
+                }
+            }
+            openedConnections.decrementAndGet();
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new SQLException("Timed out after " + BORROW_TIMEOUT_MILLIS + " ms waiting for a database connection");
+            }
+            try {
+                conn = idleConnections.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(BORROW_CHECK_INTERVAL_MILLIS)),
+                        TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            if (conn != null) {
+                return conn;
+            }
+        }
+    }
+
+    /**
+     * Gives a connection back to the pool, or closes it if it is broken or the service is closed.
+     */
+    private void releaseConnection(PooledConnection conn, boolean broken) {
+        if (broken || closed || !idleConnections.offer(conn)) {
+            conn.close();
+            openedConnections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Creates the height and weight indexes the first time a query needs them.
+     * The pooled connections only read the database, so a short-lived connection is opened for it;
+     * when the database cannot be written, queries still work by scanning the table. Other errors,
+     * such as a database locked by a writer, are reported and the indexes are checked again by the next query.
+     */
+    private void ensureSecondaryIndexes() {
+        if (secondaryIndexesChecked) {
+            return;
+        }
+        synchronized (this) {
+            if (secondaryIndexesChecked) {
+                return;
+            }
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+                 Statement stmt = connection.createStatement()) {
+                int existing;
+                try (ResultSet rs = stmt.executeQuery(COUNT_SECONDARY_INDEXES)) {
+                    existing = rs.next() ? rs.getInt(1) : 0;
+                }
+                if (existing < CREATE_SECONDARY_INDEXES.length) {
+                    for (String createIndex : CREATE_SECONDARY_INDEXES) {
+                        stmt.execute(createIndex);
+                    }
+                    // Statistics let the planner pick the more selective index for combined criteria
+                    stmt.execute("ANALYZE pokemons");
+                }
+                secondaryIndexesChecked = true;
+            } catch (SQLException e) {
+                if ((e.getErrorCode() & 0xff) == SQLITE_READONLY) {
+                    // The queries scan the table instead
+                    secondaryIndexesChecked = true;
+                } else {
+                    System.err.println("Unable to create the height and weight indexes: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a new connection and applies the configured pragmas once.
+     * The connection is then restricted to queries with the query_only pragma.
+     */
+    private PooledConnection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA mmap_size = " + mmapSize);
+            stmt.execute("PRAGMA cache_size = " + cacheSize);
+            if (walMode) {
+                try {
+                    stmt.execute("PRAGMA journal_mode = WAL");
+                } catch (SQLException e) {
+                    // The journal mode cannot be changed on a read-only file; readers still work
+                }
+            }
+            stmt.execute("PRAGMA query_only = 1");
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return new PooledConnection(connection);
+    }
+
+    /**
+     * Builds the statement reading a page of a query, with a range predicate for each restricted
+     * column only, so that the planner can use the matching index.
+     */
+    private static String querySql(PokemonQuery query) {
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(" WHERE id > ?");
+        if (query.hasHeightCriterion()) {
+            sql.append(" AND height BETWEEN ? AND ?");
+        }
+        if (query.hasWeightCriterion()) {
+            sql.append(" AND weight BETWEEN ? AND ?");
+        }
+        return sql.append(" ORDER BY id LIMIT ?").toString();
+    }
+
+    /**
+     * Builds a Pokémon from the current row of a result set.
+     *
+     * @param rs The result set, positioned on a row of the pokemons table.
+     * @return A DetailedPokemon if a description is available, else a regular Pokemon.
+     * @throws SQLException if a column cannot be read.
+     */
+    private static Pokemon toPokemon(ResultSet rs) throws SQLException {
+        // Extracting data from the ResultSet
+        int pokemonId = rs.getInt("id");
+        String name = rs.getString("name");
+        int height = rs.getInt("height");
+        int weight = rs.getInt("weight");
+        String description = rs.getString("description");
+
+        // Return a DetailedPokemon if description is available, else a regular Pokemon
+        return (description != null && !description.isEmpty())
+                ? new DetailedPokemon(pokemonId, name, height, weight, description)
+                : new Pokemon(pokemonId, name, height, weight);
+    }
+
+    /**
+     * Checks whether the IDs form an ascending run without gaps, such as 4, 5, 6, 7.
+     */
+    private static boolean isContiguousRange(Collection<Integer> ids) {
+        int expected = -1;
+        boolean first = true;
+        for (int id : ids) {
+            if (!first && id != expected) {
+                return false;
+            }
+            first = false;
+            expected = id + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Rounds a parameter count up to the next power of two, capped at SQLite's parameter limit.
+     */
+    private static int parameterBucket(int count) {
+        int bucket = Integer.highestOneBit(count);
+        if (bucket < count) {
+            bucket <<= 1;
+        }
+        return Math.min(bucket, MAX_SQL_PARAMETERS);
+    }
+
+    /**
+     * Builds a comma-separated list of {@code count} SQL placeholders.
+     */
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ",?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Some work run with a pooled connection.
+     */
+    private interface ConnectionWork<T> {
+        T apply(PooledConnection conn) throws SQLException;
+    }
+
+    /**
+     * A pooled connection along with the prepared statements already compiled on it.
+     * A pooled connection is used by one caller at a time.
+     */
+    private static class PooledConnection {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Returns the cached statement for the SQL query, preparing it on first use.
+         */
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement pstmt = statements.get(sql);
+            if (pstmt == null) {
+                pstmt = connection.prepareStatement(sql);
+                statements.put(sql, pstmt);
+            }
+            return pstmt;
+        }
+
+        boolean isValid() {
+            try {
+                return !connection.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void close() {
+            try {
+                for (PreparedStatement pstmt : statements.values()) {
+                    pstmt.close();
+                }
+                statements.clear();
+                connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();  // Logging the SQL exception
+            }
+        }
     }
 }
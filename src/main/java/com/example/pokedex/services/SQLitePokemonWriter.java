@@ -0,0 +1,265 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes Pokémon into an SQLite database using the schema read by {@link SQLitePokemonService}.
+ * The {@code pokemons} table is created if it is missing, along with a {@code pokemon_fetches}
+ * table recording when each row was last written, so that readers can tell stale rows apart, and a
+ * {@code pokemon_revisions} table recording the {@link PokemonRevision} each row was read from, so
+ * that a synchronization only requests and rewrites the rows whose document changed.
+ * Writes are grouped in batched transactions; the database is switched to the write-ahead log
+ * journal mode so that readers keep working while a transaction is running.
+ */
+public class SQLitePokemonWriter implements AutoCloseable {
+    // Maximum number of bound parameters SQLite accepts in a single statement
+    private static final int MAX_SQL_PARAMETERS = 999;
+
+    private static final String CREATE_POKEMONS = "CREATE TABLE IF NOT EXISTS pokemons ("
+            + "id INTEGER PRIMARY KEY, name TEXT NOT NULL, height INTEGER, weight INTEGER, description TEXT)";
+    private static final String CREATE_FETCHES = "CREATE TABLE IF NOT EXISTS pokemon_fetches ("
+            + "id INTEGER PRIMARY KEY, fetched_at INTEGER NOT NULL)";
+    private static final String CREATE_REVISIONS = "CREATE TABLE IF NOT EXISTS pokemon_revisions ("
+            + "id INTEGER PRIMARY KEY, etag TEXT, last_modified TEXT, content_hash TEXT NOT NULL)";
+    // SQLite versions bundled with the driver predate UPSERT, so an update is followed by an insert
+    // of the rows that did not exist; an existing description is kept when the new one is unknown
+    private static final String UPDATE_POKEMON = "UPDATE pokemons SET name = ?, height = ?, weight = ?, "
+            + "description = COALESCE(?, description) WHERE id = ?";
+    private static final String INSERT_POKEMON = "INSERT OR IGNORE INTO pokemons (id, name, height, weight, description) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private static final String UPSERT_FETCH = "INSERT OR REPLACE INTO pokemon_fetches (id, fetched_at) VALUES (?, ?)";
+    private static final String UPSERT_REVISION = "INSERT OR REPLACE INTO pokemon_revisions (id, etag, last_modified, content_hash) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private final Connection connection;
+
+    /**
+     * Constructor for SQLitePokemonWriter.
+     * Opens the database, creating the file and the tables if needed.
+     *
+     * @param dbPath The file path to the SQLite database.
+     * @throws SQLException if the database cannot be opened or the tables cannot be created.
+     */
+    public SQLitePokemonWriter(String dbPath) throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute(CREATE_POKEMONS);
+            stmt.execute(CREATE_FETCHES);
+            stmt.execute(CREATE_REVISIONS);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the Pokémon in a single transaction, inserting new rows and updating existing ones.
+     * Every written row is stamped with the current time in the {@code pokemon_fetches} table.
+     *
+     * @param pokemons The Pokémon to be written.
+     * @throws SQLException if the transaction fails; nothing is written in that case.
+     */
+    public synchronized void write(Collection<? extends Pokemon> pokemons) throws SQLException {
+        write(pokemons, Collections.emptyMap());
+    }
+
+    /**
+     * Writes the Pokémon and the revisions of their documents in a single transaction.
+     * Revisions may also be given for Pokémon that are not written, such as rows found unchanged:
+     * their revision is recorded and they are stamped with the current time, but the row is left as is.
+     *
+     * @param pokemons The Pokémon to be written.
+     * @param revisions The revisions to be recorded, by Pokémon ID.
+     * @throws SQLException if the transaction fails; nothing is written in that case.
+     */
+    public synchronized void write(Collection<? extends Pokemon> pokemons, Map<Integer, PokemonRevision> revisions)
+            throws SQLException {
+        if (pokemons.isEmpty() && revisions.isEmpty()) {
+            return;
+        }
+        long fetchedAt = System.currentTimeMillis();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_POKEMON);
+             PreparedStatement insert = connection.prepareStatement(INSERT_POKEMON);
+             PreparedStatement fetch = connection.prepareStatement(UPSERT_FETCH);
+             PreparedStatement revision = connection.prepareStatement(UPSERT_REVISION)) {
+
+            for (Pokemon pokemon : pokemons) {
+                // A description not loaded yet is not requested just to be stored; the stored one is kept
+                String description = pokemon instanceof DetailedPokemon && ((DetailedPokemon) pokemon).isDescriptionLoaded()
+                        ? ((DetailedPokemon) pokemon).getDescription() : null;
+
+                update.setString(1, pokemon.getName());
+                update.setInt(2, pokemon.getHeight());
+                update.setInt(3, pokemon.getWeight());
+                setNullableString(update, 4, description);
+                update.setInt(5, pokemon.getId());
+                update.addBatch();
+
+                insert.setInt(1, pokemon.getId());
+                insert.setString(2, pokemon.getName());
+                insert.setInt(3, pokemon.getHeight());
+                insert.setInt(4, pokemon.getWeight());
+                setNullableString(insert, 5, description);
+                insert.addBatch();
+
+                if (!revisions.containsKey(pokemon.getId())) {
+                    fetch.setInt(1, pokemon.getId());
+                    fetch.setLong(2, fetchedAt);
+                    fetch.addBatch();
+                }
+            }
+            for (Map.Entry<Integer, PokemonRevision> entry : revisions.entrySet()) {
+                revision.setInt(1, entry.getKey());
+                setNullableString(revision, 2, entry.getValue().getEtag());
+                setNullableString(revision, 3, entry.getValue().getLastModified());
+                revision.setString(4, entry.getValue().getContentHash());
+                revision.addBatch();
+
+                fetch.setInt(1, entry.getKey());
+                fetch.setLong(2, fetchedAt);
+                fetch.addBatch();
+            }
+            update.executeBatch();
+            insert.executeBatch();
+            fetch.executeBatch();
+            revision.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Retrieves when the given Pokémon were last written.
+     *
+     * @param ids The IDs of the Pokémon.
+     * @return The write time, in milliseconds since the epoch, of every ID that has one.
+     * @throws SQLException if the query fails.
+     */
+    public synchronized Map<Integer, Long> getFetchTimes(Collection<Integer> ids) throws SQLException {
+        Map<Integer, Long> fetchTimes = new HashMap<>();
+        selectByIds("SELECT id, fetched_at FROM pokemon_fetches", ids,
+                rs -> fetchTimes.put(rs.getInt("id"), rs.getLong("fetched_at")));
+        return fetchTimes;
+    }
+
+    /**
+     * Retrieves the revisions of the documents the given Pokémon were last read from.
+     * Rows written without a revision, such as imported ones, have none.
+     *
+     * @param ids The IDs of the Pokémon.
+     * @return The revision of every ID that has one.
+     * @throws SQLException if the query fails.
+     */
+    public synchronized Map<Integer, PokemonRevision> getRevisions(Collection<Integer> ids) throws SQLException {
+        Map<Integer, PokemonRevision> revisions = new HashMap<>();
+        selectByIds("SELECT id, etag, last_modified, content_hash FROM pokemon_revisions", ids,
+                rs -> revisions.put(rs.getInt("id"),
+                        new PokemonRevision(rs.getString("etag"), rs.getString("last_modified"), rs.getString("content_hash"))));
+        return revisions;
+    }
+
+    /**
+     * Runs a query restricted to the given IDs, in chunks small enough for the parameter limit,
+     * and hands every row to the consumer.
+     */
+    private void selectByIds(String select, Collection<Integer> ids, RowConsumer rowConsumer) throws SQLException {
+        List<Integer> idList = new ArrayList<>(ids);
+        for (int start = 0; start < idList.size(); start += MAX_SQL_PARAMETERS) {
+            List<Integer> chunk = idList.subList(start, Math.min(start + MAX_SQL_PARAMETERS, idList.size()));
+            StringBuilder sql = new StringBuilder(select).append(" WHERE id IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ",?");
+            }
+            sql.append(')');
+
+            try (PreparedStatement pstmt = connection.prepareStatement(sql.toString())) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        rowConsumer.accept(rs);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the height and weight indexes read by {@link SQLitePokemonService}, so that a bulk
+     * load does not maintain them row by row; {@link #createSecondaryIndexes()} rebuilds them once.
+     *
+     * @throws SQLException if the indexes cannot be dropped.
+     */
+    public synchronized void dropSecondaryIndexes() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP INDEX IF EXISTS pokemons_height");
+            stmt.execute("DROP INDEX IF EXISTS pokemons_weight");
+        }
+    }
+
+    /**
+     * Creates the height and weight indexes read by {@link SQLitePokemonService}, then refreshes
+     * the statistics the query planner uses to choose between them.
+     *
+     * @throws SQLException if the indexes cannot be created.
+     */
+    public synchronized void createSecondaryIndexes() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String createIndex : SQLitePokemonService.CREATE_SECONDARY_INDEXES) {
+                stmt.execute(createIndex);
+            }
+            stmt.execute("ANALYZE pokemons");
+        }
+    }
+
+    /**
+     * Closes the database connection.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();  // Logging the SQL exception
+        }
+    }
+
+    /**
+     * Consumer of the current row of a result set.
+     */
+    private interface RowConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    private static void setNullableString(PreparedStatement pstmt, int index, String value) throws SQLException {
+        if (value == null || value.isEmpty()) {
+            pstmt.setNull(index, Types.VARCHAR);
+        } else {
+            pstmt.setString(index, value);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.metrics.Counter;
+import com.example.pokedex.metrics.Metrics;
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Read-only data service answering from a binary snapshot written by {@link PokemonSnapshotWriter}.
+ * The snapshot is memory-mapped rather than read: opening it costs a few system calls, with no
+ * JDBC driver to load and no table to scan, and the operating system pages in what lookups touch.
+ * Fields are read in place from the mapping; a lookup only allocates the returned Pokémon.
+ * <p>
+ * The snapshot is big-endian and laid out as follows:
+ * <ul>
+ *     <li>a 32-byte header: the {@code PKDX} magic number, the format version, the number of
+ *     Pokémon, the record size, and the offsets of the string table and of the string heap;</li>
+ *     <li>one fixed-width record per Pokémon, by ascending ID: ID, height and weight as 32-bit integers;</li>
+ *     <li>the string table: {@code 2 * count + 1} offsets into the heap, the name of the Pokémon of
+ *     row {@code r} lying between offsets {@code 2r} and {@code 2r + 1}, and its description between
+ *     offsets {@code 2r + 1} and {@code 2r + 2}, an empty description standing for none;</li>
+ *     <li>the string heap, holding the names and descriptions in UTF-8.</li>
+ * </ul>
+ * Instances are safe to share between threads.
+ */
+public class SnapshotPokemonService implements PokemonDataService {
+    static final int MAGIC = 0x504B4458;  // "PKDX"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 3 * Integer.BYTES;
+
+    private static final Counter CALLS = Metrics.counter("pokedex_backend_calls_total",
+            "Calls made to a data backend", "backend", "snapshot");
+    // Decoding buffer of each thread, grown to the longest string read
+    private static final ThreadLocal<byte[]> STRING_BUFFER = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+    private final int stringTableOffset;
+    private final int heapOffset;
+    // Direct ID to row mapping when IDs are contiguous, as in the national Pokédex
+    private final boolean contiguousIds;
+    private final int minId;
+    private volatile PokemonNameIndex nameIndex;  // Built on the first name query
+
+    private SnapshotPokemonService(MappedByteBuffer buffer, int size, int stringTableOffset, int heapOffset) {
+        this.buffer = buffer;
+        this.size = size;
+        this.stringTableOffset = stringTableOffset;
+        this.heapOffset = heapOffset;
+        this.minId = size == 0 ? 0 : idAt(0);
+        this.contiguousIds = size > 0 && (long) idAt(size - 1) - minId == size - 1;
+    }
+
+    /**
+     * Maps a snapshot into memory.
+     *
+     * @param snapshotPath The path of the snapshot.
+     * @return The service answering from the snapshot.
+     * @throws IOException if the snapshot cannot be read, or is not a valid snapshot.
+     */
+    public static SnapshotPokemonService open(Path snapshotPath) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+                throw new IOException(snapshotPath + " is not a Pokedex snapshot");
+            }
+            // The mapping stays valid once the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(snapshotPath + " is not a Pokedex snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(snapshotPath + " has the unsupported snapshot version " + buffer.getInt(4));
+        }
+        int size = buffer.getInt(8);
+        long stringTableOffset = buffer.getLong(16);
+        long heapOffset = buffer.getLong(24);
+        // The heap offset is checked against the file size before the last string table entry is read
+        if (size < 0 || buffer.getInt(12) != RECORD_SIZE
+                || stringTableOffset != HEADER_SIZE + (long) size * RECORD_SIZE
+                || heapOffset != stringTableOffset + (size * 2L + 1) * Integer.BYTES
+                || heapOffset > buffer.capacity()
+                || heapOffset + buffer.getInt((int) heapOffset - Integer.BYTES) != buffer.capacity()) {
+            throw new IOException(snapshotPath + " is truncated or corrupted");
+        }
+        // Lookups binary search the IDs and read strings between consecutive offsets without checking them
+        for (int row = 1; row < size; row++) {
+            int record = HEADER_SIZE + row * RECORD_SIZE;
+            if (buffer.getInt(record) <= buffer.getInt(record - RECORD_SIZE)) {
+                throw new IOException(snapshotPath + " is corrupted: its IDs are not in ascending order");
+            }
+        }
+        int previousOffset = 0;
+        for (int entry = 0; entry <= size * 2; entry++) {
+            int offset = buffer.getInt((int) stringTableOffset + entry * Integer.BYTES);
+            if (entry == 0 ? offset != 0 : offset < previousOffset) {
+                throw new IOException(snapshotPath + " is corrupted: its string offsets are not increasing");
+            }
+            previousOffset = offset;
+        }
+        return new SnapshotPokemonService(buffer, size, (int) stringTableOffset, (int) heapOffset);
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID from the snapshot.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return A Pokemon object, or DetailedPokemon if a description is available, or null if no Pokémon is found.
+     */
+    @Override
+    public Pokemon getPokemonById(int id) {
+        CALLS.increment();
+        int row = rowOf(id);
+        return row < 0 ? null : materialize(row);
+    }
+
+    /**
+     * Retrieves every Pokémon whose ID lies in the given range, reading consecutive records.
+     *
+     * @param fromId The first ID of the range (inclusive).
+     * @param toId The last ID of the range (inclusive).
+     * @return The Pokémon found, ordered by ID.
+     */
+    @Override
+    public List<Pokemon> getPokemonByRange(int fromId, int toId) {
+        CALLS.increment();
+        List<Pokemon> pokemons = new ArrayList<>();
+        for (int row = lowerBound(fromId); row < size && idAt(row) <= toId; row++) {
+            pokemons.add(materialize(row));
+        }
+        return pokemons;
+    }
+
+    /**
+     * @return true, as the records of the snapshot can be scanned.
+     */
+    @Override
+    public boolean supportsQueries() {
+        return true;
+    }
+
+    /**
+     * Streams every Pokémon matching a query on height and weight, ordered by ID.
+     * The fixed-width records are scanned in place; only matching Pokémon are created.
+     *
+     * @param query The criteria the Pokémon must match.
+     * @param action The action run for each matching Pokémon.
+     * @return The number of matching Pokémon.
+     */
+    @Override
+    public int findPokemon(PokemonQuery query, Consumer<? super Pokemon> action) {
+        CALLS.increment();
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            int record = HEADER_SIZE + row * RECORD_SIZE;
+            if (query.matches(buffer.getInt(record + 4), buffer.getInt(record + 8))) {
+                action.accept(materialize(row));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the name index of the snapshot, building it the first time it is needed.
+     *
+     * @return The name index.
+     */
+    @Override
+    public PokemonNameIndex getNameIndex() {
+        PokemonNameIndex index = nameIndex;
+        if (index == null) {
+            synchronized (this) {
+                if (nameIndex == null) {
+                    Map<Integer, String> namesById = new HashMap<>(size * 2);
+                    for (int row = 0; row < size; row++) {
+                        namesById.put(idAt(row), stringAt(row * 2));
+                    }
+                    nameIndex = new PokemonNameIndex(namesById);
+                }
+                index = nameIndex;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return The number of Pokémon in the snapshot.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the row holding a Pokémon, or -1 if there is none.
+     */
+    private int rowOf(int id) {
+        if (contiguousIds) {
+            long row = (long) id - minId;
+            return row < 0 || row >= size ? -1 : (int) row;
+        }
+        int row = lowerBound(id);
+        return row < size && idAt(row) == id ? row : -1;
+    }
+
+    /**
+     * Returns the first row whose ID is greater than or equal to the given ID.
+     */
+    private int lowerBound(int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (idAt(middle) < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int idAt(int row) {
+        return buffer.getInt(HEADER_SIZE + row * RECORD_SIZE);
+    }
+
+    /**
+     * Creates the model object of a row, decoding its description if it has one.
+     */
+    private Pokemon materialize(int row) {
+        int record = HEADER_SIZE + row * RECORD_SIZE;
+        int id = buffer.getInt(record);
+        int height = buffer.getInt(record + 4);
+        int weight = buffer.getInt(record + 8);
+        String name = stringAt(row * 2);
+        String description = stringAt(row * 2 + 1);
+        return description.isEmpty()
+                ? new Pokemon(id, name, height, weight)
+                : new DetailedPokemon(id, name, height, weight, description);
+    }
+
+    /**
+     * Decodes the string at an entry of the string table.
+     */
+    private String stringAt(int entry) {
+        int start = buffer.getInt(stringTableOffset + entry * Integer.BYTES);
+        int length = buffer.getInt(stringTableOffset + (entry + 1) * Integer.BYTES) - start;
+        if (length == 0) {
+            return "";
+        }
+        byte[] bytes = STRING_BUFFER.get();
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+            STRING_BUFFER.set(bytes);
+        }
+        buffer.get(heapOffset + start, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
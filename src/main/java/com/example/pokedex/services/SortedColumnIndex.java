@@ -0,0 +1,86 @@
+package com.example.pokedex.services;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Secondary index over an int column of {@link InMemoryPokemonService}.
+ * The column values are copied into a sorted array, next to the row of each value, so that the
+ * rows holding a range of values are found by two binary searches and read contiguously.
+ */
+class SortedColumnIndex {
+    private final int[] values;  // Sorted ascending
+    private final int[] rows;    // Row holding each value
+
+    /**
+     * Constructor for SortedColumnIndex.
+     *
+     * @param column The column to be indexed.
+     * @param size The number of rows of the column.
+     */
+    SortedColumnIndex(int[] column, int size) {
+        // Sorting (value, row) pairs packed in longs avoids boxing; rows are non-negative,
+        // so the packed order is the value order, rows breaking ties
+        long[] pairs = new long[size];
+        for (int row = 0; row < size; row++) {
+            pairs[row] = ((long) column[row] << 32) | row;
+        }
+        Arrays.sort(pairs);
+        this.values = new int[size];
+        this.rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (int) (pairs[i] >> 32);
+            rows[i] = (int) pairs[i];
+        }
+    }
+
+    /**
+     * @return The number of rows whose value lies in the given inclusive range.
+     */
+    int count(int min, int max) {
+        return Math.max(0, firstAbove(max) - firstAtLeast(min));
+    }
+
+    /**
+     * Marks the rows whose value lies in the given inclusive range and which satisfy the query.
+     *
+     * @param min The smallest value (inclusive).
+     * @param max The largest value (inclusive).
+     * @param service The service whose other columns are checked against the query.
+     * @param query The query every marked row must match.
+     * @param matching The set receiving the matching rows.
+     */
+    void markMatchingRows(int min, int max, InMemoryPokemonService service, PokemonQuery query, BitSet matching) {
+        int end = firstAbove(max);
+        for (int i = firstAtLeast(min); i < end; i++) {
+            int row = rows[i];
+            if (query.matches(service.heightAt(row), service.weightAt(row))) {
+                matching.set(row);
+            }
+        }
+    }
+
+    /**
+     * Returns the first position whose value is greater than or equal to the given value.
+     */
+    private int firstAtLeast(int value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the first position whose value is strictly greater than the given value.
+     */
+    private int firstAbove(int value) {
+        return value == Integer.MAX_VALUE ? values.length : firstAtLeast(value + 1);
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Two-tier data service keeping a local SQLite copy of a remote data service.
+ * Lookups are answered from the local database first; missing or stale Pokémon are fetched
+ * from the remote service (typically a {@link PokeApiService}) and written back to the local
+ * database in batched transactions, so that the next process start reads them from disk.
+ * Rows that were not written by this service (for instance a hand-built database) carry no
+ * fetch time and are never considered stale. Descriptions the remote service loads lazily are
+ * loaded before a write, so that stored rows have them whether or not they were displayed.
+ */
+public class TieredPokemonDataService implements PokemonDataService {
+    // Default age after which a locally stored Pokémon is fetched again, in milliseconds
+    public static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+    // Default number of fetched Pokémon buffered before they are written to the local database
+    public static final int DEFAULT_WRITE_BATCH_SIZE = 100;
+    // Maximum number of descriptions loaded at the same time before a write
+    private static final int MAX_DESCRIPTION_LOADS = 8;
+
+    private final SQLitePokemonService localService;
+    private final SQLitePokemonWriter localWriter;
+    private final PokemonDataService remoteService;
+    private final long maxAgeMillis;
+    private final int writeBatchSize;
+    // Loads the lazy descriptions before a write; owned so that waiting on it never takes the shared slots
+    private final AsyncLookupExecutor descriptionLoader =
+            new AsyncLookupExecutor(MAX_DESCRIPTION_LOADS, AsyncLookupExecutor.DEFAULT_TIMEOUT_MILLIS);
+
+    // Fetched Pokémon waiting to be written, by ID
+    private final Map<Integer, Pokemon> pendingWrites = new LinkedHashMap<>();
+
+    /**
+     * Constructor for TieredPokemonDataService.
+     * Uses the default maximum age and write batch size.
+     *
+     * @param dbPath The file path to the local SQLite database, created if it does not exist.
+     * @param remoteService The data service used when the local database cannot answer.
+     * @throws SQLException if the local database cannot be opened.
+     */
+    public TieredPokemonDataService(String dbPath, PokemonDataService remoteService) throws SQLException {
+        this(dbPath, remoteService, DEFAULT_MAX_AGE_MILLIS, DEFAULT_WRITE_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor for TieredPokemonDataService.
+     *
+     * @param dbPath The file path to the local SQLite database, created if it does not exist.
+     * @param remoteService The data service used when the local database cannot answer.
+     * @param maxAgeMillis The age after which a stored Pokémon is fetched again, in milliseconds (0 or less never expires).
+     * @param writeBatchSize The number of fetched Pokémon buffered before they are written.
+     * @throws SQLException if the local database cannot be opened.
+     */
+    public TieredPokemonDataService(String dbPath, PokemonDataService remoteService,
+                                    long maxAgeMillis, int writeBatchSize) throws SQLException {
+        if (writeBatchSize < 1) {
+            throw new IllegalArgumentException("writeBatchSize must be at least 1");
+        }
+        // The writer creates the schema, so it is opened before any read
+        this.localWriter = new SQLitePokemonWriter(dbPath);
+        this.localService = new SQLitePokemonService(dbPath);
+        this.remoteService = remoteService;
+        this.maxAgeMillis = maxAgeMillis;
+        this.writeBatchSize = writeBatchSize;
+    }
+
+    /**
+     * Returns the name index of the remote service, which knows every Pokémon, or the index of the
+     * local database when the remote service cannot provide one.
+     * Pokémon found by name are then retrieved through the tiers like any other lookup.
+     *
+     * @return The name index, or null if neither tier can search by name.
+     */
+    @Override
+    public PokemonNameIndex getNameIndex() {
+        PokemonNameIndex index = remoteService.getNameIndex();
+        return index != null ? index : localService.getNameIndex();
+    }
+
+    /**
+     * Retrieves a Pokémon by its ID, from the local database if it holds a fresh copy.
+     *
+     * @param id The ID of the Pokémon to be retrieved.
+     * @return A Pokemon object corresponding to the specified ID, or null if no Pokémon is found.
+     */
+    @Override
+    public Pokemon getPokemonById(int id) {
+        List<Pokemon> pokemons = getPokemonByIds(Collections.singletonList(id));
+        return pokemons.isEmpty() ? null : pokemons.get(0);
+    }
+
+    /**
+     * Retrieves several Pokémon, reading fresh copies from the local database and fetching
+     * the others from the remote service in a single batch.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @return The Pokémon found, in the order of the requested IDs.
+     */
+    @Override
+    public List<Pokemon> getPokemonByIds(Collection<Integer> ids) {
+        return getPokemonByIds(ids, new ArrayList<>());
+    }
+
+    /**
+     * Retrieves several Pokémon like {@link #getPokemonByIds(Collection)}, reporting the IDs the
+     * remote service failed to look up and the local database holds no copy of.
+     *
+     * @param ids The IDs of the Pokémon to be retrieved.
+     * @param failedIds Receives the requested IDs whose lookup failed.
+     * @return The Pokémon found, in the order of the requested IDs.
+     */
+    @Override
+    public List<Pokemon> getPokemonByIds(Collection<Integer> ids, Collection<Integer> failedIds) {
+        Map<Integer, Pokemon> found = new HashMap<>();
+        Set<Integer> remaining = new LinkedHashSet<>(ids);
+
+        // Fetched Pokémon not written yet
+        synchronized (pendingWrites) {
+            for (int id : ids) {
+                Pokemon pokemon = pendingWrites.get(id);
+                if (pokemon != null) {
+                    found.put(id, pokemon);
+                    remaining.remove(id);
+                }
+            }
+        }
+
+        // Local tier
+        Map<Integer, Pokemon> stale = new HashMap<>();
+        if (!remaining.isEmpty()) {
+            List<Pokemon> localPokemons = localService.getPokemonByIds(remaining);
+            Set<Integer> staleIds = findStaleIds(localPokemons);
+            for (Pokemon pokemon : localPokemons) {
+                if (staleIds.contains(pokemon.getId())) {
+                    stale.put(pokemon.getId(), pokemon);
+                } else {
+                    found.put(pokemon.getId(), pokemon);
+                    remaining.remove(pokemon.getId());
+                }
+            }
+        }
+
+        // Remote tier, for missing and stale Pokémon
+        if (!remaining.isEmpty()) {
+            List<Pokemon> fetched = new ArrayList<>();
+            List<Integer> remoteFailedIds = new ArrayList<>();
+            for (Pokemon pokemon : remoteService.getPokemonByIds(remaining, remoteFailedIds)) {
+                Pokemon merged = keepDescription(pokemon, stale.get(pokemon.getId()));
+                found.put(merged.getId(), merged);
+                fetched.add(merged);
+            }
+            // A stale copy is better than nothing when the remote service fails
+            for (Map.Entry<Integer, Pokemon> entry : stale.entrySet()) {
+                found.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+            for (int id : remoteFailedIds) {
+                if (!found.containsKey(id)) {
+                    failedIds.add(id);
+                }
+            }
+            enqueueWrites(fetched);
+        }
+
+        List<Pokemon> pokemons = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Pokemon pokemon = found.get(id);
+            if (pokemon != null) {
+                pokemons.add(pokemon);
+            }
+        }
+        return pokemons;
+    }
+
+    /**
+     * @return true, as the local database can be queried whatever the remote service.
+     */
+    @Override
+    public boolean supportsQueries() {
+        return true;
+    }
+
+    /**
+     * Streams the Pokémon of the local database matching a query, once the buffered Pokémon are written.
+     * Only the Pokémon fetched so far are considered, as the remote service cannot be queried by height or weight.
+     *
+     * @param query The criteria the Pokémon must match.
+     * @param action The action run for each matching Pokémon.
+     * @return The number of matching Pokémon.
+     */
+    @Override
+    public int findPokemon(PokemonQuery query, Consumer<? super Pokemon> action) {
+        flush();
+        return localService.findPokemon(query, action);
+    }
+
+    /**
+     * Writes every buffered Pokémon to the local database.
+     */
+    public void flush() {
+        List<Pokemon> batch;
+        synchronized (pendingWrites) {
+            if (pendingWrites.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pendingWrites.values());
+            pendingWrites.clear();
+        }
+        loadDescriptions(batch);
+        try {
+            localWriter.write(batch);
+        } catch (SQLException e) {
+            e.printStackTrace();  // Logging the SQL exception; the Pokémon will be fetched again next time
+        }
+    }
+
+    /**
+     * Writes the buffered Pokémon, then closes the local database and the remote service.
+     */
+    @Override
+    public void close() {
+        flush();
+        localService.close();
+        localWriter.close();
+        descriptionLoader.close();
+        remoteService.close();
+    }
+
+    /**
+     * Loads the descriptions of the Pokémon that have not loaded theirs yet, in parallel.
+     * A description that cannot be loaded in time is not written; the stored one, if any, is kept.
+     */
+    private void loadDescriptions(List<Pokemon> batch) {
+        List<CompletableFuture<String>> loads = new ArrayList<>();
+        for (Pokemon pokemon : batch) {
+            if (pokemon instanceof DetailedPokemon && !((DetailedPokemon) pokemon).isDescriptionLoaded()) {
+                loads.add(descriptionLoader.submit(((DetailedPokemon) pokemon)::getDescription));
+            }
+        }
+        try {
+            CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            System.err.println("Unable to load the descriptions to be stored: " + e.getCause());
+        }
+    }
+
+    private void enqueueWrites(List<Pokemon> fetched) {
+        boolean full;
+        synchronized (pendingWrites) {
+            for (Pokemon pokemon : fetched) {
+                pendingWrites.put(pokemon.getId(), pokemon);
+            }
+            full = pendingWrites.size() >= writeBatchSize;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Returns the IDs of the locally stored Pokémon whose copy is older than the maximum age.
+     */
+    private Set<Integer> findStaleIds(List<Pokemon> localPokemons) {
+        Set<Integer> staleIds = new LinkedHashSet<>();
+        if (maxAgeMillis <= 0 || localPokemons.isEmpty()) {
+            return staleIds;
+        }
+        List<Integer> localIds = new ArrayList<>(localPokemons.size());
+        for (Pokemon pokemon : localPokemons) {
+            localIds.add(pokemon.getId());
+        }
+        try {
+            long oldestFresh = System.currentTimeMillis() - maxAgeMillis;
+            for (Map.Entry<Integer, Long> entry : localWriter.getFetchTimes(localIds).entrySet()) {
+                if (entry.getValue() < oldestFresh) {
+                    staleIds.add(entry.getKey());
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();  // Logging the SQL exception; local copies are served as they are
+        }
+        return staleIds;
+    }
+
+    /**
+     * Keeps the description of a stale local copy when the fetched Pokémon has none, or has not
+     * loaded its own yet; the stale one then saves a request for the species document.
+     */
+    private static Pokemon keepDescription(Pokemon fetched, Pokemon stale) {
+        if (!(stale instanceof DetailedPokemon) || ((DetailedPokemon) stale).getDescription() == null) {
+            return fetched;
+        }
+        String staleDescription = ((DetailedPokemon) stale).getDescription();
+        if (!(fetched instanceof DetailedPokemon)) {
+            return new DetailedPokemon(fetched, staleDescription);
+        }
+        DetailedPokemon detailed = (DetailedPokemon) fetched;
+        if (detailed.isDescriptionLoaded()) {
+            return detailed.getDescription() != null ? fetched : new DetailedPokemon(fetched, staleDescription);
+        }
+        return new DetailedPokemon(fetched, () -> staleDescription, detailed::getEvolutionChain);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.pokedex.services;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side rate limiter following the token bucket algorithm.
+ * The bucket holds up to {@code burst} tokens and is refilled at {@code permitsPerSecond};
+ * each request takes a token, waiting for one if the bucket is empty. Short bursts therefore
+ * go through at once while the sustained rate never exceeds the configured one.
+ */
+public class TokenBucketRateLimiter {
+    private final double permitsPerNano;
+    private final double burst;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * Constructor for TokenBucketRateLimiter.
+     * The bucket starts full.
+     *
+     * @param permitsPerSecond The sustained rate, in requests per second.
+     * @param burst The number of requests allowed at once after an idle period.
+     */
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes a token, waiting until one is available or the deadline is reached.
+     * A token is reserved as soon as the wait is known to end before the deadline, so that
+     * concurrent callers are served in turn rather than all waking up at once.
+     *
+     * @param deadlineNanos The {@link System#nanoTime()} value after which the caller gives up.
+     * @return true if a token was taken, false if none would be available before the deadline.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public boolean acquire(long deadlineNanos) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = now;
+            waitNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / permitsPerNano);
+            if (now + waitNanos - deadlineNanos > 0) {
+                return false;
+            }
+            // The token may go negative: the debt is paid by the refill during the wait
+            tokens -= 1;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return true;
+    }
+}
@@ -1,15 +1,18 @@
 package com.example.pokedex.utilities;
 
+import com.example.pokedex.metrics.Metrics;
+
 /**
  * Utility class for console output in various formats.
  * This class is responsible for outputting data to the console in different formats,
- * such as text, HTML, or CSV, depending on the specified output format.
+ * such as text, HTML, CSV or JSON, depending on the specified output format.
  */
 public class ConsoleOutputUtility {
     private OutputFormat outputFormat;           // The desired output format
     private TextFormatGenerator textGenerator;   // Utility for generating text format
     private HtmlFormatGenerator htmlGenerator;   // Utility for generating HTML format
     private CsvFormatGenerator csvGenerator;     // Utility for generating CSV format
+    private JsonFormatGenerator jsonGenerator;   // Utility for generating JSON format
 
     /**
      * Constructor for ConsoleOutputUtility.
@@ -30,6 +33,25 @@ public class ConsoleOutputUtility {
         this.csvGenerator = csvGen;
     }
 
+    /**
+     * Constructor for ConsoleOutputUtility.
+     * Initializes the utility with specific format generators, JSON included.
+     *
+     * @param outputFormat The output format (TEXT, HTML, CSV, JSON).
+     * @param textGen The text format generator.
+     * @param htmlGen The HTML format generator.
+     * @param csvGen The CSV format generator.
+     * @param jsonGen The JSON format generator.
+     */
+    public ConsoleOutputUtility(OutputFormat outputFormat,
+                                TextFormatGenerator textGen,
+                                HtmlFormatGenerator htmlGen,
+                                CsvFormatGenerator csvGen,
+                                JsonFormatGenerator jsonGen) {
+        this(outputFormat, textGen, htmlGen, csvGen);
+        this.jsonGenerator = jsonGen;
+    }
+
     /**
      * Produces and prints the output in the designated format.
      * Depending on the output format set, this method will use the appropriate
@@ -38,6 +60,7 @@ public class ConsoleOutputUtility {
      * @throws IllegalArgumentException if an unknown output format is specified.
      */
     public void makeOutput() {
+        long start = Metrics.startTimer();
         switch (outputFormat) {
             case TEXT:
                 if (textGenerator != null) {
@@ -54,9 +77,15 @@ public class ConsoleOutputUtility {
                     System.out.println(csvGenerator.generateCSV());
                 }
                 break;
+            case JSON:
+                if (jsonGenerator != null) {
+                    System.out.println(jsonGenerator.generateJSON());
+                }
+                break;
             default:
                 // Handling unexpected output format
                 throw new IllegalArgumentException("Unknown output format");
         }
+        RenderMetrics.renderSeconds(outputFormat).recordSince(start);
     }
 }
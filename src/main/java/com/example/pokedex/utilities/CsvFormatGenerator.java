@@ -1,5 +1,7 @@
 package com.example.pokedex.utilities;
 
+import java.io.IOException;
+
 /**
  * Interface for generating CSV formatted data.
  * Implementing classes should provide the functionality to generate data in CSV format.
@@ -13,4 +15,51 @@ public interface CsvFormatGenerator {
      * @return A String representing the data in CSV format.
      */
     String generateCSV();
+
+    /**
+     * Generates the header line of the CSV representation, column names included.
+     * When several records are written to the same output, the header is written only once.
+     * The default implementation returns the first line of {@link #generateCSV()}.
+     *
+     * @return A String holding the CSV header line, terminated by a newline.
+     */
+    default String generateCSVHeader() {
+        String csv = generateCSV();
+        int endOfHeader = csv.indexOf('\n');
+        return endOfHeader < 0 ? "" : csv.substring(0, endOfHeader + 1);
+    }
+
+    /**
+     * Generates the data line(s) of the CSV representation, without the header.
+     * The default implementation returns {@link #generateCSV()} without its first line.
+     *
+     * @return A String holding the CSV data, terminated by a newline.
+     */
+    default String generateCSVRecord() {
+        String csv = generateCSV();
+        int endOfHeader = csv.indexOf('\n');
+        return endOfHeader < 0 ? csv : csv.substring(endOfHeader + 1);
+    }
+
+    /**
+     * Appends the CSV header line to the given output.
+     * The default implementation appends {@link #generateCSVHeader()}.
+     *
+     * @param out The output receiving the header.
+     * @throws IOException if the output cannot be written.
+     */
+    default void appendCSVHeader(Appendable out) throws IOException {
+        out.append(generateCSVHeader());
+    }
+
+    /**
+     * Appends the CSV data line(s) to the given output.
+     * The default implementation appends {@link #generateCSVRecord()}.
+     *
+     * @param out The output receiving the data.
+     * @throws IOException if the output cannot be written.
+     */
+    default void appendCSVRecord(Appendable out) throws IOException {
+        out.append(generateCSVRecord());
+    }
 }
@@ -1,5 +1,7 @@
 package com.example.pokedex.utilities;
 
+import java.io.IOException;
+
 /**
  * Interface for generating HTML formatted data.
  * Implementing classes should provide the functionality to generate data in HTML format.
@@ -13,4 +15,16 @@ public interface HtmlFormatGenerator {
      * @return A String representing the data in HTML format.
      */
     String generateHTML();
+
+    /**
+     * Appends the HTML representation to the given output.
+     * The default implementation appends {@link #generateHTML()}; implementing classes should
+     * override it to write directly into the output without intermediate strings.
+     *
+     * @param out The output receiving the HTML.
+     * @throws IOException if the output cannot be written.
+     */
+    default void appendHTML(Appendable out) throws IOException {
+        out.append(generateHTML());
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.pokedex.utilities;
+
+import java.io.IOException;
+
+/**
+ * Interface for generating JSON formatted data.
+ * Implementing classes should provide the functionality to generate data in JSON format.
+ */
+public interface JsonFormatGenerator {
+
+    /**
+     * Generates and returns a string in JSON format.
+     * This method is responsible for creating a JSON object representing the data.
+     *
+     * @return A String representing the data as a JSON object.
+     */
+    String generateJSON();
+
+    /**
+     * Appends the JSON representation to the given output.
+     * The default implementation appends {@link #generateJSON()}; implementing classes should
+     * override it to write directly into the output without intermediate strings.
+     *
+     * @param out The output receiving the JSON.
+     * @throws IOException if the output cannot be written.
+     */
+    default void appendJSON(Appendable out) throws IOException {
+        out.append(generateJSON());
+    }
+}
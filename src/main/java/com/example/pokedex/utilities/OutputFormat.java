@@ -3,7 +3,7 @@ package com.example.pokedex.utilities;
 /**
  * Enumeration of possible output formats.
  * This enum defines the different types of output formats that can be used
- * for displaying or exporting data, such as text, HTML, or CSV.
+ * for displaying or exporting data, such as text, HTML, CSV or JSON.
  */
 public enum OutputFormat {
     /**
@@ -23,5 +23,11 @@ public enum OutputFormat {
      * This format is used for data export and import, especially in spreadsheets and databases,
      * where data is separated by commas.
      */
-    CSV
+    CSV,
+
+    /**
+     * Represents a JSON (JavaScript Object Notation) output format.
+     * This format is intended for programs consuming the data, such as web clients.
+     */
+    JSON
 }
@@ -0,0 +1,97 @@
+package com.example.pokedex.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class parsing lists of Pokémon IDs, as given on the command line or in a request.
+ * A list is made of comma-separated items, each being a single ID ("25") or an inclusive
+ * range of IDs ("1-151"), for instance "1-3,25,150-151".
+ * A list describes at most {@link #MAX_IDS} IDs, so that a single request cannot ask for billions of them.
+ */
+public final class PokemonIdParser {
+    // Largest number of IDs a list may describe, far above the number of Pokémon and their forms
+    public static final int MAX_IDS = 100_000;
+
+    private PokemonIdParser() {
+    }
+
+    /**
+     * Parses a comma-separated list of IDs and ranges.
+     *
+     * @param spec The list to be parsed.
+     * @return The IDs described by the list, in order.
+     * @throws IllegalArgumentException if an item is neither an ID nor a valid range, or the list
+     *         describes more than {@link #MAX_IDS} IDs.
+     */
+    public static List<Integer> parse(String spec) {
+        List<Integer> ids = new ArrayList<>();
+        for (String item : spec.split(",")) {
+            parseItem(item.trim(), ids);
+        }
+        return ids;
+    }
+
+    /**
+     * Formats IDs as a list {@link #parse(String)} reads back, runs of consecutive IDs becoming ranges.
+     *
+     * @param ids The IDs to be formatted, in the order they are listed.
+     * @return The comma-separated list, such as "1-3,25".
+     */
+    public static String format(List<Integer> ids) {
+        StringBuilder spec = new StringBuilder();
+        int i = 0;
+        while (i < ids.size()) {
+            int fromId = ids.get(i);
+            int toId = fromId;
+            // Extends the run while the next ID follows the last one, without wrapping around at Integer.MAX_VALUE
+            while (i + 1 < ids.size() && toId != Integer.MAX_VALUE && ids.get(i + 1) == toId + 1) {
+                toId = ids.get(++i);
+            }
+            spec.append(spec.length() == 0 ? "" : ",").append(fromId);
+            if (toId != fromId) {
+                spec.append('-').append(toId);
+            }
+            i++;
+        }
+        return spec.toString();
+    }
+
+    /**
+     * Parses a single ID or an inclusive range of IDs and adds the IDs to the list.
+     */
+    private static void parseItem(String item, List<Integer> ids) {
+        int separator = item.indexOf('-', 1);
+        try {
+            if (separator < 0) {
+                checkSize(ids.size() + 1L);
+                ids.add(Integer.parseInt(item));
+                return;
+            }
+            int fromId = Integer.parseInt(item.substring(0, separator));
+            int toId = Integer.parseInt(item.substring(separator + 1));
+            if (fromId > toId) {
+                throw new IllegalArgumentException("'" + item + "' is not a valid range of pokemon IDs");
+            }
+            checkSize(ids.size() + ((long) toId - fromId + 1));
+            // Stopping at toId without incrementing past it, which would wrap around at Integer.MAX_VALUE
+            for (int id = fromId; ; id++) {
+                ids.add(id);
+                if (id == toId) {
+                    break;
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + item + "' is not a valid pokemon ID");
+        }
+    }
+
+    /**
+     * Rejects a list describing more than {@link #MAX_IDS} IDs.
+     */
+    private static void checkSize(long count) {
+        if (count > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " pokemon IDs can be requested at once");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.pokedex.utilities;
+
+import com.example.pokedex.metrics.LatencyHistogram;
+import com.example.pokedex.metrics.Metrics;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Timers of the rendering of Pokémon views, one per output format, shared by the console, streaming and HTTP outputs.
+ */
+public final class RenderMetrics {
+    private static final Map<OutputFormat, LatencyHistogram> RENDER_SECONDS = new EnumMap<>(OutputFormat.class);
+
+    static {
+        for (OutputFormat format : OutputFormat.values()) {
+            RENDER_SECONDS.put(format, Metrics.histogram("pokedex_render_seconds",
+                    "Time spent rendering views, by output format", "format", format.name().toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    private RenderMetrics() {
+    }
+
+    /**
+     * @return The render timer of an output format.
+     */
+    public static LatencyHistogram renderSeconds(OutputFormat format) {
+        return RENDER_SECONDS.get(format);
+    }
+}
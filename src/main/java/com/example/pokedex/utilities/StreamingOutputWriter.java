@@ -0,0 +1,208 @@
+package com.example.pokedex.utilities;
+
+import com.example.pokedex.metrics.Metrics;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writer streaming many records to an output in one of the supported formats.
+ * Unlike {@link ConsoleOutputUtility}, which prints a single view, this class has each view
+ * render straight into a buffered writer as soon as it is given, so that exporting a large
+ * number of records runs in constant memory. Format-level framing is written exactly once:
+ * the CSV header before the first record, which holds as the header of every record since all
+ * views of a stream write the same columns, the HTML document prologue and epilogue
+ * around all the records, and the brackets of the JSON array holding the records. The output is flushed every {@code flushInterval} records and when finished.
+ */
+public class StreamingOutputWriter implements Flushable, Closeable {
+    // Default number of records written between two flushes
+    public static final int DEFAULT_FLUSH_INTERVAL = 256;
+    // Size of the buffer placed in front of output streams, in characters
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String HTML_PROLOGUE = "<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n"
+            + "<title>Pokédex</title>\n</head>\n<body>\n";
+    private static final String HTML_EPILOGUE = "</body>\n</html>\n";
+
+    private final OutputFormat outputFormat;
+    private final Writer out;
+    private final int flushInterval;
+
+    private long recordCount;
+    private boolean started;
+    private boolean finished;
+
+    /**
+     * Constructor for StreamingOutputWriter.
+     * Encodes the output in UTF-8 through a buffered writer.
+     *
+     * @param outputFormat The output format (TEXT, HTML, CSV, JSON).
+     * @param out The stream receiving the output.
+     */
+    public StreamingOutputWriter(OutputFormat outputFormat, OutputStream out) {
+        this(outputFormat, new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE),
+                DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Constructor for StreamingOutputWriter.
+     *
+     * @param outputFormat The output format (TEXT, HTML, CSV, JSON).
+     * @param out The writer receiving the output; it should be buffered.
+     * @param flushInterval The number of records written between two flushes (0 or less flushes only when finished).
+     */
+    public StreamingOutputWriter(OutputFormat outputFormat, Writer out, int flushInterval) {
+        this.outputFormat = outputFormat;
+        this.out = out;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Writes one record, preceded by the format header if it is the first one.
+     *
+     * @param view The view rendering the record in every format.
+     * @throws IOException if the output cannot be written.
+     * @throws IllegalStateException if the writer has already been finished.
+     */
+    public <V extends TextFormatGenerator & HtmlFormatGenerator & CsvFormatGenerator & JsonFormatGenerator> void write(V view)
+            throws IOException {
+        if (finished) {
+            throw new IllegalStateException("The output has already been finished");
+        }
+        long start = Metrics.startTimer();
+        switch (outputFormat) {
+            case TEXT:
+                view.appendHumanReadableText(out);
+                break;
+            case HTML:
+                if (!started) {
+                    out.write(documentStart(outputFormat));
+                }
+                view.appendHTML(out);
+                break;
+            case CSV:
+                if (!started) {
+                    view.appendCSVHeader(out);
+                }
+                view.appendCSVRecord(out);
+                break;
+            case JSON:
+                out.write(started ? recordSeparator(outputFormat) : documentStart(outputFormat));
+                view.appendJSON(out);
+                break;
+            default:
+                // Handling unexpected output format
+                throw new IllegalArgumentException("Unknown output format");
+        }
+        // Flushes are left out, they are output time
+        RenderMetrics.renderSeconds(outputFormat).recordSince(start);
+        started = true;
+        recordCount++;
+        if (flushInterval > 0 && recordCount % flushInterval == 0) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes the format footer and flushes the output, leaving the underlying output open.
+     * This is the method to call when writing to {@code System.out}. Calling it again has no effect.
+     *
+     * @throws IOException if the output cannot be written.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (outputFormat == OutputFormat.HTML) {
+            if (!started) {
+                out.write(documentStart(outputFormat));
+            }
+            out.write(documentEnd(outputFormat));
+        } else if (outputFormat == OutputFormat.JSON) {
+            out.write(started ? documentEnd(outputFormat) : "[]\n");
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns the text written before the first record of a document, the CSV header aside.
+     *
+     * @param outputFormat The output format.
+     * @return The HTML prologue, the opening bracket of the JSON array, or an empty string.
+     */
+    public static String documentStart(OutputFormat outputFormat) {
+        switch (outputFormat) {
+            case HTML:
+                return HTML_PROLOGUE;
+            case JSON:
+                return "[\n";
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * Returns the text written between two records.
+     *
+     * @param outputFormat The output format.
+     * @return The comma separating JSON array elements, or an empty string.
+     */
+    public static String recordSeparator(OutputFormat outputFormat) {
+        return outputFormat == OutputFormat.JSON ? ",\n" : "";
+    }
+
+    /**
+     * Returns the text written after the last record of a document holding at least one record.
+     *
+     * @param outputFormat The output format.
+     * @return The HTML epilogue, the closing bracket of the JSON array, or an empty string.
+     */
+    public static String documentEnd(OutputFormat outputFormat) {
+        switch (outputFormat) {
+            case HTML:
+                return HTML_EPILOGUE;
+            case JSON:
+                return "\n]\n";
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * Flushes the records written so far.
+     *
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Finishes the output, then closes the underlying output.
+     *
+     * @throws IOException if the output cannot be written or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @return The number of records written so far.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+}
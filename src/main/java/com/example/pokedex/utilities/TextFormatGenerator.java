@@ -1,5 +1,7 @@
 package com.example.pokedex.utilities;
 
+import java.io.IOException;
+
 /**
  * Interface for generating human-readable text format.
  * Implementing classes should provide the functionality to generate data in a text format
@@ -15,4 +17,16 @@ public interface TextFormatGenerator {
      * @return A String representing the data in a human-readable text format.
      */
     String generateHumanReadableText();
+
+    /**
+     * Appends the human-readable text representation to the given output.
+     * The default implementation appends {@link #generateHumanReadableText()}; implementing
+     * classes should override it to write directly into the output without intermediate strings.
+     *
+     * @param out The output receiving the text.
+     * @throws IOException if the output cannot be written.
+     */
+    default void appendHumanReadableText(Appendable out) throws IOException {
+        out.append(generateHumanReadableText());
+    }
 }
@@ -2,59 +2,139 @@ package com.example.pokedex.views;
 
 import com.example.pokedex.models.DetailedPokemon;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * View class for presenting detailed Pokémon data in various formats.
- * This class extends PokemonView to include additional information, specifically a detailed description.
+ * This class extends PokemonView to include additional information, specifically a detailed description
+ * and the evolution chain, which are left out of the text and HTML outputs when they are unknown.
+ * Details loaded lazily by the data service, such as those of the PokeAPI which cost a request each,
+ * are only written once loaded, unless the view is asked to load them.
  */
 public class DetailedPokemonView extends PokemonView {
 
     private DetailedPokemon detailedPokemon;  // The detailed Pokémon data to be displayed
+    private final boolean loadDetails;        // Whether details not loaded yet are loaded to be written
 
     /**
      * Constructor for DetailedPokemonView.
-     * Initializes the view with a specific DetailedPokemon instance.
+     * Initializes the view with a specific DetailedPokemon instance, writing only the details already loaded.
      *
      * @param pokemon The DetailedPokemon object to be displayed.
      */
     public DetailedPokemonView(DetailedPokemon pokemon) {
+        this(pokemon, false);
+    }
+
+    /**
+     * Constructor for DetailedPokemonView.
+     * Initializes the view with a specific DetailedPokemon instance.
+     *
+     * @param pokemon The DetailedPokemon object to be displayed.
+     * @param loadDetails Whether the description and evolution chain are loaded when they have not been yet.
+     */
+    public DetailedPokemonView(DetailedPokemon pokemon, boolean loadDetails) {
         super(pokemon);
         this.detailedPokemon = pokemon;
+        this.loadDetails = loadDetails;
+    }
+
+    /**
+     * Appends the text lines of the Pokémon fields, followed by the description and the evolution chain.
+     *
+     * @param out The output receiving the fields.
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    protected void appendTextFields(Appendable out) throws IOException {
+        super.appendTextFields(out);
+        String description = description();
+        if (description != null) {
+            out.append("\nDescription : ").append(description);
+        }
+        List<String> evolutionChain = evolutionChain();
+        if (!evolutionChain.isEmpty()) {
+            out.append("\nÉvolutions : ").append(String.join(" > ", evolutionChain));
+        }
     }
 
     /**
-     * Generates a human-readable text representation of the detailed Pokémon data.
-     * This method adds the Pokémon's description to the text representation.
+     * Appends the HTML list items of the Pokémon fields, followed by the description and the evolution chain.
      *
-     * @return A string representing the detailed Pokémon data in a human-readable text format.
+     * @param out The output receiving the fields.
+     * @throws IOException if the output cannot be written.
      */
     @Override
-    public String generateHumanReadableText() {
-        String original = super.generateHumanReadableText();
-        return original.substring(0, original.lastIndexOf("\n============================="))
-                + "\nDescription : " + detailedPokemon.getDescription() + "\n=============================\n";
+    protected void appendHtmlFields(Appendable out) throws IOException {
+        super.appendHtmlFields(out);
+        String description = description();
+        if (description != null) {
+            out.append("<li>Description : ");
+            appendHtmlText(out, description);
+            out.append("</li>\n");
+        }
+        List<String> evolutionChain = evolutionChain();
+        if (!evolutionChain.isEmpty()) {
+            out.append("<li>Évolutions : ");
+            for (int i = 0; i < evolutionChain.size(); i++) {
+                if (i > 0) {
+                    out.append(" &gt; ");
+                }
+                appendHtmlText(out, evolutionChain.get(i));
+            }
+            out.append("</li>\n");
+        }
     }
 
     /**
-     * Generates an HTML representation of the detailed Pokémon data.
-     * This method adds the Pokémon's description to the HTML representation.
+     * Appends the CSV field of the description, empty when unknown.
      *
-     * @return A string representing the detailed Pokémon data in HTML format.
+     * @param out The output receiving the field.
+     * @throws IOException if the output cannot be written.
      */
     @Override
-    public String generateHTML() {
-        return super.generateHTML().substring(0, super.generateHTML().length() - 5) // Remove the closing </ul>
-                + "<li>Description : " + detailedPokemon.getDescription() + "</li>\n</ul>\n";
+    protected void appendCsvDescription(Appendable out) throws IOException {
+        appendCsvString(out, description());
     }
 
     /**
-     * Generates a CSV (Comma-Separated Values) representation of the detailed Pokémon data.
-     * This method adds the Pokémon's description to the CSV representation.
+     * Appends the JSON members of the Pokémon fields, followed by the description and the evolution chain.
      *
-     * @return A string representing the detailed Pokémon data in CSV format.
+     * @param out The output receiving the members.
+     * @throws IOException if the output cannot be written.
      */
     @Override
-    public String generateCSV() {
-        String[] rows = super.generateCSV().trim().split("\n");
-        return String.join("description;\n", rows) + ";\"" + detailedPokemon.getDescription() + "\"\n";
+    protected void appendJsonFields(Appendable out) throws IOException {
+        super.appendJsonFields(out);
+        out.append(",\"description\":");
+        appendJsonString(out, description());
+        List<String> evolutionChain = evolutionChain();
+        if (!evolutionChain.isEmpty()) {
+            out.append(",\"evolutionChain\":[");
+            for (int i = 0; i < evolutionChain.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                appendJsonString(out, evolutionChain.get(i));
+            }
+            out.append(']');
+        }
+    }
+
+    /**
+     * Returns the description to be written, or null if it is unknown or not loaded.
+     */
+    private String description() {
+        return loadDetails || detailedPokemon.isDescriptionLoaded() ? detailedPokemon.getDescription() : null;
+    }
+
+    /**
+     * Returns the evolution chain to be written, empty if it is unknown or not loaded.
+     */
+    private List<String> evolutionChain() {
+        return loadDetails || detailedPokemon.isEvolutionChainLoaded()
+                ? detailedPokemon.getEvolutionChain() : Collections.<String>emptyList();
     }
 }
@@ -2,15 +2,30 @@ package com.example.pokedex.views;
 
 import com.example.pokedex.utilities.CsvFormatGenerator;
 import com.example.pokedex.utilities.HtmlFormatGenerator;
+import com.example.pokedex.utilities.JsonFormatGenerator;
 import com.example.pokedex.utilities.TextFormatGenerator;
+import com.example.pokedex.models.BaseStats;
+import com.example.pokedex.models.DetailedPokemon;
 import com.example.pokedex.models.Pokemon;
+import com.example.pokedex.models.PokemonAbility;
+import com.example.pokedex.models.PokemonType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 /**
  * View class for presenting Pokémon data in various formats.
  * This class implements methods to represent Pokémon data as human-readable text,
- * HTML, and CSV formats.
+ * HTML, CSV and JSON formats.
+ * Every format is rendered into a caller-supplied output; the fields are written by
+ * overridable sections, so subclasses add their own fields without re-parsing this output.
+ * Types, base stats and abilities are only written for Pokémon whose data source provides them,
+ * except in CSV, where every record has the same columns and the missing values are left empty.
  */
-public class PokemonView implements TextFormatGenerator, HtmlFormatGenerator, CsvFormatGenerator {
+public class PokemonView implements TextFormatGenerator, HtmlFormatGenerator, CsvFormatGenerator, JsonFormatGenerator {
+    private static final String TEXT_SEPARATOR = "=============================";
+
     protected Pokemon pokemon;  // The Pokémon data to be displayed
 
     /**
@@ -23,6 +38,34 @@ public class PokemonView implements TextFormatGenerator, HtmlFormatGenerator, Cs
         this.pokemon = pokemon;
     }
 
+    /**
+     * Determines the appropriate view based on the type of Pokémon data.
+     * Details of a DetailedPokemon that are not loaded yet are left out rather than requested.
+     *
+     * @param pokemon The Pokémon to be displayed.
+     * @return A DetailedPokemonView for DetailedPokemon instances, a PokemonView otherwise.
+     */
+    public static PokemonView forPokemon(Pokemon pokemon) {
+        return forPokemon(pokemon, false);
+    }
+
+    /**
+     * Determines the appropriate view based on the type of Pokémon data.
+     *
+     * @param pokemon The Pokémon to be displayed.
+     * @param loadDetails Whether the details of a DetailedPokemon are loaded when they have not been yet,
+     *                    at the cost of requests to its data service; otherwise only loaded details are written.
+     * @return A DetailedPokemonView for DetailedPokemon instances, a PokemonView otherwise.
+     */
+    public static PokemonView forPokemon(Pokemon pokemon, boolean loadDetails) {
+        if (pokemon instanceof DetailedPokemon) {
+            // Use DetailedPokemonView for DetailedPokemon instances
+            return new DetailedPokemonView((DetailedPokemon) pokemon, loadDetails);
+        }
+        // Use PokemonView for other instances
+        return new PokemonView(pokemon);
+    }
+
     /**
      * Generates a human-readable text representation of the Pokémon data.
      *
@@ -30,12 +73,20 @@ public class PokemonView implements TextFormatGenerator, HtmlFormatGenerator, Cs
      */
     @Override
     public String generateHumanReadableText() {
-        return "=============================" +
-                "\nPokémon # " + pokemon.getId() +
-                "\nNom : " + pokemon.getName() +
-                "\nTaille : " + pokemon.getHeight() +
-                "\nPoids : " + pokemon.getWeight() +
-                "\n=============================\n";
+        return render(this::appendHumanReadableText);
+    }
+
+    /**
+     * Appends the human-readable text representation of the Pokémon data to the output.
+     *
+     * @param out The output receiving the text.
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    public void appendHumanReadableText(Appendable out) throws IOException {
+        out.append(TEXT_SEPARATOR);
+        appendTextFields(out);
+        out.append('\n').append(TEXT_SEPARATOR).append('\n');
     }
 
     /**
@@ -45,12 +96,22 @@ public class PokemonView implements TextFormatGenerator, HtmlFormatGenerator, Cs
      */
     @Override
     public String generateHTML() {
-        return "<h1>" + pokemon.getName() + "</h1>\n" +
-                "<ul>\n" +
-                "<li>Id : " + pokemon.getId() + "</li>\n" +
-                "<li>Taille : " + pokemon.getHeight() + "</li>\n" +
-                "<li>Poids : " + pokemon.getWeight() + "</li>\n" +
-                "</ul>\n";
+        return render(this::appendHTML);
+    }
+
+    /**
+     * Appends the HTML representation of the Pokémon data to the output.
+     *
+     * @param out The output receiving the HTML.
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    public void appendHTML(Appendable out) throws IOException {
+        out.append("<h1>");
+        appendHtmlText(out, pokemon.getName());
+        out.append("</h1>\n<ul>\n");
+        appendHtmlFields(out);
+        out.append("</ul>\n");
     }
 
     /**
@@ -60,10 +121,448 @@ public class PokemonView implements TextFormatGenerator, HtmlFormatGenerator, Cs
      */
     @Override
     public String generateCSV() {
-        return "Id;Name;Height;Weight;\n" +
-                pokemon.getId() + ";" +
-                "\"" + pokemon.getName() + "\";" +
-                pokemon.getHeight() + ";" +
-                pokemon.getWeight() + "\n";
+        return render(out -> {
+            appendCSVHeader(out);
+            appendCSVRecord(out);
+        });
+    }
+
+    /**
+     * Generates the CSV header line naming the Pokémon columns.
+     *
+     * @return The CSV header line.
+     */
+    @Override
+    public String generateCSVHeader() {
+        return render(this::appendCSVHeader);
+    }
+
+    /**
+     * Generates the CSV data line of the Pokémon.
+     *
+     * @return The CSV data line.
+     */
+    @Override
+    public String generateCSVRecord() {
+        return render(this::appendCSVRecord);
+    }
+
+    /**
+     * Appends the CSV header line naming the Pokémon columns to the output.
+     *
+     * @param out The output receiving the header.
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    public void appendCSVHeader(Appendable out) throws IOException {
+        appendCsvColumns(out);
+        out.append('\n');
+    }
+
+    /**
+     * Appends the CSV data line of the Pokémon to the output.
+     *
+     * @param out The output receiving the data.
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    public void appendCSVRecord(Appendable out) throws IOException {
+        appendCsvValues(out);
+        out.append('\n');
+    }
+
+    /**
+     * Generates a JSON representation of the Pokémon data.
+     *
+     * @return A string representing the Pokémon data as a JSON object.
+     */
+    @Override
+    public String generateJSON() {
+        return render(this::appendJSON);
+    }
+
+    /**
+     * Appends the JSON object representing the Pokémon data to the output.
+     *
+     * @param out The output receiving the JSON.
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    public void appendJSON(Appendable out) throws IOException {
+        out.append('{');
+        appendJsonFields(out);
+        out.append('}');
+    }
+
+    /**
+     * Appends the text lines of the Pokémon fields, each preceded by a newline.
+     *
+     * @param out The output receiving the fields.
+     * @throws IOException if the output cannot be written.
+     */
+    protected void appendTextFields(Appendable out) throws IOException {
+        out.append("\nPokémon # ");
+        appendInt(out, pokemon.getId());
+        out.append("\nNom : ").append(pokemon.getName());
+        out.append("\nTaille : ");
+        appendInt(out, pokemon.getHeight());
+        out.append("\nPoids : ");
+        appendInt(out, pokemon.getWeight());
+        if (!pokemon.getTypes().isEmpty()) {
+            out.append("\nTypes : ");
+            appendTypes(out, ", ", false);
+        }
+        if (pokemon.getBaseStats() != null) {
+            out.append("\nStatistiques : ");
+            appendStatsText(out, pokemon.getBaseStats());
+        }
+        if (!pokemon.getAbilities().isEmpty()) {
+            out.append("\nTalents : ");
+            appendAbilities(out, ", ", false);
+        }
+    }
+
+    /**
+     * Appends the HTML list items of the Pokémon fields.
+     *
+     * @param out The output receiving the fields.
+     * @throws IOException if the output cannot be written.
+     */
+    protected void appendHtmlFields(Appendable out) throws IOException {
+        out.append("<li>Id : ");
+        appendInt(out, pokemon.getId());
+        out.append("</li>\n<li>Taille : ");
+        appendInt(out, pokemon.getHeight());
+        out.append("</li>\n<li>Poids : ");
+        appendInt(out, pokemon.getWeight());
+        out.append("</li>\n");
+        if (!pokemon.getTypes().isEmpty()) {
+            out.append("<li>Types : ");
+            appendTypes(out, ", ", true);
+            out.append("</li>\n");
+        }
+        if (pokemon.getBaseStats() != null) {
+            out.append("<li>Statistiques : ");
+            appendStatsText(out, pokemon.getBaseStats());
+            out.append("</li>\n");
+        }
+        if (!pokemon.getAbilities().isEmpty()) {
+            out.append("<li>Talents : ");
+            appendAbilities(out, ", ", true);
+            out.append("</li>\n");
+        }
+    }
+
+    /**
+     * Appends the CSV column names, each followed by a separator.
+     *
+     * @param out The output receiving the column names.
+     * @throws IOException if the output cannot be written.
+     */
+    protected void appendCsvColumns(Appendable out) throws IOException {
+        out.append("Id;Name;Height;Weight;Types;Abilities;HP;Attack;Defense;SpecialAttack;SpecialDefense;Speed;description;");
+    }
+
+    /**
+     * Appends the CSV values of the Pokémon fields, separated by semicolons.
+     *
+     * @param out The output receiving the values.
+     * @throws IOException if the output cannot be written.
+     */
+    protected void appendCsvValues(Appendable out) throws IOException {
+        appendInt(out, pokemon.getId());
+        out.append(';');
+        appendCsvString(out, pokemon.getName());
+        out.append(';');
+        appendInt(out, pokemon.getHeight());
+        out.append(';');
+        appendInt(out, pokemon.getWeight());
+        out.append(";\"");
+        appendTypes(out, "/", false);
+        out.append("\";\"");
+        appendAbilities(out, "/", false);
+        out.append('"');
+        BaseStats stats = pokemon.getBaseStats();
+        if (stats == null) {
+            out.append(";;;;;;");
+        } else {
+            int[] values = {stats.getHp(), stats.getAttack(), stats.getDefense(),
+                    stats.getSpecialAttack(), stats.getSpecialDefense(), stats.getSpeed()};
+            for (int value : values) {
+                out.append(';');
+                appendInt(out, value);
+            }
+        }
+        out.append(';');
+        appendCsvDescription(out);
+    }
+
+    /**
+     * Appends the CSV field of the description, empty as a Pokémon has none.
+     * The column is written for every Pokémon so that records of any view match the same header.
+     *
+     * @param out The output receiving the field.
+     * @throws IOException if the output cannot be written.
+     */
+    protected void appendCsvDescription(Appendable out) throws IOException {
+        appendCsvString(out, null);
+    }
+
+    /**
+     * Appends the JSON members of the Pokémon fields, separated by commas.
+     *
+     * @param out The output receiving the members.
+     * @throws IOException if the output cannot be written.
+     */
+    protected void appendJsonFields(Appendable out) throws IOException {
+        out.append("\"id\":");
+        appendInt(out, pokemon.getId());
+        out.append(",\"name\":");
+        appendJsonString(out, pokemon.getName());
+        out.append(",\"height\":");
+        appendInt(out, pokemon.getHeight());
+        out.append(",\"weight\":");
+        appendInt(out, pokemon.getWeight());
+        if (!pokemon.getTypes().isEmpty()) {
+            out.append(",\"types\":[");
+            List<PokemonType> types = pokemon.getTypes();
+            for (int i = 0; i < types.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                appendJsonString(out, types.get(i).getName());
+            }
+            out.append(']');
+        }
+        BaseStats stats = pokemon.getBaseStats();
+        if (stats != null) {
+            out.append(",\"stats\":{\"hp\":");
+            appendInt(out, stats.getHp());
+            out.append(",\"attack\":");
+            appendInt(out, stats.getAttack());
+            out.append(",\"defense\":");
+            appendInt(out, stats.getDefense());
+            out.append(",\"specialAttack\":");
+            appendInt(out, stats.getSpecialAttack());
+            out.append(",\"specialDefense\":");
+            appendInt(out, stats.getSpecialDefense());
+            out.append(",\"speed\":");
+            appendInt(out, stats.getSpeed());
+            out.append('}');
+        }
+        if (!pokemon.getAbilities().isEmpty()) {
+            out.append(",\"abilities\":[");
+            List<PokemonAbility> abilities = pokemon.getAbilities();
+            for (int i = 0; i < abilities.size(); i++) {
+                out.append(i > 0 ? ",{\"name\":" : "{\"name\":");
+                appendJsonString(out, abilities.get(i).getName());
+                out.append(",\"hidden\":").append(abilities.get(i).isHidden() ? "true" : "false").append('}');
+            }
+            out.append(']');
+        }
+    }
+
+    /**
+     * Appends the names of the types of the Pokémon, in slot order, escaped for HTML if asked.
+     */
+    private void appendTypes(Appendable out, String separator, boolean html) throws IOException {
+        List<PokemonType> types = pokemon.getTypes();
+        for (int i = 0; i < types.size(); i++) {
+            if (i > 0) {
+                out.append(separator);
+            }
+            appendName(out, types.get(i).getName(), html);
+        }
+    }
+
+    /**
+     * Appends the names of the abilities of the Pokémon, in slot order, hidden ones marked as such,
+     * escaped for HTML if asked.
+     */
+    private void appendAbilities(Appendable out, String separator, boolean html) throws IOException {
+        List<PokemonAbility> abilities = pokemon.getAbilities();
+        for (int i = 0; i < abilities.size(); i++) {
+            if (i > 0) {
+                out.append(separator);
+            }
+            appendName(out, abilities.get(i).getName(), html);
+            if (abilities.get(i).isHidden()) {
+                out.append(" (caché)");
+            }
+        }
+    }
+
+    /**
+     * Appends a name read from the data source, escaped for HTML if asked.
+     */
+    private static void appendName(Appendable out, String name, boolean html) throws IOException {
+        if (html) {
+            appendHtmlText(out, name);
+        } else {
+            out.append(name);
+        }
+    }
+
+    /**
+     * Appends the base stats as a single line of labelled values.
+     */
+    private static void appendStatsText(Appendable out, BaseStats stats) throws IOException {
+        out.append("PV ");
+        appendInt(out, stats.getHp());
+        out.append(", Attaque ");
+        appendInt(out, stats.getAttack());
+        out.append(", Défense ");
+        appendInt(out, stats.getDefense());
+        out.append(", Attaque Spé. ");
+        appendInt(out, stats.getSpecialAttack());
+        out.append(", Défense Spé. ");
+        appendInt(out, stats.getSpecialDefense());
+        out.append(", Vitesse ");
+        appendInt(out, stats.getSpeed());
+        out.append(" (total ");
+        appendInt(out, stats.getTotal());
+        out.append(')');
+    }
+
+    /**
+     * Appends a JSON string literal, quotes included, escaping the characters JSON requires.
+     *
+     * @param out The output receiving the literal.
+     * @param value The string to be written, or null for the JSON null literal.
+     * @throws IOException if the output cannot be written.
+     */
+    protected static void appendJsonString(Appendable out, String value) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.append(c);
+                    }
+                    break;
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Appends a quoted CSV field, doubling the quotes it holds.
+     *
+     * @param out The output receiving the field.
+     * @param value The text to be written, or null for an empty field.
+     * @throws IOException if the output cannot be written.
+     */
+    protected static void appendCsvString(Appendable out, String value) throws IOException {
+        out.append('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    out.append('"');
+                }
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Appends text to an HTML document, escaping the characters that would be read as markup.
+     * Names and descriptions come from the data source, which may be a remote API.
+     *
+     * @param out The output receiving the text.
+     * @param value The text to be written.
+     * @throws IOException if the output cannot be written.
+     */
+    protected static void appendHtmlText(Appendable out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    out.append("&amp;");
+                    break;
+                case '<':
+                    out.append("&lt;");
+                    break;
+                case '>':
+                    out.append("&gt;");
+                    break;
+                case '"':
+                    out.append("&quot;");
+                    break;
+                default:
+                    out.append(c);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Appends the decimal representation of an integer without creating a String.
+     *
+     * @param out The output receiving the digits.
+     * @param value The integer to be written.
+     * @throws IOException if the output cannot be written.
+     */
+    protected static void appendInt(Appendable out, int value) throws IOException {
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(value);
+            return;
+        }
+        long remaining = value;
+        if (remaining < 0) {
+            out.append('-');
+            remaining = -remaining;
+        }
+        long divisor = 1;
+        while (divisor * 10 <= remaining) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + (remaining / divisor) % 10));
+        }
+    }
+
+    /**
+     * Renders a section into a new String.
+     */
+    private static String render(Section section) {
+        StringBuilder sb = new StringBuilder(128);
+        try {
+            section.appendTo(sb);
+        } catch (IOException e) {
+            // A StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A part of the rendered output.
+     */
+    private interface Section {
+        void appendTo(Appendable out) throws IOException;
     }
 }
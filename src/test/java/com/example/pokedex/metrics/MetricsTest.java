@@ -0,0 +1,47 @@
+package com.example.pokedex.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the export of histograms of sizes and of durations.
+ */
+class MetricsTest {
+
+    @Test
+    void exportsSizesAsRecorded() throws IOException {
+        LatencyHistogram sizes = Metrics.sizeHistogram("pokedex_test_batch_size", "Sizes of test batches");
+        sizes.record(3);
+        sizes.record(5);
+
+        StringBuilder prometheus = new StringBuilder();
+        Metrics.writePrometheus(prometheus);
+        StringBuilder summary = new StringBuilder();
+        Metrics.writeSummary(summary);
+
+        assertTrue(prometheus.toString().contains("pokedex_test_batch_size_sum 8\n"), prometheus.toString());
+        assertTrue(prometheus.toString().contains("pokedex_test_batch_size_count 2\n"));
+        assertTrue(summary.toString().contains("count=2 mean=4.0 p50=3 "), summary.toString());
+    }
+
+    @Test
+    void exportsDurationsInSeconds() throws IOException {
+        Metrics.histogram("pokedex_test_seconds", "Durations of test operations").record(2_000_000);
+
+        StringBuilder prometheus = new StringBuilder();
+        Metrics.writePrometheus(prometheus);
+
+        assertTrue(prometheus.toString().contains("pokedex_test_seconds_sum 0.002\n"), prometheus.toString());
+    }
+
+    @Test
+    void rejectsASizeHistogramRegisteredForDurations() {
+        Metrics.histogram("pokedex_test_mixed", "Durations registered first");
+
+        assertThrows(IllegalArgumentException.class, () -> Metrics.sizeHistogram("pokedex_test_mixed", "Sizes"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.pokedex.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the concurrency limit of the lookup executor, whichever threads the runtime provides.
+ */
+class AsyncLookupExecutorTest {
+
+    @Test
+    void runsNoMoreLookupsAtOnceThanTheLimit() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Integer>> lookups = new ArrayList<>();
+
+        try (AsyncLookupExecutor executor = new AsyncLookupExecutor(2, 10_000)) {
+            for (int i = 0; i < 10; i++) {
+                int id = i;
+                lookups.add(executor.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                    return id;
+                }));
+            }
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i, lookups.get(i).join());
+            }
+        }
+
+        assertEquals(2, maxRunning.get());
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.Pokemon;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests of the read-through cache: hits, least-recently-used eviction, expiry of cached misses,
+ * and failed lookups being left out of the cache.
+ */
+class CachingPokemonDataServiceTest {
+
+    @Test
+    void answersRepeatedLookupsFromTheCache() {
+        CountingService delegate = new CountingService(10);
+        CachingPokemonDataService cache = new CachingPokemonDataService(delegate, 100, 60_000, 60_000);
+
+        assertEquals("pokemon-1", cache.getPokemonById(1).getName());
+        assertEquals("pokemon-1", cache.getPokemonById(1).getName());
+
+        assertEquals(1, delegate.calls.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void fetchesOnlyTheMissingIdsOfABatch() {
+        CountingService delegate = new CountingService(10);
+        CachingPokemonDataService cache = new CachingPokemonDataService(delegate, 100, 60_000, 60_000);
+        cache.getPokemonById(2);
+
+        List<Pokemon> pokemons = cache.getPokemonByIds(Arrays.asList(1, 2, 3));
+
+        assertEquals(Arrays.asList(1, 2, 3), TestPokemons.ids(pokemons));
+        assertEquals(Arrays.asList(1, 3), delegate.lastBatch);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        CountingService delegate = new CountingService(10);
+        CachingPokemonDataService cache = new CachingPokemonDataService(delegate, 2, 60_000, 60_000);
+        cache.getPokemonById(1);
+        cache.getPokemonById(2);
+        cache.getPokemonById(1);  // 2 is now the least recently used
+        cache.getPokemonById(3);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        int calls = delegate.calls.get();
+        cache.getPokemonById(1);
+        assertEquals(calls, delegate.calls.get());
+        cache.getPokemonById(2);
+        assertEquals(calls + 1, delegate.calls.get());
+    }
+
+    @Test
+    void cachedMissesExpireAfterTheirTimeToLive() throws InterruptedException {
+        CountingService delegate = new CountingService(10);
+        CachingPokemonDataService cache = new CachingPokemonDataService(delegate, 100, 60_000, 50);
+
+        assertNull(cache.getPokemonById(42));
+        int calls = delegate.calls.get();
+        assertNull(cache.getPokemonById(42));
+        assertEquals(calls, delegate.calls.get(), "a recent miss is answered from the cache");
+
+        Thread.sleep(120);
+        assertNull(cache.getPokemonById(42));
+        assertEquals(calls + 1, delegate.calls.get(), "an expired miss is looked up again");
+    }
+
+    @Test
+    void doesNotCacheFailedLookups() {
+        CountingService delegate = new CountingService(10);
+        CachingPokemonDataService cache = new CachingPokemonDataService(delegate, 100, 60_000, 60_000);
+        delegate.failing = true;
+
+        List<Integer> failedIds = new ArrayList<>();
+        assertEquals(0, cache.getPokemonByIds(Arrays.asList(1, 2), failedIds).size());
+        assertEquals(Arrays.asList(1, 2), failedIds);
+        assertNull(cache.getPokemonById(3));
+        assertEquals(0, cache.size());
+
+        delegate.failing = false;
+        assertEquals(Arrays.asList(1, 2), TestPokemons.ids(cache.getPokemonByIds(Arrays.asList(1, 2))));
+        assertNotNull(cache.getPokemonById(3));
+    }
+
+    @Test
+    void loadsAMissWithOneCall() {
+        CountingService delegate = new CountingService(10);
+        CachingPokemonDataService cache = new CachingPokemonDataService(delegate, 100, 60_000, 60_000);
+
+        assertNull(cache.getPokemonById(42));
+        assertNotNull(cache.getPokemonById(1));
+
+        assertEquals(2, delegate.calls.get());
+        assertEquals(2, cache.getLoadCount());
+    }
+
+    @Test
+    void cachesMissesOfAsynchronousLookups() throws Exception {
+        CountingService delegate = new CountingService(10);
+        CachingPokemonDataService cache = new CachingPokemonDataService(delegate, 100, 60_000, 60_000);
+
+        assertNull(cache.getPokemonByIdAsync(42).get());
+        assertEquals(1, delegate.calls.get());
+        assertNull(cache.getPokemonByIdAsync(42).get());
+        assertEquals(1, delegate.calls.get());
+    }
+
+    @Test
+    void doesNotCacheFailedAsynchronousLookups() throws Exception {
+        CountingService delegate = new CountingService(10);
+        CachingPokemonDataService cache = new CachingPokemonDataService(delegate, 100, 60_000, 60_000);
+        delegate.failing = true;
+
+        assertNull(cache.getPokemonByIdAsync(1).get());
+        delegate.failing = false;
+        assertNotNull(cache.getPokemonByIdAsync(1).get());
+        assertEquals(2, delegate.calls.get());
+    }
+
+    /**
+     * Service holding the Pokémon 1 to {@code count}, counting its calls, whose lookups can be made to fail;
+     * like the real services, a failed single lookup returns null.
+     */
+    private static class CountingService implements PokemonDataService {
+        private final int count;
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean failing;
+        private volatile List<Integer> lastBatch;
+
+        CountingService(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public Pokemon getPokemonById(int id) {
+            calls.incrementAndGet();
+            return failing || id > count ? null : new Pokemon(id, "pokemon-" + id, 1, 1);
+        }
+
+        @Override
+        public List<Pokemon> getPokemonByIds(Collection<Integer> ids) {
+            return getPokemonByIds(ids, new ArrayList<>());
+        }
+
+        @Override
+        public List<Pokemon> getPokemonByIds(Collection<Integer> ids, Collection<Integer> failedIds) {
+            calls.incrementAndGet();
+            lastBatch = new ArrayList<>(ids);
+            List<Pokemon> pokemons = new ArrayList<>();
+            Set<Integer> seen = new HashSet<>();
+            for (int id : ids) {
+                if (!seen.add(id)) {
+                    continue;
+                }
+                if (failing) {
+                    failedIds.add(id);
+                } else if (id <= count) {
+                    pokemons.add(new Pokemon(id, "pokemon-" + id, 1, 1));
+                }
+            }
+            return pokemons;
+        }
+    }
+}
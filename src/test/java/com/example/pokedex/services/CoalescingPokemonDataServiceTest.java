@@ -0,0 +1,106 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.Pokemon;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the coalescing dispatcher: concurrent lookups of the same ID share one fetch, and
+ * lookups made during a window are fetched in one batch.
+ */
+class CoalescingPokemonDataServiceTest {
+
+    @Test
+    void fetchesAnIdLookedUpConcurrentlyOnce() throws Exception {
+        BlockingService delegate = new BlockingService();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try (CoalescingPokemonDataService service = new CoalescingPokemonDataService(delegate, 0, 64)) {
+            List<Future<Pokemon>> lookups = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                lookups.add(callers.submit(() -> service.getPokemonById(7)));
+            }
+            // Every caller has joined the fetch held by the underlying service
+            assertTrue(delegate.entered.await(10, TimeUnit.SECONDS));
+            while (service.getCoalescedCount() < 7) {
+                Thread.sleep(1);
+            }
+            delegate.release.countDown();
+
+            for (Future<Pokemon> lookup : lookups) {
+                assertEquals(7, lookup.get(10, TimeUnit.SECONDS).getId());
+            }
+            assertEquals(Collections.singletonList(Collections.singletonList(7)), delegate.batches);
+            assertEquals(8, service.getRequestCount());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void batchesTheLookupsOfAWindow() {
+        BlockingService delegate = new BlockingService();
+        delegate.release.countDown();
+        try (CoalescingPokemonDataService service = new CoalescingPokemonDataService(delegate, 200_000, 64)) {
+            List<CompletableFuture<Pokemon>> lookups = new ArrayList<>();
+            for (int id : Arrays.asList(3, 1, 2, 1, 404)) {
+                lookups.add(service.getPokemonByIdAsync(id));
+            }
+
+            assertEquals(3, lookups.get(0).join().getId());
+            assertEquals(1, lookups.get(3).join().getId());
+            assertNull(lookups.get(4).join());
+            assertEquals(Collections.singletonList(Arrays.asList(3, 1, 2, 404)), delegate.batches);
+            assertEquals(1, service.getBatchCount());
+            assertEquals(4, service.getBatchedIdCount());
+        }
+    }
+
+    /**
+     * Service holding the Pokémon 1 to 100, recording its batches, whose fetches wait until released.
+     */
+    private static class BlockingService implements PokemonDataService {
+        private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public Pokemon getPokemonById(int id) {
+            List<Pokemon> pokemons = getPokemonByIds(Collections.singletonList(id));
+            return pokemons.isEmpty() ? null : pokemons.get(0);
+        }
+
+        @Override
+        public List<Pokemon> getPokemonByIds(Collection<Integer> ids) {
+            batches.add(new ArrayList<>(ids));
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<Pokemon> pokemons = new ArrayList<>();
+            for (int id : ids) {
+                if (id <= 100) {
+                    pokemons.add(new Pokemon(id, "pokemon-" + id, 1, 1));
+                }
+            }
+            return pokemons;
+        }
+    }
+}
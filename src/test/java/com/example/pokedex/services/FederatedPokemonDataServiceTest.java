@@ -0,0 +1,118 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.Pokemon;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the federated data service: hedging of a slow source, fallthrough of a source with
+ * no answer, and queries over the sources able to run them.
+ */
+class FederatedPokemonDataServiceTest {
+
+    @Test
+    void hedgesASlowPrimarySource() {
+        DelayedService primary = new DelayedService("primary", 5_000);
+        DelayedService secondary = new DelayedService("secondary", 0);
+
+        try (FederatedPokemonDataService service = new FederatedPokemonDataService(
+                Arrays.asList(primary, secondary), 0.95, 10, 50)) {
+            long start = System.nanoTime();
+            Pokemon pokemon = service.getPokemonById(25);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertEquals("secondary-25", pokemon.getName());
+            assertEquals(1, primary.calls.get());
+            assertEquals(1, secondary.calls.get());
+            assertTrue(elapsedMillis < 2_000, "the lookup waited " + elapsedMillis + " ms for the slow source");
+        }
+    }
+
+    @Test
+    void asksTheNextSourceAtOnceWhenThePrimaryHasNoAnswer() {
+        DelayedService primary = new DelayedService(null, 0);
+        DelayedService secondary = new DelayedService("secondary", 0);
+
+        try (FederatedPokemonDataService service = new FederatedPokemonDataService(
+                Arrays.asList(primary, secondary), 0.95, 5_000, 5_000)) {
+            long start = System.nanoTime();
+            Pokemon pokemon = service.getPokemonById(25);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertEquals("secondary-25", pokemon.getName());
+            assertTrue(elapsedMillis < 2_000, "the lookup waited " + elapsedMillis + " ms for the hedge delay");
+        }
+    }
+
+    @Test
+    void queriesOnlyTheSourcesSupportingQueries() {
+        InMemoryPokemonService local = InMemoryPokemonService.of(Arrays.asList(
+                new Pokemon(1, "bulbasaur", 7, 69), new Pokemon(3, "venusaur", 20, 1000)));
+        InMemoryPokemonService other = InMemoryPokemonService.of(Arrays.asList(
+                new Pokemon(3, "venusaur", 20, 1000), new Pokemon(6, "charizard", 17, 905)));
+
+        try (FederatedPokemonDataService service = new FederatedPokemonDataService(
+                Arrays.asList(new RemoteService(), local, other))) {
+            List<Pokemon> found = new ArrayList<>();
+
+            assertTrue(service.supportsQueries());
+            assertEquals(2, service.findPokemon(PokemonQuery.weightBetween(500, 2000), found::add));
+            assertEquals(Arrays.asList(3, 6), TestPokemons.ids(found));
+        }
+    }
+
+    @Test
+    void cannotBeQueriedWithoutALocalSource() {
+        try (FederatedPokemonDataService service = new FederatedPokemonDataService(
+                Collections.singletonList(new RemoteService()))) {
+            assertFalse(service.supportsQueries());
+            assertFalse(new CachingPokemonDataService(service).supportsQueries());
+        }
+    }
+
+    /**
+     * Source answering every lookup after a delay, counting them.
+     */
+    private static class DelayedService implements PokemonDataService {
+        private final String prefix;  // null to find no Pokémon
+        private final long delayMillis;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        DelayedService(String prefix, long delayMillis) {
+            this.prefix = prefix;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public Pokemon getPokemonById(int id) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            return prefix == null ? null : new Pokemon(id, prefix + "-" + id, 1, 1);
+        }
+    }
+
+    /**
+     * Source answering lookups by ID only, like a PokeAPI mirror.
+     */
+    private static class RemoteService implements PokemonDataService {
+        @Override
+        public Pokemon getPokemonById(int id) {
+            return new Pokemon(id, "pokemon-" + id, 1, 1);
+        }
+    }
+}
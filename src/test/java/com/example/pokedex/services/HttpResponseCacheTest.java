@@ -0,0 +1,145 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.Pokemon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the store of response bodies, and of the PokeAPI service answering from it.
+ */
+class HttpResponseCacheTest {
+    private static final String URL = "https://pokeapi.co/api/v2/pokemon/1";
+    private static final byte[] BODY = "{\"id\":1,\"name\":\"bulbasaur\",\"height\":7,\"weight\":69}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackAStoredResponseFromItsIndexFile() throws IOException {
+        new HttpResponseCache(directory).store(URL, BODY, "\"v1\"", "Wed, 21 Oct 2015 07:28:00 GMT", "max-age=60");
+
+        HttpResponseCache.Entry entry = new HttpResponseCache(directory).lookup(URL);
+
+        assertNotNull(entry);
+        assertEquals(URL, entry.getUrl());
+        assertEquals("\"v1\"", entry.getEtag());
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", entry.getLastModified());
+        assertEquals(BODY.length, entry.getBodyLength());
+        try (InputStream body = new HttpResponseCache(directory).openBody(entry)) {
+            assertEquals(new String(BODY, StandardCharsets.UTF_8), new String(HttpResponseCache.readFully(body), StandardCharsets.UTF_8));
+        }
+        assertNull(new HttpResponseCache(directory).lookup(URL + "0"));
+    }
+
+    @Test
+    void storesIdenticalBodiesOnce() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(directory);
+        HttpResponseCache.Entry first = cache.store(URL, BODY, null, null, null);
+        HttpResponseCache.Entry second = cache.store(URL + "/copy", BODY, null, null, null);
+
+        assertEquals(first.getBodyHash(), second.getBodyHash());
+        assertEquals(1, countFiles(directory.resolve("objects")));
+        assertEquals(2, cache.getEntries().size());
+    }
+
+    @Test
+    void forgetsNoStoreResponses() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(directory);
+        cache.store(URL, BODY, "\"v1\"", null, null);
+
+        assertNull(cache.store(URL, BODY, "\"v2\"", null, "private, no-store"));
+        assertNull(cache.lookup(URL));
+        assertEquals(0, cache.getEntries().size());
+    }
+
+    @Test
+    void keepsResponsesFreshForTheirMaxAge() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(directory);
+        long now = System.currentTimeMillis();
+
+        HttpResponseCache.Entry maxAge = cache.store(URL, BODY, null, null, "public, max-age=60");
+        assertTrue(maxAge.isFresh(now));
+        assertFalse(maxAge.isFresh(now + 61_000));
+        // A second later, well within the max-age of 60 seconds
+        assertFalse(cache.store(URL, BODY, null, null, "max-age=60, no-cache").isFresh(now + 1_000));
+        assertFalse(cache.store(URL, BODY, null, null, null).isFresh(now + 1_000));
+        assertFalse(cache.store(URL, BODY, null, null, "max-age=soon").isFresh(now + 1_000));
+    }
+
+    @Test
+    void refreshesARevalidatedResponse() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(directory);
+        HttpResponseCache.Entry stale = cache.store(URL, BODY, "\"v1\"", null, "no-cache");
+
+        HttpResponseCache.Entry refreshed = cache.refresh(stale, null, null, "max-age=60");
+
+        assertTrue(refreshed.isFresh(System.currentTimeMillis()));
+        assertEquals("\"v1\"", refreshed.getEtag());
+        assertEquals(stale.getBodyHash(), cache.lookup(URL).getBodyHash());
+        assertTrue(cache.lookup(URL).isFresh(System.currentTimeMillis()));
+    }
+
+    @Test
+    void servesANotModifiedAnswerFromTheCache() throws IOException {
+        try (PokeApiTestServer server = new PokeApiTestServer()) {
+            server.putPokemon(1, "bulbasaur", 7, 69);
+            server.setCacheControl("no-cache");
+            try (PokeApiService service = new PokeApiService(server.getApiUrl(), null, null, new HttpResponseCache(directory))) {
+                assertEquals("bulbasaur", service.getPokemonById(1).getName());
+                Pokemon revalidated = service.getPokemonById(1);
+
+                assertNotNull(revalidated);
+                assertEquals("bulbasaur", revalidated.getName());
+                assertEquals(69, revalidated.getWeight());
+                assertEquals(2, server.getRequestCount());
+                assertEquals(1, server.getNotModifiedCount());
+            }
+        }
+    }
+
+    @Test
+    void servesAFreshResponseWithoutARequest() throws IOException {
+        try (PokeApiTestServer server = new PokeApiTestServer()) {
+            server.putPokemon(1, "bulbasaur", 7, 69);
+            server.setCacheControl("max-age=60");
+            try (PokeApiService service = new PokeApiService(server.getApiUrl(), null, null, new HttpResponseCache(directory))) {
+                service.getPokemonById(1);
+                assertEquals("bulbasaur", service.getPokemonById(1).getName());
+                assertEquals(1, server.getRequestCount());
+            }
+        }
+    }
+
+    @Test
+    void answersOfflineFromStoredResponsesOnly() throws IOException {
+        new HttpResponseCache(directory).store(PokeApiService.DEFAULT_API_URL + 1, BODY, "\"v1\"", null, "no-cache");
+
+        try (PokeApiService service = new PokeApiService(PokeApiService.DEFAULT_API_URL, null, null,
+                new HttpResponseCache(directory, true))) {
+            assertEquals("bulbasaur", service.fetchPokemon(1).getName());
+            PokeApiException failure = assertThrows(PokeApiException.class, () -> service.fetchPokemon(2));
+            assertEquals(PokeApiException.Reason.NOT_CACHED, failure.getReason());
+        }
+    }
+
+    private static long countFiles(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests of the columnar in-memory service, on dense IDs (direct mapping) and sparse IDs (binary search).
+ */
+class InMemoryPokemonServiceTest {
+
+    @Test
+    void returnsTheHeldPokemonById() {
+        InMemoryPokemonService service = InMemoryPokemonService.of(Arrays.asList(
+                new Pokemon(2, "ivysaur", 10, 130),
+                new DetailedPokemon(1, "bulbasaur", 7, 69, "A strange seed was planted on its back at birth.")));
+
+        assertEquals(2, service.size());
+        Pokemon bulbasaur = service.getPokemonById(1);
+        assertEquals("bulbasaur", bulbasaur.getName());
+        assertEquals(7, bulbasaur.getHeight());
+        assertEquals(69, bulbasaur.getWeight());
+        assertEquals("A strange seed was planted on its back at birth.",
+                assertInstanceOf(DetailedPokemon.class, bulbasaur).getDescription());
+        Pokemon ivysaur = service.getPokemonById(2);
+        assertEquals("ivysaur", ivysaur.getName());
+        assertFalse(ivysaur instanceof DetailedPokemon);
+        assertNull(service.getPokemonById(0));
+        assertNull(service.getPokemonById(3));
+    }
+
+    @Test
+    void findsSparseIds() {
+        InMemoryPokemonService service = InMemoryPokemonService.of(Arrays.asList(
+                new Pokemon(1000, "c", 3, 3), new Pokemon(1, "a", 1, 1), new Pokemon(5, "b", 2, 2)));
+
+        assertEquals("a", service.getPokemonById(1).getName());
+        assertEquals("b", service.getPokemonById(5).getName());
+        assertEquals("c", service.getPokemonById(1000).getName());
+        assertNull(service.getPokemonById(4));
+        assertNull(service.getPokemonById(999));
+        assertNull(service.getPokemonById(1001));
+        assertEquals(Arrays.asList(5, 1000), TestPokemons.ids(service.getPokemonByRange(2, 2000)));
+    }
+
+    @Test
+    void keepsTheLastPokemonOfADuplicatedId() {
+        InMemoryPokemonService service = InMemoryPokemonService.of(Arrays.asList(
+                new Pokemon(1, "old", 1, 1), new Pokemon(1, "new", 2, 2)));
+
+        assertEquals(1, service.size());
+        assertEquals("new", service.getPokemonById(1).getName());
+    }
+
+    @Test
+    void returnsRangesInIdOrder() {
+        List<Pokemon> pokemons = new ArrayList<>();
+        for (int id = 10; id >= 1; id--) {
+            pokemons.add(new Pokemon(id, "pokemon-" + id, id, id * 10));
+        }
+        InMemoryPokemonService service = InMemoryPokemonService.of(pokemons);
+
+        assertEquals(Arrays.asList(3, 4, 5), TestPokemons.ids(service.getPokemonByRange(3, 5)));
+        assertEquals(Arrays.asList(9, 10), TestPokemons.ids(service.getPokemonByRange(9, 20)));
+        assertEquals(Collections.emptyList(), TestPokemons.ids(service.getPokemonByRange(11, 20)));
+    }
+
+    @Test
+    void findsPokemonMatchingAQuery() {
+        List<Pokemon> pokemons = new ArrayList<>();
+        for (int id = 1; id <= 10; id++) {
+            pokemons.add(new Pokemon(id, "pokemon-" + id, id, id * 10));
+        }
+        InMemoryPokemonService service = InMemoryPokemonService.of(pokemons);
+
+        List<Pokemon> found = new ArrayList<>();
+        int count = service.findPokemon(PokemonQuery.heightBetween(3, 8).andWeightBetween(50, 1000), found::add);
+
+        assertEquals(4, count);
+        assertEquals(Arrays.asList(5, 6, 7, 8), TestPokemons.ids(found));
+    }
+
+    @Test
+    void holdsNoPokemonWhenEmpty() {
+        InMemoryPokemonService service = InMemoryPokemonService.of(Collections.emptyList());
+
+        assertEquals(0, service.size());
+        assertNull(service.getPokemonById(1));
+        assertEquals(Collections.emptyList(), service.getPokemonByRange(1, 10));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.Pokemon;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the lookups of the PokeAPI service against a local server: batches, retries of
+ * rate-limited and failed requests, and the circuit breaker.
+ */
+class PokeApiServiceTest {
+
+    private PokeApiTestServer server;
+    private PokeApiService service;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new PokeApiTestServer();
+        for (int id = 1; id <= 20; id++) {
+            server.putPokemon(id, "pokemon-" + id, id, id * 10);
+        }
+        service = new PokeApiService(server.getApiUrl());
+    }
+
+    @AfterEach
+    void stop() {
+        service.close();
+        server.close();
+    }
+
+    @Test
+    void returnsABatchInTheOrderOfTheRequestedIds() {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 25; id >= 1; id--) {
+            ids.add(id);
+        }
+        List<Integer> failedIds = new ArrayList<>();
+
+        // Several batches reuse the executor of the service
+        for (int batch = 0; batch < 3; batch++) {
+            List<Integer> expected = new ArrayList<>();
+            for (int id = 20; id >= 1; id--) {
+                expected.add(id);
+            }
+            assertEquals(expected, TestPokemons.ids(service.getPokemonByIds(ids, failedIds)));
+        }
+        assertTrue(failedIds.isEmpty(), "unknown IDs are not failures");
+    }
+
+    @Test
+    void waitsForRetryAfterBeforeRetryingARateLimitedRequest() throws PokeApiException {
+        try (PokeApiService service = newService(new RetryPolicy(3, 10, 100), new CircuitBreaker())) {
+            server.failNextRequests(1, 429, "1");
+            long start = System.nanoTime();
+
+            Pokemon pokemon = service.fetchPokemon(1);
+
+            assertEquals("pokemon-1", pokemon.getName());
+            assertEquals(2, server.getRequestCount());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 1_000,
+                    "the retry waits for the delay asked by the server, not the 100 ms backoff ceiling");
+        }
+    }
+
+    @Test
+    void retriesServerErrors() throws PokeApiException {
+        try (PokeApiService service = newService(new RetryPolicy(3, 10, 100), new CircuitBreaker())) {
+            server.failNextRequests(2, 503, null);
+
+            assertNotNull(service.fetchPokemon(1));
+            assertEquals(3, server.getRequestCount());
+            assertEquals(CircuitBreaker.State.CLOSED, service.getCircuitState());
+        }
+    }
+
+    @Test
+    void reportsTheLookupAsFailedOnceTheRetriesAreSpent() {
+        try (PokeApiService service = newService(new RetryPolicy(2, 10, 100), new CircuitBreaker())) {
+            server.failNextRequests(3, 500, null);
+            List<Integer> failedIds = new ArrayList<>();
+
+            assertTrue(service.getPokemonByIds(Collections.singletonList(1), failedIds).isEmpty());
+            assertEquals(Collections.singletonList(1), failedIds);
+            assertEquals(3, server.getRequestCount());
+        }
+    }
+
+    @Test
+    void failsFastOnceTheCircuitIsOpen() {
+        try (PokeApiService service = newService(new RetryPolicy(0, 10, 100), new CircuitBreaker(2, 60_000))) {
+            server.failNextRequests(2, 500, null);
+            for (int id = 1; id <= 2; id++) {
+                int failingId = id;
+                PokeApiException failure = assertThrows(PokeApiException.class, () -> service.fetchPokemon(failingId));
+                assertEquals(PokeApiException.Reason.SERVER_ERROR, failure.getReason());
+            }
+            assertEquals(CircuitBreaker.State.OPEN, service.getCircuitState());
+
+            PokeApiException failure = assertThrows(PokeApiException.class, () -> service.fetchPokemon(3));
+            assertEquals(PokeApiException.Reason.CIRCUIT_OPEN, failure.getReason());
+            assertEquals(2, server.getRequestCount(), "no request is sent while the circuit is open");
+        }
+    }
+
+    @Test
+    void returnsEachRequestedIdOnce() {
+        List<Pokemon> pokemons = service.getPokemonByIds(Arrays.asList(3, 3, 4));
+
+        assertEquals(Arrays.asList(3, 4), TestPokemons.ids(pokemons));
+    }
+
+    private PokeApiService newService(RetryPolicy retryPolicy, CircuitBreaker circuitBreaker) {
+        return new PokeApiService(server.getApiUrl(), PokeApiService.DEFAULT_MAX_PARALLELISM,
+                PokeApiService.DEFAULT_MAX_CONNECTIONS_PER_ROUTE, PokeApiService.DEFAULT_CONNECT_TIMEOUT_MILLIS,
+                PokeApiService.DEFAULT_SOCKET_TIMEOUT_MILLIS, PokeApiService.DEFAULT_KEEP_ALIVE_MILLIS,
+                new AsyncLookupExecutor(), retryPolicy, PokeApiService.DEFAULT_REQUEST_DEADLINE_MILLIS, null,
+                circuitBreaker, null);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.pokedex.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loopback HTTP server standing in for the pokemon endpoint of the PokeAPI in tests.
+ * It serves the documents it is given, with an ETag derived from their content, and answers
+ * "304 Not Modified" to a request whose If-None-Match matches it; it counts both kinds of answers.
+ * Failures can be queued, each answering one request with an error status instead.
+ */
+class PokeApiTestServer implements AutoCloseable {
+    private static final String POKEMON_PATH = "/api/v2/pokemon/";
+
+    private final HttpServer server;
+    private final Map<Integer, String> documents = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger notModifiedCount = new AtomicInteger();
+    private volatile String cacheControl;  // null to send no Cache-Control header
+    private final Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor for PokeApiTestServer.
+     * Starts the server on a free loopback port, serving no document.
+     *
+     * @throws IOException if the server cannot be started.
+     */
+    PokeApiTestServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(POKEMON_PATH, this::handle);
+        server.start();
+    }
+
+    /**
+     * Serves the pokemon document of a Pokémon, without species, replacing the previous one.
+     */
+    void putPokemon(int id, String name, int height, int weight) {
+        documents.put(id, "{\"id\":" + id + ",\"name\":\"" + name + "\",\"height\":" + height
+                + ",\"weight\":" + weight + "}");
+    }
+
+    /**
+     * Sets the Cache-Control header of the following answers, or null to send none.
+     */
+    void setCacheControl(String cacheControl) {
+        this.cacheControl = cacheControl;
+    }
+
+    /**
+     * Answers the following requests with an error status, whatever their path.
+     *
+     * @param count The number of requests failing.
+     * @param status The HTTP status of the answers, such as 429 or 503.
+     * @param retryAfter The Retry-After header of the answers, or null to send none.
+     */
+    void failNextRequests(int count, int status, String retryAfter) {
+        for (int i = 0; i < count; i++) {
+            failures.add(new Failure(status, retryAfter));
+        }
+    }
+
+    /**
+     * @return The URL of the pokemon endpoint, to be given to a PokeApiService.
+     */
+    String getApiUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + POKEMON_PATH;
+    }
+
+    /**
+     * @return The number of requests received.
+     */
+    int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return The number of requests answered by "304 Not Modified".
+     */
+    int getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            // The request body is read first: the server closes the connection of a body-less answer otherwise
+            exchange.getRequestBody().close();
+            Failure failure = failures.poll();
+            if (failure != null) {
+                if (failure.retryAfter != null) {
+                    exchange.getResponseHeaders().set("Retry-After", failure.retryAfter);
+                }
+                exchange.sendResponseHeaders(failure.status, -1);
+                return;
+            }
+            String document = null;
+            try {
+                document = documents.get(Integer.parseInt(exchange.getRequestURI().getPath().substring(POKEMON_PATH.length())));
+            } catch (NumberFormatException e) {
+                // Unknown paths are not found
+            }
+            if (document == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            String etag = "\"" + Integer.toHexString(document.hashCode()) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (cacheControl != null) {
+                exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+            }
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedCount.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            byte[] body = document.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * A queued error answer.
+     */
+    private static class Failure {
+        private final int status;
+        private final String retryAfter;
+
+        Failure(int status, String retryAfter) {
+            this.status = status;
+            this.retryAfter = retryAfter;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.pokedex.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the name folding and of the exact, prefix and approximate searches.
+ */
+class PokemonNameIndexTest {
+
+    private static PokemonNameIndex index() {
+        Map<Integer, String> names = new HashMap<>();
+        names.put(1, "bulbasaur");
+        names.put(2, "ivysaur");
+        names.put(3, "venusaur");
+        names.put(25, "pikachu");
+        names.put(26, "raichu");
+        names.put(83, "farfetchd");
+        names.put(122, "mr-mime");
+        names.put(172, "pichu");
+        names.put(669, "flabebe");
+        return new PokemonNameIndex(names);
+    }
+
+    @Test
+    void foldsNamesForComparison() {
+        assertEquals("mr-mime", PokemonNameIndex.fold("Mr. Mime"));
+        assertEquals("mr-mime", PokemonNameIndex.fold("  MR MIME "));
+        assertEquals("flabebe", PokemonNameIndex.fold("Flabébé"));
+        assertEquals("farfetchd", PokemonNameIndex.fold("Farfetch’d"));
+        assertEquals("farfetchd", PokemonNameIndex.fold("Farfetch'd"));
+        assertEquals("porygon-z", PokemonNameIndex.fold("Porygon--Z"));
+        assertEquals("", PokemonNameIndex.fold(""));
+    }
+
+    @Test
+    void findsExactNames() {
+        PokemonNameIndex index = index();
+
+        assertEquals(122, index.findExact("Mr. Mime"));
+        assertEquals(669, index.findExact("FLABÉBÉ"));
+        assertEquals(83, index.findExact("Farfetch’d"));
+        assertEquals(-1, index.findExact("missingno"));
+        assertEquals(-1, index.findExact("pika"));
+    }
+
+    @Test
+    void findsPrefixesInAlphabeticalOrder() {
+        PokemonNameIndex index = index();
+
+        assertEquals(Arrays.asList(172, 25), index.findByPrefix("Pi", 10));
+        assertEquals(Collections.singletonList(172), index.findByPrefix("pi", 1));
+        assertEquals(Collections.singletonList(25), index.findByPrefix("pikachu", 10));
+        assertEquals(Collections.emptyList(), index.findByPrefix("z", 10));
+        assertEquals(9, index.findByPrefix("", 100).size());
+    }
+
+    @Test
+    void findsApproximateNamesClosestFirst() {
+        PokemonNameIndex index = index();
+
+        assertEquals(Arrays.asList(25, 172), index.findApproximate("pikachu", 2, 10));
+        assertEquals(Collections.singletonList(25), index.findApproximate("pikachuu", 1, 10));
+        assertEquals(Arrays.asList(172, 25), index.findApproximate("pikchu", 1, 10));
+        assertEquals(Collections.singletonList(25), index.findApproximate("pikachu", 2, 1));
+        assertEquals(Collections.emptyList(), index.findApproximate("charmander", 2, 10));
+    }
+
+    @Test
+    void capsTheEditDistance() {
+        PokemonNameIndex index = index();
+
+        // "bulba" is 4 edits away from "bulbasaur", beyond the cap whatever the requested distance
+        assertEquals(Collections.emptyList(), index.findApproximate("bulba", 10, 10));
+        assertEquals(Collections.singletonList(1), index.findApproximate("bulbasa", 10, 10));
+    }
+
+    @Test
+    void listsTheIndexedIds() {
+        PokemonNameIndex index = index();
+
+        assertEquals(9, index.size());
+        assertEquals(Arrays.asList(1, 2, 3, 25, 26, 83, 122, 172, 669), index.getIds());
+    }
+}
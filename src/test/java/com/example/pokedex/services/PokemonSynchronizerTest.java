@@ -0,0 +1,117 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the conditional requests of the PokeAPI service and of the incremental synchronization
+ * of a SQLite database, against a local server.
+ */
+class PokemonSynchronizerTest {
+
+    @TempDir
+    Path directory;
+
+    private PokeApiTestServer server;
+    private PokeApiService service;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new PokeApiTestServer();
+        server.putPokemon(1, "bulbasaur", 7, 69);
+        server.putPokemon(2, "ivysaur", 10, 130);
+        service = new PokeApiService(server.getApiUrl());
+    }
+
+    @AfterEach
+    void stop() {
+        service.close();
+        server.close();
+    }
+
+    @Test
+    void hashesOnlyTheStoredFields() {
+        String hash = PokemonRevision.contentHash(new Pokemon(1, "bulbasaur", 7, 69));
+
+        assertEquals(64, hash.length());
+        assertEquals(hash, PokemonRevision.contentHash(new Pokemon(1, "bulbasaur", 7, 69)));
+        assertEquals(hash, PokemonRevision.contentHash(new DetailedPokemon(1, "bulbasaur", 7, 69, "A seed.")));
+        assertNotEquals(hash, PokemonRevision.contentHash(new Pokemon(1, "bulbasaur", 8, 69)));
+        assertNotEquals(hash, PokemonRevision.contentHash(new Pokemon(1, "bulbasaur", 7, 70)));
+        assertNotEquals(hash, PokemonRevision.contentHash(new Pokemon(1, "ivysaur", 7, 69)));
+    }
+
+    @Test
+    void fetchesAPokemonOnlyIfItChanged() throws PokeApiException {
+        PokeApiService.ConditionalPokemon first = service.fetchPokemonIfChanged(1, null);
+        assertTrue(first.isModified());
+        assertEquals("bulbasaur", first.getPokemon().getName());
+        assertNotNull(first.getEtag());
+
+        PokemonRevision revision = new PokemonRevision(first.getEtag(), first.getLastModified(),
+                PokemonRevision.contentHash(first.getPokemon()));
+        PokeApiService.ConditionalPokemon second = service.fetchPokemonIfChanged(1, revision);
+        assertFalse(second.isModified());
+        assertNull(second.getPokemon());
+        assertEquals(first.getEtag(), second.getEtag());
+        assertEquals(1, server.getNotModifiedCount());
+
+        server.putPokemon(1, "bulbasaur", 8, 69);
+        PokeApiService.ConditionalPokemon third = service.fetchPokemonIfChanged(1, revision);
+        assertTrue(third.isModified());
+        assertEquals(8, third.getPokemon().getHeight());
+        assertNotEquals(first.getEtag(), third.getEtag());
+    }
+
+    @Test
+    void writesOnlyChangedPokemon() throws SQLException {
+        String dbPath = directory.resolve("pokedex.db").toString();
+        PokemonSynchronizer synchronizer = new PokemonSynchronizer(service);
+
+        PokemonSynchronizer.SyncSummary first = synchronizer.syncInto(dbPath, Arrays.asList(1, 2, 3), null);
+        assertEquals(3, first.getRequestedCount());
+        assertEquals(2, first.getUpdatedCount());
+        assertEquals(Collections.singletonList(3), first.getMissingIds());
+        assertEquals(Collections.emptyList(), first.getFailedIds());
+
+        PokemonSynchronizer.SyncSummary second = synchronizer.syncInto(dbPath, Arrays.asList(1, 2), null);
+        assertEquals(0, second.getUpdatedCount());
+        assertEquals(2, second.getNotModifiedCount());
+
+        server.putPokemon(2, "ivysaur", 11, 130);
+        PokemonSynchronizer.SyncSummary third = synchronizer.syncInto(dbPath, Arrays.asList(1, 2), null);
+        assertEquals(1, third.getUpdatedCount());
+        assertEquals(1, third.getNotModifiedCount());
+
+        try (SQLitePokemonService database = new SQLitePokemonService(dbPath)) {
+            assertEquals(7, database.getPokemonById(1).getHeight());
+            assertEquals(11, database.getPokemonById(2).getHeight());
+            assertNull(database.getPokemonById(3));
+        }
+        try (SQLitePokemonWriter writer = new SQLitePokemonWriter(dbPath)) {
+            Map<Integer, PokemonRevision> revisions = writer.getRevisions(Arrays.asList(1, 2, 3));
+            assertEquals(2, revisions.size());
+            assertEquals(PokemonRevision.contentHash(new Pokemon(2, "ivysaur", 11, 130)),
+                    revisions.get(2).getContentHash());
+            assertNotNull(revisions.get(2).getEtag());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.Pokemon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the height and weight queries of the SQLite service and of the indexes they create.
+ */
+class SQLitePokemonServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void createsTheIndexesOnceTheDatabaseIsNoLongerLocked() throws SQLException {
+        String dbPath = directory.resolve("pokedex.db").toString();
+        try (SQLitePokemonWriter writer = new SQLitePokemonWriter(dbPath)) {
+            writer.write(Arrays.asList(new Pokemon(1, "bulbasaur", 7, 69), new Pokemon(2, "ivysaur", 10, 130),
+                    new Pokemon(3, "venusaur", 20, 1000)));
+            writer.dropSecondaryIndexes();
+        }
+
+        try (SQLitePokemonService service = new SQLitePokemonService(dbPath);
+             Connection writer = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+             Statement stmt = writer.createStatement()) {
+            // Another writer holds the database: the query scans the table and the indexes wait
+            stmt.execute("BEGIN IMMEDIATE");
+            List<Pokemon> found = new ArrayList<>();
+            assertEquals(2, service.findPokemon(PokemonQuery.weightBetween(100, 2000), found::add));
+            assertEquals(Arrays.asList(2, 3), TestPokemons.ids(found));
+            stmt.execute("ROLLBACK");
+            assertEquals(0, countSecondaryIndexes(stmt));
+
+            assertEquals(1, service.findPokemon(PokemonQuery.heightBetween(15, 30), pokemon -> { }));
+            assertEquals(2, countSecondaryIndexes(stmt));
+        }
+    }
+
+    private static int countSecondaryIndexes(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM sqlite_master WHERE type = 'index' "
+                + "AND name IN ('pokemons_height', 'pokemons_weight')")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the snapshot round trip through {@link PokemonSnapshotWriter} and of the checks made on opening.
+ */
+class SnapshotPokemonServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackTheWrittenPokemon() throws IOException {
+        Path snapshot = directory.resolve("pokedex.snapshot");
+        PokemonSnapshotWriter.write(Arrays.asList(
+                new DetailedPokemon(1, "bulbasaur", 7, 69, "A strange seed was planted on its back at birth."),
+                new Pokemon(2, "ivysaur", 10, 130),
+                new DetailedPokemon(669, "flabébé", 1, 1, "It draws out the power of flowers.")), snapshot);
+
+        SnapshotPokemonService service = SnapshotPokemonService.open(snapshot);
+
+        assertEquals(3, service.size());
+        Pokemon bulbasaur = service.getPokemonById(1);
+        assertEquals("bulbasaur", bulbasaur.getName());
+        assertEquals(7, bulbasaur.getHeight());
+        assertEquals(69, bulbasaur.getWeight());
+        assertEquals("A strange seed was planted on its back at birth.",
+                assertInstanceOf(DetailedPokemon.class, bulbasaur).getDescription());
+        assertFalse(service.getPokemonById(2) instanceof DetailedPokemon);
+        assertEquals("flabébé", service.getPokemonById(669).getName());
+        assertEquals(669, service.getNameIndex().findExact("Flabebe"));
+    }
+
+    @Test
+    void opensAnEmptySnapshot() throws IOException {
+        Path snapshot = directory.resolve("empty.snapshot");
+        PokemonSnapshotWriter.write(Collections.emptyList(), snapshot);
+
+        SnapshotPokemonService service = SnapshotPokemonService.open(snapshot);
+
+        assertEquals(0, service.size());
+        assertNull(service.getPokemonById(1));
+        assertEquals(Collections.emptyList(), service.getPokemonByRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(0, service.findPokemon(PokemonQuery.heightBetween(0, Integer.MAX_VALUE), pokemon -> { }));
+        assertEquals(0, service.getNameIndex().size());
+    }
+
+    @Test
+    void findsSparseIds() throws IOException {
+        Path snapshot = directory.resolve("sparse.snapshot");
+        PokemonSnapshotWriter.write(Arrays.asList(
+                new Pokemon(1000, "c", 30, 300), new Pokemon(1, "a", 10, 100), new Pokemon(5, "b", 20, 200)), snapshot);
+
+        SnapshotPokemonService service = SnapshotPokemonService.open(snapshot);
+
+        assertEquals("a", service.getPokemonById(1).getName());
+        assertEquals("b", service.getPokemonById(5).getName());
+        assertEquals("c", service.getPokemonById(1000).getName());
+        assertNull(service.getPokemonById(0));
+        assertNull(service.getPokemonById(4));
+        assertNull(service.getPokemonById(1001));
+        assertEquals(Arrays.asList(5, 1000), TestPokemons.ids(service.getPokemonByRange(2, 1000)));
+        List<Pokemon> found = new ArrayList<>();
+        assertEquals(2, service.findPokemon(PokemonQuery.weightBetween(150, 1000), found::add));
+        assertEquals(Arrays.asList(5, 1000), TestPokemons.ids(found));
+    }
+
+    @Test
+    void rejectsATruncatedSnapshot() throws IOException {
+        Path snapshot = writeSample();
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> SnapshotPokemonService.open(snapshot));
+
+        Files.write(snapshot, Arrays.copyOf(bytes, SnapshotPokemonService.HEADER_SIZE + 4));
+        assertThrows(IOException.class, () -> SnapshotPokemonService.open(snapshot));
+
+        Files.write(snapshot, Arrays.copyOf(bytes, 8));
+        assertThrows(IOException.class, () -> SnapshotPokemonService.open(snapshot));
+    }
+
+    @Test
+    void rejectsAnotherFile() throws IOException {
+        Path file = directory.resolve("other.bin");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IOException.class, () -> SnapshotPokemonService.open(file));
+    }
+
+    @Test
+    void rejectsIdsOutOfOrder() throws IOException {
+        Path snapshot = writeSample();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+        // Swaps the IDs of the first two records
+        int first = buffer.getInt(SnapshotPokemonService.HEADER_SIZE);
+        int second = buffer.getInt(SnapshotPokemonService.HEADER_SIZE + SnapshotPokemonService.RECORD_SIZE);
+        buffer.putInt(SnapshotPokemonService.HEADER_SIZE, second);
+        buffer.putInt(SnapshotPokemonService.HEADER_SIZE + SnapshotPokemonService.RECORD_SIZE, first);
+        Files.write(snapshot, buffer.array());
+
+        assertThrows(IOException.class, () -> SnapshotPokemonService.open(snapshot));
+    }
+
+    @Test
+    void rejectsDecreasingStringOffsets() throws IOException {
+        Path snapshot = writeSample();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+        int stringTableOffset = (int) buffer.getLong(16);
+        // The end offset of the first name goes past the end of the second one
+        buffer.putInt(stringTableOffset + Integer.BYTES, 1_000);
+        Files.write(snapshot, buffer.array());
+
+        assertThrows(IOException.class, () -> SnapshotPokemonService.open(snapshot));
+    }
+
+    private Path writeSample() throws IOException {
+        Path snapshot = directory.resolve("sample.snapshot");
+        PokemonSnapshotWriter.write(Arrays.asList(
+                new Pokemon(1, "bulbasaur", 7, 69), new Pokemon(2, "ivysaur", 10, 130),
+                new Pokemon(3, "venusaur", 20, 1000)), snapshot);
+        return snapshot;
+    }
+}
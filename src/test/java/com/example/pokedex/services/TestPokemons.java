@@ -0,0 +1,26 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.Pokemon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers shared by the data service tests.
+ */
+final class TestPokemons {
+
+    private TestPokemons() {
+    }
+
+    /**
+     * @return The IDs of the given Pokémon, in the same order.
+     */
+    static List<Integer> ids(List<Pokemon> pokemons) {
+        List<Integer> ids = new ArrayList<>();
+        for (Pokemon pokemon : pokemons) {
+            ids.add(pokemon.getId());
+        }
+        return ids;
+    }
+}
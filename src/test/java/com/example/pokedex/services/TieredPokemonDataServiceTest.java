@@ -0,0 +1,89 @@
+package com.example.pokedex.services;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Tests of the write-back of the Pokémon fetched from the remote tier.
+ */
+class TieredPokemonDataServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void storesDescriptionsNotDisplayedYet() throws SQLException {
+        String dbPath = directory.resolve("store.db").toString();
+        LazyRemoteService remote = new LazyRemoteService();
+
+        try (TieredPokemonDataService service = new TieredPokemonDataService(dbPath, remote,
+                TieredPokemonDataService.DEFAULT_MAX_AGE_MILLIS, 2)) {
+            // More Pokémon than the write batch, so they are written before anything reads them
+            assertEquals(5, service.getPokemonByIds(Arrays.asList(1, 2, 3, 4, 5)).size());
+
+            try (SQLitePokemonService local = new SQLitePokemonService(dbPath)) {
+                for (int id = 1; id <= 5; id++) {
+                    assertEquals("description " + id,
+                            assertInstanceOf(DetailedPokemon.class, local.getPokemonById(id)).getDescription());
+                }
+            }
+            assertEquals(5, remote.descriptionLoads.get());
+        }
+    }
+
+    @Test
+    void answersFromTheLocalTierOnceStored() throws SQLException {
+        String dbPath = directory.resolve("store.db").toString();
+        LazyRemoteService remote = new LazyRemoteService();
+
+        try (TieredPokemonDataService service = new TieredPokemonDataService(dbPath, remote)) {
+            service.getPokemonByIds(Arrays.asList(1, 2, 3));
+        }
+        LazyRemoteService secondRemote = new LazyRemoteService();
+        try (TieredPokemonDataService service = new TieredPokemonDataService(dbPath, secondRemote)) {
+            Pokemon pokemon = service.getPokemonById(2);
+
+            assertEquals("description 2", assertInstanceOf(DetailedPokemon.class, pokemon).getDescription());
+            assertEquals(0, secondRemote.lookups.get());
+        }
+    }
+
+    /**
+     * Remote service whose Pokémon load their description lazily, as those of the PokeAPI do.
+     */
+    private static class LazyRemoteService implements PokemonDataService {
+        private final AtomicInteger lookups = new AtomicInteger();
+        private final AtomicInteger descriptionLoads = new AtomicInteger();
+
+        @Override
+        public Pokemon getPokemonById(int id) {
+            return getPokemonByIds(Arrays.asList(id)).get(0);
+        }
+
+        @Override
+        public List<Pokemon> getPokemonByIds(Collection<Integer> ids) {
+            lookups.incrementAndGet();
+            List<Pokemon> pokemons = new ArrayList<>();
+            for (int id : ids) {
+                pokemons.add(new DetailedPokemon(new Pokemon(id, "pokemon-" + id, id, id * 10), () -> {
+                    descriptionLoads.incrementAndGet();
+                    return "description " + id;
+                }, null));
+            }
+            return pokemons;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.pokedex.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the parsing and formatting of ID lists.
+ */
+class PokemonIdParserTest {
+
+    @Test
+    void parsesIdsAndRanges() {
+        assertEquals(Arrays.asList(1, 2, 3, 25, 150, 151), PokemonIdParser.parse("1-3, 25,150-151"));
+        assertThrows(IllegalArgumentException.class, () -> PokemonIdParser.parse("3-1"));
+        assertThrows(IllegalArgumentException.class, () -> PokemonIdParser.parse("pikachu"));
+        assertThrows(IllegalArgumentException.class, () -> PokemonIdParser.parse("1-" + (PokemonIdParser.MAX_IDS + 1)));
+    }
+
+    @Test
+    void formatsRunsOfConsecutiveIdsAsRanges() {
+        assertEquals("1-3,25,150-151", PokemonIdParser.format(Arrays.asList(1, 2, 3, 25, 150, 151)));
+        assertEquals("7,5", PokemonIdParser.format(Arrays.asList(7, 5)));
+        assertEquals("", PokemonIdParser.format(Collections.emptyList()));
+        assertEquals((Integer.MAX_VALUE - 1) + "-" + Integer.MAX_VALUE + ",1",
+                PokemonIdParser.format(Arrays.asList(Integer.MAX_VALUE - 1, Integer.MAX_VALUE, 1)));
+    }
+}
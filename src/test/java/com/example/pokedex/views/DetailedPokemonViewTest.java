@@ -0,0 +1,80 @@
+package com.example.pokedex.views;
+
+import com.example.pokedex.models.DetailedPokemon;
+import com.example.pokedex.models.Pokemon;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the details written by the view of a Pokémon whose details are loaded lazily.
+ */
+class DetailedPokemonViewTest {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private DetailedPokemon lazyPokemon() {
+        return new DetailedPokemon(new Pokemon(25, "pikachu", 4, 60),
+                () -> {
+                    loads.incrementAndGet();
+                    return "It keeps its tail raised.";
+                },
+                () -> {
+                    loads.incrementAndGet();
+                    return Arrays.asList("pichu", "pikachu", "raichu");
+                });
+    }
+
+    @Test
+    void leavesOutDetailsNotLoaded() {
+        PokemonView view = PokemonView.forPokemon(lazyPokemon());
+
+        String text = view.generateHumanReadableText();
+        String json = view.generateJSON();
+        view.generateHTML();
+        String csv = view.generateCSV();
+
+        assertEquals(0, loads.get());
+        assertFalse(text.contains("Description"));
+        assertFalse(json.contains("evolutionChain"));
+        assertTrue(json.contains("\"description\":null"));
+        assertTrue(csv.endsWith(";\"\"\n"), csv);
+    }
+
+    @Test
+    void writesDetailsLoadedElsewhere() {
+        DetailedPokemon pokemon = lazyPokemon();
+        pokemon.getDescription();
+
+        String text = PokemonView.forPokemon(pokemon).generateHumanReadableText();
+
+        assertEquals(1, loads.get());
+        assertTrue(text.contains("Description : It keeps its tail raised."));
+        assertFalse(text.contains("Évolutions"));
+    }
+
+    @Test
+    void loadsDetailsWhenAsked() {
+        PokemonView view = PokemonView.forPokemon(lazyPokemon(), true);
+
+        String text = view.generateHumanReadableText();
+        String html = view.generateHTML();
+
+        assertEquals(2, loads.get());
+        assertTrue(text.contains("Description : It keeps its tail raised."));
+        assertTrue(text.contains("Évolutions : pichu > pikachu > raichu"));
+        assertTrue(html.contains("pichu &gt; pikachu &gt; raichu"));
+    }
+
+    @Test
+    void alwaysWritesStoredDescriptions() {
+        String text = PokemonView.forPokemon(new DetailedPokemon(1, "bulbasaur", 7, 69, "A strange seed."))
+                .generateHumanReadableText();
+
+        assertTrue(text.contains("Description : A strange seed."));
+    }
+}